@@ -0,0 +1,127 @@
+package com.netsim.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Mac;
+import com.netsim.addresses.Port;
+import com.netsim.engine.EventScheduler;
+import com.netsim.network.CabledAdapter;
+import com.netsim.network.Node;
+import com.netsim.network.capture.CaptureFilter;
+import com.netsim.network.capture.CaptureTap;
+import com.netsim.networkstack.PacketBuffer;
+import com.netsim.networkstack.PacketBufferPool;
+import com.netsim.networkstack.ProtocolPipeline;
+import com.netsim.protocols.SimpleDLL.SimpleDLLProtocol;
+
+/**
+ * Frames sent round-robin over {@code links} cables, each with a
+ * {@link CaptureTap} on both ends. {@code capture=none} attaches no tap,
+ * {@code all} keeps every frame and {@code filtered} uses a port filter
+ * that refuses them, so the cost of the filter and of staging a frame can
+ * be read against plain forwarding.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CaptureBenchmark {
+    @Param({"1", "1000"})
+    public int links;
+
+    @Param({"none", "all", "filtered"})
+    public String capture;
+
+    private EventScheduler   scheduler;
+    private CabledAdapter[]  senders;
+    private CaptureTap[]     taps;
+    private Path             directory;
+    private byte[]           packet;
+    private PacketBufferPool pool;
+    private int              next;
+    private long             delivered;
+
+    @Setup
+    public void setup() throws IOException {
+        this.scheduler = new EventScheduler();
+        this.pool      = PacketBufferPool.getInstance();
+        this.directory = Files.createTempDirectory("capture");
+        this.senders   = new CabledAdapter[this.links];
+        this.taps      = new CaptureTap[2 * this.links];
+        Node sink = new Node() {
+            public void send(IPv4 destination, ProtocolPipeline protocols, byte[] data) {}
+            public void receive(ProtocolPipeline protocols, byte[] data) {}
+            public void receiveInPlace(ProtocolPipeline protocols, PacketBuffer packet) {
+                CaptureBenchmark.this.delivered += packet.length();
+                packet.release();
+            }
+            public String getName() { return "sink"; }
+        };
+        for (int i = 0; i < this.links; i++) {
+            CabledAdapter sender   = new CabledAdapter("a" + i, 1500, mac(2 * i));
+            CabledAdapter receiver = new CabledAdapter("b" + i, 1500, mac(2 * i + 1));
+            sender.setRemoteAdapter(receiver);
+            receiver.setRemoteAdapter(sender);
+            sender.setScheduler(this.scheduler);
+            receiver.setScheduler(this.scheduler);
+            receiver.setOwner(sink);
+            if (!this.capture.equals("none")) {
+                CaptureFilter filter = this.capture.equals("all")
+                    ? CaptureFilter.all()
+                    : CaptureFilter.port(new Port("9999"));
+                this.taps[2 * i]     = new CaptureTap(this.directory.resolve(i + "a.pcap"), filter);
+                this.taps[2 * i + 1] = new CaptureTap(this.directory.resolve(i + "b.pcap"), filter);
+                sender.setCaptureTap(this.taps[2 * i]);
+                receiver.setCaptureTap(this.taps[2 * i + 1]);
+            }
+            this.senders[i] = sender;
+        }
+        this.packet    = new byte[64];
+        this.packet[0] = 0x45;
+        this.packet[3] = 64;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        for (CaptureTap tap : this.taps) {
+            if (tap != null) {
+                tap.close();
+                Files.delete(tap.getFile());
+            }
+        }
+        Files.delete(this.directory);
+    }
+
+    private static Mac mac(int index) {
+        return new Mac(String.format("02:00:00:%02x:%02x:%02x",
+                                     (index >> 16) & 0xFF, (index >> 8) & 0xFF, index & 0xFF));
+    }
+
+    @Benchmark
+    public long forward() {
+        CabledAdapter sender = this.senders[this.next];
+        this.next = this.next + 1 == this.senders.length ? 0 : this.next + 1;
+        sender.sendInPlace(new ProtocolPipeline(), this.pool.acquire(this.packet), SimpleDLLProtocol.ETHERTYPE_IPV4);
+        this.scheduler.run();
+        return this.delivered;
+    }
+}
@@ -0,0 +1,117 @@
+package com.netsim.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Mac;
+import com.netsim.network.CabledAdapter;
+import com.netsim.table.RoutingInfo;
+import com.netsim.table.RoutingTable;
+
+/**
+ * {@link RoutingTable#lookup} on a table of 100k routes while it is being
+ * rewritten. In the {@code churn} group three threads look up addresses
+ * while a fourth replaces every route in one
+ * {@link RoutingTable#update update} per call. The {@code quiet} group
+ * runs the same three readers with no writer, so the gap between the two
+ * is what concurrent updates cost the forwarding path.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class ConcurrentRoutingBenchmark {
+    private static final int ROUTES = 100_000;
+    private static final int PROBES = 4096;
+
+    private RoutingTable  table;
+    private IPv4[]        prefixes;
+    private RoutingInfo[] hops;
+    private IPv4[]        probes;
+    private int           round;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup
+    public void setup() {
+        this.hops = new RoutingInfo[2];
+        for (int i = 0; i < this.hops.length; i++) {
+            String mac = String.format("aa:bb:cc:00:00:%02x", i);
+            this.hops[i] = new RoutingInfo(new CabledAdapter("eth" + i, 1500, new Mac(mac)), null);
+        }
+        this.prefixes = new IPv4[ROUTES];
+        for (int i = 0; i < ROUTES; i++) {
+            this.prefixes[i] = new IPv4((10 + (i >> 16)) + "." + ((i >> 8) & 0xFF) + "." + (i & 0xFF) + ".0", 24);
+        }
+        this.table = new RoutingTable();
+        this.rewrite();
+
+        SplittableRandom rnd = new SplittableRandom(7);
+        this.probes = new IPv4[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            int route = rnd.nextInt(ROUTES);
+            this.probes[i] = new IPv4((10 + (route >> 16)) + "." + ((route >> 8) & 0xFF) + "."
+                                      + (route & 0xFF) + "." + (1 + rnd.nextInt(254)), 32);
+        }
+    }
+
+    private RoutingInfo lookup(Cursor cursor) {
+        IPv4 probe = this.probes[cursor.next];
+        cursor.next = (cursor.next + 1) & (PROBES - 1);
+        return this.table.lookup(probe);
+    }
+
+    @Benchmark
+    @Group("quiet")
+    @GroupThreads(3)
+    public RoutingInfo quiet(Cursor cursor) {
+        return this.lookup(cursor);
+    }
+
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(3)
+    public RoutingInfo reader(Cursor cursor) {
+        return this.lookup(cursor);
+    }
+
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(1)
+    public long writer() {
+        return this.rewrite();
+    }
+
+    /**
+     * Replaces every route with one through the other next hop.
+     */
+    private long rewrite() {
+        RoutingInfo via = this.hops[this.round++ & 1];
+        this.table.update(t -> {
+            t.clear();
+            for (IPv4 prefix : this.prefixes) {
+                t.add(prefix, via);
+            }
+        });
+        return this.table.getGeneration();
+    }
+}
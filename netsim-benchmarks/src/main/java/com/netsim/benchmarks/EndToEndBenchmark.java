@@ -0,0 +1,155 @@
+package com.netsim.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Mac;
+import com.netsim.app.App;
+import com.netsim.app.msg.MsgCommandFactory;
+import com.netsim.engine.EventScheduler;
+import com.netsim.network.CabledAdapter;
+import com.netsim.network.Interface;
+import com.netsim.network.NetworkNode;
+import com.netsim.network.host.Host;
+import com.netsim.network.host.HostBuilder;
+import com.netsim.network.router.Router;
+import com.netsim.network.router.RouterBuilder;
+import com.netsim.network.server.Server;
+import com.netsim.network.server.ServerBuilder;
+import com.netsim.networkstack.ProtocolPipeline;
+import com.netsim.protocols.MSG.MSGProtocol;
+import com.netsim.protocols.UDP.UDPProtocol;
+
+/**
+ * One message from a host through a router to a server, over the
+ * topology of {@code Demo2}: the host wraps it in MSG and UDP as
+ * {@code MsgClient} does and sends it; the server's application strips
+ * UDP and MSG. Each operation runs the simulation until the message has
+ * been delivered.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EndToEndBenchmark {
+    @Param({"64", "1400", "8000"})
+    public int size;
+
+    private EventScheduler scheduler;
+    private Host           host;
+    private IPv4           serverIp;
+    private MSGProtocol    msg;
+    private UDPProtocol    udp;
+    private byte[]         payload;
+    private long           delivered;
+
+    /** Server application that consumes messages without replying. */
+    private final class Sink extends App {
+        Sink(NetworkNode node) {
+            super("sink", "sink", new MsgCommandFactory(), node);
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void send(ProtocolPipeline stack, byte[] data) {
+        }
+
+        @Override
+        public void receive(ProtocolPipeline stack, byte[] data) {
+            byte[] message = stack.pop().decapsulate(data);
+            EndToEndBenchmark.this.delivered += stack.pop().decapsulate(message).length;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        IPv4 ipH1  = new IPv4("10.0.0.2", 30);
+        IPv4 ipSrv = new IPv4("10.0.2.2", 30);
+        IPv4 ipR1  = new IPv4("10.0.0.1", 30);
+        IPv4 ipR3  = new IPv4("10.0.2.1", 30);
+
+        Mac macH1  = new Mac("02:00:00:00:00:11");
+        Mac macSrv = new Mac("02:00:00:00:00:33");
+        Mac macR1  = new Mac("02:00:00:00:00:41");
+        Mac macR3  = new Mac("02:00:00:00:00:43");
+
+        CabledAdapter aH1  = new CabledAdapter("h1-adapter", 1500, macH1);
+        CabledAdapter aSrv = new CabledAdapter("srv-adapter", 1500, macSrv);
+        CabledAdapter aR1  = new CabledAdapter("r1-adapter", 1500, macR1);
+        CabledAdapter aR3  = new CabledAdapter("r3-adapter", 1500, macR3);
+        aH1.setRemoteAdapter(aR1);  aR1.setRemoteAdapter(aH1);
+        aSrv.setRemoteAdapter(aR3); aR3.setRemoteAdapter(aSrv);
+
+        Router router = new RouterBuilder()
+            .setName("Router")
+            .addInterface(new Interface(aR1, ipR1))
+            .addInterface(new Interface(aR3, ipR3))
+            .addRoute(new IPv4("10.0.0.0", 30), "r1-adapter", null)
+            .addRoute(new IPv4("10.0.2.0", 30), "r3-adapter", null)
+            .addArpEntry(ipH1, macH1)
+            .addArpEntry(ipSrv, macSrv)
+            .build();
+
+        Server<Sink> server = new ServerBuilder<Sink>()
+            .setName("Server")
+            .addInterface(new Interface(aSrv, ipSrv))
+            .addRoute(new IPv4("10.0.0.0", 30), "srv-adapter", ipR3)
+            .addArpEntry(ipR3, macR3)
+            .build();
+        server.setApp(new Sink(server));
+
+        this.host = new HostBuilder()
+            .setName("Host1")
+            .addInterface(new Interface(aH1, ipH1))
+            .addRoute(new IPv4("0.0.0.0", 0), "h1-adapter", ipR1)
+            .addArpEntry(ipR1, macR1)
+            .build();
+
+        aH1.setOwner(this.host);
+        aSrv.setOwner(server);
+        aR1.setOwner(router);
+        aR3.setOwner(router);
+
+        this.scheduler = new EventScheduler();
+        for (CabledAdapter adapter : new CabledAdapter[] {aH1, aSrv, aR1, aR3}) {
+            adapter.setScheduler(this.scheduler);
+        }
+        this.host.setScheduler(this.scheduler);
+        router.setScheduler(this.scheduler);
+        server.setScheduler(this.scheduler);
+
+        this.serverIp = ipSrv;
+        this.msg      = new MSGProtocol("bench");
+        this.udp      = new UDPProtocol(this.host.getMTU() - 20 - 20, this.host.randomPort(), MSGProtocol.port());
+        this.payload  = Payloads.of(this.size);
+    }
+
+    @Benchmark
+    public long send() {
+        ProtocolPipeline stack = new ProtocolPipeline();
+        byte[] data = this.msg.encapsulate(this.payload);
+        stack.push(this.msg);
+        data = this.udp.encapsulate(data);
+        stack.push(this.udp);
+        this.host.send(this.serverIp, stack, data);
+        this.scheduler.run();
+        return this.delivered;
+    }
+}
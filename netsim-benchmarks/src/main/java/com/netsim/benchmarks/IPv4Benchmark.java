@@ -0,0 +1,86 @@
+package com.netsim.benchmarks;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.netsim.addresses.IPv4;
+
+/**
+ * Cost of the IPv4 operations on the forwarding path: equality, hashing
+ * and subnet membership. The {@code legacy*} methods repeat the steps the
+ * byte-array representation used to take (defensive copies of the octets,
+ * re-parsing the network string), without logging; the others call the
+ * packed-int implementation. Run with {@code -prof gc} to compare the
+ * allocation rate as well as the throughput.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IPv4Benchmark {
+    private IPv4   address;
+    private IPv4   same;
+    private byte[] octets;
+    private byte[] sameOctets;
+    private int    network;
+
+    @Setup
+    public void setup() {
+        this.address    = new IPv4("192.168.37.12", 24);
+        this.same       = IPv4.fromInt(this.address.toInt(), 24);
+        this.octets     = this.address.byteRepresentation();
+        this.sameOctets = this.same.byteRepresentation();
+        this.network    = new IPv4("192.168.37.0", 24).toInt();
+    }
+
+    @Benchmark
+    public boolean legacyEquals() {
+        return Arrays.equals(this.octets.clone(), this.sameOctets.clone());
+    }
+
+    @Benchmark
+    public boolean packedEquals() {
+        return this.address.equals(this.same);
+    }
+
+    @Benchmark
+    public int legacyHashCode() {
+        return Arrays.hashCode(this.octets) * 31 + Integer.hashCode(24);
+    }
+
+    @Benchmark
+    public int packedHashCode() {
+        return this.address.hashCode();
+    }
+
+    @Benchmark
+    public boolean legacyIsInSubnet() {
+        String[] parts   = "192.168.37.0".split("\\.", -1);
+        int      netInt  = 0;
+        int      addrInt = 0;
+        for (int i = 0; i < 4; i++) {
+            netInt  = (netInt  << 8) | (Integer.parseInt(parts[i]) & 0xFF);
+            addrInt = (addrInt << 8) | (this.octets[i] & 0xFF);
+        }
+        int maskBits = ~0 << 8;
+        return (addrInt & maskBits) == (netInt & maskBits);
+    }
+
+    @Benchmark
+    public boolean packedIsInSubnet() {
+        return this.address.isInSubnet(this.network, 24);
+    }
+}
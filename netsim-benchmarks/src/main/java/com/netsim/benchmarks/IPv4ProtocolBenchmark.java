@@ -0,0 +1,59 @@
+package com.netsim.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.netsim.addresses.IPv4;
+import com.netsim.protocols.IPv4.IPv4Protocol;
+
+/**
+ * {@link IPv4Protocol} fragmentation ({@code encapsulate}) and reassembly
+ * ({@code decapsulate}) across payload sizes and MTUs. Payloads larger
+ * than the MTU exercise the multi-fragment paths.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IPv4ProtocolBenchmark {
+    @Param({"64", "1400", "8000"})
+    public int size;
+
+    @Param({"576", "1500", "9000"})
+    public int mtu;
+
+    private IPv4Protocol protocol;
+    private byte[]       payload;
+    private byte[]       fragments;
+
+    @Setup
+    public void setup() {
+        this.protocol  = new IPv4Protocol(new IPv4("10.0.0.1", 24), new IPv4("10.0.1.1", 24),
+                                          5, 0, 0, 0, 64, 0, this.mtu);
+        this.payload   = Payloads.of(this.size);
+        this.fragments = this.protocol.encapsulate(this.payload);
+    }
+
+    @Benchmark
+    public byte[] encapsulate() {
+        return this.protocol.encapsulate(this.payload);
+    }
+
+    @Benchmark
+    public byte[] decapsulate() {
+        return this.protocol.decapsulate(this.fragments);
+    }
+}
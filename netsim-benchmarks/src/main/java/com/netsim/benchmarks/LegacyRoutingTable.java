@@ -0,0 +1,61 @@
+package com.netsim.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.netsim.table.RoutingInfo;
+
+/**
+ * Baseline for {@link RoutingLookupBenchmark}: the linear scan that
+ * {@code RoutingTable.lookup} performed before the trie index, i.e. for
+ * every entry the subnet is rendered to a dotted string, re-parsed and
+ * compared under its mask. Logging is left out so that the comparison
+ * measures the algorithm rather than log I/O.
+ */
+final class LegacyRoutingTable {
+    private final List<String>      subnets  = new ArrayList<>();
+    private final List<Integer>     prefixes = new ArrayList<>();
+    private final List<RoutingInfo> routes   = new ArrayList<>();
+
+    void add(String subnet, int prefix, RoutingInfo route) {
+        this.subnets.add(subnet);
+        this.prefixes.add(prefix);
+        this.routes.add(route);
+    }
+
+    RoutingInfo lookup(byte[] destination) {
+        RoutingInfo bestMatch  = null;
+        int         bestPrefix = -1;
+        for (int i = 0; i < this.subnets.size(); i++) {
+            int prefix = this.prefixes.get(i);
+            if (isInSubnet(destination, this.subnets.get(i), prefix) && prefix > bestPrefix) {
+                bestMatch  = this.routes.get(i);
+                bestPrefix = prefix;
+            }
+        }
+        return bestMatch;
+    }
+
+    /** Same steps as {@code IP.isInSubnet(String, int)}. */
+    private static boolean isInSubnet(byte[] address, String networkString, int mask) {
+        byte[] network = parse(networkString);
+        int addrInt = 0;
+        int netInt  = 0;
+        for (int i = 0; i < address.length; i++) {
+            addrInt = (addrInt << 8) | (address[i] & 0xFF);
+            netInt  = (netInt  << 8) | (network[i] & 0xFF);
+        }
+        int maskBits = (mask == 0) ? 0 : (~0 << (8 * address.length - mask));
+        return (addrInt & maskBits) == (netInt & maskBits);
+    }
+
+    /** Same steps as {@code IPv4.parse(String)}. */
+    private static byte[] parse(String address) {
+        String[] parts  = address.trim().split("\\.", -1);
+        byte[]   octets = new byte[4];
+        for (int i = 0; i < 4; i++) {
+            octets[i] = (byte) Integer.parseInt(parts[i]);
+        }
+        return octets;
+    }
+}
@@ -0,0 +1,53 @@
+package com.netsim.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.netsim.protocols.MSG.MSGProtocol;
+
+/**
+ * {@link MSGProtocol} prefixing ({@code encapsulate}) and stripping
+ * ({@code decapsulate}) of the sender's name.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MSGProtocolBenchmark {
+    @Param({"64", "1400", "8000"})
+    public int size;
+
+    private MSGProtocol protocol;
+    private byte[]      payload;
+    private byte[]      message;
+
+    @Setup
+    public void setup() {
+        this.protocol = new MSGProtocol("bench");
+        this.payload  = Payloads.of(this.size);
+        this.message  = this.protocol.encapsulate(this.payload);
+    }
+
+    @Benchmark
+    public byte[] encapsulate() {
+        return this.protocol.encapsulate(this.payload);
+    }
+
+    @Benchmark
+    public byte[] decapsulate() {
+        return this.protocol.decapsulate(this.message);
+    }
+}
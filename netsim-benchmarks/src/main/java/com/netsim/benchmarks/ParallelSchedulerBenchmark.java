@@ -0,0 +1,108 @@
+package com.netsim.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.netsim.engine.LogicalProcess;
+import com.netsim.engine.ParallelSimulator;
+
+/**
+ * Thread scaling of {@link ParallelSimulator} on the PHOLD model: a fixed
+ * population of events hops between partitions, each hop burning a fixed
+ * amount of CPU and rescheduling itself at least one lookahead later on a
+ * random partition. The {@code events} counter reports events per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ParallelSchedulerBenchmark {
+    private static final long LOOKAHEAD = 1_000L;
+    private static final long HORIZON   = 100 * LOOKAHEAD;
+
+    @Param({"1", "2", "4", "8", "16"})
+    public int threads;
+
+    /** Events in flight per partition. */
+    @Param({"256"})
+    public int population;
+
+    /** Blackhole tokens consumed by each event, i.e. the cost of handling one. */
+    @Param({"200"})
+    public int work;
+
+    /** Percentage of hops that target another partition. */
+    @Param({"25"})
+    public int remote;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long events;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            this.events = 0L;
+        }
+    }
+
+    /** Per-partition model state, only touched by that partition's worker. */
+    private final class Partition {
+        private final LogicalProcess   lp;
+        private final long             origin;
+        private final SplittableRandom random;
+        private       long             sequence;
+
+        Partition(LogicalProcess lp, int index) {
+            this.lp     = lp;
+            this.origin = index + 1L;
+            this.random = new SplittableRandom(index);
+        }
+    }
+
+    private Partition[] partitions;
+
+    private void hop(Partition at) {
+        Blackhole.consumeCPU(ParallelSchedulerBenchmark.this.work);
+        Partition target = at.random.nextInt(100) < this.remote
+            ? this.partitions[at.random.nextInt(this.partitions.length)]
+            : at;
+        long time = at.lp.now() + LOOKAHEAD + at.random.nextLong(LOOKAHEAD);
+        target.lp.scheduleAt(time, at.origin, at.sequence++, () -> this.hop(target));
+    }
+
+    @Benchmark
+    public long phold(Counters counters) {
+        ParallelSimulator sim = new ParallelSimulator(this.threads);
+        sim.setLookahead(LOOKAHEAD);
+        this.partitions = new Partition[this.threads];
+        for (int i = 0; i < this.threads; i++) {
+            this.partitions[i] = new Partition(sim.getProcess(i), i);
+        }
+        for (Partition p : this.partitions) {
+            for (int i = 0; i < this.population; i++) {
+                p.lp.scheduleAt(p.random.nextLong(LOOKAHEAD), p.origin, p.sequence++, () -> this.hop(p));
+            }
+        }
+        long events = sim.runUntil(HORIZON);
+        counters.events += events;
+        return events;
+    }
+}
@@ -0,0 +1,21 @@
+package com.netsim.benchmarks;
+
+/**
+ * Deterministic payloads shared by the protocol benchmarks.
+ */
+final class Payloads {
+    private Payloads() {
+    }
+
+    /**
+     * @param size payload length in bytes
+     * @return {@code size} printable bytes cycling through the alphabet
+     */
+    static byte[] of(int size) {
+        byte[] payload = new byte[size];
+        for (int i = 0; i < size; i++) {
+            payload[i] = (byte) ('a' + i % 26);
+        }
+        return payload;
+    }
+}
@@ -0,0 +1,86 @@
+package com.netsim.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Mac;
+import com.netsim.addresses.Port;
+import com.netsim.networkstack.PacketBuffer;
+import com.netsim.networkstack.PacketBufferPool;
+import com.netsim.networkstack.ProtocolPipeline;
+import com.netsim.protocols.IPv4.IPv4Protocol;
+import com.netsim.protocols.MSG.MSGProtocol;
+import com.netsim.protocols.SimpleDLL.SimpleDLLProtocol;
+import com.netsim.protocols.UDP.UDPProtocol;
+
+/**
+ * A payload down and back up the MSG/UDP/IPv4/SimpleDLL stack, through
+ * the byte-array contract ({@code byteArrays}), through a single
+ * {@link PacketBuffer} ({@code inPlace}), and through a buffer taken from
+ * and returned to a {@link PacketBufferPool} ({@code pooled}). Run with
+ * {@code -prof gc} to compare bytes allocated per round trip.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PipelineBenchmark {
+    @Param({"64", "1024"})
+    public int size;
+
+    private ProtocolPipeline pipeline;
+    private PacketBufferPool pool;
+    private byte[]           payload;
+
+    @Setup
+    public void setup() {
+        this.pipeline = new ProtocolPipeline();
+        this.pipeline.push(new SimpleDLLProtocol(new Mac("aa:bb:cc:00:00:01"), new Mac("aa:bb:cc:00:00:02")));
+        this.pipeline.push(new IPv4Protocol(new IPv4("10.0.0.1", 24), new IPv4("10.0.0.2", 24),
+                                            5, 0, 0, 0, 64, 0, 1500));
+        this.pipeline.push(new UDPProtocol(1400, new Port("4000"), MSGProtocol.port()));
+        this.pipeline.push(new MSGProtocol("bench"));
+        this.pool     = new PacketBufferPool(false);
+        this.payload = new byte[this.size];
+        for (int i = 0; i < this.size; i++) {
+            this.payload[i] = (byte) ('a' + i % 26);
+        }
+    }
+
+    @Benchmark
+    public byte[] byteArrays() {
+        return this.pipeline.decapsulate(this.pipeline.encapsulate(this.payload));
+    }
+
+    @Benchmark
+    public PacketBuffer inPlace() {
+        PacketBuffer packet = PacketBuffer.forPayload(this.payload);
+        this.pipeline.encapsulateInPlace(packet);
+        this.pipeline.decapsulateInPlace(packet);
+        return packet;
+    }
+
+    @Benchmark
+    public int pooled() {
+        PacketBuffer packet = this.pool.acquire(this.payload);
+        this.pipeline.encapsulateInPlace(packet);
+        this.pipeline.decapsulateInPlace(packet);
+        int length = packet.length();
+        packet.release();
+        return length;
+    }
+}
@@ -0,0 +1,79 @@
+package com.netsim.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.netsim.addresses.IPv4;
+import com.netsim.protocols.IPv4.IPv4Protocol;
+import com.netsim.protocols.IPv4.IPv4Reassembler;
+
+/**
+ * {@link IPv4Reassembler} on the fragments of {@code flows} datagrams of
+ * 8000 bytes at a 1500-byte MTU, shuffled together so that every flow is
+ * interleaved with the others and arrives out of order. One operation
+ * reassembles all of them; the cost per flow should stay flat as
+ * {@code flows} grows.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReassemblyBenchmark {
+    @Param({"1", "64", "1024"})
+    public int flows;
+
+    private IPv4Reassembler reassembler;
+    private byte[][]        fragments;
+
+    @Setup
+    public void setup() {
+        byte[] payload = Payloads.of(8000);
+        List<byte[]> all = new ArrayList<>();
+        for (int i = 0; i < this.flows; i++) {
+            IPv4Protocol protocol = new IPv4Protocol(new IPv4("10.0." + (i >> 8) + "." + (i & 0xFF), 16),
+                                                     new IPv4("10.1.0.1", 16),
+                                                     5, 0, i & 0xFFFF, 0, 64, 0, 1500);
+            byte[] wire = protocol.encapsulate(payload);
+            for (int at = 0; at < wire.length; ) {
+                int length = IPv4Reassembler.fragmentLength(wire, at);
+                byte[] fragment = new byte[length];
+                System.arraycopy(wire, at, fragment, 0, length);
+                all.add(fragment);
+                at += length;
+            }
+        }
+        Collections.shuffle(all, new Random(42));
+        this.fragments   = all.toArray(new byte[0][]);
+        this.reassembler = new IPv4Reassembler();
+        // room for every flow at once, so none is evicted
+        this.reassembler.setMemoryBudget(64L << 20);
+    }
+
+    @Benchmark
+    public int reassemble() {
+        int completed = 0;
+        for (byte[] fragment : this.fragments) {
+            if (this.reassembler.accept(fragment, 0, 0L) != null) {
+                completed++;
+            }
+        }
+        return completed;
+    }
+}
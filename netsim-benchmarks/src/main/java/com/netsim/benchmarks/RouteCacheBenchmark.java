@@ -0,0 +1,123 @@
+package com.netsim.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Mac;
+import com.netsim.network.CabledAdapter;
+import com.netsim.table.RouteCache;
+import com.netsim.table.RoutingInfo;
+import com.netsim.table.RoutingTable;
+
+/**
+ * Route lookups for traffic concentrated on a few destinations, on a
+ * {@link RoutingTable} of 500k BGP-shaped prefixes. {@code table} asks the
+ * table every time, {@code cached} goes through a {@link RouteCache}.
+ * {@code unroutable} and {@code unroutableCached} look up addresses no
+ * route covers: the first the way nodes used to, catching the exception
+ * {@link RoutingTable#lookup(IPv4)} throws, the second from the cache's
+ * negative entries.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class RouteCacheBenchmark {
+    private static final int PREFIXES = 500_000;
+    private static final int PROBES   = 1024;
+
+    @Param({"16", "256"})
+    public int destinations;
+
+    private RoutingTable table;
+    private RouteCache   cache;
+    private int[]        probes;
+    private IPv4[]       unroutable;
+    private int[]        unroutableInts;
+    private int          next;
+
+    @Setup
+    public void setup() {
+        RoutingInfo[] hops = new RoutingInfo[16];
+        for (int i = 0; i < hops.length; i++) {
+            String mac = String.format("aa:bb:cc:00:00:%02x", i);
+            hops[i] = new RoutingInfo(new CabledAdapter("eth" + i, 1500, new Mac(mac)), null);
+        }
+        SplittableRandom rnd = new SplittableRandom(7);
+        int[] networks = new int[PREFIXES];
+        this.table = new RoutingTable();
+        this.table.update(t -> {
+            for (int i = 0; i < PREFIXES; i++) {
+                int roll   = rnd.nextInt(100);
+                int length = roll < 60 ? 24 : roll < 95 ? 16 + rnd.nextInt(8) : 8 + rnd.nextInt(8);
+                // 0.0.0.0/1 stays empty for the unroutable probes
+                int network = (rnd.nextInt() | 0x8000_0000) & (-1 << (32 - length));
+                networks[i] = network;
+                try {
+                    t.add(IPv4.fromInt(network, length), hops[rnd.nextInt(hops.length)]);
+                } catch (RuntimeException duplicate) {
+                    // same prefix drawn twice
+                }
+            }
+        });
+        this.cache = new RouteCache();
+
+        int[] hot = new int[this.destinations];
+        for (int i = 0; i < hot.length; i++) {
+            hot[i] = networks[rnd.nextInt(PREFIXES)] | 1;
+        }
+        this.probes         = new int[PROBES];
+        this.unroutable     = new IPv4[PROBES];
+        this.unroutableInts = new int[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            this.probes[i]         = hot[i % hot.length];
+            this.unroutableInts[i] = hot[i % hot.length] & 0x7FFF_FFFF;
+            this.unroutable[i]     = IPv4.fromInt(this.unroutableInts[i], 32);
+        }
+    }
+
+    private int nextIndex() {
+        int i = this.next;
+        this.next = (i + 1) & (PROBES - 1);
+        return i;
+    }
+
+    @Benchmark
+    public RoutingInfo table() {
+        return this.table.find(this.probes[this.nextIndex()]);
+    }
+
+    @Benchmark
+    public RoutingInfo cached() {
+        return this.cache.lookup(this.table, this.probes[this.nextIndex()]);
+    }
+
+    @Benchmark
+    public RoutingInfo unroutable() {
+        try {
+            return this.table.lookup(this.unroutable[this.nextIndex()]);
+        } catch (NullPointerException e) {
+            return null;
+        }
+    }
+
+    @Benchmark
+    public RoutingInfo unroutableCached() {
+        return this.cache.lookup(this.table, this.unroutableInts[this.nextIndex()]);
+    }
+}
@@ -0,0 +1,123 @@
+package com.netsim.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Mac;
+import com.netsim.engine.EventScheduler;
+import com.netsim.network.CabledAdapter;
+import com.netsim.network.Interface;
+import com.netsim.network.Node;
+import com.netsim.network.router.Router;
+import com.netsim.networkstack.PacketBuffer;
+import com.netsim.networkstack.PacketBufferPool;
+import com.netsim.networkstack.ProtocolPipeline;
+import com.netsim.protocols.IPv4.IPv4Protocol;
+import com.netsim.table.ArpTable;
+import com.netsim.table.RoutingInfo;
+import com.netsim.table.RoutingTable;
+
+/**
+ * One IPv4 packet forwarded through a chain of routers linked by cabled
+ * adapters, from the first router's receive to a sink behind the last
+ * one. With forwarding done in place the cost per packet should barely
+ * move between payload sizes; compare {@code -p size=64,1024}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RouterChainBenchmark {
+    @Param({"100"})
+    public int hops;
+
+    @Param({"64", "1024"})
+    public int size;
+
+    private EventScheduler   scheduler;
+    private Router           first;
+    private IPv4Protocol     ip;
+    private byte[]           packet;
+    private PacketBufferPool pool;
+    private long             delivered;
+
+    @Setup
+    public void setup() {
+        IPv4 source      = new IPv4("10.0.0.1", 8);
+        IPv4 destination = new IPv4("192.168.0.1", 24);
+        this.scheduler = new EventScheduler();
+        this.pool      = PacketBufferPool.getInstance();
+
+        CabledAdapter upstream = null;
+        for (int i = 0; i < this.hops; i++) {
+            CabledAdapter in  = new CabledAdapter("in" + i, 1500, mac(2 * i));
+            CabledAdapter out = new CabledAdapter("out" + i, 1500, mac(2 * i + 1));
+            if (upstream != null) {
+                link(upstream, in);
+            }
+            RoutingTable routes = new RoutingTable();
+            routes.add(new IPv4("192.168.0.0", 16), new RoutingInfo(out, null));
+            List<Interface> interfaces = new ArrayList<>();
+            interfaces.add(new Interface(in, new IPv4("10." + (i >> 8) + "." + (i & 0xFF) + ".1", 24)));
+            interfaces.add(new Interface(out, new IPv4("10." + (i >> 8) + "." + (i & 0xFF) + ".2", 24)));
+            Router router = new Router("r" + i, routes, new ArpTable(), interfaces);
+            in.setOwner(router);
+            out.setOwner(router);
+            if (i == 0) {
+                this.first = router;
+            }
+            upstream = out;
+        }
+
+        CabledAdapter sink = new CabledAdapter("sink", 1500, mac(2 * this.hops));
+        link(upstream, sink);
+        sink.setOwner(new Node() {
+            public void send(IPv4 destination, ProtocolPipeline protocols, byte[] data) {}
+            public void receive(ProtocolPipeline protocols, byte[] data) {}
+            public void receiveInPlace(ProtocolPipeline protocols, PacketBuffer packet) {
+                RouterChainBenchmark.this.delivered += packet.length();
+                packet.release();
+            }
+            public String getName() { return "sink"; }
+        });
+
+        this.ip     = new IPv4Protocol(source, destination, 5, 0, 0, 0, 255, 0, 1500);
+        this.packet = this.ip.encapsulate(new byte[this.size]);
+    }
+
+    private static Mac mac(int index) {
+        return new Mac(String.format("02:00:00:00:%02x:%02x", (index >> 8) & 0xFF, index & 0xFF));
+    }
+
+    private void link(CabledAdapter a, CabledAdapter b) {
+        a.setRemoteAdapter(b);
+        b.setRemoteAdapter(a);
+        a.setScheduler(this.scheduler);
+        b.setScheduler(this.scheduler);
+    }
+
+    @Benchmark
+    public long forward() {
+        ProtocolPipeline stack = new ProtocolPipeline();
+        stack.push(this.ip);
+        this.first.receiveInPlace(stack, this.pool.acquire(this.packet));
+        this.scheduler.run();
+        return this.delivered;
+    }
+}
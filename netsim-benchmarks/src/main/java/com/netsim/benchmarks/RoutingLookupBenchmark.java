@@ -0,0 +1,103 @@
+package com.netsim.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.netsim.addresses.Mac;
+import com.netsim.network.CabledAdapter;
+import com.netsim.table.PrefixTrie;
+import com.netsim.table.RoutingInfo;
+
+/**
+ * Longest-prefix-match lookups per second on a table shaped like a full
+ * BGP feed: roughly 60% /24, 35% /16–/23 and 5% /8–/15, spread over a
+ * handful of next hops. Compares the {@link PrefixTrie} index used by
+ * {@code RoutingTable} with the previous linear scan.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class RoutingLookupBenchmark {
+    private static final int PROBES = 1 << 16;
+
+    @Param({"500000", "1000000"})
+    public int prefixes;
+
+    private PrefixTrie         trie;
+    private LegacyRoutingTable legacy;
+    private int[]              probes;
+    private byte[][]           probeBytes;
+    private int                next;
+
+    private static int prefixLength(SplittableRandom rnd) {
+        int roll = rnd.nextInt(100);
+        if (roll < 60) {
+            return 24;
+        }
+        if (roll < 95) {
+            return 16 + rnd.nextInt(8);
+        }
+        return 8 + rnd.nextInt(8);
+    }
+
+    private static String dotted(int ip) {
+        return ((ip >>> 24) & 0xFF) + "." + ((ip >>> 16) & 0xFF) + "." + ((ip >>> 8) & 0xFF) + "." + (ip & 0xFF);
+    }
+
+    @Setup
+    public void setUp() {
+        RoutingInfo[] hops = new RoutingInfo[16];
+        for (int i = 0; i < hops.length; i++) {
+            String mac = String.format("aa:bb:cc:00:00:%02x", i);
+            hops[i] = new RoutingInfo(new CabledAdapter("eth" + i, 1500, new Mac(mac)), null);
+        }
+
+        SplittableRandom rnd = new SplittableRandom(7);
+        int[] networks = new int[this.prefixes];
+        this.trie   = new PrefixTrie();
+        this.legacy = new LegacyRoutingTable();
+        for (int i = 0; i < this.prefixes; i++) {
+            int length  = prefixLength(rnd);
+            int network = rnd.nextInt() & (-1 << (32 - length));
+            RoutingInfo hop = hops[rnd.nextInt(hops.length)];
+            networks[i] = network;
+            this.trie.insert(network, length, hop);
+            this.legacy.add(dotted(network), length, hop);
+        }
+
+        this.probes     = new int[PROBES];
+        this.probeBytes = new byte[PROBES][];
+        for (int i = 0; i < PROBES; i++) {
+            int addr = i % 2 == 0 ? networks[rnd.nextInt(networks.length)] | (rnd.nextInt() & 0xFF) : rnd.nextInt();
+            this.probes[i]     = addr;
+            this.probeBytes[i] = new byte[] {(byte) (addr >>> 24), (byte) (addr >>> 16), (byte) (addr >>> 8), (byte) addr};
+        }
+    }
+
+    @Benchmark
+    public RoutingInfo trie() {
+        int i = this.next++ & (PROBES - 1);
+        return this.trie.lookup(this.probes[i]);
+    }
+
+    @Benchmark
+    public RoutingInfo linearScan() {
+        int i = this.next++ & (PROBES - 1);
+        return this.legacy.lookup(this.probeBytes[i]);
+    }
+}
@@ -0,0 +1,65 @@
+package com.netsim.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Mac;
+import com.netsim.protocols.IPv4.IPv4Protocol;
+import com.netsim.protocols.SimpleDLL.SimpleDLLProtocol;
+
+/**
+ * {@link SimpleDLLProtocol} framing ({@code frame}) and deframing
+ * ({@code deframe}) of the IPv4 fragments of a payload sent over a
+ * 1500-byte MTU, so larger sizes carry several frames, and reading the
+ * destination MAC of a frame ({@code extractDestination}).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SimpleDLLProtocolBenchmark {
+    @Param({"64", "1400", "8000"})
+    public int size;
+
+    private SimpleDLLProtocol protocol;
+    private byte[]            packets;
+    private byte[]            frames;
+
+    @Setup
+    public void setup() {
+        IPv4Protocol ip = new IPv4Protocol(new IPv4("10.0.0.1", 24), new IPv4("10.0.1.1", 24),
+                                           5, 0, 0, 0, 64, 0, 1500);
+        this.protocol = new SimpleDLLProtocol(new Mac("aa:bb:cc:00:00:01"), new Mac("aa:bb:cc:00:00:02"));
+        this.packets  = ip.encapsulate(Payloads.of(this.size));
+        this.frames   = this.protocol.encapsulate(this.packets);
+    }
+
+    @Benchmark
+    public byte[] frame() {
+        return this.protocol.encapsulate(this.packets);
+    }
+
+    @Benchmark
+    public byte[] deframe() {
+        return this.protocol.decapsulate(this.frames);
+    }
+
+    @Benchmark
+    public Mac extractDestination() {
+        return this.protocol.extractDestination(this.frames);
+    }
+}
@@ -0,0 +1,140 @@
+package com.netsim.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Mac;
+import com.netsim.engine.EventScheduler;
+import com.netsim.network.CabledAdapter;
+import com.netsim.network.NetworkAdapter;
+import com.netsim.network.Node;
+import com.netsim.network.switching.Switch;
+import com.netsim.networkstack.PacketBuffer;
+import com.netsim.networkstack.PacketBufferPool;
+import com.netsim.networkstack.ProtocolPipeline;
+import com.netsim.protocols.SimpleDLL.SimpleDLLProtocol;
+import com.netsim.table.MacTable;
+
+/**
+ * Known-unicast forwarding in a learning {@link Switch} whose table holds
+ * {@code stations} addresses. {@code lookup} resolves a destination read
+ * from frame bytes in the long-keyed {@link MacTable};
+ * {@code legacyLookup} does the same through a {@code HashMap<Mac, ...>},
+ * which needs a {@link Mac} built per frame. {@code forward} sends one
+ * frame from a station through the switch to another.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SwitchBenchmark {
+    private static final int PORTS = 48;
+
+    @Param({"1024", "65536"})
+    public int stations;
+
+    private MacTable                     table;
+    private HashMap<Mac, NetworkAdapter> legacy;
+    private byte[][]                     headers;
+    private int                          next;
+
+    private EventScheduler   scheduler;
+    private CabledAdapter    sender;
+    private Mac              receiver;
+    private byte[]           packet;
+    private PacketBufferPool pool;
+    private long             delivered;
+
+    @Setup
+    public void setup() {
+        this.scheduler = new EventScheduler();
+        this.pool      = PacketBufferPool.getInstance();
+        List<CabledAdapter> ports    = new ArrayList<>();
+        CabledAdapter[]     attached = new CabledAdapter[PORTS];
+        for (int i = 0; i < PORTS; i++) {
+            CabledAdapter port    = new CabledAdapter("p" + i, 1500, mac(0x010000 + i));
+            CabledAdapter station = new CabledAdapter("s" + i, 1500, mac(i));
+            port.setRemoteAdapter(station);
+            station.setRemoteAdapter(port);
+            port.setScheduler(this.scheduler);
+            station.setScheduler(this.scheduler);
+            station.setOwner(new Node() {
+                public void send(IPv4 destination, ProtocolPipeline protocols, byte[] data) {}
+                public void receive(ProtocolPipeline protocols, byte[] data) {}
+                public void receiveInPlace(ProtocolPipeline protocols, PacketBuffer packet) {
+                    SwitchBenchmark.this.delivered += packet.length();
+                    packet.release();
+                }
+                public String getName() { return "sink"; }
+            });
+            ports.add(port);
+            attached[i] = station;
+        }
+        Switch sw = new Switch("sw", ports);
+        sw.getMacTable().setAgingTime(0L);
+
+        this.table   = new MacTable();
+        this.legacy  = new HashMap<>();
+        this.headers = new byte[this.stations][];
+        for (int i = 0; i < this.stations; i++) {
+            Mac address = mac(i);
+            NetworkAdapter port = ports.get(i % PORTS);
+            this.table.learn(address.toLong(), port, 0L);
+            this.legacy.put(address, port);
+            sw.getMacTable().learn(address.toLong(), port, 0L);
+            this.headers[i] = address.byteRepresentation();
+        }
+
+        this.sender   = attached[0];
+        this.receiver = attached[PORTS - 1].getMacAddress();
+        this.packet   = new byte[64];
+        this.packet[0] = 0x45;
+        this.packet[3] = 64;
+    }
+
+    private static Mac mac(int index) {
+        return new Mac(String.format("02:00:00:%02x:%02x:%02x",
+                                     (index >> 16) & 0xFF, (index >> 8) & 0xFF, index & 0xFF));
+    }
+
+    private byte[] nextHeader() {
+        byte[] header = this.headers[this.next];
+        this.next = this.next + 1 == this.headers.length ? 0 : this.next + 1;
+        return header;
+    }
+
+    @Benchmark
+    public NetworkAdapter lookup() {
+        return this.table.find(Mac.toLong(this.nextHeader(), 0), 0L);
+    }
+
+    @Benchmark
+    public NetworkAdapter legacyLookup() {
+        return this.legacy.get(Mac.bytesToMac(this.nextHeader()));
+    }
+
+    @Benchmark
+    public long forward() {
+        this.sender.sendInPlace(new ProtocolPipeline(), this.pool.acquire(this.packet),
+                                SimpleDLLProtocol.ETHERTYPE_IPV4, this.receiver);
+        this.scheduler.run();
+        return this.delivered;
+    }
+}
@@ -0,0 +1,92 @@
+package com.netsim.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Mac;
+import com.netsim.network.CabledAdapter;
+import com.netsim.table.ArpTable;
+import com.netsim.table.RoutingInfo;
+import com.netsim.table.RoutingTable;
+
+/**
+ * {@link RoutingTable#lookup} and {@link ArpTable#lookup} through their
+ * public {@link IPv4} API, on tables the size of a simulated topology
+ * rather than an Internet FIB (see {@code RoutingLookupBenchmark} for
+ * that). Each call probes the next of a fixed set of known addresses.
+ * {@code arpFind} resolves the same addresses through the allocation-free
+ * {@link ArpTable#find(int, long)} the nodes use.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TableLookupBenchmark {
+    private static final int PROBES = 1024;
+
+    @Param({"16", "1024", "65536"})
+    public int entries;
+
+    private RoutingTable routes;
+    private ArpTable     arp;
+    private IPv4[]       probes;
+    private int[]        probeInts;
+    private int          next;
+
+    @Setup
+    public void setup() {
+        CabledAdapter adapter = new CabledAdapter("eth0", 1500, new Mac("aa:bb:cc:00:00:01"));
+        this.routes = new RoutingTable();
+        this.arp    = new ArpTable();
+        for (int i = 0; i < this.entries; i++) {
+            String network = "10." + (i >> 8) + "." + (i & 0xFF);
+            this.routes.add(new IPv4(network + ".0", 24), new RoutingInfo(adapter, null));
+            this.arp.add(new IPv4(network + ".1", 24),
+                         new Mac(String.format("02:00:00:00:%02x:%02x", i >> 8, i & 0xFF)));
+        }
+        this.probes    = new IPv4[PROBES];
+        this.probeInts = new int[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            int entry = i % this.entries;
+            this.probes[i]    = new IPv4("10." + (entry >> 8) + "." + (entry & 0xFF) + ".1", 24);
+            this.probeInts[i] = this.probes[i].toInt();
+        }
+    }
+
+    private IPv4 nextProbe() {
+        IPv4 probe = this.probes[this.next];
+        this.next = (this.next + 1) & (PROBES - 1);
+        return probe;
+    }
+
+    @Benchmark
+    public RoutingInfo routingLookup() {
+        return this.routes.lookup(this.nextProbe());
+    }
+
+    @Benchmark
+    public Mac arpLookup() {
+        return this.arp.lookup(this.nextProbe());
+    }
+
+    @Benchmark
+    public long arpFind() {
+        int probe = this.probeInts[this.next];
+        this.next = (this.next + 1) & (PROBES - 1);
+        return this.arp.find(probe, 0L);
+    }
+}
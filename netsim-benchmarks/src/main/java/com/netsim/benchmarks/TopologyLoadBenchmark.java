@@ -0,0 +1,101 @@
+package com.netsim.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.netsim.network.topology.Topology;
+import com.netsim.network.topology.TopologyLoader;
+
+/**
+ * {@link TopologyLoader#load} of a generated scenario: a chain of routers,
+ * each cabled to the next, sharing {@code routes} routes between them.
+ * Every call builds the whole topology from the file, so the time is what
+ * a simulation pays before its first event.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class TopologyLoadBenchmark {
+    @Param({"100000"})
+    public int nodes;
+
+    @Param({"1000000"})
+    public int routes;
+
+    private Path     file;
+    private Topology loaded;
+
+    @Setup
+    public void setup() throws IOException {
+        this.file = Files.createTempFile("topology", ".topo");
+        try (BufferedWriter out = Files.newBufferedWriter(this.file, StandardCharsets.US_ASCII)) {
+            int perNode = this.routes / this.nodes;
+            int route   = 0;
+            for (int i = 0; i < this.nodes; i++) {
+                // link i joins eth1 of router i (.1) to eth0 of router i + 1 (.2)
+                int before = 0xAC10_0000 + (i - 1) * 4;
+                int after  = 0xAC10_0000 + i * 4;
+                out.write("router r" + i + "\n");
+                out.write("iface eth0 " + mac(2 * i) + " " + address(before + 2) + "/30\n");
+                out.write("iface eth1 " + mac(2 * i + 1) + " " + address(after + 1) + "/30\n");
+                for (int r = 0; r < perNode; r++, route++) {
+                    boolean up = (r & 1) == 0;
+                    out.write("route " + address(0x2000_0000 + (route << 8)) + "/24 "
+                              + (up ? "eth0 " + address(before + 1) : "eth1 " + address(after + 2)) + "\n");
+                }
+                if (i > 0) {
+                    out.write("link r" + (i - 1) + ".eth1 r" + i + ".eth0\n");
+                }
+            }
+        }
+    }
+
+    private static String address(int bits) {
+        return (bits >>> 24) + "." + ((bits >>> 16) & 0xFF) + "." + ((bits >>> 8) & 0xFF) + "." + (bits & 0xFF);
+    }
+
+    private static String mac(int index) {
+        return String.format("02:00:%02x:%02x:%02x:%02x",
+                             index >>> 24, (index >>> 16) & 0xFF, (index >>> 8) & 0xFF, index & 0xFF);
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeTopology() {
+        if (this.loaded != null) {
+            this.loaded.close();
+            this.loaded = null;
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(this.file);
+    }
+
+    @Benchmark
+    public Topology load() throws IOException {
+        this.loaded = TopologyLoader.load(this.file);
+        return this.loaded;
+    }
+}
@@ -0,0 +1,58 @@
+package com.netsim.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.netsim.addresses.Port;
+import com.netsim.protocols.MSG.MSGProtocol;
+import com.netsim.protocols.UDP.UDPProtocol;
+
+/**
+ * {@link UDPProtocol} segmentation ({@code segment}) and reassembly
+ * ({@code reassemble}) across payload sizes and segment sizes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class UDPProtocolBenchmark {
+    @Param({"64", "1400", "8000"})
+    public int size;
+
+    @Param({"536", "1460"})
+    public int mss;
+
+    private UDPProtocol protocol;
+    private byte[]      payload;
+    private byte[]      segments;
+
+    @Setup
+    public void setup() {
+        this.protocol = new UDPProtocol(this.mss, new Port("4000"), MSGProtocol.port());
+        this.payload  = Payloads.of(this.size);
+        this.segments = this.protocol.encapsulate(this.payload);
+    }
+
+    @Benchmark
+    public byte[] segment() {
+        return this.protocol.encapsulate(this.payload);
+    }
+
+    @Benchmark
+    public byte[] reassemble() {
+        return this.protocol.decapsulate(this.segments);
+    }
+}
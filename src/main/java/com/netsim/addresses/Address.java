@@ -22,7 +22,7 @@ public abstract class Address {
      * @throws IllegalArgumentException if parsing fails or the resulting byte array length is incorrect
      */
     public Address(String addressString, int bytes) throws IllegalArgumentException {
-        logger.info("[" + CLS + "] constructing from \"" + addressString + "\", expecting " + bytes + " bytes");
+        logger.info(() -> "[" + CLS + "] constructing from \"" + addressString + "\", expecting " + bytes + " bytes");
         this.bytesLen = bytes;
         byte[] byteRepr = this.parse(addressString);
         if (byteRepr.length != this.bytesLen) {
@@ -31,7 +31,7 @@ public abstract class Address {
             throw new IllegalArgumentException(msg);
         }
         this.setAddress(byteRepr);
-        logger.info("[" + CLS + "] constructed successfully: " + this.stringRepresentation());
+        logger.info(() -> "[" + CLS + "] constructed successfully: " + this.stringRepresentation());
     }
 
     /**
@@ -41,11 +41,45 @@ public abstract class Address {
      * @throws IllegalArgumentException if parsing fails
      */
     public Address(String addressString) throws IllegalArgumentException {
-        logger.info("[" + CLS + "] constructing from \"" + addressString + "\"");
+        logger.info(() -> "[" + CLS + "] constructing from \"" + addressString + "\"");
         byte[] byteRepr = this.parse(addressString);
         this.bytesLen = byteRepr.length;
         this.setAddress(byteRepr);
-        logger.info("[" + CLS + "] constructed successfully: " + this.stringRepresentation());
+        logger.info(() -> "[" + CLS + "] constructed successfully: " + this.stringRepresentation());
+    }
+
+    /**
+     * Constructs an Address directly from its raw bytes, skipping the
+     * textual round trip.
+     *
+     * @param raw the raw byte array (copied)
+     * @throws IllegalArgumentException if raw is null
+     */
+    protected Address(byte[] raw) throws IllegalArgumentException {
+        if (raw == null) {
+            String msg = "Raw address cannot be null";
+            logger.error("[" + CLS + "] " + msg);
+            throw new IllegalArgumentException(msg);
+        }
+        this.bytesLen = raw.length;
+        this.setAddress(raw);
+    }
+
+    /**
+     * Constructs an Address whose bytes the subclass keeps in another
+     * form and hands out through {@link #octets()}.
+     *
+     * @param bytes the length of the address in bytes
+     */
+    protected Address(int bytes) {
+        this.bytesLen = bytes;
+    }
+
+    /**
+     * @return the raw bytes of the address, not copied, or null if undefined
+     */
+    protected byte[] octets() {
+        return this.address;
     }
 
     /**
@@ -78,7 +112,7 @@ public abstract class Address {
             throw new IllegalArgumentException(msg);
         }
         this.address = newAddress.clone();
-        logger.info("[" + CLS + "] byte address set to " + this.stringRepresentation());
+        logger.info(() -> "[" + CLS + "] byte address set to " + this.stringRepresentation());
     }
 
     /**
@@ -88,12 +122,19 @@ public abstract class Address {
      * @throws NullPointerException if the address is not defined
      */
     public byte[] byteRepresentation() throws NullPointerException {
-        if (this.address == null) {
-            String msg = "Address is not defined";
-            logger.error("[" + CLS + "] " + msg);
-            throw new NullPointerException(msg);
-        }
-        return this.address.clone();
+        return this.definedOctets().clone();
+    }
+
+    /**
+     * Copies the raw bytes into an array without allocating.
+     *
+     * @param dest   the destination array (non-null)
+     * @param offset index in dest of the first byte
+     * @throws NullPointerException if the address is not defined
+     */
+    public void copyTo(byte[] dest, int offset) throws NullPointerException {
+        byte[] raw = this.definedOctets();
+        System.arraycopy(raw, 0, dest, offset, raw.length);
     }
 
     /**
@@ -103,22 +144,31 @@ public abstract class Address {
      * @throws NullPointerException if the address is not defined
      */
     public String stringRepresentation() throws NullPointerException {
-        if (this.address == null) {
-            String msg = "Address is not defined";
-            logger.error("[" + CLS + "] " + msg);
-            throw new NullPointerException(msg);
-        }
-
+        byte[] raw = this.definedOctets();
         StringBuilder sb = new StringBuilder(this.bytesLen * 4);
-        for (int i = 0; i < this.address.length; i++) {
-            sb.append(this.address[i] & 0xFF);
-            if (i < this.address.length - 1) {
+        for (int i = 0; i < raw.length; i++) {
+            sb.append(raw[i] & 0xFF);
+            if (i < raw.length - 1) {
                 sb.append('.');
             }
         }
         return sb.toString();
     }
 
+    /**
+     * @return the raw bytes of the address, not copied
+     * @throws NullPointerException if the address is not defined
+     */
+    private byte[] definedOctets() throws NullPointerException {
+        byte[] raw = this.octets();
+        if (raw == null) {
+            String msg = "Address is not defined";
+            logger.error("[" + CLS + "] " + msg);
+            throw new NullPointerException(msg);
+        }
+        return raw;
+    }
+
     /**
      * Compares this Address to another for byte‐wise equality.
      *
@@ -128,11 +178,11 @@ public abstract class Address {
     @Override
     public boolean equals(Object obj) {
         if (obj == null || !obj.getClass().isInstance(this)) {
-            logger.debug("[" + CLS + "] equals() false: incompatible type or null");
+            logger.debug(() -> "[" + CLS + "] equals() false: incompatible type or null");
             return false;
         }
         boolean eq = Arrays.equals(this.byteRepresentation(), ((Address) obj).byteRepresentation());
-        logger.debug("[" + CLS + "] equals() result with "
+        logger.debug(() -> "[" + CLS + "] equals() result with "
                      + obj.getClass().getSimpleName() + ": " + eq);
         return eq;
     }
@@ -144,8 +194,8 @@ public abstract class Address {
      */
     @Override
     public int hashCode() {
-        int h = Arrays.hashCode(this.address);
-        logger.debug("[" + CLS + "] hashCode() = " + h);
+        int h = Arrays.hashCode(this.octets());
+        logger.debug(() -> "[" + CLS + "] hashCode() = " + h);
         return h;
     }
 }
@@ -24,7 +24,7 @@ public abstract class IP extends Address {
     protected IP(String addressString, int prefix, int bytes) throws IllegalArgumentException {
         super(addressString, bytes);
         this.mask = new Mask(prefix, bytes);
-        logger.info("[" + CLS + "] constructed " + this.stringRepresentation() + "/" + prefix);
+        logger.info(() -> "[" + CLS + "] constructed " + this.stringRepresentation() + "/" + prefix);
     }
 
     /**
@@ -38,7 +38,25 @@ public abstract class IP extends Address {
     protected IP(String addressString, String maskString, int bytes) throws IllegalArgumentException {
         super(addressString, bytes);
         this.mask = new Mask(maskString, bytes);
-        logger.info("[" + CLS + "] constructed " + this.stringRepresentation() + " mask=" + maskString);
+        logger.info(() -> "[" + CLS + "] constructed " + this.stringRepresentation() + " mask=" + maskString);
+    }
+
+    /**
+     * Constructs an IP address that keeps its bytes and prefix in another
+     * form. The subclass overrides {@link #octets()}, {@link #mask()},
+     * {@link #getMask()} and {@link #setMask(int)}.
+     *
+     * @param bytes number of address bytes (e.g. 4 for IPv4)
+     */
+    protected IP(int bytes) {
+        super(bytes);
+    }
+
+    /**
+     * @return the subnet mask
+     */
+    protected Mask mask() {
+        return this.mask;
     }
 
     /**
@@ -61,15 +79,16 @@ public abstract class IP extends Address {
             logger.error("[" + CLS + "] " + msg);
             throw new IllegalArgumentException(msg);
         }
-        int addrInt = 0;
-        int netInt  = 0;
-        for (int i = 0; i < this.address.length; i++) {
-            addrInt = (addrInt << 8) | (this.address[i] & 0xFF);
+        byte[] raw     = this.octets();
+        int    addrInt = 0;
+        int    netInt  = 0;
+        for (int i = 0; i < raw.length; i++) {
+            addrInt = (addrInt << 8) | (raw[i] & 0xFF);
             netInt  = (netInt  << 8) | (network[i] & 0xFF);
         }
-        int maskBits = (mask == 0) ? 0 : (~0 << (8 * this.address.length - mask));
+        int maskBits = (mask == 0) ? 0 : (~0 << (8 * raw.length - mask));
         boolean result = (addrInt & maskBits) == (netInt & maskBits);
-        logger.debug("[" + CLS + "] isInSubnet(" + networkString + "/" + mask + ") -> " + result);
+        logger.debug(() -> "[" + CLS + "] isInSubnet(" + networkString + "/" + mask + ") -> " + result);
         return result;
     }
 
@@ -81,8 +100,8 @@ public abstract class IP extends Address {
      */
     @Override
     public void setAddress(String newAddress) throws IllegalArgumentException {
-        super.setAddress(this.parse(newAddress));
-        logger.info("[" + CLS + "] address updated to " + this.stringRepresentation());
+        this.setAddress(this.parse(newAddress));
+        logger.info(() -> "[" + CLS + "] address updated to " + this.stringRepresentation());
     }
 
     /**
@@ -93,9 +112,9 @@ public abstract class IP extends Address {
      * @throws IllegalArgumentException if parsing fails or prefix invalid
      */
     public void setAddress(String newAddress, int newPrefix) throws IllegalArgumentException {
-        super.setAddress(this.parse(newAddress));
-        this.mask.setPrefix(newPrefix);
-        logger.info("[" + CLS + "] address updated to " + this.stringRepresentation() + "/" + newPrefix);
+        this.setAddress(this.parse(newAddress));
+        this.setMask(newPrefix);
+        logger.info(() -> "[" + CLS + "] address updated to " + this.stringRepresentation() + "/" + newPrefix);
     }
 
     /**
@@ -104,8 +123,8 @@ public abstract class IP extends Address {
      * @param newMask the new subnet prefix length
      */
     public void setMask(int newMask) {
-        this.mask.setPrefix(newMask);
-        logger.info("[" + CLS + "] mask updated to /" + newMask);
+        this.mask().setPrefix(newMask);
+        logger.info(() -> "[" + CLS + "] mask updated to /" + newMask);
     }
 
     /**
@@ -114,26 +133,26 @@ public abstract class IP extends Address {
      * @return the prefix length
      */
     public int getMask() {
-        return this.mask.getPrefix();
+        return this.mask().getPrefix();
     }
 
     @Override
     public boolean equals(Object obj) {
         if (obj == null || !(obj.getClass().isInstance(this))) {
-            logger.debug("[" + CLS + "] equals() false: incompatible type or null");
+            logger.debug(() -> "[" + CLS + "] equals() false: incompatible type or null");
             return false;
         }
         IP other = (IP) obj;
         boolean eq = Arrays.equals(this.byteRepresentation(), other.byteRepresentation())
                   && this.getMask() == other.getMask();
-        logger.debug("[" + CLS + "] equals() -> " + eq);
+        logger.debug(() -> "[" + CLS + "] equals() -> " + eq);
         return eq;
     }
 
     @Override
     public int hashCode() {
-        int h = Arrays.hashCode(this.address) * 31 + this.mask.hashCode();
-        logger.debug("[" + CLS + "] hashCode() -> " + h);
+        int h = Arrays.hashCode(this.octets()) * 31 + this.mask().hashCode();
+        logger.debug(() -> "[" + CLS + "] hashCode() -> " + h);
         return h;
     }
 
@@ -1,16 +1,28 @@
 package com.netsim.addresses;
 
 import java.util.Arrays;
+
 import com.netsim.utils.Logger;
 
 /**
  * Concrete IPv4 address implementation.
  * Supports parsing, common classifications, and subnet broadcast computation.
+ * <p>
+ * The address is kept packed in an int and the prefix length in a byte,
+ * so that equality, hashing and subnet tests run without copying arrays
+ * or re-parsing strings. The octets and the {@link Mask} are built from
+ * them only when asked for.
+ * </p>
  */
 public class IPv4 extends IP {
     private static final Logger logger = Logger.getInstance();
     private static final String CLS    = IPv4.class.getSimpleName();
 
+    private int  bits;
+    private byte prefix;
+    // built on first use by mask(), dropped when the prefix changes
+    private Mask netmask;
+
     /**
      * Constructs an IPv4 from dotted‐decimal address and mask string.
      *
@@ -19,8 +31,11 @@ public class IPv4 extends IP {
      * @throws IllegalArgumentException if parsing fails
      */
     public IPv4(String addressString, String maskString) throws IllegalArgumentException {
-        super(addressString, maskString, 4);
-        logger.info("[" + CLS + "] constructed " + this.stringRepresentation() + " mask=" + maskString);
+        super(4);
+        this.setAddress(this.parse(addressString));
+        this.netmask = new Mask(maskString, 4);
+        this.prefix  = (byte) this.netmask.getPrefix();
+        logger.info(() -> "[" + CLS + "] constructed " + this.stringRepresentation() + " mask=" + maskString);
     }
 
     /**
@@ -28,11 +43,149 @@ public class IPv4 extends IP {
      *
      * @param addressString the IPv4 address (e.g. "192.168.0.1")
      * @param maskPrefix    the subnet prefix length (0–32)
-     * @throws IllegalArgumentException if parsing fails
+     * @throws IllegalArgumentException if parsing fails or prefix invalid
      */
     public IPv4(String addressString, int maskPrefix) throws IllegalArgumentException {
-        super(addressString, maskPrefix, 4);
-        logger.info("[" + CLS + "] constructed " + this.stringRepresentation() + "/" + maskPrefix);
+        super(4);
+        this.setAddress(this.parse(addressString));
+        this.prefix = checkPrefix(maskPrefix);
+        logger.info(() -> "[" + CLS + "] constructed " + this.stringRepresentation() + "/" + maskPrefix);
+    }
+
+    /**
+     * Constructs an IPv4 from its packed form, without string parsing.
+     *
+     * @param address    the 32-bit address
+     * @param maskPrefix the subnet prefix length (0–32)
+     * @throws IllegalArgumentException if prefix is invalid
+     */
+    private IPv4(int address, int maskPrefix) throws IllegalArgumentException {
+        super(4);
+        this.bits   = address;
+        this.prefix = checkPrefix(maskPrefix);
+    }
+
+    /**
+     * Builds an IPv4 from a packed big-endian address.
+     *
+     * @param address    the 32-bit address
+     * @param maskPrefix the subnet prefix length (0–32)
+     * @return the new IPv4
+     * @throws IllegalArgumentException if prefix is invalid
+     */
+    public static IPv4 fromInt(int address, int maskPrefix) throws IllegalArgumentException {
+        return new IPv4(address, maskPrefix);
+    }
+
+    /**
+     * @param prefix a prefix length
+     * @return the prefix length as stored
+     * @throws IllegalArgumentException if prefix is out of 0–32
+     */
+    private static byte checkPrefix(int prefix) throws IllegalArgumentException {
+        if (prefix < 0 || prefix > 32) {
+            String msg = "Invalid prefix length: " + prefix;
+            logger.error("[" + CLS + "] " + msg);
+            throw new IllegalArgumentException(msg);
+        }
+        return (byte) prefix;
+    }
+
+    /**
+     * Packs the octets of a new address.
+     *
+     * @param newAddress the 4 address bytes
+     * @throws IllegalArgumentException if newAddress is not 4 bytes long
+     */
+    @Override
+    protected void setAddress(byte[] newAddress) throws IllegalArgumentException {
+        if (newAddress == null || newAddress.length != 4) {
+            String msg = "IPv4 address must be 4 bytes long";
+            logger.error("[" + CLS + "] " + msg);
+            throw new IllegalArgumentException(msg);
+        }
+        this.bits = ((newAddress[0] & 0xFF) << 24)
+                  | ((newAddress[1] & 0xFF) << 16)
+                  | ((newAddress[2] & 0xFF) << 8)
+                  |  (newAddress[3] & 0xFF);
+    }
+
+    /**
+     * @return the 4 address bytes, built from the packed form
+     */
+    @Override
+    protected byte[] octets() {
+        return new byte[] {
+            (byte) (this.bits >>> 24),
+            (byte) (this.bits >>> 16),
+            (byte) (this.bits >>> 8),
+            (byte) this.bits
+        };
+    }
+
+    /**
+     * @return the 4 address bytes
+     */
+    @Override
+    public byte[] byteRepresentation() {
+        return this.octets();
+    }
+
+    /**
+     * Writes the 4 address bytes, big-endian, without allocating.
+     *
+     * @param dest   the destination array (non-null)
+     * @param offset index in dest of the first byte
+     */
+    @Override
+    public void copyTo(byte[] dest, int offset) {
+        dest[offset]     = (byte) (this.bits >>> 24);
+        dest[offset + 1] = (byte) (this.bits >>> 16);
+        dest[offset + 2] = (byte) (this.bits >>> 8);
+        dest[offset + 3] = (byte) this.bits;
+    }
+
+    /**
+     * @return the address in dotted‐decimal form
+     */
+    @Override
+    public String stringRepresentation() {
+        return (this.bits >>> 24) + "." + ((this.bits >>> 16) & 0xFF) + "."
+             + ((this.bits >>> 8) & 0xFF) + "." + (this.bits & 0xFF);
+    }
+
+    /**
+     * @return the subnet mask, built on first use
+     */
+    @Override
+    protected Mask mask() {
+        Mask built = this.netmask;
+        if (built == null) {
+            built        = new Mask(this.prefix, 4);
+            this.netmask = built;
+        }
+        return built;
+    }
+
+    /**
+     * @return the prefix length (0–32)
+     */
+    @Override
+    public int getMask() {
+        return this.prefix;
+    }
+
+    /**
+     * Updates the subnet prefix length.
+     *
+     * @param newMask the new prefix length (0–32)
+     * @throws IllegalArgumentException if newMask is out of range
+     */
+    @Override
+    public void setMask(int newMask) throws IllegalArgumentException {
+        this.prefix  = checkPrefix(newMask);
+        this.netmask = null;
+        logger.info(() -> "[" + CLS + "] mask updated to /" + newMask);
     }
 
     /**
@@ -78,82 +231,59 @@ public class IPv4 extends IP {
             }
             octets[i] = (byte) val;
         }
-        logger.debug("[" + CLS + "] parsed \"" + address + "\" → " + Arrays.toString(octets));
+        logger.debug(() -> "[" + CLS + "] parsed \"" + address + "\" → " + Arrays.toString(octets));
         return octets;
     }
 
     @Override
     public boolean isLoopback() {
-        boolean result = this.isInSubnet("127.0.0.0", 8);
-        logger.debug("[" + CLS + "] isLoopback() → " + result);
+        boolean result = this.isInSubnet(0x7F000000, 8);
+        logger.debug(() -> "[" + CLS + "] isLoopback() → " + result);
         return result;
     }
 
     @Override
     public boolean isMulticast() {
-        boolean result = this.isInSubnet("224.0.0.0", 4);
-        logger.debug("[" + CLS + "] isMulticast() → " + result);
+        boolean result = this.isInSubnet(0xE0000000, 4);
+        logger.debug(() -> "[" + CLS + "] isMulticast() → " + result);
         return result;
     }
 
     @Override
     public boolean isBroadcast() {
-        for (byte b : this.address) {
-            if ((b & 0xFF) != 0xFF) {
-                logger.debug("[" + CLS + "] isBroadcast() → false");
-                return false;
-            }
-        }
-        logger.debug("[" + CLS + "] isBroadcast() → true");
-        return true;
+        boolean result = this.bits == -1;
+        logger.debug(() -> "[" + CLS + "] isBroadcast() → " + result);
+        return result;
     }
 
     @Override
     public boolean isPrivate() {
-        boolean result = this.isInSubnet("10.0.0.0", 8)
-                      || this.isInSubnet("172.16.0.0", 12)
-                      || this.isInSubnet("192.168.0.0", 16);
-        logger.debug("[" + CLS + "] isPrivate() → " + result);
+        boolean result = this.isInSubnet(0x0A000000, 8)
+                      || this.isInSubnet(0xAC100000, 12)
+                      || this.isInSubnet(0xC0A80000, 16);
+        logger.debug(() -> "[" + CLS + "] isPrivate() → " + result);
         return result;
     }
 
     @Override
     public boolean isLinkLocal() {
-        boolean result = this.isInSubnet("169.254.0.0", 16);
-        logger.debug("[" + CLS + "] isLinkLocal() → " + result);
+        boolean result = this.isInSubnet(0xA9FE0000, 16);
+        logger.debug(() -> "[" + CLS + "] isLinkLocal() → " + result);
         return result;
     }
 
     @Override
     public boolean isUnspecified() {
-        for (byte b : this.address) {
-            if (b != 0) {
-                logger.debug("[" + CLS + "] isUnspecified() → false");
-                return false;
-            }
-        }
-        logger.debug("[" + CLS + "] isUnspecified() → true");
-        return true;
+        boolean result = this.bits == 0;
+        logger.debug(() -> "[" + CLS + "] isUnspecified() → " + result);
+        return result;
     }
 
     @Override
-    public boolean isSubnet() throws IllegalStateException {
-        int prefix = this.mask.getPrefix();
-        if (prefix < 0 || prefix > 32) {
-            String msg = "Invalid mask prefix: " + prefix;
-            logger.error("[" + CLS + "] " + msg);
-            throw new IllegalStateException(msg);
-        }
-        byte[] maskBytes = new Mask(prefix, 4).byteRepresentation();
-        byte[] addrBytes = this.byteRepresentation();
-        for (int i = 0; i < 4; i++) {
-            if ((addrBytes[i] & ~maskBytes[i]) != 0) {
-                logger.debug("[" + CLS + "] isSubnet() → false");
-                return false;
-            }
-        }
-        logger.debug("[" + CLS + "] isSubnet() → true");
-        return true;
+    public boolean isSubnet() {
+        boolean result = (this.bits & ~netmask(this.prefix)) == 0;
+        logger.debug(() -> "[" + CLS + "] isSubnet() → " + result);
+        return result;
     }
 
     /**
@@ -162,24 +292,63 @@ public class IPv4 extends IP {
      * @return the calculated subnet broadcast IPv4
      */
     public IPv4 subnetBroadcast() {
-        String[] parts = this.stringRepresentation().split("\\.");
-        int ipInt = 0;
-        for (int i = 0; i < 4; i++) {
-            ipInt |= (Integer.parseInt(parts[i]) << (24 - (8 * i)));
-        }
-        int maskBits = (this.mask.getPrefix() == 0) ? 0 : (~0 << (32 - this.mask.getPrefix()));
-        int bInt = ipInt | ~maskBits;
-        String bStr = String.format("%d.%d.%d.%d",
-            (bInt >> 24) & 0xFF,
-            (bInt >> 16) & 0xFF,
-            (bInt >> 8)  & 0xFF,
-            bInt & 0xFF
-        );
-        IPv4 bc = new IPv4(bStr, this.mask.getPrefix());
-        logger.info("[" + CLS + "] subnetBroadcast() → " + bc.stringRepresentation());
+        IPv4 bc = IPv4.fromInt(this.bits | ~netmask(this.prefix), this.prefix);
+        logger.info(() -> "[" + CLS + "] subnetBroadcast() → " + bc.stringRepresentation());
         return bc;
     }
 
-    @Override public boolean equals(Object o) { return super.equals(o); }
-    @Override public int     hashCode()      { return super.hashCode(); }
+    /**
+     * @param prefix prefix length (0–32)
+     * @return the netmask for that prefix as an int
+     */
+    private static int netmask(int prefix) {
+        return prefix == 0 ? 0 : -1 << (32 - prefix);
+    }
+
+    /**
+     * @return the address packed into a big-endian int
+     */
+    public int toInt() {
+        return this.bits;
+    }
+
+    /**
+     * Checks whether this address lies within a subnet, without allocating.
+     *
+     * @param network the packed network address (host bits ignored)
+     * @param prefix  the subnet prefix length (0–32)
+     * @return true if the first {@code prefix} bits match
+     * @throws IllegalArgumentException if prefix is out of range
+     */
+    public boolean isInSubnet(int network, int prefix) throws IllegalArgumentException {
+        if (prefix < 0 || prefix > 32) {
+            String msg = "Invalid prefix length: " + prefix;
+            logger.error("[" + CLS + "] " + msg);
+            throw new IllegalArgumentException(msg);
+        }
+        return ((this.bits ^ network) & netmask(prefix)) == 0;
+    }
+
+    /**
+     * Two IPv4 are equal if they have the same address and prefix.
+     *
+     * @param o other object
+     * @return true if same address and prefix
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IPv4)) {
+            return false;
+        }
+        IPv4 other = (IPv4) o;
+        return this.bits == other.bits && this.prefix == other.prefix;
+    }
+
+    @Override
+    public int hashCode() {
+        return this.bits * 31 + this.prefix;
+    }
 }
\ No newline at end of file
@@ -1,15 +1,43 @@
 package com.netsim.addresses;
 
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
 import com.netsim.utils.Logger;
 
 /**
  * A 6‐byte MAC address.
+ * <p>
+ * The octets are also kept packed in the low 48 bits of a long, which is
+ * what equality and hashing use and what tables can key on directly.
+ * </p>
+ * <p>
+ * {@link #valueOf(long)}, {@link #fromLong(long)}, {@link #bytesToMac(byte[])}
+ * and {@link #broadcast()} hand out shared instances from a small
+ * direct-mapped cache instead of building a new Mac each time, so the
+ * addresses a node keeps meeting cost no allocation. Shared instances
+ * cannot be changed with {@link #setAddress(String)}.
+ * </p>
  */
 public class Mac extends Address {
     private static final Logger logger = Logger.getInstance();
     private static final String CLS    = Mac.class.getSimpleName();
 
+    /** The broadcast address FF:FF:FF:FF:FF:FF in packed form. */
+    public static final long BROADCAST_BITS = 0xFFFF_FFFF_FFFFL;
+
+    private static final char[] HEX        = "0123456789ABCDEF".toCharArray();
+    private static final long   GOLDEN     = 0x9E37_79B9_7F4A_7C15L;
+    private static final int    CACHE_BITS = 12;
+
+    private static final AtomicReferenceArray<Mac> CACHE     = new AtomicReferenceArray<>(1 << CACHE_BITS);
+    private static final Mac                       BROADCAST = shared(BROADCAST_BITS);
+
+    // assigned from setAddress(byte[]) while the superclass constructor runs,
+    // so it must not have an initializer
+    private long    bits;
+    private boolean shared;
+
     /**
      * Parses and constructs a MAC from a string like "02:00:00:00:00:01".
      *
@@ -18,7 +46,114 @@ public class Mac extends Address {
      */
     public Mac(String address) throws IllegalArgumentException {
         super(address, 6);
-        logger.info("[" + CLS + "] constructed " + this.stringRepresentation());
+        logger.info(() -> "[" + CLS + "] constructed " + this.stringRepresentation());
+    }
+
+    /**
+     * @param raw the 6 address bytes (copied)
+     * @throws IllegalArgumentException if raw is not 6 bytes long
+     */
+    private Mac(byte[] raw) throws IllegalArgumentException {
+        super(raw);
+    }
+
+    private static Mac shared(long bits) {
+        Mac mac = new Mac(new byte[] {
+            (byte) (bits >>> 40),
+            (byte) (bits >>> 32),
+            (byte) (bits >>> 24),
+            (byte) (bits >>> 16),
+            (byte) (bits >>> 8),
+            (byte) bits
+        });
+        mac.shared = true;
+        return mac;
+    }
+
+    /**
+     * Returns the shared Mac for a packed address, building it only if
+     * the cache does not hold it. Addresses that hash to the same cache
+     * slot replace each other, so the cache never grows.
+     *
+     * @param bits the address packed big-endian in the low 48 bits;
+     *             higher bits are ignored
+     * @return the corresponding shared Mac
+     */
+    public static Mac valueOf(long bits) {
+        bits &= BROADCAST_BITS;
+        if (bits == BROADCAST_BITS) {
+            return BROADCAST;
+        }
+        int slot = (int) ((bits * GOLDEN) >>> (64 - CACHE_BITS));
+        Mac mac  = CACHE.get(slot);
+        if (mac == null || mac.bits != bits) {
+            mac = shared(bits);
+            CACHE.set(slot, mac);
+        }
+        return mac;
+    }
+
+    /**
+     * Builds a Mac from its packed form, e.g. as stored by a table.
+     *
+     * @param bits the address packed big-endian in the low 48 bits
+     * @return the corresponding shared Mac
+     * @see #valueOf(long)
+     */
+    public static Mac fromLong(long bits) {
+        return valueOf(bits);
+    }
+
+    /**
+     * Stores the octets and refreshes the packed form.
+     *
+     * @param newAddress the 6 address bytes
+     * @throws IllegalArgumentException if newAddress is not 6 bytes long
+     */
+    @Override
+    protected void setAddress(byte[] newAddress) throws IllegalArgumentException {
+        if (newAddress == null || newAddress.length != 6) {
+            String msg = "MAC address must be 6 bytes long";
+            logger.error("[" + CLS + "] " + msg);
+            throw new IllegalArgumentException(msg);
+        }
+        super.setAddress(newAddress);
+        this.bits = toLong(newAddress, 0);
+    }
+
+    /**
+     * @return the address packed big-endian in the low 48 bits
+     */
+    public long toLong() {
+        return this.bits;
+    }
+
+    /**
+     * @return true if this is FF:FF:FF:FF:FF:FF
+     */
+    public boolean isBroadcast() {
+        return this.bits == BROADCAST_BITS;
+    }
+
+    /**
+     * Packs six bytes of an array, e.g. an address field of a frame,
+     * without allocating.
+     *
+     * @param data   the array (non-null)
+     * @param offset index of the first octet
+     * @return the address packed big-endian in the low 48 bits
+     * @throws IndexOutOfBoundsException if fewer than 6 bytes follow offset
+     */
+    public static long toLong(byte[] data, int offset) throws IndexOutOfBoundsException {
+        if (offset < 0 || offset + 6 > data.length) {
+            throw new IndexOutOfBoundsException("Mac: 6 bytes needed at offset " + offset);
+        }
+        return ((data[offset]     & 0xFFL) << 40)
+             | ((data[offset + 1] & 0xFFL) << 32)
+             | ((data[offset + 2] & 0xFFL) << 24)
+             | ((data[offset + 3] & 0xFFL) << 16)
+             | ((data[offset + 4] & 0xFFL) << 8)
+             |  (data[offset + 5] & 0xFFL);
     }
 
     /**
@@ -56,12 +191,12 @@ public class Mac extends Address {
             } catch (NumberFormatException e) {
                 String msg = "Octet #" + (i + 1) + " not valid hex: \"" + part + "\"";
                 logger.error("[" + CLS + "] " + msg);
-                logger.debug("[" + CLS + "] parse error detail: " + e.getMessage());
+                logger.debug(() -> "[" + CLS + "] parse error detail: " + e.getMessage());
                 throw new IllegalArgumentException(msg, e);
             }
             octets[i] = (byte) val;
         }
-        logger.debug("[" + CLS + "] parsed \"" + address + "\" → " + Arrays.toString(octets));
+        logger.debug(() -> "[" + CLS + "] parsed \"" + address + "\" → " + Arrays.toString(octets));
         return octets;
     }
 
@@ -70,17 +205,22 @@ public class Mac extends Address {
      *
      * @param newAddress new MAC string
      * @throws IllegalArgumentException if parsing fails or length ≠ 6
+     * @throws IllegalStateException    if this is a shared instance
      */
     @Override
-    public void setAddress(String newAddress) throws IllegalArgumentException {
+    public void setAddress(String newAddress) throws IllegalArgumentException, IllegalStateException {
+        if (this.shared) {
+            logger.error("[" + CLS + "] cannot change a shared MAC");
+            throw new IllegalStateException("Mac: shared instances cannot be changed");
+        }
         byte[] newBytes = this.parse(newAddress);
         if (newBytes.length != 6) {
             String msg = "setAddress failed: must be 6 bytes";
             logger.error("[" + CLS + "] " + msg);
             throw new IllegalArgumentException(msg);
         }
-        super.setAddress(newBytes);
-        logger.info("[" + CLS + "] address set to " + this.stringRepresentation());
+        this.setAddress(newBytes);
+        logger.info(() -> "[" + CLS + "] address set to " + this.stringRepresentation());
     }
 
     /**
@@ -90,50 +230,56 @@ public class Mac extends Address {
      */
     @Override
     public String stringRepresentation() {
-        byte[] octets = this.byteRepresentation();
-        StringBuilder sb = new StringBuilder(17);
-        for (int i = 0; i < octets.length; i++) {
-            sb.append(String.format("%02X", octets[i] & 0xFF));
-            if (i < octets.length - 1) {
-                sb.append(':');
+        char[] text = new char[17];
+        for (int i = 0; i < 6; i++) {
+            int octet = (int) (this.bits >>> (40 - 8 * i)) & 0xFF;
+            text[3 * i]     = HEX[octet >>> 4];
+            text[3 * i + 1] = HEX[octet & 0xF];
+            if (i < 5) {
+                text[3 * i + 2] = ':';
             }
         }
-        return sb.toString();
+        return new String(text);
     }
 
     /**
      * Returns the broadcast MAC address FF:FF:FF:FF:FF:FF.
      *
-     * @return broadcast MAC
+     * @return the shared broadcast MAC
      */
     public static Mac broadcast() {
-        Mac bc = new Mac("FF:FF:FF:FF:FF:FF");
-        logger.info("[" + CLS + "] broadcast address created");
-        return bc;
+        return BROADCAST;
     }
 
     /**
-     * Builds a Mac from a raw 6‐byte array.
+     * Returns the Mac for a raw 6‐byte array.
      *
      * @param sixBytes raw 6 bytes
-     * @return corresponding Mac instance
+     * @return the corresponding shared Mac
      * @throws IllegalArgumentException if sixBytes is null or length ≠ 6
      */
     public static Mac bytesToMac(byte[] sixBytes) throws IllegalArgumentException {
         if (sixBytes == null || sixBytes.length != 6) {
             String msg = "bytesToMac: must pass exactly 6 bytes";
-            Logger.getInstance().error("[" + CLS + "] " + msg);
+            logger.error("[" + CLS + "] " + msg);
             throw new IllegalArgumentException(msg);
         }
-        StringBuilder sb = new StringBuilder(17);
-        for (int i = 0; i < 6; i++) {
-            sb.append(String.format("%02X", sixBytes[i] & 0xFF));
-            if (i < 5) {
-                sb.append(':');
-            }
-        }
-        Mac result = new Mac(sb.toString());
-        logger.info("[" + CLS + "] bytesToMac → " + result.stringRepresentation());
-        return result;
+        return valueOf(toLong(sixBytes, 0));
+    }
+
+    /**
+     * Two MACs are equal if their octets are.
+     *
+     * @param obj the object to compare
+     * @return true if obj is a Mac with the same address
+     */
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Mac && ((Mac) obj).bits == this.bits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(this.bits);
     }
-}
\ No newline at end of file
+}
@@ -20,9 +20,9 @@ public class Mask extends Address {
      * @throws IllegalArgumentException if prefix or bytes yield invalid mask
      */
     public Mask(int prefix, int bytes) throws IllegalArgumentException {
-        super(buildMaskString(prefix, bytes), bytes);
+        super(buildMask(prefix, bytes));
         this.prefix = prefix;
-        logger.info("[" + CLS + "] constructed mask=" + this.stringRepresentation() + " (/" + this.prefix + ")");
+        logger.info(() -> "[" + CLS + "] constructed mask=" + this.stringRepresentation() + " (/" + this.prefix + ")");
     }
 
     /**
@@ -53,7 +53,29 @@ public class Mask extends Address {
             }
         }
         this.prefix = computed;
-        logger.info("[" + CLS + "] parsed mask=" + this.stringRepresentation() + " (/" + this.prefix + ")");
+        logger.info(() -> "[" + CLS + "] parsed mask=" + this.stringRepresentation() + " (/" + this.prefix + ")");
+    }
+
+    /**
+     * Builds the octets of a mask from a prefix length, without going
+     * through its string form.
+     *
+     * @param prefix the subnet prefix length
+     * @param bytes  number of bytes
+     * @return the mask octets
+     */
+    private static byte[] buildMask(int prefix, int bytes) {
+        int    fullBytes = prefix / 8;
+        int    rem       = prefix % 8;
+        byte[] octets    = new byte[bytes];
+        for (int i = 0; i < bytes; i++) {
+            if (i < fullBytes) {
+                octets[i] = (byte) 0xFF;
+            } else if (i == fullBytes) {
+                octets[i] = (byte) (0xFF << (8 - rem));
+            }
+        }
+        return octets;
     }
 
     /**
@@ -81,7 +103,7 @@ public class Mask extends Address {
                 sb.append('.');
             }
         }
-        logger.debug("[" + CLS + "] buildMaskString -> " + sb.toString());
+        logger.debug(() -> "[" + CLS + "] buildMaskString -> " + sb.toString());
         return sb.toString();
     }
 
@@ -94,7 +116,7 @@ public class Mask extends Address {
     @Override
     public void setAddress(String newAddress) throws IllegalArgumentException {
         super.setAddress(this.parse(newAddress));
-        logger.info("[" + CLS + "] address set to " + this.stringRepresentation());
+        logger.info(() -> "[" + CLS + "] address set to " + this.stringRepresentation());
     }
 
     /**
@@ -103,7 +125,7 @@ public class Mask extends Address {
      * @param newPrefix new subnet prefix length
      */
     public void setPrefix(int newPrefix) {
-        logger.info("[" + CLS + "] prefix changed from /" + this.prefix + " to /" + newPrefix);
+        logger.info(() -> "[" + CLS + "] prefix changed from /" + this.prefix + " to /" + newPrefix);
         this.prefix = newPrefix;
     }
 
@@ -151,7 +173,7 @@ public class Mask extends Address {
             }
             octets[i] = (byte) v;
         }
-        logger.debug("[" + CLS + "] parsed \"" + address + "\" → " + Arrays.toString(octets));
+        logger.debug(() -> "[" + CLS + "] parsed \"" + address + "\" → " + Arrays.toString(octets));
         return octets;
     }
 
@@ -20,7 +20,7 @@ public class Port extends Address {
     public Port(String portStr) throws IllegalArgumentException {
         super(portStr, 2);
         this.port = this.parsePort(portStr);
-        logger.info("[" + CLS + "] constructed port=" + this.port);
+        logger.info(() -> "[" + CLS + "] constructed port=" + this.port);
     }
 
     /**
@@ -66,7 +66,7 @@ public class Port extends Address {
         }
         this.port    = newPort;
         this.address = Port.shortToBytes(newPort);
-        logger.info("[" + CLS + "] set port to " + this.port);
+        logger.info(() -> "[" + CLS + "] set port to " + this.port);
     }
 
     /**
@@ -93,7 +93,7 @@ public class Port extends Address {
         int parsed = this.parsePort(input);
         this.port  = parsed;
         byte[] result = Port.shortToBytes(parsed);
-        logger.debug("[" + CLS + "] parse(\"" + input + "\") → port=" + parsed);
+        logger.debug(() -> "[" + CLS + "] parse(\"" + input + "\") → port=" + parsed);
         return result;
     }
 
@@ -136,7 +136,7 @@ public class Port extends Address {
             throw new IllegalArgumentException(msg);
         }
         int portValue = ((data[0] & 0xFF) << 8) | (data[1] & 0xFF);
-        logger.info("[" + CLS + "] fromBytes → port=" + portValue);
+        logger.info(() -> "[" + CLS + "] fromBytes → port=" + portValue);
         return new Port(Integer.toString(portValue));
     }
 }
\ No newline at end of file
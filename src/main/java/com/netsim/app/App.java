@@ -1,6 +1,8 @@
 package com.netsim.app;
 
+import com.netsim.addresses.Port;
 import com.netsim.network.NetworkNode;
+import com.netsim.networkstack.PacketBuffer;
 import com.netsim.networkstack.ProtocolPipeline;
 import com.netsim.utils.Logger;
 
@@ -69,6 +71,27 @@ public abstract class App {
      */
     public abstract void send(ProtocolPipeline stack, byte[] data) throws IllegalArgumentException;
 
+    /**
+     * Sends a message held in a buffer, whose application protocol already
+     * wrote its header into the headroom. The App takes over the caller's
+     * reference. Apps that encapsulate in the buffer override this; the
+     * default copies the message out, releases the buffer and calls
+     * {@link #send(ProtocolPipeline, byte[])}.
+     *
+     * @param stack  the ProtocolPipeline to use (non-null)
+     * @param packet the message to send (non-null, non-empty)
+     * @throws IllegalArgumentException if arguments are invalid
+     */
+    public void sendInPlace(ProtocolPipeline stack, PacketBuffer packet) throws IllegalArgumentException {
+        if (packet == null) {
+            logger.error("[" + this.CLS + "] invalid arguments to send");
+            throw new IllegalArgumentException(this.CLS + ": packet cannot be null");
+        }
+        byte[] data = packet.toByteArray();
+        packet.release();
+        this.send(stack, data);
+    }
+
     /**
      * Receives data from the given protocol pipeline.
      *
@@ -125,6 +148,17 @@ public abstract class App {
         return this.username;
     }
 
+    /**
+     * The UDP port this App listens on; the node it runs on hands it the
+     * datagrams received for that port.
+     *
+     * @return the port, or null if the App only receives what its node
+     *         does not hand to another App
+     */
+    public Port getPort() {
+        return null;
+    }
+
     /**
      * @return the owner NetworkNode, may be null
      */
@@ -0,0 +1,87 @@
+package com.netsim.app;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.netsim.utils.Logger;
+
+/**
+ * Creates the threads applications run on while they wait for input.
+ * <p>
+ * On a runtime with virtual threads (Java 21 and later) every application
+ * gets a virtual thread, so thousands of blocked applications cost no
+ * platform thread each. Older runtimes fall back to daemon platform
+ * threads. Either way the simulation itself stays on the thread serving
+ * the scheduler; applications reach it through
+ * {@link com.netsim.network.NetworkNode#post(com.netsim.engine.Event)}.
+ * </p>
+ */
+public final class AppThreadFactory implements ThreadFactory {
+    private static final Logger           logger   = Logger.getInstance();
+    private static final String           CLS      = AppThreadFactory.class.getSimpleName();
+    private static final AppThreadFactory instance = new AppThreadFactory();
+
+    private final ThreadFactory virtual;
+    private final AtomicInteger count;
+
+    private AppThreadFactory() {
+        this.virtual = virtualThreadFactory();
+        this.count   = new AtomicInteger();
+        logger.info("[" + CLS + "] using " + (this.virtual != null ? "virtual" : "platform") + " threads");
+    }
+
+    /**
+     * @return the shared factory
+     */
+    public static AppThreadFactory getInstance() {
+        return instance;
+    }
+
+    /**
+     * Looks up {@code Thread.ofVirtual().factory()} reflectively, so the
+     * code still compiles for Java 17.
+     *
+     * @return a virtual thread factory, or null if the runtime has none
+     */
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder")
+                                        .getMethod("factory")
+                                        .invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return true if applications get virtual threads
+     */
+    public boolean isVirtual() {
+        return this.virtual != null;
+    }
+
+    /**
+     * Creates an unstarted thread named {@code netsim-app-N}.
+     *
+     * @param task what the thread runs (non-null)
+     * @return the new thread
+     * @throws IllegalArgumentException if task is null
+     */
+    @Override
+    public Thread newThread(Runnable task) throws IllegalArgumentException {
+        if (task == null) {
+            logger.error("[" + CLS + "] task cannot be null");
+            throw new IllegalArgumentException(CLS + ": task cannot be null");
+        }
+        Thread thread;
+        if (this.virtual != null) {
+            thread = this.virtual.newThread(task);
+        } else {
+            thread = new Thread(task);
+            thread.setDaemon(true);
+        }
+        thread.setName("netsim-app-" + this.count.incrementAndGet());
+        return thread;
+    }
+}
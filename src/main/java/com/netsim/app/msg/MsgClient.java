@@ -4,9 +4,12 @@ import java.nio.charset.StandardCharsets;
 import java.util.Scanner;
 
 import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Port;
 import com.netsim.app.App;
 import com.netsim.app.Command;
 import com.netsim.network.NetworkNode;
+import com.netsim.networkstack.PacketBuffer;
+import com.netsim.networkstack.PacketBufferPool;
 import com.netsim.networkstack.Protocol;
 import com.netsim.networkstack.ProtocolPipeline;
 import com.netsim.protocols.MSG.MSGProtocol;
@@ -54,7 +57,17 @@ public class MsgClient extends App {
     }
 
     /**
-     * Starts the interactive command loop of the MSG client.
+     * @return the MSG port, {@link MSGProtocol#port()}
+     */
+    @Override
+    public Port getPort() {
+        return MSGProtocol.port();
+    }
+
+    /**
+     * Starts the interactive command loop of the MSG client. Commands are
+     * posted to the owner node, so the loop can run on its own thread
+     * while another one drives the simulation.
      */
     @Override
     public void start() {
@@ -74,14 +87,25 @@ public class MsgClient extends App {
             String cmdIdentifier = parts[0];
             String params        = parts.length > 1 ? parts[1] : "";
 
-            try {
-                Command cmd = this.commands.get(cmdIdentifier);
-                cmd.execute(this, params);
-                logger.info("[" + CLS + "] executed command: " + cmdIdentifier);
-            } catch (RuntimeException e) {
-                logger.debug("[" + CLS + "] error executing `" + cmdIdentifier + "`: " + e.getLocalizedMessage());
-                this.printAppMessage(e.getLocalizedMessage());
-            }
+            // run on the simulation's thread; this one only waits for input
+            this.owner.post(() -> this.execute(cmdIdentifier, params));
+        }
+    }
+
+    /**
+     * Executes one command typed by the user, reporting failures to them.
+     *
+     * @param cmdIdentifier the command name
+     * @param params        the command parameters (may be empty)
+     */
+    private void execute(String cmdIdentifier, String params) {
+        try {
+            Command cmd = this.commands.get(cmdIdentifier);
+            cmd.execute(this, params);
+            logger.info("[" + CLS + "] executed command: " + cmdIdentifier);
+        } catch (RuntimeException e) {
+            logger.debug("[" + CLS + "] error executing `" + cmdIdentifier + "`: " + e.getLocalizedMessage());
+            this.printAppMessage(e.getLocalizedMessage());
         }
     }
 
@@ -135,7 +159,9 @@ public class MsgClient extends App {
     }
 
     /**
-     * Sends data to the configured server via UDP & IP.
+     * Sends data to the configured server via UDP & IP. The bytes are
+     * copied into a pooled buffer and sent with
+     * {@link #sendInPlace(ProtocolPipeline, PacketBuffer)}.
      *
      * @param stack the protocol pipeline (non-null)
      * @param data  the application payload (non-null, non-empty)
@@ -149,7 +175,33 @@ public class MsgClient extends App {
             logger.error("[" + CLS + "] " + msg);
             throw new IllegalArgumentException(CLS + ": " + msg);
         }
+        this.sendInPlace(stack, PacketBufferPool.getInstance().acquire(data));
+    }
+
+    /**
+     * Sends a message to the configured server via UDP & IP, each layer
+     * writing its header into the buffer's headroom. This client takes
+     * over the caller's reference; the buffer is released if sending fails
+     * before the node takes it.
+     *
+     * @param stack  the protocol pipeline (non-null)
+     * @param packet the application message (non-null, non-empty)
+     * @throws IllegalArgumentException if arguments are invalid
+     * @throws RuntimeException         if sending fails
+     */
+    @Override
+    public void sendInPlace(ProtocolPipeline stack, PacketBuffer packet)
+            throws IllegalArgumentException, RuntimeException {
+        if (stack == null || packet == null || packet.length() == 0) {
+            if (packet != null) {
+                packet.release();
+            }
+            String msg = "send: invalid arguments";
+            logger.error("[" + CLS + "] " + msg);
+            throw new IllegalArgumentException(CLS + ": " + msg);
+        }
         if (this.owner == null) {
+            packet.release();
             String msg = "send: owner node is null";
             logger.error("[" + CLS + "] " + msg);
             throw new RuntimeException(CLS + ": " + msg);
@@ -157,15 +209,21 @@ public class MsgClient extends App {
 
         try {
             int segmentSize = this.owner.getMTU() - 20 - 20; // reserve IPv4 + UDP headers
-            UDPProtocol udpProto = new UDPProtocol(
-                segmentSize,
-                this.owner.randomPort(),
-                MSGProtocol.port()
-            );
-            byte[] encapsulated = udpProto.encapsulate(data);
+            UDPProtocol udpProto;
+            try {
+                udpProto = new UDPProtocol(
+                    segmentSize,
+                    this.owner.randomPort(),
+                    MSGProtocol.port()
+                );
+                udpProto.encapsulateInPlace(packet);
+            } catch (RuntimeException e) {
+                packet.release();
+                throw e;
+            }
 
             stack.push(udpProto);
-            this.owner.send(this.serverIP, stack, encapsulated);
+            this.owner.sendInPlace(this.serverIP, stack, packet);
             logger.info("[" + CLS + "] sent message to server " + this.serverIP.stringRepresentation());
 
         } catch (RuntimeException e) {
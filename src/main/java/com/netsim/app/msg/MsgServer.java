@@ -5,9 +5,12 @@ import java.util.HashMap;
 import java.util.Map;
 
 import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Port;
 import com.netsim.app.App;
 import com.netsim.app.Command;
 import com.netsim.network.NetworkNode;
+import com.netsim.networkstack.PacketBuffer;
+import com.netsim.networkstack.PacketBufferPool;
 import com.netsim.networkstack.ProtocolPipeline;
 import com.netsim.protocols.MSG.MSGProtocol;
 import com.netsim.protocols.UDP.UDPProtocol;
@@ -24,6 +27,8 @@ public class MsgServer extends App {
     private final Map<String, IPv4>    users       = new HashMap<>();
     private IPv4                       pendingDest;
     private MSGProtocol                lastMsgProto;
+    // pipeline of the message being relayed, whose origin stamp the relay keeps
+    private ProtocolPipeline           relayed;
 
     /**
      * Creates a new MsgServer bound to the given NetworkNode.
@@ -46,6 +51,14 @@ public class MsgServer extends App {
         logger.info("[" + CLS + "] initialized on node: " + this.getOwner().getName());
     }
 
+    /**
+     * @return the MSG port, {@link MSGProtocol#port()}
+     */
+    @Override
+    public Port getPort() {
+        return MSGProtocol.port();
+    }
+
     /** No‐op for server; CLI not used. */
     @Override
     public void start() {
@@ -76,12 +89,14 @@ public class MsgServer extends App {
         if (!users.containsKey(user)) {
             register(user, payload);
         } else {
-            route(user, payload);
+            route(user, payload, stack);
         }
     }
 
     /**
-     * Sends data to the previously set pendingDest.
+     * Sends data to the previously set pendingDest. The bytes are copied
+     * into a pooled buffer and sent with
+     * {@link #sendInPlace(ProtocolPipeline, PacketBuffer)}.
      *
      * @param stack the protocol pipeline (non‐null)
      * @param data  the payload bytes (non‐null, non‐empty)
@@ -91,9 +106,35 @@ public class MsgServer extends App {
     @Override
     public void send(ProtocolPipeline stack, byte[] data)
             throws IllegalArgumentException, RuntimeException {
-        logger.info("[" + CLS + "] send called");
         validateArgs(stack, data);
+        sendInPlace(stack, PacketBufferPool.getInstance().acquire(data));
+    }
+
+    /**
+     * Sends a message to the previously set pendingDest, writing the UDP
+     * header into the buffer's headroom. The server takes over the
+     * caller's reference; the buffer is released if sending fails before
+     * the node takes it.
+     *
+     * @param stack  the protocol pipeline (non‐null)
+     * @param packet the message (non‐null, non‐empty)
+     * @throws IllegalArgumentException if arguments invalid
+     * @throws RuntimeException         if no destination or send failure
+     */
+    @Override
+    public void sendInPlace(ProtocolPipeline stack, PacketBuffer packet)
+            throws IllegalArgumentException, RuntimeException {
+        logger.info("[" + CLS + "] send called");
+        if (stack == null || packet == null || packet.length() == 0) {
+            if (packet != null) {
+                packet.release();
+            }
+            String msg = "invalid arguments to receive/send";
+            logger.error("[" + CLS + "] " + msg);
+            throw new IllegalArgumentException("MsgServerApp: " + msg);
+        }
         if (pendingDest == null) {
+            packet.release();
             String msg = "no destination set";
             logger.error("[" + CLS + "] " + msg);
             throw new RuntimeException("MsgServerApp: " + msg);
@@ -101,16 +142,26 @@ public class MsgServer extends App {
 
         NetworkNode node = getOwner();
         int segmentSize  = node.getMTU() - 20 - 20;
-        UDPProtocol udp = new UDPProtocol(
-            segmentSize,
-            node.randomPort(),
-            MSGProtocol.port()
-        );
-        byte[] udpBytes = udp.encapsulate(data);
+        UDPProtocol udp;
+        try {
+            udp = new UDPProtocol(
+                segmentSize,
+                node.randomPort(),
+                MSGProtocol.port()
+            );
+            udp.encapsulateInPlace(packet);
+        } catch (RuntimeException e) {
+            packet.release();
+            throw e;
+        }
 
         stack.push(udp);
+        if (relayed != null && relayed.getOrigin() != null) {
+            stack.stampOrigin(relayed.getOrigin(), relayed.getOriginTime());
+        }
+        relayed = null;
         logger.info("[" + CLS + "] sending UDP to " + pendingDest.stringRepresentation());
-        node.send(pendingDest, stack, udpBytes);
+        node.sendInPlace(pendingDest, stack, packet);
         pendingDest = null;
     }
 
@@ -184,11 +235,11 @@ public class MsgServer extends App {
             ProtocolPipeline pipeline = new ProtocolPipeline();
             MSGProtocol replyProto = new MSGProtocol(getOwner().getName());
             byte[] confirmation = "registrazione effettuata".getBytes(StandardCharsets.UTF_8);
-            byte[] framed       = replyProto.encapsulate(confirmation);
+            PacketBuffer framed = replyProto.encapsulateInBuffer(confirmation);
             pipeline.push(replyProto);
 
             pendingDest = ip;
-            send(pipeline, framed);
+            sendInPlace(pipeline, framed);
 
             printAppMessage("Registered " + user + " at " + ip.stringRepresentation() + "\n");
             logger.info("[" + CLS + "] user \"" + user + "\" registered at " + ip.stringRepresentation());
@@ -205,8 +256,9 @@ public class MsgServer extends App {
      *
      * @param sender  the original sender username
      * @param payload the "recipient:message" payload
+     * @param stack   the pipeline the message arrived with
      */
-    private void route(String sender, String payload) {
+    private void route(String sender, String payload, ProtocolPipeline stack) {
         logger.info("[" + CLS + "] routing from \"" + sender + "\": " + payload);
         int sep = payload.indexOf(':');
         if (sep < 1) {
@@ -227,12 +279,12 @@ public class MsgServer extends App {
 
             ProtocolPipeline pipeline = new ProtocolPipeline();
             MSGProtocol replyProto = new MSGProtocol(getOwner().getName());
-            byte[] errorMsg  = "utente non trovato".getBytes(StandardCharsets.UTF_8);
-            byte[] framedErr = replyProto.encapsulate(errorMsg);
+            byte[]       errorMsg  = "utente non trovato".getBytes(StandardCharsets.UTF_8);
+            PacketBuffer framedErr = replyProto.encapsulateInBuffer(errorMsg);
             pipeline.push(replyProto);
 
             pendingDest = senderIp;
-            send(pipeline, framedErr);
+            sendInPlace(pipeline, framedErr);
 
             logger.info("[" + CLS + "] sent 'utente non trovato' to " + sender);
             return;
@@ -240,6 +292,7 @@ public class MsgServer extends App {
 
         // destinazione valida → inoltro normale
         pendingDest = destIp;
+        relayed     = stack;
         setUsername(sender);
         logger.info("[" + CLS + "] will forward to " + recipient + "@" + destIp.stringRepresentation());
 
@@ -4,6 +4,7 @@ import java.nio.charset.StandardCharsets;
 
 import com.netsim.app.App;
 import com.netsim.app.Command;
+import com.netsim.networkstack.PacketBuffer;
 import com.netsim.networkstack.ProtocolPipeline;
 import com.netsim.protocols.MSG.MSGProtocol;
 import com.netsim.utils.Logger;
@@ -44,14 +45,13 @@ public class Send extends Command {
             // build application-level protocol pipeline
             ProtocolPipeline pipeline = new ProtocolPipeline();
 
-            // wrap the raw text in MSGProtocol
+            // wrap the raw text in MSGProtocol, in a buffer the layers below write into
             MSGProtocol msgProto = new MSGProtocol(this.getUsername(app));
-            byte[] raw = args.getBytes(StandardCharsets.UTF_8);
-            byte[] encapsulated = msgProto.encapsulate(raw);
+            PacketBuffer message = msgProto.encapsulateInBuffer(args.getBytes(StandardCharsets.UTF_8));
             pipeline.push(msgProto);
 
-            // hand off to app.send (adds UDP, IP, DLL, etc.)
-            app.send(pipeline, encapsulated);
+            // hand off to app.sendInPlace (adds UDP, IP, DLL, etc.)
+            app.sendInPlace(pipeline, message);
 
             logger.info("[" + cls + "] Message sent successfully by user " + this.getUsername(app));
         } catch (RuntimeException e) {
@@ -4,6 +4,7 @@ import com.netsim.addresses.IPv4;
 import com.netsim.addresses.Mac;
 import com.netsim.app.msg.MsgClient;
 import com.netsim.app.msg.MsgServer;
+import com.netsim.engine.EventScheduler;
 import com.netsim.network.Interface;
 import com.netsim.network.NetworkAdapter;
 import com.netsim.network.CabledAdapter;
@@ -106,7 +107,8 @@ public class Demo2 {
         client1.register();
         client2.register();
 
-        // 9) Avvio l’app su Host1
-        h1.runApp();
+        // 9) Avvio l’app su Host1 in un thread dedicato; il main esegue la simulazione
+        h1.launchApp();
+        EventScheduler.getInstance().serve();
     }
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.netsim.engine;
+
+/**
+ * A unit of work executed by an {@link EventScheduler} at a given virtual time.
+ */
+@FunctionalInterface
+public interface Event {
+
+    /**
+     * Runs the event. Called exactly once by the scheduler when the
+     * virtual clock reaches the event's timestamp.
+     */
+    void execute();
+}
@@ -0,0 +1,434 @@
+package com.netsim.engine;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+import com.netsim.utils.Logger;
+
+/**
+ * Discrete-event scheduler driving the simulation.
+ * <p>
+ * Events are kept in a priority queue ordered by virtual time (nanoseconds)
+ * and executed one at a time by {@link #run()}, so a packet crossing many
+ * hops is an iterative sequence of events instead of a recursive call chain.
+ * </p>
+ * <p>
+ * When auto-run is enabled (the default for the shared instance returned by
+ * {@link #getInstance()}), the first {@link #schedule(long, Event)} issued while
+ * the scheduler is idle drains the queue before returning; nested schedules
+ * made by running events are only enqueued. Synchronous callers such as the
+ * demos therefore observe the same behaviour as before, with bounded stack depth.
+ * </p>
+ * <p>
+ * The queue is guarded by the scheduler's monitor: any thread may schedule,
+ * and {@link #run()}, {@link #runUntil(long)} and {@link #step()} hold the
+ * monitor while they execute events, so the queue is only ever driven by
+ * one thread at a time. Other threads, such as applications blocked on
+ * console input, hand it work through {@link #post(Event)}: posted events
+ * wait in a concurrent mailbox and run at the current virtual time on the
+ * thread executing the scheduler, typically one parked in {@link #serve()}.
+ * </p>
+ */
+public class EventScheduler {
+    private static final Logger         logger   = Logger.getInstance();
+    private static final String         CLS      = EventScheduler.class.getSimpleName();
+    private static final EventScheduler instance = new EventScheduler(true);
+
+    private final PriorityQueue<ScheduledEvent>  queue;
+    private final ConcurrentLinkedQueue<Event>   mailbox;
+    private long             now;
+    private long             sequence;
+    private long             executed;
+    private volatile boolean running;
+    private volatile boolean autoRun;
+    private volatile Thread  server;
+    private volatile boolean stopping;
+
+    /**
+     * Creates a scheduler with the clock at zero and auto-run disabled:
+     * events only fire when {@link #run()}, {@link #runUntil(long)} or
+     * {@link #step()} is called.
+     */
+    public EventScheduler() {
+        this(false);
+    }
+
+    /**
+     * Creates a scheduler with the clock at zero.
+     *
+     * @param autoRun whether an idle scheduler drains the queue on schedule
+     */
+    public EventScheduler(boolean autoRun) {
+        this.queue    = new PriorityQueue<>();
+        this.mailbox  = new ConcurrentLinkedQueue<>();
+        this.now      = 0L;
+        this.sequence = 0L;
+        this.executed = 0L;
+        this.running  = false;
+        this.autoRun  = autoRun;
+        logger.info(() -> "[" + CLS + "] initialized (autoRun=" + autoRun + ")");
+    }
+
+    /**
+     * @return the shared scheduler used by adapters and nodes by default
+     */
+    public static EventScheduler getInstance() {
+        return instance;
+    }
+
+    /**
+     * @return the current virtual time in nanoseconds
+     */
+    public long now() {
+        return this.now;
+    }
+
+    /**
+     * Schedules an event after the given delay from the current virtual time.
+     *
+     * @param delay delay in nanoseconds (≥ 0)
+     * @param event the event to execute (non-null)
+     * @return the scheduled event, which can be {@link ScheduledEvent#cancel() cancelled}
+     * @throws IllegalArgumentException if delay is negative or event is null
+     */
+    public ScheduledEvent schedule(long delay, Event event) throws IllegalArgumentException {
+        if (delay < 0) {
+            logger.error("[" + CLS + "] delay cannot be negative: " + delay);
+            throw new IllegalArgumentException(CLS + ": delay cannot be negative");
+        }
+        synchronized (this) {
+            return this.scheduleAt(this.now + delay, event);
+        }
+    }
+
+    /**
+     * Schedules an event at an absolute virtual time.
+     *
+     * @param time  absolute virtual time in nanoseconds (≥ {@link #now()})
+     * @param event the event to execute (non-null)
+     * @return the scheduled event, which can be {@link ScheduledEvent#cancel() cancelled}
+     * @throws IllegalArgumentException if time is in the past or event is null
+     */
+    public ScheduledEvent scheduleAt(long time, Event event) throws IllegalArgumentException {
+        synchronized (this) {
+            this.validate(time, event);
+            ScheduledEvent scheduled = new ScheduledEvent(time, 0L, this.sequence++, event);
+            this.enqueue(scheduled);
+            return scheduled;
+        }
+    }
+
+    /**
+     * Schedules an event at an absolute virtual time on behalf of a given
+     * origin. The caller owns the sequence counter of that origin, so the
+     * relative order of simultaneous events does not depend on which
+     * scheduler or thread inserted them.
+     *
+     * @param time     absolute virtual time in nanoseconds (≥ {@link #now()})
+     * @param origin   id of the scheduling entity (&gt; 0)
+     * @param sequence the origin's own monotonically increasing counter
+     * @param event    the event to execute (non-null)
+     * @throws IllegalArgumentException if time is in the past, origin ≤ 0 or event is null
+     */
+    public void scheduleAt(long time, long origin, long sequence, Event event) throws IllegalArgumentException {
+        if (origin <= 0) {
+            logger.error("[" + CLS + "] origin must be positive: " + origin);
+            throw new IllegalArgumentException(CLS + ": origin must be positive");
+        }
+        this.validate(time, event);
+        this.enqueue(new ScheduledEvent(time, origin, sequence, event));
+    }
+
+    /**
+     * Checks that an event can be scheduled at the given time.
+     *
+     * @param time  absolute virtual time in nanoseconds
+     * @param event the event to execute
+     * @throws IllegalArgumentException if time is in the past or event is null
+     */
+    protected void validate(long time, Event event) throws IllegalArgumentException {
+        if (event == null) {
+            logger.error("[" + CLS + "] event cannot be null");
+            throw new IllegalArgumentException(CLS + ": event cannot be null");
+        }
+        if (time < this.now) {
+            logger.error("[" + CLS + "] cannot schedule in the past: " + time + " < " + this.now);
+            throw new IllegalArgumentException(CLS + ": cannot schedule in the past");
+        }
+    }
+
+    /**
+     * Inserts an event in the queue, draining it if auto-run is enabled
+     * and the scheduler is idle, or waking the thread serving it if that
+     * is another one.
+     *
+     * @param scheduled the event to insert (non-null)
+     */
+    protected void enqueue(ScheduledEvent scheduled) {
+        synchronized (this) {
+            this.queue.add(scheduled);
+            if (!this.running) {
+                if (this.autoRun) {
+                    this.run();
+                }
+                return;
+            }
+        }
+        Thread serving = this.server;
+        if (serving != null && serving != Thread.currentThread()) {
+            LockSupport.unpark(serving);
+        }
+    }
+
+    /**
+     * Executes the earliest pending event, advancing the clock to its time.
+     *
+     * @return true if an event was executed, false if the queue was empty
+     */
+    public synchronized boolean step() {
+        if (this.head() == null) {
+            return false;
+        }
+        ScheduledEvent next = this.queue.poll();
+        this.now = next.getTime();
+        this.executed++;
+        next.getEvent().execute();
+        return true;
+    }
+
+    /**
+     * Executes events until the queue is empty.
+     *
+     * @return the number of events executed by this call
+     * @throws IllegalStateException if the scheduler is already running
+     */
+    public long run() throws IllegalStateException {
+        return this.runUntil(Long.MAX_VALUE);
+    }
+
+    /**
+     * Executes every event whose time is ≤ {@code until}, then advances the
+     * clock to {@code until} if the queue was drained earlier.
+     *
+     * @param until the virtual time (ns) at which to stop
+     * @return the number of events executed by this call
+     * @throws IllegalStateException if the scheduler is already running
+     */
+    public long runUntil(long until) throws IllegalStateException {
+        long count = this.advance(until);
+        logger.debug(() -> "[" + CLS + "] executed " + count + " events, clock=" + this.now);
+        return count;
+    }
+
+    /**
+     * Same as {@link #runUntil(long)} without logging, for callers that
+     * drive the scheduler in many short slices.
+     *
+     * @param until the virtual time (ns) at which to stop
+     * @return the number of events executed by this call
+     * @throws IllegalStateException if the scheduler is already running
+     */
+    protected synchronized long advance(long until) throws IllegalStateException {
+        if (this.running) {
+            logger.error("[" + CLS + "] run called while already running");
+            throw new IllegalStateException(CLS + ": scheduler is already running");
+        }
+        this.running = true;
+        long start = this.executed;
+        try {
+            this.acceptPosted();
+            for (ScheduledEvent head = this.head(); head != null && head.getTime() <= until; head = this.head()) {
+                this.step();
+                this.acceptPosted();
+            }
+            if (until != Long.MAX_VALUE && until > this.now) {
+                this.now = until;
+            }
+        } finally {
+            this.running = false;
+        }
+        return this.executed - start;
+    }
+
+    /**
+     * Hands an event to the scheduler from any thread. It runs at the
+     * virtual time current when the scheduler picks it up, after the
+     * events already due at that time. If a thread is serving the
+     * scheduler it is woken up; otherwise an idle auto-run scheduler
+     * drains the queue on the calling thread, posters taking turns on
+     * the scheduler's monitor. A post that finds the scheduler running
+     * waits for the monitor, so an event posted while a run is winding
+     * down is run by the poster rather than left in the mailbox.
+     *
+     * @param event the event to execute (non-null)
+     * @throws IllegalArgumentException if event is null
+     */
+    public void post(Event event) throws IllegalArgumentException {
+        if (event == null) {
+            logger.error("[" + CLS + "] event cannot be null");
+            throw new IllegalArgumentException(CLS + ": event cannot be null");
+        }
+        this.mailbox.add(event);
+        Thread serving = this.server;
+        if (serving != null) {
+            LockSupport.unpark(serving);
+        } else if (this.autoRun) {
+            synchronized (this) {
+                if (!this.running) {
+                    this.run();
+                }
+            }
+        }
+    }
+
+    /**
+     * Discards cancelled events from the head of the queue.
+     *
+     * @return the earliest event still to run, or null if there is none
+     */
+    private ScheduledEvent head() {
+        ScheduledEvent head = this.queue.peek();
+        while (head != null && head.isCancelled()) {
+            this.queue.poll();
+            head = this.queue.peek();
+        }
+        return head;
+    }
+
+    /**
+     * Moves posted events into the queue at the current time.
+     */
+    private void acceptPosted() {
+        Event posted;
+        while ((posted = this.mailbox.poll()) != null) {
+            this.queue.add(new ScheduledEvent(this.now, 0L, this.sequence++, posted));
+        }
+    }
+
+    /**
+     * Executes events on the calling thread until {@link #stop()} is
+     * called, parking whenever the queue is empty until something is
+     * posted. Virtual time only advances through scheduled events.
+     *
+     * @return the number of events executed by this call
+     * @throws IllegalStateException if the scheduler is already running
+     */
+    public long serve() throws IllegalStateException {
+        synchronized (this) {
+            if (this.running) {
+                logger.error("[" + CLS + "] serve called while already running");
+                throw new IllegalStateException(CLS + ": scheduler is already running");
+            }
+            this.running = true;
+            this.server  = Thread.currentThread();
+        }
+        logger.info(() -> "[" + CLS + "] serving on " + Thread.currentThread().getName());
+        long start = this.executed;
+        try {
+            while (!this.stopping) {
+                boolean ran;
+                synchronized (this) {
+                    this.acceptPosted();
+                    ran = this.step();
+                }
+                if (!ran) {
+                    LockSupport.park(this);
+                }
+            }
+        } finally {
+            synchronized (this) {
+                this.server   = null;
+                this.stopping = false;
+                this.running  = false;
+                // a post that woke the server as it was leaving is run here
+                if (this.autoRun && !this.mailbox.isEmpty()) {
+                    this.run();
+                }
+            }
+        }
+        long count = this.executed - start;
+        logger.info(() -> "[" + CLS + "] stopped serving after " + count + " events, clock=" + this.now);
+        return count;
+    }
+
+    /**
+     * Makes {@link #serve()} return once the event it is executing, if
+     * any, completes; a serve that has not started yet returns at once.
+     * Safe to call from any thread, events included.
+     */
+    public void stop() {
+        this.stopping = true;
+        Thread serving = this.server;
+        if (serving != null) {
+            LockSupport.unpark(serving);
+        }
+    }
+
+    /**
+     * @return the time of the earliest pending event, or
+     *         {@link Long#MAX_VALUE} if the queue is empty
+     */
+    public synchronized long nextEventTime() {
+        ScheduledEvent head = this.head();
+        return head == null ? Long.MAX_VALUE : head.getTime();
+    }
+
+    /**
+     * @return the number of events waiting to be executed, cancelled ones
+     *         included until they reach the head of the queue
+     */
+    public synchronized int pending() {
+        return this.queue.size();
+    }
+
+    /**
+     * @return the total number of events executed since creation or reset
+     */
+    public long getExecutedCount() {
+        return this.executed;
+    }
+
+    /**
+     * @return true while {@link #run()}, {@link #runUntil(long)} or
+     *         {@link #serve()} is executing
+     */
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    /**
+     * @return true if an idle scheduler drains the queue on schedule
+     */
+    public boolean isAutoRun() {
+        return this.autoRun;
+    }
+
+    /**
+     * Enables or disables auto-run.
+     *
+     * @param autoRun true to drain the queue on schedule when idle
+     */
+    public void setAutoRun(boolean autoRun) {
+        this.autoRun = autoRun;
+        logger.info(() -> "[" + CLS + "] autoRun set to " + autoRun);
+    }
+
+    /**
+     * Discards pending events and resets the clock and counters to zero.
+     *
+     * @throws IllegalStateException if the scheduler is running
+     */
+    public synchronized void reset() throws IllegalStateException {
+        if (this.running) {
+            logger.error("[" + CLS + "] cannot reset while running");
+            throw new IllegalStateException(CLS + ": cannot reset while running");
+        }
+        this.queue.clear();
+        this.mailbox.clear();
+        this.now      = 0L;
+        this.sequence = 0L;
+        this.executed = 0L;
+        logger.info(() -> "[" + CLS + "] reset");
+    }
+}
@@ -0,0 +1,136 @@
+package com.netsim.engine;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import com.netsim.utils.Logger;
+
+/**
+ * One partition of a {@link ParallelSimulator}: a private event queue
+ * executed by a single worker thread.
+ * <p>
+ * Events posted from the worker itself go straight into the queue. Events
+ * posted by other partitions land in a concurrent inbox that the worker
+ * merges between time windows; they must carry an explicit origin so their
+ * order does not depend on which thread got there first, and they must not
+ * fall inside the window currently being executed.
+ * </p>
+ */
+public final class LogicalProcess extends EventScheduler {
+    private static final Logger logger = Logger.getInstance();
+    private static final String CLS    = LogicalProcess.class.getSimpleName();
+
+    private final int                                   index;
+    private final ConcurrentLinkedQueue<ScheduledEvent> inbox;
+    private volatile Thread worker;
+    private volatile long   windowEnd;
+
+    /**
+     * @param index position of this partition in its simulator
+     */
+    LogicalProcess(int index) {
+        super(false);
+        this.index     = index;
+        this.inbox     = new ConcurrentLinkedQueue<>();
+        this.worker    = null;
+        this.windowEnd = Long.MIN_VALUE;
+    }
+
+    /**
+     * @return position of this partition in its simulator
+     */
+    public int getIndex() {
+        return this.index;
+    }
+
+    /**
+     * @return true if the calling thread is not the one executing this partition
+     */
+    private boolean isForeign() {
+        Thread current = this.worker;
+        return current != null && current != Thread.currentThread();
+    }
+
+    /**
+     * Schedules a local event. Only the partition's own worker (or the
+     * setup thread, before the simulation starts) may use this overload.
+     *
+     * @throws IllegalStateException if called from another partition
+     */
+    @Override
+    public ScheduledEvent scheduleAt(long time, Event event) throws IllegalArgumentException, IllegalStateException {
+        if (this.isForeign()) {
+            logger.error("[" + CLS + "] partition " + this.index + ": cross-partition event without origin");
+            throw new IllegalStateException(CLS + ": cross-partition events must carry an origin");
+        }
+        return super.scheduleAt(time, event);
+    }
+
+    /**
+     * Schedules an event keyed by origin. When called from another
+     * partition the event is queued in the inbox until the next window.
+     *
+     * @throws IllegalStateException if a cross-partition event falls inside the current window
+     */
+    @Override
+    public void scheduleAt(long time, long origin, long sequence, Event event)
+        throws IllegalArgumentException, IllegalStateException {
+        if (!this.isForeign()) {
+            super.scheduleAt(time, origin, sequence, event);
+            return;
+        }
+        if (event == null || origin <= 0) {
+            logger.error("[" + CLS + "] partition " + this.index + ": invalid cross-partition event");
+            throw new IllegalArgumentException(CLS + ": invalid cross-partition event");
+        }
+        if (time < this.windowEnd) {
+            logger.error("[" + CLS + "] partition " + this.index + ": event at " + time
+                + " violates lookahead (window ends at " + this.windowEnd + ")");
+            throw new IllegalStateException(CLS + ": event violates lookahead");
+        }
+        this.inbox.add(new ScheduledEvent(time, origin, sequence, event));
+    }
+
+    /**
+     * Binds this partition to its worker for the duration of a run.
+     *
+     * @param thread the worker thread, or null to unbind
+     */
+    void bind(Thread thread) {
+        this.worker = thread;
+    }
+
+    /**
+     * Moves every event received from other partitions into the local queue.
+     *
+     * @return the number of events merged
+     */
+    int drainInbox() {
+        int merged = 0;
+        ScheduledEvent next;
+        while ((next = this.inbox.poll()) != null) {
+            this.enqueue(next);
+            merged++;
+        }
+        return merged;
+    }
+
+    /**
+     * Opens the next window. Called by the simulator while every worker is
+     * parked at the barrier, so all partitions agree on the bound.
+     *
+     * @param end exclusive upper bound of the window
+     */
+    void openWindow(long end) {
+        this.windowEnd = end;
+    }
+
+    /**
+     * Executes every local event strictly before the current window end.
+     *
+     * @return the number of events executed
+     */
+    long runWindow() {
+        long end = this.windowEnd;
+        return this.advance(end == Long.MAX_VALUE ? Long.MAX_VALUE : end - 1);
+    }
+}
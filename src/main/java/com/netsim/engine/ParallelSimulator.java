@@ -0,0 +1,438 @@
+package com.netsim.engine;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.netsim.network.Bridge;
+import com.netsim.network.CabledAdapter;
+import com.netsim.network.Device;
+import com.netsim.network.Interface;
+import com.netsim.network.NetworkAdapter;
+import com.netsim.network.NetworkNode;
+import com.netsim.utils.Logger;
+
+/**
+ * Conservative parallel discrete-event simulator.
+ * <p>
+ * Nodes are partitioned across {@link LogicalProcess}es, each executed by
+ * its own thread. Partitions advance in lock-step time windows whose width
+ * is the lookahead: the smallest latency of any cable joining two
+ * partitions. An event executed inside a window can only affect another
+ * partition after that window has ended, so workers never block on each
+ * other while a window runs and only meet at a barrier between windows.
+ * </p>
+ * <p>
+ * Every cable endpoint is given a unique origin id in registration order,
+ * and deliveries are keyed by (time, origin, per-adapter sequence). The
+ * resulting event order does not depend on the number of partitions, so
+ * a run with N workers produces the same results as a run with one.
+ * </p>
+ * <p>
+ * {@link Bridge}s such as switches are registered like nodes with
+ * {@link #addBridge(Bridge)}. A bridge and all its ports belong to one
+ * partition, so its table is only ever touched by that partition's
+ * thread; frames reach it from other partitions through its cables.
+ * </p>
+ */
+public final class ParallelSimulator {
+    private static final Logger logger = Logger.getInstance();
+    private static final String CLS    = ParallelSimulator.class.getSimpleName();
+
+    private final LogicalProcess[]           processes;
+    private final List<Device>               devices;
+    private final Map<Device, Integer>       partitions;
+    private final AtomicReference<Throwable> failure;
+    private       long                       lookahead;
+    private       long                       maxLookahead;
+    private       long                       limit;
+    private       boolean                    prepared;
+    private       boolean                    done;
+
+    /**
+     * @param workers number of partitions (and threads) to use (≥ 1)
+     * @throws IllegalArgumentException if workers &lt; 1
+     */
+    public ParallelSimulator(int workers) throws IllegalArgumentException {
+        if (workers < 1) {
+            logger.error("[" + CLS + "] workers must be at least 1: " + workers);
+            throw new IllegalArgumentException(CLS + ": workers must be at least 1");
+        }
+        this.processes    = new LogicalProcess[workers];
+        for (int i = 0; i < workers; i++) {
+            this.processes[i] = new LogicalProcess(i);
+        }
+        this.devices      = new ArrayList<>();
+        this.partitions   = new IdentityHashMap<>();
+        this.failure      = new AtomicReference<>();
+        this.lookahead    = Long.MAX_VALUE;
+        this.maxLookahead = Long.MAX_VALUE;
+        this.prepared     = false;
+        logger.info("[" + CLS + "] created with " + workers + " partitions");
+    }
+
+    /**
+     * Registers a node; its partition is chosen when the simulation is
+     * prepared, by splitting the registration order into contiguous blocks
+     * so that neighbours declared together tend to share a partition.
+     *
+     * @param node the node to simulate (non-null, not yet registered)
+     * @throws IllegalArgumentException if node is null or already registered
+     * @throws IllegalStateException    if the simulation is already prepared
+     */
+    public void addNode(NetworkNode node) throws IllegalArgumentException, IllegalStateException {
+        this.addNode(node, -1);
+    }
+
+    /**
+     * Registers a node on an explicit partition.
+     *
+     * @param node      the node to simulate (non-null, not yet registered)
+     * @param partition index in [0, workers), or -1 to choose automatically
+     * @throws IllegalArgumentException if node is null, already registered or partition out of range
+     * @throws IllegalStateException    if the simulation is already prepared
+     */
+    public void addNode(NetworkNode node, int partition) throws IllegalArgumentException, IllegalStateException {
+        this.register(node, partition);
+    }
+
+    /**
+     * Registers a bridge, such as a switch; its partition is chosen as for
+     * nodes, and its ports run on that partition.
+     *
+     * @param bridge the bridge to simulate (non-null, not yet registered)
+     * @throws IllegalArgumentException if bridge is null or already registered
+     * @throws IllegalStateException    if the simulation is already prepared
+     */
+    public void addBridge(Bridge bridge) throws IllegalArgumentException, IllegalStateException {
+        this.addBridge(bridge, -1);
+    }
+
+    /**
+     * Registers a bridge on an explicit partition.
+     *
+     * @param bridge    the bridge to simulate (non-null, not yet registered)
+     * @param partition index in [0, workers), or -1 to choose automatically
+     * @throws IllegalArgumentException if bridge is null, already registered or partition out of range
+     * @throws IllegalStateException    if the simulation is already prepared
+     */
+    public void addBridge(Bridge bridge, int partition) throws IllegalArgumentException, IllegalStateException {
+        this.register(bridge, partition);
+    }
+
+    private void register(Device device, int partition) throws IllegalArgumentException, IllegalStateException {
+        if (this.prepared) {
+            logger.error("[" + CLS + "] cannot add nodes after prepare");
+            throw new IllegalStateException(CLS + ": simulation already prepared");
+        }
+        if (device == null || this.partitions.containsKey(device)) {
+            logger.error("[" + CLS + "] node is null or already registered");
+            throw new IllegalArgumentException(CLS + ": node is null or already registered");
+        }
+        if (partition < -1 || partition >= this.processes.length) {
+            logger.error("[" + CLS + "] partition out of range: " + partition);
+            throw new IllegalArgumentException(CLS + ": partition out of range");
+        }
+        this.devices.add(device);
+        this.partitions.put(device, partition);
+    }
+
+    /**
+     * @param device a registered node or bridge
+     * @return the cabled adapters of the device
+     */
+    private static List<CabledAdapter> adaptersOf(Device device) {
+        if (device instanceof Bridge) {
+            return ((Bridge) device).getPorts();
+        }
+        List<CabledAdapter> adapters = new ArrayList<>();
+        for (Interface iface : ((NetworkNode) device).getInterfaces()) {
+            NetworkAdapter adapter = iface.getAdapter();
+            if (adapter instanceof CabledAdapter) {
+                adapters.add((CabledAdapter) adapter);
+            }
+        }
+        return adapters;
+    }
+
+    /**
+     * @return the number of partitions
+     */
+    public int getWorkers() {
+        return this.processes.length;
+    }
+
+    /**
+     * @param index partition index in [0, workers)
+     * @return the logical process for that partition
+     * @throws IllegalArgumentException if index is out of range
+     */
+    public LogicalProcess getProcess(int index) throws IllegalArgumentException {
+        if (index < 0 || index >= this.processes.length) {
+            logger.error("[" + CLS + "] partition out of range: " + index);
+            throw new IllegalArgumentException(CLS + ": partition out of range");
+        }
+        return this.processes[index];
+    }
+
+    /**
+     * @param node a registered node
+     * @return the logical process executing that node
+     * @throws IllegalArgumentException if node is not registered
+     */
+    public LogicalProcess getProcess(NetworkNode node) throws IllegalArgumentException {
+        this.prepare();
+        Integer partition = this.partitions.get(node);
+        if (partition == null) {
+            logger.error("[" + CLS + "] node not registered");
+            throw new IllegalArgumentException(CLS + ": node not registered");
+        }
+        return this.processes[partition];
+    }
+
+    /**
+     * Schedules an external event (e.g. traffic injection) on the partition
+     * executing a node. Must be called from the setup thread, not while the
+     * simulation is running.
+     *
+     * @param node  a registered node
+     * @param time  absolute virtual time in nanoseconds
+     * @param event the event to execute (non-null)
+     * @throws IllegalArgumentException if node is not registered, time is in the past or event is null
+     */
+    public void scheduleAt(NetworkNode node, long time, Event event) throws IllegalArgumentException {
+        this.getProcess(node).scheduleAt(time, event);
+    }
+
+    /**
+     * Caps the lookahead. Needed when events are posted directly between
+     * logical processes rather than through cables, since the simulator
+     * cannot infer their minimum delay.
+     *
+     * @param max minimum delay (ns) of any directly posted cross-partition event (&gt; 0)
+     * @throws IllegalArgumentException if max is not positive
+     * @throws IllegalStateException    if the simulation is already prepared
+     */
+    public void setLookahead(long max) throws IllegalArgumentException, IllegalStateException {
+        if (max <= 0) {
+            logger.error("[" + CLS + "] lookahead must be positive: " + max);
+            throw new IllegalArgumentException(CLS + ": lookahead must be positive");
+        }
+        if (this.prepared) {
+            logger.error("[" + CLS + "] cannot change lookahead after prepare");
+            throw new IllegalStateException(CLS + ": simulation already prepared");
+        }
+        this.maxLookahead = max;
+    }
+
+    /**
+     * @return the lookahead in nanoseconds, {@link Long#MAX_VALUE} if no cable crosses partitions
+     */
+    public long getLookahead() {
+        this.prepare();
+        return this.lookahead;
+    }
+
+    /**
+     * @return the latest clock across partitions
+     */
+    public long now() {
+        long now = 0L;
+        for (LogicalProcess lp : this.processes) {
+            now = Math.max(now, lp.now());
+        }
+        return now;
+    }
+
+    /**
+     * @return the total number of events executed by all partitions
+     */
+    public long getExecutedCount() {
+        long total = 0L;
+        for (LogicalProcess lp : this.processes) {
+            total += lp.getExecutedCount();
+        }
+        return total;
+    }
+
+    /**
+     * Assigns partitions, binds every registered node and its cable
+     * endpoints to its logical process, numbers the endpoints and computes
+     * the lookahead. Called implicitly by the first run; idempotent.
+     *
+     * @throws IllegalStateException if a cable leads to an unregistered node
+     *                               or bridge, or a zero-latency cable crosses partitions
+     */
+    public void prepare() throws IllegalStateException {
+        if (this.prepared) {
+            return;
+        }
+        int count   = this.devices.size();
+        int workers = this.processes.length;
+        for (int i = 0; i < count; i++) {
+            Device device = this.devices.get(i);
+            if (this.partitions.get(device) < 0) {
+                this.partitions.put(device, (int) ((long) i * workers / count));
+            }
+        }
+
+        long origin = 1L;
+        for (Device device : this.devices) {
+            LogicalProcess lp = this.processes[this.partitions.get(device)];
+            if (device instanceof NetworkNode) {
+                ((NetworkNode) device).setScheduler(lp);
+            }
+            for (CabledAdapter cabled : adaptersOf(device)) {
+                cabled.setScheduler(lp);
+                cabled.setEventOrigin(origin++);
+            }
+        }
+
+        long minLatency = Long.MAX_VALUE;
+        for (Device device : this.devices) {
+            int from = this.partitions.get(device);
+            for (CabledAdapter cabled : adaptersOf(device)) {
+                if (!cabled.isLinked()) {
+                    continue;
+                }
+                Integer to = this.partitions.get(cabled.getLinkedAdapter().getOwner());
+                if (to == null) {
+                    logger.error("[" + CLS + "] adapter " + cabled.getName() + " is linked to an unregistered node");
+                    throw new IllegalStateException(CLS + ": adapter linked to an unregistered node");
+                }
+                if (to != from) {
+                    if (cabled.getLatency() == 0L) {
+                        logger.error("[" + CLS + "] zero-latency cable " + cabled.getName() + " crosses partitions");
+                        throw new IllegalStateException(CLS + ": zero-latency cable crosses partitions");
+                    }
+                    minLatency = Math.min(minLatency, cabled.getLatency());
+                }
+            }
+        }
+        this.lookahead = Math.min(minLatency, this.maxLookahead);
+        this.prepared  = true;
+        logger.info("[" + CLS + "] prepared " + count + " nodes and bridges on " + workers
+            + " partitions, lookahead=" + this.lookahead + "ns");
+    }
+
+    /**
+     * Runs until every partition is idle.
+     *
+     * @return the number of events executed by this call
+     * @throws RuntimeException if an event failed on any partition
+     */
+    public long run() throws RuntimeException {
+        return this.runUntil(Long.MAX_VALUE);
+    }
+
+    /**
+     * Runs every event whose time is ≤ {@code until}.
+     *
+     * @param until the virtual time (ns) at which to stop
+     * @return the number of events executed by this call
+     * @throws RuntimeException if an event failed on any partition
+     */
+    public long runUntil(long until) throws RuntimeException {
+        this.prepare();
+        long before = this.getExecutedCount();
+        this.limit  = until;
+        this.done   = false;
+        this.failure.set(null);
+
+        int workers = this.processes.length;
+        CyclicBarrier opened = new CyclicBarrier(workers, this::nextWindow);
+        CyclicBarrier closed = new CyclicBarrier(workers);
+        Thread[] threads = new Thread[workers];
+        for (int i = 0; i < workers; i++) {
+            LogicalProcess lp = this.processes[i];
+            threads[i] = new Thread(() -> this.work(lp, opened, closed), "netsim-lp-" + i);
+            lp.bind(threads[i]);
+        }
+        for (Thread t : threads) {
+            t.start();
+        }
+        try {
+            for (Thread t : threads) {
+                t.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(CLS + ": interrupted while waiting for workers", e);
+        } finally {
+            for (LogicalProcess lp : this.processes) {
+                lp.bind(null);
+            }
+        }
+
+        Throwable error = this.failure.get();
+        if (error != null) {
+            logger.error("[" + CLS + "] simulation failed: " + error.getMessage());
+            throw new RuntimeException(CLS + ": simulation failed", error);
+        }
+        long executed = this.getExecutedCount() - before;
+        logger.info("[" + CLS + "] executed " + executed + " events, clock=" + this.now());
+        return executed;
+    }
+
+    /**
+     * Worker loop: merge the inbox, wait for the window to open, execute
+     * it, then wait until every partition has closed it so that no event
+     * is still in flight when inboxes are merged. A failing event is
+     * recorded and the worker keeps meeting the barriers, so the other
+     * partitions are released at the next window boundary.
+     *
+     * @param lp     the partition owned by the calling thread
+     * @param opened barrier whose action computes the next window
+     * @param closed barrier marking the end of a window
+     */
+    private void work(LogicalProcess lp, CyclicBarrier opened, CyclicBarrier closed) {
+        try {
+            while (true) {
+                lp.drainInbox();
+                opened.await();
+                if (this.done) {
+                    return;
+                }
+                try {
+                    lp.runWindow();
+                } catch (RuntimeException | Error e) {
+                    this.failure.compareAndSet(null, e);
+                }
+                closed.await();
+            }
+        } catch (BrokenBarrierException e) {
+            this.failure.compareAndSet(null, e);
+        } catch (InterruptedException e) {
+            this.failure.compareAndSet(null, e);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Barrier action: computes the next window from the earliest pending
+     * event of all partitions, or flags the end of the run.
+     */
+    private void nextWindow() {
+        long earliest = Long.MAX_VALUE;
+        for (LogicalProcess lp : this.processes) {
+            earliest = Math.min(earliest, lp.nextEventTime());
+        }
+        if (earliest == Long.MAX_VALUE || earliest > this.limit || this.failure.get() != null) {
+            this.done = true;
+            return;
+        }
+        long end = this.lookahead == Long.MAX_VALUE || earliest > Long.MAX_VALUE - this.lookahead
+            ? Long.MAX_VALUE
+            : earliest + this.lookahead;
+        if (this.limit != Long.MAX_VALUE) {
+            end = Math.min(end, this.limit + 1);
+        }
+        for (LogicalProcess lp : this.processes) {
+            lp.openWindow(end);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.netsim.engine;
+
+/**
+ * An {@link Event} bound to the virtual time at which it must fire.
+ * <p>
+ * Events are ordered by time, then by origin, then by sequence. Events
+ * scheduled without an explicit origin use origin 0 and the scheduler's
+ * insertion counter, so simultaneous local events are FIFO. Events that
+ * cross logical processes carry the sending entity's id and its own
+ * counter, which makes their order independent of thread interleaving.
+ * </p>
+ * <p>
+ * An event returned by a schedule method can be withdrawn with
+ * {@link #cancel()}: it stays in the queue but is discarded, without
+ * running or advancing the clock, when it reaches the head.
+ * </p>
+ */
+public final class ScheduledEvent implements Comparable<ScheduledEvent> {
+    private final long  time;
+    private final long  origin;
+    private final long  sequence;
+    private final Event event;
+    private volatile boolean cancelled;
+
+    /**
+     * @param time     the virtual time (ns) at which the event fires
+     * @param origin   id of the entity that scheduled the event (0 = local)
+     * @param sequence tie-breaker for events sharing time and origin
+     * @param event    the event to execute (non-null)
+     */
+    ScheduledEvent(long time, long origin, long sequence, Event event) {
+        this.time     = time;
+        this.origin   = origin;
+        this.sequence = sequence;
+        this.event    = event;
+    }
+
+    /** @return the virtual time (ns) at which the event fires */
+    public long getTime() {
+        return this.time;
+    }
+
+    /** @return the id of the entity that scheduled the event */
+    public long getOrigin() {
+        return this.origin;
+    }
+
+    /** @return the sequence used to break ties */
+    public long getSequence() {
+        return this.sequence;
+    }
+
+    /** @return the wrapped event */
+    public Event getEvent() {
+        return this.event;
+    }
+
+    /**
+     * Withdraws the event if it has not run yet, e.g. a timeout whose
+     * condition was met. Safe to call from any thread, more than once.
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    /** @return true if {@link #cancel()} was called */
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    @Override
+    public int compareTo(ScheduledEvent other) {
+        int cmp = Long.compare(this.time, other.time);
+        if (cmp != 0) {
+            return cmp;
+        }
+        cmp = Long.compare(this.origin, other.origin);
+        return cmp != 0 ? cmp : Long.compare(this.sequence, other.sequence);
+    }
+}
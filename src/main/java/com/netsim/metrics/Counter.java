@@ -0,0 +1,63 @@
+package com.netsim.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * A monotonically increasing count, such as frames sent. Increments go
+ * to a {@link LongAdder}, which spreads contended updates over several
+ * cells, so counters shared by simulation threads cost about as much as
+ * a plain field when uncontended and do not serialize threads when they
+ * are.
+ */
+public final class Counter implements LongSupplier {
+    private final LongAdder adder;
+
+    /**
+     * Creates a counter at zero.
+     */
+    public Counter() {
+        this.adder = new LongAdder();
+    }
+
+    /**
+     * Adds one.
+     */
+    public void increment() {
+        this.adder.increment();
+    }
+
+    /**
+     * @param amount the amount to add (may be 0)
+     */
+    public void add(long amount) {
+        this.adder.add(amount);
+    }
+
+    /**
+     * @return the count; exact once updates have stopped
+     */
+    public long sum() {
+        return this.adder.sum();
+    }
+
+    /**
+     * @return the count, as a metric source
+     */
+    @Override
+    public long getAsLong() {
+        return this.adder.sum();
+    }
+
+    /**
+     * Sets the count back to zero. Updates made meanwhile may be lost.
+     */
+    public void reset() {
+        this.adder.reset();
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(this.adder.sum());
+    }
+}
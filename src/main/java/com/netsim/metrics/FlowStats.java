@@ -0,0 +1,96 @@
+package com.netsim.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.netsim.utils.Logger;
+
+/**
+ * Latency and throughput of the messages a node delivers to its
+ * application from one origin node: the time from the moment the
+ * origin's application sent a message to the moment it is handed to the
+ * receiving application, relays through other applications included.
+ */
+public class FlowStats {
+    private static final Logger logger = Logger.getInstance();
+    private static final String CLS    = FlowStats.class.getSimpleName();
+
+    private final String           origin;
+    private final LatencyHistogram latency;
+    private final LongAdder        bytes;
+    private final AtomicLong       firstSent;
+    private final AtomicLong       lastDelivered;
+
+    /**
+     * @param origin the name of the node the flow starts at (non‐null)
+     * @throws IllegalArgumentException if origin is null
+     */
+    public FlowStats(String origin) throws IllegalArgumentException {
+        if (origin == null) {
+            logger.error("[" + CLS + "] origin cannot be null");
+            throw new IllegalArgumentException(CLS + ": origin cannot be null");
+        }
+        this.origin        = origin;
+        this.latency       = new LatencyHistogram();
+        this.bytes         = new LongAdder();
+        this.firstSent     = new AtomicLong(Long.MAX_VALUE);
+        this.lastDelivered = new AtomicLong(Long.MIN_VALUE);
+    }
+
+    /**
+     * Records a delivered message.
+     *
+     * @param sentAt      the time the origin's application sent it
+     * @param deliveredAt the time it is handed to the receiving application (≥ sentAt)
+     * @param length      the bytes delivered
+     * @throws IllegalArgumentException if deliveredAt precedes sentAt
+     */
+    public void record(long sentAt, long deliveredAt, int length) throws IllegalArgumentException {
+        this.latency.record(deliveredAt - sentAt);
+        this.bytes.add(length);
+        this.firstSent.accumulateAndGet(sentAt, Math::min);
+        this.lastDelivered.accumulateAndGet(deliveredAt, Math::max);
+    }
+
+    /**
+     * @return the name of the node the flow starts at
+     */
+    public String getOrigin() {
+        return this.origin;
+    }
+
+    /**
+     * @return the end‐to‐end latencies of the messages, in nanoseconds
+     */
+    public LatencyHistogram getLatency() {
+        return this.latency;
+    }
+
+    /**
+     * @return messages delivered
+     */
+    public long getMessages() {
+        return this.latency.getCount();
+    }
+
+    /**
+     * @return bytes delivered to the application
+     */
+    public long getBytes() {
+        return this.bytes.sum();
+    }
+
+    /**
+     * Delivered bytes over the time from the first message sent to the
+     * last one delivered.
+     *
+     * @return throughput in bits per second, 0 if no time has passed
+     */
+    public double getThroughput() {
+        long elapsed = this.lastDelivered.get() - this.firstSent.get();
+        if (this.getMessages() == 0 || elapsed <= 0) {
+            return 0.0;
+        }
+        return this.getBytes() * 8.0 * 1_000_000_000.0 / elapsed;
+    }
+}
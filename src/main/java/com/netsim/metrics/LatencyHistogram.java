@@ -0,0 +1,207 @@
+package com.netsim.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.netsim.utils.Logger;
+
+/**
+ * A histogram of non‐negative values, typically latencies in nanoseconds
+ * of simulated time, laid out as in HdrHistogram.
+ * <p>
+ * Values below 2<sup>{@value #SUB_BUCKET_BITS}</sup> are counted exactly;
+ * larger ones fall in buckets that split each power of two into
+ * 2<sup>{@value #SUB_BUCKET_BITS}</sup> equal slices, so a value is known to
+ * within 1/64 (about 1.6 %) of itself over the whole range of a long. The
+ * counts live in one array (about 29 KB), whatever the number or spread of
+ * the values recorded. It is allocated by the first {@link #record}, so the
+ * idle links and nodes of a large topology cost a few objects each.
+ * </p>
+ * <p>
+ * Recording takes no lock: the bucket, the count and the sum are atomic
+ * additions and the minimum and maximum are compare‐and‐set loops that
+ * rarely retry, so simulation threads may record into a shared histogram.
+ * Readers see a consistent snapshot only once recording has stopped.
+ * </p>
+ */
+public class LatencyHistogram {
+    private static final Logger logger = Logger.getInstance();
+    private static final String CLS    = LatencyHistogram.class.getSimpleName();
+
+    /** Bits of a value kept below its leading one bit. */
+    public static final int SUB_BUCKET_BITS = 6;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LENGTH      = SUB_BUCKETS * (64 - SUB_BUCKET_BITS);
+
+    private final    LongAdder       count;
+    private final    LongAdder       sum;
+    private final    AtomicLong      min;
+    private final    AtomicLong      max;
+    // null until the first value is recorded
+    private volatile AtomicLongArray counts;
+
+    /**
+     * Creates an empty histogram.
+     */
+    public LatencyHistogram() {
+        this.counts = null;
+        this.count  = new LongAdder();
+        this.sum    = new LongAdder();
+        this.min    = new AtomicLong(Long.MAX_VALUE);
+        this.max    = new AtomicLong(0L);
+    }
+
+    /**
+     * @param value a non‐negative value
+     * @return the index of the bucket counting it
+     */
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        // the SUB_BUCKET_BITS bits below the leading one
+        int sub   = (int) (value >>> shift) - SUB_BUCKETS;
+        return SUB_BUCKETS * (shift + 1) + sub;
+    }
+
+    /**
+     * @param index a bucket index
+     * @return the largest value counted by that bucket
+     */
+    static long highestValueAt(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int  shift = index / SUB_BUCKETS - 1;
+        long sub   = index % SUB_BUCKETS + SUB_BUCKETS;
+        return ((sub + 1) << shift) - 1;
+    }
+
+    /**
+     * Records one value.
+     *
+     * @param value the value, e.g. a latency in nanoseconds (≥ 0)
+     * @throws IllegalArgumentException if value is negative
+     */
+    public void record(long value) throws IllegalArgumentException {
+        if (value < 0) {
+            logger.error("[" + CLS + "] cannot record negative value " + value);
+            throw new IllegalArgumentException(CLS + ": value cannot be negative");
+        }
+        AtomicLongArray buckets = this.counts;
+        if (buckets == null) {
+            buckets = this.allocate();
+        }
+        buckets.incrementAndGet(indexOf(value));
+        this.count.increment();
+        this.sum.add(value);
+        long low = this.min.get();
+        while (value < low && !this.min.compareAndSet(low, value)) {
+            low = this.min.get();
+        }
+        long high = this.max.get();
+        while (value > high && !this.max.compareAndSet(high, value)) {
+            high = this.max.get();
+        }
+    }
+
+    /**
+     * @return the bucket array, allocated by whichever recording thread
+     *         gets here first
+     */
+    private synchronized AtomicLongArray allocate() {
+        if (this.counts == null) {
+            this.counts = new AtomicLongArray(LENGTH);
+        }
+        return this.counts;
+    }
+
+    /**
+     * @return values recorded
+     */
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    /**
+     * @return the smallest value recorded, 0 if none
+     */
+    public long getMin() {
+        return this.getCount() == 0 ? 0L : this.min.get();
+    }
+
+    /**
+     * @return the largest value recorded, 0 if none
+     */
+    public long getMax() {
+        return this.max.get();
+    }
+
+    /**
+     * @return the mean of the values recorded, 0 if none
+     */
+    public double getMean() {
+        long n = this.getCount();
+        return n == 0 ? 0.0 : (double) this.sum.sum() / n;
+    }
+
+    /**
+     * Returns the value below which the given share of the recorded values
+     * fall, to within the precision of the histogram; e.g. 99.9 for p999.
+     *
+     * @param percentile the share, in percent (0 to 100)
+     * @return the largest value of the bucket holding that percentile, never
+     *         above {@link #getMax()}; 0 if nothing was recorded
+     * @throws IllegalArgumentException if percentile is outside [0, 100]
+     */
+    public long getValueAtPercentile(double percentile) throws IllegalArgumentException {
+        if (!(percentile >= 0.0 && percentile <= 100.0)) {
+            logger.error("[" + CLS + "] percentile out of range: " + percentile);
+            throw new IllegalArgumentException(CLS + ": percentile must be between 0 and 100");
+        }
+        long            n       = this.getCount();
+        AtomicLongArray buckets = this.counts;
+        if (n == 0 || buckets == null) {
+            return 0L;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * n));
+        long seen = 0L;
+        for (int i = 0; i < LENGTH; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.max(this.getMin(), Math.min(highestValueAt(i), this.getMax()));
+            }
+        }
+        return this.getMax();
+    }
+
+    /**
+     * Forgets every value recorded. Values recorded meanwhile by another
+     * thread may be partly kept.
+     */
+    public void reset() {
+        AtomicLongArray buckets = this.counts;
+        for (int i = 0; buckets != null && i < LENGTH; i++) {
+            buckets.set(i, 0L);
+        }
+        this.count.reset();
+        this.sum.reset();
+        this.min.set(Long.MAX_VALUE);
+        this.max.set(0L);
+    }
+
+    /**
+     * @return the count and the p50, p99, p999 and maximum values
+     */
+    @Override
+    public String toString() {
+        return "count=" + this.getCount()
+             + " p50=" + this.getValueAtPercentile(50.0)
+             + " p99=" + this.getValueAtPercentile(99.0)
+             + " p999=" + this.getValueAtPercentile(99.9)
+             + " max=" + this.getMax();
+    }
+}
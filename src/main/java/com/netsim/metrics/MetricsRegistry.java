@@ -0,0 +1,229 @@
+package com.netsim.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+import com.netsim.engine.EventScheduler;
+import com.netsim.utils.Logger;
+
+/**
+ * Named counters and gauges, read together as {@link MetricsSnapshot}s.
+ * <p>
+ * Components keep their {@link Counter}s in fields and update them
+ * directly; the registry only knows where to read them. Names are
+ * dotted paths: {@code node.<node>.<metric>} for nodes,
+ * {@code node.<node>.<adapter>.<metric>} for adapters and
+ * {@code protocol.<protocol>.<metric>} for protocols. A node's metrics and
+ * its adapters' share the prefix {@code node.<node>.}, which
+ * {@link com.netsim.network.Device#close()} unregisters when the node is
+ * torn down. Registering a name that another source still holds is
+ * reported as an error, since it means two live components share a
+ * name; the new source replaces the old one.
+ * </p>
+ * <p>
+ * Names are kept sorted, so unregistering a prefix only visits the
+ * metrics under it. A snapshot reads every source into one array of
+ * longs, against an array of names that is rebuilt only when metrics are
+ * added or removed, so polling often, e.g. with
+ * {@link #sampleEvery(EventScheduler, long, Consumer)}, stays cheap.
+ * </p>
+ */
+public final class MetricsRegistry {
+    private static final Logger          logger   = Logger.getInstance();
+    private static final String          CLS      = MetricsRegistry.class.getSimpleName();
+    private static final MetricsRegistry instance = new MetricsRegistry();
+
+    private final ConcurrentNavigableMap<String, LongSupplier> sources;
+    // sorted names and their sources, rebuilt after a change
+    private String[]                        names;
+    private LongSupplier[]                  readers;
+
+    /**
+     * Creates an empty registry. Components register with
+     * {@link #getInstance()}; other registries serve for metrics kept apart.
+     */
+    public MetricsRegistry() {
+        this.sources = new ConcurrentSkipListMap<>();
+    }
+
+    /**
+     * @return the registry components register with
+     */
+    public static MetricsRegistry getInstance() {
+        return instance;
+    }
+
+    private static void checkName(String name) throws IllegalArgumentException {
+        if (name == null || name.isEmpty()) {
+            logger.error("[" + CLS + "] metric name cannot be null or empty");
+            throw new IllegalArgumentException(CLS + ": metric name cannot be null or empty");
+        }
+    }
+
+    /**
+     * Returns the counter registered under a name, registering a new one if
+     * there is none.
+     *
+     * @param name the metric name (non‐empty)
+     * @return the counter
+     * @throws IllegalArgumentException if name is null/empty or names a gauge
+     */
+    public Counter counter(String name) throws IllegalArgumentException {
+        checkName(name);
+        LongSupplier source = this.sources.get(name);
+        if (source == null) {
+            Counter created = new Counter();
+            source = this.sources.putIfAbsent(name, created);
+            if (source == null) {
+                this.invalidate();
+                return created;
+            }
+        }
+        if (!(source instanceof Counter)) {
+            logger.error("[" + CLS + "] metric " + name + " is not a counter");
+            throw new IllegalArgumentException(CLS + ": metric " + name + " is not a counter");
+        }
+        return (Counter) source;
+    }
+
+    /**
+     * Registers a counter under a name, replacing, and reporting, any
+     * previous metric.
+     *
+     * @param name    the metric name (non‐empty)
+     * @param counter the counter (non‐null)
+     * @throws IllegalArgumentException if name is null/empty or counter is null
+     */
+    public void register(String name, Counter counter) throws IllegalArgumentException {
+        this.gauge(name, counter);
+    }
+
+    /**
+     * Registers a gauge, a value read when a snapshot is taken, under a
+     * name. A previous metric of another source is replaced and reported
+     * as an error: it belongs to a component that was not torn down, or
+     * to another one of the same name. Snapshots are usually taken on the
+     * simulation thread; a gauge read from elsewhere must tolerate it.
+     *
+     * @param name  the metric name (non‐empty)
+     * @param gauge the source of the value (non‐null)
+     * @throws IllegalArgumentException if name is null/empty or gauge is null
+     */
+    public void gauge(String name, LongSupplier gauge) throws IllegalArgumentException {
+        checkName(name);
+        if (gauge == null) {
+            logger.error("[" + CLS + "] metric source cannot be null");
+            throw new IllegalArgumentException(CLS + ": metric source cannot be null");
+        }
+        LongSupplier previous = this.sources.put(name, gauge);
+        if (previous == gauge) {
+            return;
+        }
+        if (previous != null) {
+            logger.error("[" + CLS + "] metric " + name + " registered again, replacing the previous source");
+        }
+        this.invalidate();
+    }
+
+    /**
+     * Removes every metric whose name starts with a prefix, e.g.
+     * {@code "node.r1."} for a router taken out of the topology.
+     *
+     * @param prefix the prefix (non‐null)
+     * @return metrics removed
+     * @throws IllegalArgumentException if prefix is null
+     */
+    public int unregister(String prefix) throws IllegalArgumentException {
+        if (prefix == null) {
+            logger.error("[" + CLS + "] prefix cannot be null");
+            throw new IllegalArgumentException(CLS + ": prefix cannot be null");
+        }
+        ConcurrentNavigableMap<String, LongSupplier> under =
+            prefix.isEmpty() ? this.sources : this.sources.subMap(prefix, true, prefix + Character.MAX_VALUE, true);
+        int removed = 0;
+        for (String name : under.keySet()) {
+            if (name.startsWith(prefix) && under.remove(name) != null) {
+                removed++;
+            }
+        }
+        if (removed != 0) {
+            this.invalidate();
+        }
+        return removed;
+    }
+
+    /**
+     * @return metrics registered
+     */
+    public int size() {
+        return this.sources.size();
+    }
+
+    private void invalidate() {
+        synchronized (this) {
+            this.names = null;
+        }
+    }
+
+    /**
+     * Reads every metric.
+     *
+     * @param time the simulated time to stamp the snapshot with
+     * @return the values, sorted by name
+     */
+    public MetricsSnapshot snapshot(long time) {
+        String[]       sorted;
+        LongSupplier[] read;
+        synchronized (this) {
+            if (this.names == null) {
+                String[] keys = this.sources.keySet().toArray(new String[0]);
+                LongSupplier[] found = new LongSupplier[keys.length];
+                int kept = 0;
+                for (String key : keys) {
+                    LongSupplier source = this.sources.get(key);
+                    if (source != null) {
+                        keys[kept]    = key;
+                        found[kept++] = source;
+                    }
+                }
+                this.readers = Arrays.copyOf(found, kept);
+                this.names   = Arrays.copyOf(keys, kept);
+            }
+            sorted = this.names;
+            read   = this.readers;
+        }
+        long[] values = new long[sorted.length];
+        for (int i = 0; i < read.length; i++) {
+            values[i] = read[i].getAsLong();
+        }
+        return new MetricsSnapshot(time, sorted, values);
+    }
+
+    /**
+     * Takes a snapshot every {@code interval} nanoseconds of simulated
+     * time on a scheduler, starting one interval from now, and hands it to
+     * {@code sink}. Sampling stops when no other event is pending, so it
+     * does not keep {@link EventScheduler#run()} from returning.
+     *
+     * @param scheduler the scheduler to sample on (non‐null)
+     * @param interval  the period in nanoseconds (&gt; 0), e.g. 100 ms
+     * @param sink      receives each snapshot (non‐null)
+     * @throws IllegalArgumentException if an argument is null or interval is not positive
+     */
+    public void sampleEvery(EventScheduler scheduler, long interval, Consumer<MetricsSnapshot> sink)
+            throws IllegalArgumentException {
+        if (scheduler == null || sink == null || interval <= 0) {
+            logger.error("[" + CLS + "] invalid arguments to sampleEvery");
+            throw new IllegalArgumentException(CLS + ": invalid arguments");
+        }
+        scheduler.schedule(interval, () -> {
+            sink.accept(this.snapshot(scheduler.now()));
+            if (scheduler.pending() > 0) {
+                this.sampleEvery(scheduler, interval, sink);
+            }
+        });
+    }
+}
@@ -0,0 +1,140 @@
+package com.netsim.metrics;
+
+import java.util.Arrays;
+
+import com.netsim.utils.Logger;
+
+/**
+ * The values of every metric of a {@link MetricsRegistry} at one point in
+ * simulated time, sorted by name. A snapshot is immutable; it shares the
+ * array of names with the registry's other snapshots and only allocates
+ * the values.
+ */
+public final class MetricsSnapshot {
+    private static final Logger logger = Logger.getInstance();
+    private static final String CLS    = MetricsSnapshot.class.getSimpleName();
+
+    /** First line of {@link #toCsv()} output. */
+    public static final String CSV_HEADER = "time,metric,value";
+
+    private final long     time;
+    private final String[] names;
+    private final long[]   values;
+
+    /**
+     * @param time   the simulated time of the snapshot
+     * @param names  the metric names, sorted; not copied
+     * @param values the values, in the order of {@code names}; not copied
+     */
+    MetricsSnapshot(long time, String[] names, long[] values) {
+        this.time   = time;
+        this.names  = names;
+        this.values = values;
+    }
+
+    /**
+     * @return the simulated time of the snapshot, in nanoseconds
+     */
+    public long getTime() {
+        return this.time;
+    }
+
+    /**
+     * @return metrics in the snapshot
+     */
+    public int size() {
+        return this.names.length;
+    }
+
+    /**
+     * @param index a position in [0, size)
+     * @return the name of the metric at that position
+     */
+    public String getName(int index) {
+        return this.names[index];
+    }
+
+    /**
+     * @param index a position in [0, size)
+     * @return the value of the metric at that position
+     */
+    public long getValue(int index) {
+        return this.values[index];
+    }
+
+    /**
+     * @param name a metric name
+     * @return true if the snapshot holds that metric
+     */
+    public boolean contains(String name) {
+        return name != null && Arrays.binarySearch(this.names, name) >= 0;
+    }
+
+    /**
+     * @param name a metric name (non‐null)
+     * @return its value
+     * @throws IllegalArgumentException if the snapshot has no such metric
+     */
+    public long get(String name) throws IllegalArgumentException {
+        int index = name == null ? -1 : Arrays.binarySearch(this.names, name);
+        if (index < 0) {
+            logger.error("[" + CLS + "] unknown metric " + name);
+            throw new IllegalArgumentException(CLS + ": unknown metric " + name);
+        }
+        return this.values[index];
+    }
+
+    /**
+     * Formats the snapshot as CSV rows, one per metric, without the
+     * {@link #CSV_HEADER} line so that snapshots taken over a run can be
+     * appended to one file.
+     *
+     * @return lines of {@code time,metric,value}, each ending with a newline
+     */
+    public String toCsv() {
+        StringBuilder out = new StringBuilder(this.names.length * 48);
+        for (int i = 0; i < this.names.length; i++) {
+            out.append(this.time).append(',')
+               .append(this.names[i]).append(',')
+               .append(this.values[i]).append('\n');
+        }
+        return out.toString();
+    }
+
+    /**
+     * @return the snapshot as one JSON object:
+     *         {@code {"time":t,"metrics":{"name":value,...}}}
+     */
+    public String toJson() {
+        StringBuilder out = new StringBuilder(32 + this.names.length * 48);
+        out.append("{\"time\":").append(this.time).append(",\"metrics\":{");
+        for (int i = 0; i < this.names.length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            appendJsonString(out, this.names[i]);
+            out.append(':').append(this.values[i]);
+        }
+        return out.append("}}").toString();
+    }
+
+    private static void appendJsonString(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('"');
+    }
+
+    @Override
+    public String toString() {
+        return this.toJson();
+    }
+}
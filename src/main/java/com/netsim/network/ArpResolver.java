@@ -0,0 +1,365 @@
+package com.netsim.network;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Mac;
+import com.netsim.engine.ScheduledEvent;
+import com.netsim.networkstack.PacketBuffer;
+import com.netsim.networkstack.PacketBufferPool;
+import com.netsim.networkstack.ProtocolPipeline;
+import com.netsim.protocols.ARP.ARPProtocol;
+import com.netsim.protocols.SimpleDLL.SimpleDLLProtocol;
+import com.netsim.table.ArpTable;
+import com.netsim.utils.Logger;
+
+/**
+ * Resolves the MACs of a node's neighbours with ARP, filling its
+ * {@link ArpTable} as replies and requests arrive.
+ * <p>
+ * A packet for a next hop whose MAC is unknown waits in a queue kept per
+ * next hop. The first packet for a next hop broadcasts a request; packets
+ * that follow before the reply join the same queue rather than sending
+ * requests of their own. The reply sends the queue out in order. A queue
+ * holds at most {@link #getQueueCapacity()} packets, the oldest being
+ * dropped to make room, and the request is repeated every
+ * {@link #getRetryInterval()} nanoseconds up to {@link #getAttempts()}
+ * times, after which the queued packets are dropped. A reply cancels
+ * the pending retry, so a resolved address leaves no event behind to
+ * advance the clock.
+ * </p>
+ * <p>
+ * Requests for an address of the node are answered, and the asker is
+ * learned on the way, so a pair of neighbours needs a single exchange.
+ * </p>
+ */
+public class ArpResolver {
+    private static final Logger logger = Logger.getInstance();
+    private static final String CLS    = ArpResolver.class.getSimpleName();
+
+    /** Packets queued per unresolved next hop. */
+    public static final int  DEFAULT_QUEUE_CAPACITY = 64;
+    /** Time between two requests for the same address: 1 s. */
+    public static final long DEFAULT_RETRY_INTERVAL = 1_000_000_000L;
+    /** Requests sent for an address before giving up. */
+    public static final int  DEFAULT_ATTEMPTS       = 3;
+
+    /** Packets waiting for the MAC of one next hop. */
+    private static final class Pending {
+        final Interface                   iface;
+        final ArrayDeque<ProtocolPipeline> stacks  = new ArrayDeque<>();
+        final ArrayDeque<PacketBuffer>     packets = new ArrayDeque<>();
+        int                               attempts;
+        ScheduledEvent                    retry;
+
+        Pending(Interface iface) {
+            this.iface = iface;
+        }
+    }
+
+    private final NetworkNode           owner;
+    private final Map<Integer, Pending> pending;
+    private       int                   queueCapacity;
+    private       long                  retryInterval;
+    private       int                   attempts;
+    private       long                  requestsSent;
+    private       long                  repliesSent;
+    private       long                  queueDrops;
+    private       long                  timeouts;
+
+    /**
+     * Creates a resolver for a node.
+     *
+     * @param owner the node whose ARP table and interfaces are used (non-null)
+     * @throws IllegalArgumentException if owner is null
+     */
+    public ArpResolver(NetworkNode owner) throws IllegalArgumentException {
+        if (owner == null) {
+            logger.error("[" + CLS + "] owner cannot be null");
+            throw new IllegalArgumentException(CLS + ": owner cannot be null");
+        }
+        this.owner         = owner;
+        this.pending       = new HashMap<>();
+        this.queueCapacity = DEFAULT_QUEUE_CAPACITY;
+        this.retryInterval = DEFAULT_RETRY_INTERVAL;
+        this.attempts      = DEFAULT_ATTEMPTS;
+    }
+
+    /**
+     * Queues a packet until the MAC of its next hop is known, asking for
+     * it if no request is outstanding.
+     *
+     * @param iface   the interface the packet leaves from (non-null)
+     * @param nextHop the IPv4 of the next hop, as {@link IPv4#toInt()}
+     * @param stack   the protocol pipeline of the packet (non-null)
+     * @param packet  the packet; this resolver takes over the reference (non-null)
+     * @throws IllegalArgumentException if an argument is null
+     */
+    public void enqueue(Interface iface, int nextHop, ProtocolPipeline stack, PacketBuffer packet)
+            throws IllegalArgumentException {
+        if (iface == null || stack == null || packet == null) {
+            if (packet != null) {
+                packet.release();
+            }
+            logger.error("[" + CLS + "] invalid arguments to enqueue");
+            throw new IllegalArgumentException(CLS + ": invalid arguments");
+        }
+        Pending waiting = this.pending.get(nextHop);
+        boolean first   = waiting == null;
+        if (first) {
+            waiting = new Pending(iface);
+            this.pending.put(nextHop, waiting);
+        }
+        if (waiting.packets.size() >= this.queueCapacity) {
+            waiting.stacks.poll();
+            waiting.packets.poll().release();
+            this.queueDrops++;
+            logger.debug(() -> "[" + CLS + "] " + this.owner.getName()
+                         + ": queue for " + IPv4.fromInt(nextHop, 32).stringRepresentation()
+                         + " full, dropped oldest packet");
+        }
+        waiting.stacks.add(stack);
+        waiting.packets.add(packet);
+        if (first) {
+            this.request(nextHop, waiting);
+        }
+    }
+
+    /**
+     * Broadcasts a request for an address and arms its retry.
+     */
+    private void request(int target, Pending waiting) {
+        waiting.attempts++;
+        Interface   iface   = waiting.iface;
+        ARPProtocol request = ARPProtocol.request(iface.getAdapter().getMacAddress(),
+                                                  iface.getIP(),
+                                                  IPv4.fromInt(target, 32));
+        if (this.transmit(iface, request, Mac.broadcast())) {
+            this.requestsSent++;
+        }
+        waiting.retry = this.owner.getScheduler().schedule(this.retryInterval, () -> this.retry(target, waiting));
+    }
+
+    /**
+     * Repeats an unanswered request, or gives up and drops the queue.
+     */
+    private void retry(int target, Pending waiting) {
+        if (this.pending.get(target) != waiting) {
+            return;
+        }
+        if (waiting.attempts < this.attempts) {
+            this.request(target, waiting);
+            return;
+        }
+        this.pending.remove(target);
+        this.timeouts++;
+        int dropped = waiting.packets.size();
+        for (PacketBuffer packet : waiting.packets) {
+            packet.release();
+        }
+        logger.error("[" + CLS + "] " + this.owner.getName() + ": no reply for "
+                     + IPv4.fromInt(target, 32).stringRepresentation()
+                     + ", dropped " + dropped + " packet(s)");
+    }
+
+    /**
+     * Handles an ARP message received by the node. The sender is learned
+     * if the message is for one of the node's addresses or the sender is
+     * already known, packets waiting for it are sent, and requests for
+     * one of the node's addresses are answered.
+     *
+     * @param message the ARP message (non-null)
+     * @throws IllegalArgumentException if the message is malformed
+     */
+    public void receive(byte[] message) throws IllegalArgumentException {
+        int  operation = ARPProtocol.extractOperation(message);
+        long senderMac = ARPProtocol.extractSenderMac(message);
+        int  senderIp  = ARPProtocol.extractSenderIp(message);
+        int  targetIp  = ARPProtocol.extractTargetIp(message);
+        long now       = this.owner.getScheduler().now();
+
+        Interface local = null;
+        for (Interface iface : this.owner.interfaces) {
+            if (iface.getIP().toInt() == targetIp) {
+                local = iface;
+                break;
+            }
+        }
+        ArpTable table = this.owner.arpTable;
+        if (local == null && table.find(senderIp, now) == ArpTable.MISSING) {
+            return;
+        }
+        table.learn(senderIp, senderMac, now);
+        this.flush(senderIp, senderMac);
+
+        if (local != null && operation == ARPProtocol.REQUEST) {
+            Mac         asker = Mac.fromLong(senderMac);
+            ARPProtocol reply = ARPProtocol.reply(local.getAdapter().getMacAddress(), local.getIP(),
+                                                  asker, IPv4.fromInt(senderIp, 32));
+            if (this.transmit(local, reply, asker)) {
+                this.repliesSent++;
+            }
+        }
+    }
+
+    /**
+     * Sends the packets waiting for an address now resolved.
+     */
+    private void flush(int target, long mac) {
+        Pending waiting = this.pending.remove(target);
+        if (waiting == null) {
+            return;
+        }
+        waiting.retry.cancel();
+        Mac            nextHop = Mac.fromLong(mac);
+        NetworkAdapter adapter = waiting.iface.getAdapter();
+        int            sent    = waiting.packets.size();
+        while (!waiting.packets.isEmpty()) {
+            try {
+                ProtocolPipeline stack = waiting.stacks.poll();
+                this.owner.recordDeparture(stack);
+                adapter.sendInPlace(stack, waiting.packets.poll(), SimpleDLLProtocol.ETHERTYPE_IPV4, nextHop);
+            } catch (RuntimeException e) {
+                logger.error("[" + CLS + "] " + this.owner.getName() + ": cannot send queued packet out of "
+                             + adapter.getName());
+                logger.debug(() -> "[" + CLS + "] " + e.getLocalizedMessage());
+            }
+        }
+        logger.info(() -> "[" + CLS + "] " + this.owner.getName() + ": resolved "
+                    + IPv4.fromInt(target, 32).stringRepresentation()
+                    + ", sent " + sent + " queued packet(s)");
+    }
+
+    /**
+     * Sends an ARP message out of an interface.
+     *
+     * @return true if the adapter took the message
+     */
+    private boolean transmit(Interface iface, ARPProtocol message, Mac destination) {
+        ProtocolPipeline stack = new ProtocolPipeline();
+        stack.push(message);
+        try {
+            iface.getAdapter().sendInPlace(stack,
+                PacketBufferPool.getInstance().acquire(message.encapsulate(null)),
+                SimpleDLLProtocol.ETHERTYPE_ARP, destination);
+            return true;
+        } catch (RuntimeException e) {
+            logger.error("[" + CLS + "] " + this.owner.getName() + ": cannot send ARP out of "
+                         + iface.getAdapter().getName());
+            logger.debug(() -> "[" + CLS + "] " + e.getLocalizedMessage());
+            return false;
+        }
+    }
+
+    /**
+     * @return next hops with a request outstanding
+     */
+    public int getPendingResolutions() {
+        return this.pending.size();
+    }
+
+    /**
+     * @return packets waiting for a next hop to be resolved
+     */
+    public int getQueuedPackets() {
+        int queued = 0;
+        for (Pending waiting : this.pending.values()) {
+            queued += waiting.packets.size();
+        }
+        return queued;
+    }
+
+    /**
+     * @return requests broadcast, retries included
+     */
+    public long getRequestsSent() {
+        return this.requestsSent;
+    }
+
+    /**
+     * @return replies sent to requests for the node's addresses
+     */
+    public long getRepliesSent() {
+        return this.repliesSent;
+    }
+
+    /**
+     * @return packets dropped because their next hop's queue was full
+     */
+    public long getQueueDrops() {
+        return this.queueDrops;
+    }
+
+    /**
+     * @return resolutions given up after the last request went unanswered
+     */
+    public long getTimeouts() {
+        return this.timeouts;
+    }
+
+    /**
+     * @return packets queued per unresolved next hop
+     */
+    public int getQueueCapacity() {
+        return this.queueCapacity;
+    }
+
+    /**
+     * Sets how many packets may wait for one next hop.
+     *
+     * @param capacity the queue length (≥ 1)
+     * @throws IllegalArgumentException if capacity is below 1
+     */
+    public void setQueueCapacity(int capacity) throws IllegalArgumentException {
+        if (capacity < 1) {
+            logger.error("[" + CLS + "] queue capacity must be positive: " + capacity);
+            throw new IllegalArgumentException(CLS + ": queue capacity must be positive");
+        }
+        this.queueCapacity = capacity;
+    }
+
+    /**
+     * @return nanoseconds between two requests for the same address
+     */
+    public long getRetryInterval() {
+        return this.retryInterval;
+    }
+
+    /**
+     * Sets the time between two requests for the same address.
+     *
+     * @param nanos the interval in nanoseconds (&gt; 0)
+     * @throws IllegalArgumentException if nanos is not positive
+     */
+    public void setRetryInterval(long nanos) throws IllegalArgumentException {
+        if (nanos <= 0) {
+            logger.error("[" + CLS + "] retry interval must be positive: " + nanos);
+            throw new IllegalArgumentException(CLS + ": retry interval must be positive");
+        }
+        this.retryInterval = nanos;
+    }
+
+    /**
+     * @return requests sent for an address before giving up
+     */
+    public int getAttempts() {
+        return this.attempts;
+    }
+
+    /**
+     * Sets how many requests are sent for an address before the packets
+     * waiting for it are dropped.
+     *
+     * @param count the number of requests (≥ 1)
+     * @throws IllegalArgumentException if count is below 1
+     */
+    public void setAttempts(int count) throws IllegalArgumentException {
+        if (count < 1) {
+            logger.error("[" + CLS + "] attempts must be positive: " + count);
+            throw new IllegalArgumentException(CLS + ": attempts must be positive");
+        }
+        this.attempts = count;
+    }
+}
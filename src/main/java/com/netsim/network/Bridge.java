@@ -0,0 +1,38 @@
+package com.netsim.network;
+
+import java.util.List;
+
+import com.netsim.networkstack.PacketBuffer;
+import com.netsim.networkstack.ProtocolPipeline;
+
+/**
+ * A node that forwards frames at the data‐link layer, such as a switch.
+ * <p>
+ * A {@link CabledAdapter} owned by a bridge hands it every frame it
+ * receives whole, DLL header included and whatever the destination MAC,
+ * and adapters linked to a bridge address their frames to the MAC of the
+ * next hop rather than to the adapter at the other end of the cable.
+ * </p>
+ * <p>
+ * A bridge neither sends nor receives IP packets, so it is a
+ * {@link Device} but not a {@link Node}. Its ports are driven by one
+ * scheduler: the {@link com.netsim.engine.ParallelSimulator} keeps them
+ * all on the partition of the bridge.
+ * </p>
+ */
+public interface Bridge extends Device {
+    /**
+     * @return the adapters cabled into this bridge
+     */
+    List<CabledAdapter> getPorts();
+
+    /**
+     * Handles a frame received on one of this bridge's ports. The bridge
+     * takes over the caller's reference.
+     *
+     * @param port  the adapter the frame arrived on (non‐null)
+     * @param stack the protocol pipeline, DLL protocol on top (non‐null)
+     * @param frame the frame, starting at the DLL header (non‐null, non‐empty)
+     */
+    void receiveFrame(CabledAdapter port, ProtocolPipeline stack, PacketBuffer frame);
+}
@@ -1,25 +1,87 @@
 package com.netsim.network;
 
-import com.netsim.addresses.Address;
+import java.util.ArrayList;
+import java.util.List;
+
 import com.netsim.addresses.Mac;
-import com.netsim.networkstack.Protocol;
+import com.netsim.engine.Event;
+import com.netsim.engine.EventScheduler;
+import com.netsim.metrics.Counter;
+import com.netsim.metrics.LatencyHistogram;
+import com.netsim.metrics.MetricsRegistry;
+import com.netsim.network.capture.CaptureTap;
+import com.netsim.network.queue.DropTail;
+import com.netsim.network.queue.QueueDiscipline;
+import com.netsim.networkstack.PacketBuffer;
+import com.netsim.networkstack.PacketBufferPool;
 import com.netsim.networkstack.ProtocolPipeline;
+import com.netsim.protocols.SimpleDLL.DLLHeaderView;
 import com.netsim.protocols.SimpleDLL.SimpleDLLProtocol;
 import com.netsim.utils.Logger;
 
 /**
  * Represents a point‐to‐point network adapter for sending/receiving raw frames.
+ * <p>
+ * The cable leaving the adapter has a propagation delay and, optionally, a
+ * bandwidth. With a bandwidth set, frames are serialized one at a time:
+ * a frame sent while the link is busy waits in a bounded egress queue
+ * whose {@link QueueDiscipline} decides which arrivals are dropped. The
+ * adapter counts frames and bytes sent, drops, queue depth and link
+ * utilization, and records in {@link #getDelays()} the time each frame
+ * took from being sent to reaching the adapter at the other end. Once
+ * it has an owner, its counters are registered with the
+ * {@link MetricsRegistry} as {@code node.<owner>.<adapter>.<metric>}.
+ * </p>
+ * <p>
+ * Several packets sharing a pipeline, such as the fragments of one
+ * datagram, travel as a batch ({@link #sendBatch(ProtocolPipeline, List, int, Mac)}):
+ * each is framed in its own buffer and queued on its own, but the batch
+ * is delivered by a single event and handled by the remote adapter in
+ * one call ({@link #receiveBatch(ProtocolPipeline, List)}).
+ * </p>
+ * <p>
+ * A {@link CaptureTap} attached with {@link #setCaptureTap(CaptureTap)}
+ * records every frame the adapter puts on the cable and every frame that
+ * reaches it, whatever its destination, into a pcap file.
+ * </p>
  */
 public final class CabledAdapter implements NetworkAdapter {
     private static final Logger logger = Logger.getInstance();
     private static final String CLS    = CabledAdapter.class.getSimpleName();
 
+    /** Egress queue length used until another discipline is set. */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
     private final String       name;
     private final int          MTU;
     private final Mac          macAddress;
     private       CabledAdapter remote;
-    private       Node          owner;
+    private       SimpleDLLProtocol framing;
+    private       Device        owner;
     private       boolean       isUp;
+    private       EventScheduler scheduler;
+    private       long          latency;
+    private       long          eventOrigin;
+    private       long          eventSequence;
+    private       long          bandwidth;
+    private       QueueDiscipline discipline;
+    // completion times of the frames on the wire or queued, oldest first
+    private       long[]        departures;
+    private       int           departureHead;
+    private       int           departureCount;
+    private       long          busyUntil;
+    private       long          busyTime;
+    private       int           peakQueueDepth;
+    private final Counter       sentFrames;
+    private final Counter       sentBytes;
+    private final Counter       receivedFrames;
+    private final Counter       receivedBytes;
+    private final Counter       drops;
+    private final Counter       downDrops;
+    private final Counter       notForMeDrops;
+    private final Counter       unknownDrops;
+    private final LatencyHistogram delays;
+    private       CaptureTap    tap;
 
     /**
      * Constructs a new NetworkAdapter.
@@ -38,43 +100,81 @@ public final class CabledAdapter implements NetworkAdapter {
             logger.error("[" + CLS + "] macAddress cannot be null");
             throw new IllegalArgumentException("NetworkAdapter: mac address cannot be null");
         }
-        this.name       = name;
-        this.MTU        = MTU;
-        this.macAddress = macAddress;
-        this.remote     = null;
-        this.isUp       = true;
-        logger.info("[" + CLS + "] created adapter \"" + this.name
+        this.name          = name;
+        this.MTU           = MTU;
+        this.macAddress    = macAddress;
+        this.remote        = null;
+        this.isUp          = true;
+        this.scheduler     = EventScheduler.getInstance();
+        this.latency       = 0L;
+        this.eventOrigin   = 0L;
+        this.eventSequence = 0L;
+        this.bandwidth     = 0L;
+        this.discipline    = new DropTail(DEFAULT_QUEUE_CAPACITY);
+        this.departures    = new long[16];
+        this.delays        = new LatencyHistogram();
+        this.sentFrames     = new Counter();
+        this.sentBytes      = new Counter();
+        this.receivedFrames = new Counter();
+        this.receivedBytes  = new Counter();
+        this.drops          = new Counter();
+        this.downDrops      = new Counter();
+        this.notForMeDrops  = new Counter();
+        this.unknownDrops   = new Counter();
+        logger.info(() -> "[" + CLS + "] created adapter \"" + this.name
             + "\" with MTU=" + this.MTU
             + " and MAC=" + this.macAddress.stringRepresentation());
     }
 
-    public Node getOwner() {
+    public Device getOwner() {
         return this.owner;
     }
 
     /**
-     * Sets the owning Node.
+     * Sets the owning device: a Node, handed the payload of every frame
+     * addressed to this adapter, or a Bridge, handed every frame whole.
      *
-     * @param newOwner the Node that owns this adapter (non‐null)
-     * @throws IllegalArgumentException if newOwner is null
+     * @param newOwner the Node or Bridge that owns this adapter (non‐null)
+     * @throws IllegalArgumentException if newOwner is null, or neither a Node nor a Bridge
      */
-    public void setOwner(Node newOwner) {
+    public void setOwner(Device newOwner) {
         if (newOwner == null) {
             logger.error("[" + CLS + "] cannot set null owner");
             throw new IllegalArgumentException("NetworkAdapter: node owner cannot be null");
         }
+        if (!(newOwner instanceof Node) && !(newOwner instanceof Bridge)) {
+            logger.error("[" + CLS + "] owner " + newOwner.getName() + " is neither a node nor a bridge");
+            throw new IllegalArgumentException("NetworkAdapter: owner must be a Node or a Bridge");
+        }
         this.owner = newOwner;
-        logger.info("[" + CLS + "] adapter \"" + this.name
+        this.registerMetrics(MetricsRegistry.getInstance());
+        logger.info(() -> "[" + CLS + "] adapter \"" + this.name
             + "\" owner set to node \"" + this.owner.getName() + "\"");
     }
 
     /**
-     * Returns the owning Node.
+     * Registers the adapter's counters as
+     * {@code node.<owner>.<adapter>.<metric>}.
+     */
+    private void registerMetrics(MetricsRegistry registry) {
+        String prefix = "node." + this.owner.getName() + "." + this.name + ".";
+        registry.register(prefix + "tx_frames", this.sentFrames);
+        registry.register(prefix + "tx_bytes", this.sentBytes);
+        registry.register(prefix + "rx_frames", this.receivedFrames);
+        registry.register(prefix + "rx_bytes", this.receivedBytes);
+        registry.register(prefix + "queue_drops", this.drops);
+        registry.register(prefix + "down_drops", this.downDrops);
+        registry.register(prefix + "not_for_me_drops", this.notForMeDrops);
+        registry.register(prefix + "unknown_ethertype_drops", this.unknownDrops);
+    }
+
+    /**
+     * Returns the owning device.
      *
-     * @return the Node owning this adapter
+     * @return the Node or Bridge owning this adapter
      * @throws NullPointerException if owner not set
      */
-    public Node getNode() {
+    public Device getNode() {
         if (this.owner == null) {
             logger.error("[" + CLS + "] owner not set");
             throw new NullPointerException("NetworkAdapter: node owner not set");
@@ -99,8 +199,9 @@ public final class CabledAdapter implements NetworkAdapter {
             throw new IllegalArgumentException("NetworkAdapter: expected remote adapter");
         }
 
-        this.remote = (CabledAdapter) newRemoteAdapter;
-        logger.info("[" + CLS + "] adapter \"" + this.name
+        this.remote  = (CabledAdapter) newRemoteAdapter;
+        this.framing = null;
+        logger.info(() -> "[" + CLS + "] adapter \"" + this.name
             + "\" linked to remote adapter \"" + this.remote.getName() + "\"");
     }
 
@@ -118,6 +219,270 @@ public final class CabledAdapter implements NetworkAdapter {
         return this.remote;
     }
 
+    /**
+     * @return the scheduler on which frame deliveries are posted
+     */
+    public EventScheduler getScheduler() {
+        return this.scheduler;
+    }
+
+    /**
+     * Sets the scheduler on which frame deliveries are posted.
+     *
+     * @param newScheduler the scheduler to use (non‐null)
+     * @throws IllegalArgumentException if newScheduler is null
+     */
+    public void setScheduler(EventScheduler newScheduler) {
+        if (newScheduler == null) {
+            logger.error("[" + CLS + "] cannot set null scheduler");
+            throw new IllegalArgumentException("NetworkAdapter: scheduler cannot be null");
+        }
+        this.scheduler = newScheduler;
+    }
+
+    /**
+     * @return propagation delay of the cable in nanoseconds
+     */
+    public long getLatency() {
+        return this.latency;
+    }
+
+    /**
+     * Sets the propagation delay of the cable leaving this adapter.
+     * Cross-partition links of a {@link com.netsim.engine.ParallelSimulator}
+     * must have a positive latency: it is the lookahead that lets partitions
+     * advance independently.
+     *
+     * @param newLatency delay in nanoseconds (≥ 0)
+     * @throws IllegalArgumentException if newLatency is negative
+     */
+    public void setLatency(long newLatency) throws IllegalArgumentException {
+        if (newLatency < 0) {
+            logger.error("[" + CLS + "] latency cannot be negative: " + newLatency);
+            throw new IllegalArgumentException("NetworkAdapter: latency cannot be negative");
+        }
+        this.latency = newLatency;
+        logger.info(() -> "[" + CLS + "] adapter \"" + this.name + "\" latency set to " + newLatency + "ns");
+    }
+
+    /**
+     * @return the id under which deliveries are keyed, 0 if unassigned
+     */
+    public long getEventOrigin() {
+        return this.eventOrigin;
+    }
+
+    /**
+     * Assigns the id under which this adapter keys the deliveries it posts.
+     * With an origin set, simultaneous deliveries are ordered by
+     * (origin, per-adapter sequence) rather than by insertion order, which
+     * keeps partitioned runs identical to single-threaded ones.
+     *
+     * @param origin a positive id, unique within the simulation
+     * @throws IllegalArgumentException if origin is not positive
+     */
+    public void setEventOrigin(long origin) throws IllegalArgumentException {
+        if (origin <= 0) {
+            logger.error("[" + CLS + "] event origin must be positive: " + origin);
+            throw new IllegalArgumentException("NetworkAdapter: event origin must be positive");
+        }
+        this.eventOrigin   = origin;
+        this.eventSequence = 0L;
+    }
+
+    /**
+     * @return link bandwidth in bits per second, 0 if unlimited
+     */
+    public long getBandwidth() {
+        return this.bandwidth;
+    }
+
+    /**
+     * Sets the bandwidth of the cable leaving this adapter. A frame of n
+     * bytes then occupies the link for n·8/bandwidth seconds, and frames
+     * sent meanwhile wait in the egress queue.
+     *
+     * @param bitsPerSecond bandwidth in bits per second, 0 for unlimited (≥ 0)
+     * @throws IllegalArgumentException if bitsPerSecond is negative
+     */
+    public void setBandwidth(long bitsPerSecond) throws IllegalArgumentException {
+        if (bitsPerSecond < 0) {
+            logger.error("[" + CLS + "] bandwidth cannot be negative: " + bitsPerSecond);
+            throw new IllegalArgumentException("NetworkAdapter: bandwidth cannot be negative");
+        }
+        this.bandwidth = bitsPerSecond;
+        logger.info(() -> "[" + CLS + "] adapter \"" + this.name + "\" bandwidth set to " + bitsPerSecond + "bit/s");
+    }
+
+    /**
+     * @return the admission policy of the egress queue
+     */
+    public QueueDiscipline getQueueDiscipline() {
+        return this.discipline;
+    }
+
+    /**
+     * Sets the admission policy of the egress queue, e.g.
+     * {@link DropTail} or
+     * {@link com.netsim.network.queue.RandomEarlyDetection}. It only
+     * matters once a bandwidth is set.
+     *
+     * @param newDiscipline the policy, not shared with another adapter (non‐null)
+     * @throws IllegalArgumentException if newDiscipline is null
+     */
+    public void setQueueDiscipline(QueueDiscipline newDiscipline) throws IllegalArgumentException {
+        if (newDiscipline == null) {
+            logger.error("[" + CLS + "] cannot set null queue discipline");
+            throw new IllegalArgumentException("NetworkAdapter: queue discipline cannot be null");
+        }
+        this.discipline = newDiscipline;
+    }
+
+    /**
+     * Forgets the frames whose transmission has completed.
+     *
+     * @param now the current time
+     */
+    private void expireDepartures(long now) {
+        while (this.departureCount > 0 && this.departures[this.departureHead] <= now) {
+            this.departureHead = (this.departureHead + 1) % this.departures.length;
+            this.departureCount--;
+        }
+    }
+
+    /**
+     * Records the completion time of a frame accepted for transmission.
+     */
+    private void addDeparture(long time) {
+        if (this.departureCount == this.departures.length) {
+            long[] grown = new long[this.departures.length * 2];
+            for (int i = 0; i < this.departureCount; i++) {
+                grown[i] = this.departures[(this.departureHead + i) % this.departures.length];
+            }
+            this.departures    = grown;
+            this.departureHead = 0;
+        }
+        this.departures[(this.departureHead + this.departureCount) % this.departures.length] = time;
+        this.departureCount++;
+    }
+
+    /**
+     * @return frames waiting in the egress queue, not counting the one on the wire
+     */
+    public int getQueueDepth() {
+        this.expireDepartures(this.scheduler.now());
+        return Math.max(0, this.departureCount - 1);
+    }
+
+    /**
+     * @return the largest egress queue depth seen
+     */
+    public int getPeakQueueDepth() {
+        return this.peakQueueDepth;
+    }
+
+    /**
+     * @return frames accepted for transmission
+     */
+    public long getSentFrames() {
+        return this.sentFrames.sum();
+    }
+
+    /**
+     * @return bytes accepted for transmission, DLL header included
+     */
+    public long getSentBytes() {
+        return this.sentBytes.sum();
+    }
+
+    /**
+     * @return nanoseconds frames took from being sent to being delivered
+     *         at the other end of the cable: queueing, serialization and
+     *         propagation
+     */
+    public LatencyHistogram getDelays() {
+        return this.delays;
+    }
+
+    /**
+     * @return the tap recording this adapter's frames, or null if none
+     */
+    @Override
+    public CaptureTap getCaptureTap() {
+        return this.tap;
+    }
+
+    /**
+     * Attaches a tap recording, from now on, the frames this adapter puts
+     * on the cable (once the egress queue has admitted them) and those
+     * that reach it, before they are filtered by destination.
+     *
+     * @param newTap the tap, not shared with another adapter, or null to detach
+     */
+    @Override
+    public void setCaptureTap(CaptureTap newTap) {
+        this.tap = newTap;
+    }
+
+    /**
+     * @return frames that reached this adapter while it was up
+     */
+    public long getReceivedFrames() {
+        return this.receivedFrames.sum();
+    }
+
+    /**
+     * @return bytes that reached this adapter while it was up, DLL header included
+     */
+    public long getReceivedBytes() {
+        return this.receivedBytes.sum();
+    }
+
+    /**
+     * @return frames sent or received while the adapter was down
+     */
+    public long getDownDrops() {
+        return this.downDrops.sum();
+    }
+
+    /**
+     * @return received frames dropped because they were addressed to
+     *         another station
+     */
+    public long getNotForMeDrops() {
+        return this.notForMeDrops.sum();
+    }
+
+    /**
+     * @return packets dropped on sending because their EtherType is
+     *         neither IPv4 nor ARP
+     */
+    public long getUnknownEtherTypeDrops() {
+        return this.unknownDrops.sum();
+    }
+
+    /**
+     * @return frames dropped by the egress queue
+     */
+    public long getDrops() {
+        return this.drops.sum();
+    }
+
+    /**
+     * Fraction of the time since the start of the simulation during which
+     * the link was serializing a frame. Always 0 without a bandwidth.
+     *
+     * @return utilization in [0, 1]
+     */
+    public double getUtilization() {
+        long now = this.scheduler.now();
+        if (now <= 0) {
+            return 0.0;
+        }
+        long busy = this.busyTime - Math.max(0L, this.busyUntil - now);
+        return Math.min(1.0, (double) busy / now);
+    }
+
     /** @return adapter name */
     public String getName() {
         return this.name;
@@ -141,20 +506,24 @@ public final class CabledAdapter implements NetworkAdapter {
     /** Brings the adapter up. */
     public void setUp() {
         this.isUp = true;
-        logger.info("[" + CLS + "] adapter \"" + this.name + "\" is UP");
+        logger.info(() -> "[" + CLS + "] adapter \"" + this.name + "\" is UP");
     }
 
     /** Brings the adapter down. */
     public void setDown() {
         this.isUp = false;
-        logger.info("[" + CLS + "] adapter \"" + this.name + "\" is DOWN");
+        logger.info(() -> "[" + CLS + "] adapter \"" + this.name + "\" is DOWN");
     }
 
     /**
-     * Sends a raw frame to the linked adapter using DLL framing.
+     * Sends an IPv4 packet to the linked adapter using DLL framing.
+     * <p>
+     * The bytes are copied into a pooled buffer and sent with
+     * {@link #sendInPlace(ProtocolPipeline, PacketBuffer, int)}.
+     * </p>
      *
      * @param stack protocol pipeline (non‐null)
-     * @param frame payload bytes (non‐empty)
+     * @param frame the IPv4 packet (non‐empty)
      * @throws IllegalArgumentException if stack or frame is null/empty
      * @throws RuntimeException         if adapter is down or unlinked
      */
@@ -163,20 +532,307 @@ public final class CabledAdapter implements NetworkAdapter {
             logger.error("[" + CLS + "] invalid arguments to send");
             throw new IllegalArgumentException("NetworkAdapter: invalid arguments");
         }
+        this.sendInPlace(stack, PacketBufferPool.getInstance().acquire(frame), SimpleDLLProtocol.ETHERTYPE_IPV4);
+    }
+
+    /**
+     * @return true if a cable connects this adapter to another
+     */
+    public boolean isLinked() {
+        return this.remote != null;
+    }
+
+    /**
+     * @return true if the adapter at the other end of the cable belongs to
+     *         a {@link Bridge}, so frames must carry the next hop's MAC
+     */
+    public boolean isBridged() {
+        return this.remote != null && this.remote.owner instanceof Bridge;
+    }
+
+    /**
+     * Sends a packet to the linked adapter, writing the DLL header into
+     * the buffer's headroom.
+     * <p>
+     * The frame is addressed to {@code nextHop} if the cable leads to a
+     * {@link Bridge}; on a point‐to‐point cable, or without a next hop, it
+     * is addressed to the linked adapter.
+     * </p>
+     * <p>
+     * Delivery is posted as an event on the remote adapter's scheduler,
+     * {@link #getLatency()} nanoseconds after the frame has been
+     * serialized, rather than invoking the remote adapter directly. With a
+     * bandwidth set, a frame sent while the link is busy is queued or, if
+     * the queue discipline refuses it, dropped. The buffer travels with
+     * the event; it is released here if the frame is dropped or cannot be
+     * sent.
+     * </p>
+     * <p>
+     * The frame carries {@code etherType}, as given by the layer handing
+     * the packet down. A packet that is neither IPv4 nor ARP is dropped
+     * and counted in {@link #getUnknownEtherTypeDrops()}.
+     * </p>
+     *
+     * @param stack     protocol pipeline (non‐null)
+     * @param packet    the packet (non‐empty); this adapter takes over the reference
+     * @param etherType the type of the packet
+     * @param nextHop   MAC of the next hop, or null
+     * @throws IllegalArgumentException if stack or packet is null/empty
+     * @throws RuntimeException         if adapter is down or unlinked
+     */
+    @Override
+    public void sendInPlace(ProtocolPipeline stack, PacketBuffer packet, int etherType, Mac nextHop) {
+        CabledAdapter destination = this.checkSend(stack, packet);
+        if (!this.frames(etherType, 1)) {
+            packet.release();
+            return;
+        }
+        SimpleDLLProtocol framingProtocol = this.framingTo(destination, nextHop, etherType);
+        try {
+            framingProtocol.encapsulateInPlace(packet);
+        } catch (RuntimeException e) {
+            packet.release();
+            throw e;
+        }
+        stack.push(framingProtocol);
+        this.transmit(destination, stack, packet);
+    }
+
+    /**
+     * Sends packets sharing a pipeline as one batch. Each packet is framed
+     * in its own buffer's headroom and goes through the egress queue on
+     * its own, so bandwidth, drops and counters apply per frame; the
+     * frames that were not dropped are then delivered together, by one
+     * event at the arrival time of the last of them, to
+     * {@link #receiveBatch(ProtocolPipeline, List)}. Every frame of the
+     * batch therefore records the delay of the last one, the time it
+     * actually takes to reach the other end. All packets are framed
+     * before the first one is queued, so a malformed packet fails the
+     * whole batch without touching counters or link occupancy. Packets
+     * that are neither IPv4 nor ARP are dropped, as by
+     * {@link #sendInPlace(ProtocolPipeline, PacketBuffer, int, Mac)}.
+     *
+     * @param stack     protocol pipeline shared by the packets (non‐null)
+     * @param packets   the packets, in order (non‐null, non‐empty); this adapter
+     *                  takes over the reference to each
+     * @param etherType the type of the packets
+     * @param nextHop   MAC of the next hop, or null
+     * @throws IllegalArgumentException if stack or packets is null/empty, or
+     *                                  a packet is null/empty or malformed
+     * @throws RuntimeException         if adapter is down or unlinked
+     */
+    @Override
+    public void sendBatch(ProtocolPipeline stack, List<PacketBuffer> packets, int etherType, Mac nextHop) {
+        if (stack == null || packets == null || packets.isEmpty() || packets.contains(null)) {
+            if (packets != null) {
+                releaseAll(packets, 0);
+            }
+            logger.error("[" + CLS + "] invalid arguments to sendBatch");
+            throw new IllegalArgumentException("NetworkAdapter: invalid arguments");
+        }
+        CabledAdapter destination;
+        try {
+            destination = this.checkSend(stack, packets.get(0));
+        } catch (RuntimeException e) {
+            releaseAll(packets, 1);
+            throw e;
+        }
+        if (!this.frames(etherType, packets.size())) {
+            releaseAll(packets, 0);
+            return;
+        }
+        SimpleDLLProtocol framingProtocol = this.framingTo(destination, nextHop, etherType);
+        for (int i = 0; i < packets.size(); i++) {
+            PacketBuffer packet = packets.get(i);
+            try {
+                if (packet.length() == 0) {
+                    logger.error("[" + CLS + "] empty packet in batch");
+                    throw new IllegalArgumentException("NetworkAdapter: invalid arguments");
+                }
+                framingProtocol.encapsulateInPlace(packet);
+            } catch (RuntimeException e) {
+                releaseAll(packets, 0);
+                throw e;
+            }
+        }
+        List<PacketBuffer> frames    = new ArrayList<>(packets.size());
+        long               departure = -1L;
+        for (int i = 0; i < packets.size(); i++) {
+            long leaves = this.admit(destination, packets.get(i));
+            if (leaves >= 0) {
+                frames.add(packets.get(i));
+                departure = leaves;
+            }
+        }
+        if (frames.isEmpty()) {
+            return;
+        }
+        stack.push(framingProtocol);
+        logger.info(() -> "[" + CLS + "] adapter \"" + this.name + "\" sent batch of "
+            + frames.size() + " frame(s) to adapter \"" + destination.getName() + "\"");
+        long sent = this.scheduler.now();
+        this.post(destination, departure + this.latency, () -> {
+            long delay = destination.getScheduler().now() - sent;
+            for (int i = 0; i < frames.size(); i++) {
+                this.delays.record(delay);
+            }
+            destination.receiveBatch(stack, frames);
+        });
+    }
+
+    /**
+     * Returns the DLL protocol addressing frames of a type to {@code nextHop}
+     * if the cable leads to a {@link Bridge}, to the linked adapter
+     * otherwise, reusing the last one built when the destination and type
+     * are unchanged.
+     */
+    private SimpleDLLProtocol framingTo(CabledAdapter destination, Mac nextHop, int etherType) {
+        Mac target = nextHop != null && this.isBridged() ? nextHop : destination.getMacAddress();
+        SimpleDLLProtocol framingProtocol = this.framing;
+        if (framingProtocol == null
+            || framingProtocol.getEtherType() != etherType
+            || !framingProtocol.getDestination().equals(target)) {
+            framingProtocol = new SimpleDLLProtocol(this.macAddress, target, etherType);
+            this.framing    = framingProtocol;
+        }
+        return framingProtocol;
+    }
+
+    /**
+     * Tells whether packets of a type can be framed, counting them as
+     * dropped if not. The caller releases them.
+     *
+     * @param etherType the type of the packets
+     * @param count     the number of packets
+     * @return true if the type is IPv4 or ARP
+     */
+    private boolean frames(int etherType, int count) {
+        if (etherType == SimpleDLLProtocol.ETHERTYPE_IPV4 || etherType == SimpleDLLProtocol.ETHERTYPE_ARP) {
+            return true;
+        }
+        this.unknownDrops.add(count);
+        logger.error("[" + CLS + "] adapter \"" + this.name + "\" dropped " + count
+                     + " packet(s) of unknown EtherType 0x" + Integer.toHexString(etherType));
+        return false;
+    }
+
+    /**
+     * Releases the buffers of a list from an index on.
+     */
+    private static void releaseAll(List<PacketBuffer> buffers, int from) {
+        for (int i = from; i < buffers.size(); i++) {
+            if (buffers.get(i) != null) {
+                buffers.get(i).release();
+            }
+        }
+    }
+
+    /**
+     * Sends a frame that already carries its DLL header, as a bridge does
+     * when passing on a frame received on another port. Queueing,
+     * bandwidth and counters apply as for
+     * {@link #sendInPlace(ProtocolPipeline, PacketBuffer, int, Mac)}.
+     *
+     * @param stack protocol pipeline, DLL protocol on top (non‐null)
+     * @param frame the frame (non‐empty); this adapter takes over the reference
+     * @throws IllegalArgumentException if stack or frame is null/empty
+     * @throws RuntimeException         if adapter is down or unlinked
+     */
+    public void forwardFrame(ProtocolPipeline stack, PacketBuffer frame) {
+        this.transmit(this.checkSend(stack, frame), stack, frame);
+    }
+
+    /**
+     * Validates a send, releasing the packet before throwing.
+     *
+     * @return the linked adapter
+     */
+    private CabledAdapter checkSend(ProtocolPipeline stack, PacketBuffer packet) {
+        if (stack == null || packet == null || packet.length() == 0) {
+            if (packet != null) {
+                packet.release();
+            }
+            logger.error("[" + CLS + "] invalid arguments to send");
+            throw new IllegalArgumentException("NetworkAdapter: invalid arguments");
+        }
         if (!this.isUp) {
+            packet.release();
+            this.downDrops.increment();
             logger.error("[" + CLS + "] adapter \"" + this.name + "\" is down");
             throw new RuntimeException("NetworkAdapter: adapter is down");
         }
-        SimpleDLLProtocol framingProtocol = new SimpleDLLProtocol(
-            this.macAddress,
-            this.getLinkedAdapter().getMacAddress()
-        );
-        byte[] encapsulated = framingProtocol.encapsulate(frame);
-        stack.push(framingProtocol);
-        logger.info("[" + CLS + "] adapter \"" + this.name + "\" sent frame ("
-            + encapsulated.length + " bytes) to adapter \""
-            + this.getLinkedAdapter().getName() + "\"");
-        this.getLinkedAdapter().receive(stack, encapsulated);
+        try {
+            return this.getLinkedAdapter();
+        } catch (RuntimeException e) {
+            packet.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Queues a framed packet on the link and posts its delivery.
+     *
+     * @param destination the linked adapter
+     * @param stack       protocol pipeline, DLL protocol on top
+     * @param packet      the frame; released if the queue drops it
+     */
+    private void transmit(CabledAdapter destination, ProtocolPipeline stack, PacketBuffer packet) {
+        long sent      = this.scheduler.now();
+        long departure = this.admit(destination, packet);
+        if (departure >= 0) {
+            this.post(destination, departure + this.latency, () -> {
+                this.delays.record(destination.getScheduler().now() - sent);
+                destination.receiveInPlace(stack, packet);
+            });
+        }
+    }
+
+    /**
+     * Puts a framed packet through the egress queue and counts it.
+     *
+     * @param destination the linked adapter
+     * @param packet      the frame; released if the queue drops it
+     * @return the time the frame has left the adapter, or -1 if dropped
+     */
+    private long admit(CabledAdapter destination, PacketBuffer packet) {
+        long departure = this.scheduler.now();
+        if (this.bandwidth > 0) {
+            this.expireDepartures(departure);
+            int queued = Math.max(0, this.departureCount - 1);
+            if (this.departureCount > 0 && !this.discipline.admit(queued)) {
+                this.drops.increment();
+                packet.release();
+                logger.debug(() -> "[" + CLS + "] adapter \"" + this.name + "\" queue dropped frame, depth " + queued);
+                return -1L;
+            }
+            long bits = packet.length() * 8L;
+            long transmission = (bits * 1_000_000_000L + this.bandwidth - 1) / this.bandwidth;
+            this.busyUntil = Math.max(departure, this.busyUntil) + transmission;
+            this.busyTime += transmission;
+            this.addDeparture(this.busyUntil);
+            this.peakQueueDepth = Math.max(this.peakQueueDepth, this.departureCount - 1);
+            departure = this.busyUntil;
+        }
+        this.sentFrames.increment();
+        this.sentBytes.add(packet.length());
+        if (this.tap != null) {
+            this.tap.capture(this.scheduler.now(), packet);
+        }
+        logger.info(() -> "[" + CLS + "] adapter \"" + this.name + "\" sent frame ("
+            + packet.length() + " bytes) to adapter \""
+            + destination.getName() + "\"");
+        return departure;
+    }
+
+    /**
+     * Posts a delivery on the remote adapter's scheduler.
+     */
+    private void post(CabledAdapter destination, long arrival, Event delivery) {
+        if (this.eventOrigin > 0) {
+            destination.getScheduler().scheduleAt(arrival, this.eventOrigin, this.eventSequence++, delivery);
+        } else {
+            destination.getScheduler().scheduleAt(arrival, delivery);
+        }
     }
 
     /**
@@ -192,30 +848,182 @@ public final class CabledAdapter implements NetworkAdapter {
             logger.error("[" + CLS + "] invalid arguments to receive");
             throw new IllegalArgumentException("NetworkAdapter: invalid arguments");
         }
+        this.receiveInPlace(stack, PacketBufferPool.getInstance().acquire(frame));
+    }
+
+    /**
+     * Receives a frame held in a buffer, checks destination, strips the
+     * DLL header in place, and hands the buffer to the owner node with the
+     * EtherType read from the header, see
+     * {@link Node#receiveInPlace(int, ProtocolPipeline, PacketBuffer)}. The
+     * sender's DLL protocol, if the pipeline carries it, is popped but not
+     * used. A {@link Bridge} owner is handed the whole frame instead.
+     *
+     * @param stack  protocol pipeline (non‐null)
+     * @param packet the frame (non‐empty); this adapter takes over the reference
+     * @throws IllegalArgumentException if stack or packet is null/empty
+     */
+    public void receiveInPlace(ProtocolPipeline stack, PacketBuffer packet) {
+        if (stack == null || packet == null || packet.length() == 0) {
+            if (packet != null) {
+                packet.release();
+            }
+            logger.error("[" + CLS + "] invalid arguments to receive");
+            throw new IllegalArgumentException("NetworkAdapter: invalid arguments");
+        }
         if (!this.isUp) {
-            logger.debug("[" + CLS + "] adapter \"" + this.name + "\" is down, dropping frame");
+            packet.release();
+            this.downDrops.increment();
+            logger.debug(() -> "[" + CLS + "] adapter \"" + this.name + "\" is down, dropping frame");
             return;
         }
+        this.receivedFrames.increment();
+        this.receivedBytes.add(packet.length());
+        if (this.tap != null) {
+            this.tap.capture(this.scheduler.now(), packet);
+        }
         if (this.owner == null) {
+            packet.release();
             logger.error("[" + CLS + "] owner node is null");
             throw new RuntimeException("NetworkAdapter: owner node is null");
         }
-        Protocol framingProtocol = stack.pop();
-        Address destAddr = framingProtocol.extractDestination(frame);
-        if (!(destAddr instanceof Mac)) {
-            logger.error("[" + CLS + "] expected DLL protocol, got "
-                + framingProtocol.getClass().getSimpleName());
-            throw new RuntimeException("NetworkAdapter: expected dll protocol");
-        }
-        Mac destMac = (Mac) destAddr;
-        if (!(destMac.equals(this.macAddress) || destMac.equals(Mac.broadcast()))) {
-            logger.debug("[" + CLS + "] frame not for this adapter (" 
-                + destMac.stringRepresentation() + ")");
+        if (this.owner instanceof Bridge) {
+            ((Bridge) this.owner).receiveFrame(this, stack, packet);
+            return;
+        }
+        popFraming(stack);
+        if (!this.accepts(packet)) {
+            this.notForMeDrops.increment();
+            packet.release();
             return;
         }
-        byte[] next = framingProtocol.decapsulate(frame);
-        logger.info("[" + CLS + "] adapter \"" + this.name + "\" received frame, passing up");
-        this.owner.receive(stack, next);
+        int etherType;
+        try {
+            etherType = SimpleDLLProtocol.unframe(packet);
+        } catch (RuntimeException e) {
+            packet.release();
+            throw e;
+        }
+        logger.info(() -> "[" + CLS + "] adapter \"" + this.name + "\" received frame, passing up");
+        stack.stampArrival(this.scheduler.now());
+        ((Node) this.owner).receiveInPlace(etherType, stack, packet);
+    }
+
+    /**
+     * Receives a batch of frames sent together by
+     * {@link #sendBatch(ProtocolPipeline, List, int, Mac)}, in one call: the DLL
+     * protocol is popped once, each frame addressed to this adapter has its
+     * header stripped in place, and the frames are handed to the owner
+     * node in order, with their EtherType, each with its own copy of the
+     * pipeline but the last.
+     * A {@link Bridge} owner is handed the whole frames instead.
+     *
+     * @param stack  protocol pipeline (non‐null)
+     * @param frames the frames (non‐null, non‐empty); this adapter takes over
+     *               the reference to each
+     * @throws IllegalArgumentException if stack or frames is null/empty
+     */
+    public void receiveBatch(ProtocolPipeline stack, List<PacketBuffer> frames) {
+        if (stack == null || frames == null || frames.isEmpty() || frames.contains(null)) {
+            if (frames != null) {
+                releaseAll(frames, 0);
+            }
+            logger.error("[" + CLS + "] invalid arguments to receiveBatch");
+            throw new IllegalArgumentException("NetworkAdapter: invalid arguments");
+        }
+        if (!this.isUp) {
+            this.downDrops.add(frames.size());
+            releaseAll(frames, 0);
+            logger.debug(() -> "[" + CLS + "] adapter \"" + this.name + "\" is down, dropping "
+                + frames.size() + " frame(s)");
+            return;
+        }
+        if (this.owner == null) {
+            releaseAll(frames, 0);
+            logger.error("[" + CLS + "] owner node is null");
+            throw new RuntimeException("NetworkAdapter: owner node is null");
+        }
+        this.receivedFrames.add(frames.size());
+        for (int i = 0; i < frames.size(); i++) {
+            this.receivedBytes.add(frames.get(i).length());
+        }
+        if (this.tap != null) {
+            long now = this.scheduler.now();
+            for (int i = 0; i < frames.size(); i++) {
+                this.tap.capture(now, frames.get(i));
+            }
+        }
+        int last = frames.size() - 1;
+        if (this.owner instanceof Bridge) {
+            Bridge bridge = (Bridge) this.owner;
+            for (int i = 0; i <= last; i++) {
+                bridge.receiveFrame(this, i < last ? stack.copy() : stack, frames.get(i));
+            }
+            return;
+        }
+        popFraming(stack);
+        Node               node       = (Node) this.owner;
+        List<PacketBuffer> accepted   = new ArrayList<>(frames.size());
+        int[]              etherTypes = new int[frames.size()];
+        for (int i = 0; i <= last; i++) {
+            PacketBuffer frame = frames.get(i);
+            if (!this.accepts(frame)) {
+                this.notForMeDrops.increment();
+                frame.release();
+                continue;
+            }
+            try {
+                etherTypes[accepted.size()] = SimpleDLLProtocol.unframe(frame);
+            } catch (RuntimeException e) {
+                releaseAll(accepted, 0);
+                releaseAll(frames, i);
+                throw e;
+            }
+            accepted.add(frame);
+        }
+        logger.info(() -> "[" + CLS + "] adapter \"" + this.name + "\" received batch of "
+            + accepted.size() + " frame(s), passing up");
+        stack.stampArrival(this.scheduler.now());
+        int up = accepted.size() - 1;
+        for (int i = 0; i <= up; i++) {
+            try {
+                node.receiveInPlace(etherTypes[i], i < up ? stack.copy() : stack, accepted.get(i));
+            } catch (RuntimeException e) {
+                releaseAll(accepted, i + 1);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Pops the sender's DLL protocol if the pipeline carries it, so the
+     * layers above find theirs on top.
+     */
+    private static void popFraming(ProtocolPipeline stack) {
+        if (!stack.isEmpty() && stack.peek() instanceof SimpleDLLProtocol) {
+            stack.pop();
+        }
+    }
+
+    /**
+     * Reads the destination from the frame header as a packed long, so
+     * frames for other stations are filtered without building a {@link Mac}.
+     *
+     * @param frame a received frame
+     * @return true if the frame is addressed to this adapter or broadcast
+     */
+    private boolean accepts(PacketBuffer frame) {
+        if (frame.length() < 6) {
+            logger.error("[" + CLS + "] adapter \"" + this.name + "\" dropped truncated frame");
+            return false;
+        }
+        long destination = DLLHeaderView.readDestination(frame.array(), frame.offset());
+        if (destination != this.macAddress.toLong() && destination != Mac.BROADCAST_BITS) {
+            logger.debug(() -> "[" + CLS + "] frame not for this adapter ("
+                + Mac.valueOf(destination).stringRepresentation() + ")");
+            return false;
+        }
+        return true;
     }
 
     /**
@@ -227,12 +1035,12 @@ public final class CabledAdapter implements NetworkAdapter {
     @Override
     public boolean equals(Object obj) {
         if (obj == null || !(obj instanceof CabledAdapter)) {
-            logger.debug("[" + CLS + "] equals: object not a NetworkAdapter");
+            logger.debug(() -> "[" + CLS + "] equals: object not a NetworkAdapter");
             return false;
         }
         CabledAdapter other = (CabledAdapter) obj;
         boolean eq = this.macAddress.equals(other.macAddress);
-        logger.debug("[" + CLS + "] equals: MAC comparison result=" + eq);
+        logger.debug(() -> "[" + CLS + "] equals: MAC comparison result=" + eq);
         return eq;
     }
 
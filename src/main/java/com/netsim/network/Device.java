@@ -0,0 +1,25 @@
+package com.netsim.network;
+
+import com.netsim.metrics.MetricsRegistry;
+
+/**
+ * Anything adapters are cabled into: a {@link Node}, which sends and
+ * receives IP packets, or a {@link Bridge}, which forwards frames at the
+ * data‐link layer and has no IP‐level behaviour at all.
+ */
+public interface Device {
+    /**
+     * @return the name of this device
+     */
+    String getName();
+
+    /**
+     * Tears the device down: unregisters its metrics, and those of the
+     * adapters it owns, from the {@link MetricsRegistry}, so another
+     * device may take its name and the registry does not keep it alive.
+     * The device must not be used afterwards.
+     */
+    default void close() {
+        MetricsRegistry.getInstance().unregister("node." + this.getName() + ".");
+    }
+}
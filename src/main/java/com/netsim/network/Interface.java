@@ -27,7 +27,7 @@ public final class Interface {
         }
         this.adapter = adapter;
         this.ip      = ip;
-        logger.info("[" + CLS + "] created for adapter \"" 
+        logger.info(() -> "[" + CLS + "] created for adapter \"" 
             + this.adapter.getName() + "\" with IP " 
             + this.ip.stringRepresentation());
     }
@@ -59,13 +59,13 @@ public final class Interface {
     @Override
     public boolean equals(Object obj) {
         if (obj == null || !(obj instanceof Interface)) {
-            logger.debug("[" + CLS + "] equals: object is not an Interface");
+            logger.debug(() -> "[" + CLS + "] equals: object is not an Interface");
             return false;
         }
         Interface other = (Interface) obj;
         boolean result = other.getAdapter().equals(this.adapter)
                       && other.getIP().equals(this.ip);
-        logger.debug("[" + CLS + "] equals: comparison result=" + result);
+        logger.debug(() -> "[" + CLS + "] equals: comparison result=" + result);
         return result;
     }
 }
\ No newline at end of file
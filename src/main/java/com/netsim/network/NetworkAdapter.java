@@ -1,6 +1,10 @@
 package com.netsim.network;
 
+import java.util.List;
+
 import com.netsim.addresses.Mac;
+import com.netsim.network.capture.CaptureTap;
+import com.netsim.networkstack.PacketBuffer;
 import com.netsim.networkstack.ProtocolPipeline;
 
 /**
@@ -10,20 +14,20 @@ import com.netsim.networkstack.ProtocolPipeline;
 public interface NetworkAdapter {
 
     /**
-     * Assigns the owning network node for this adapter.
+     * Assigns the device owning this adapter: a {@link Node} or a {@link Bridge}.
      *
-     * @param owner the Node that will own this adapter (non‐null)
-     * @throws IllegalArgumentException if {@code owner} is null
+     * @param owner the device that will own this adapter (non‐null)
+     * @throws IllegalArgumentException if {@code owner} is null, or neither a Node nor a Bridge
      */
-    void setOwner(Node owner);
+    void setOwner(Device owner);
 
     /**
-     * Returns the current owning network node.
+     * Returns the device owning this adapter.
      *
-     * @return the Node that owns this adapter
+     * @return the Node or Bridge that owns this adapter
      * @throws IllegalStateException if no owner has been set
      */
-    Node getOwner();
+    Device getOwner();
 
     /**
      * Connects this adapter to a remote adapter, forming a point‐to‐point link.
@@ -80,14 +84,14 @@ public interface NetworkAdapter {
     void setDown();
 
     /**
-     * Sends a raw frame through this link‐layer adapter.
+     * Sends an IPv4 packet through this link‐layer adapter.
      * <p>
      * The implementation should perform any necessary framing
      * and then deliver the frame to the connected remote adapter.
      * </p>
      *
      * @param stack the protocol pipeline to use for additional encapsulation (non‐null)
-     * @param frame the payload bytes to transmit (non‐empty)
+     * @param frame the IPv4 packet to transmit (non‐empty)
      * @throws IllegalArgumentException if {@code stack} is null or {@code frame} is null/empty
      */
     void send(ProtocolPipeline stack, byte[] frame);
@@ -104,4 +108,86 @@ public interface NetworkAdapter {
      * @throws IllegalArgumentException if {@code stack} is null or {@code frame} is null/empty
      */
     void receive(ProtocolPipeline stack, byte[] frame);
+
+    /**
+     * Sends a packet held in a buffer to the linked adapter.
+     *
+     * @param stack     the protocol pipeline to use for additional encapsulation (non‐null)
+     * @param packet    the packet to transmit (non‐null, non‐empty)
+     * @param etherType the type of the packet, given by the layer handing it down
+     * @throws IllegalArgumentException if {@code stack} is null or {@code packet} is null/empty
+     * @see #sendInPlace(ProtocolPipeline, PacketBuffer, int, Mac)
+     */
+    default void sendInPlace(ProtocolPipeline stack, PacketBuffer packet, int etherType) {
+        this.sendInPlace(stack, packet, etherType, null);
+    }
+
+    /**
+     * Sends a packet held in a buffer towards a given next hop. The
+     * adapter takes over the caller's reference and releases it once the
+     * frame is delivered or dropped, or before throwing. Adapters on
+     * shared segments, where the far end of the cable is not the
+     * receiver, address the frame to {@code nextHop}.
+     * <p>
+     * The type of the packet, e.g. {@code SimpleDLLProtocol.ETHERTYPE_IPV4},
+     * is given by the layer handing it down; a packet of a type the
+     * adapter cannot frame is dropped.
+     * </p>
+     *
+     * @param stack     the protocol pipeline to use for additional encapsulation (non‐null)
+     * @param packet    the packet to transmit (non‐null, non‐empty)
+     * @param etherType the type of the packet
+     * @param nextHop   the MAC of the next hop, or null if unknown
+     * @throws IllegalArgumentException if {@code stack} is null or {@code packet} is null/empty
+     */
+    void sendInPlace(ProtocolPipeline stack, PacketBuffer packet, int etherType, Mac nextHop);
+
+    /**
+     * Sends several packets of one type, e.g. the fragments of one
+     * datagram, that share a protocol pipeline and a next hop. Adapters
+     * that can move the frames as one batch override this; the default
+     * sends them one by one, each with its own copy of the pipeline but
+     * the last.
+     *
+     * @param stack     the protocol pipeline shared by the packets (non‐null)
+     * @param packets   the packets, in order (non‐null, non‐empty); the adapter
+     *                  takes over the reference to each
+     * @param etherType the type of the packets
+     * @param nextHop   the MAC of the next hop, or null if unknown
+     * @throws IllegalArgumentException if {@code stack} is null or {@code packets} is null/empty
+     */
+    default void sendBatch(ProtocolPipeline stack, List<PacketBuffer> packets, int etherType, Mac nextHop) {
+        if (stack == null || packets == null || packets.isEmpty()) {
+            throw new IllegalArgumentException("NetworkAdapter: invalid arguments");
+        }
+        int last = packets.size() - 1;
+        for (int i = 0; i <= last; i++) {
+            try {
+                this.sendInPlace(i < last ? stack.copy() : stack, packets.get(i), etherType, nextHop);
+            } catch (RuntimeException e) {
+                for (int j = i + 1; j <= last; j++) {
+                    packets.get(j).release();
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Attaches a tap recording the frames this adapter sends and receives.
+     * Adapters that support capture override this; the default refuses.
+     *
+     * @param tap the tap, not shared with another adapter, or null to detach
+     * @throws UnsupportedOperationException if the adapter cannot capture
+     */
+    default void setCaptureTap(CaptureTap tap) {
+        throw new UnsupportedOperationException("NetworkAdapter: capture not supported");
+    }
+
+    /**
+     * @return the attached capture tap, or null if none
+     */
+    default CaptureTap getCaptureTap() {
+        return null;
+    }
 }
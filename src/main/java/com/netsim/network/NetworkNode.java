@@ -1,19 +1,64 @@
 package com.netsim.network;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
 
 import com.netsim.addresses.IPv4;
 import com.netsim.addresses.Mac;
 import com.netsim.addresses.Port;
+import com.netsim.app.App;
+import com.netsim.engine.Event;
+import com.netsim.engine.EventScheduler;
+import com.netsim.metrics.Counter;
+import com.netsim.metrics.FlowStats;
+import com.netsim.metrics.LatencyHistogram;
+import com.netsim.metrics.MetricsRegistry;
+import com.netsim.networkstack.DispatchTable;
+import com.netsim.networkstack.PacketBuffer;
+import com.netsim.networkstack.Protocol;
 import com.netsim.networkstack.ProtocolPipeline;
+import com.netsim.protocols.ARP.ARPProtocol;
+import com.netsim.protocols.IPv4.IPv4HeaderView;
+import com.netsim.protocols.IPv4.IPv4Protocol;
+import com.netsim.protocols.IPv4.IPv4Reassembler;
+import com.netsim.protocols.SimpleDLL.SimpleDLLProtocol;
+import com.netsim.protocols.UDP.UDPHeaderView;
+import com.netsim.protocols.UDP.UDPProtocol;
 import com.netsim.table.ArpTable;
+import com.netsim.table.RouteCache;
 import com.netsim.table.RoutingInfo;
 import com.netsim.table.RoutingTable;
 import com.netsim.utils.Logger;
 
 /**
  * Base class for nodes implementing IP routing and ARP resolution.
+ * <p>
+ * A node measures, in simulated time, how long packets stay in it
+ * ({@link #getResidenceTimes()}: from entering it, through an adapter or
+ * from its application, to leaving it, ARP resolution included) and how
+ * long the messages it delivers to its application took from the
+ * application that sent them ({@link #getFlowStats()}, per origin node).
+ * </p>
+ * <p>
+ * Incoming traffic is demultiplexed from the bytes alone, through
+ * {@link DispatchTable}s: the EtherType of a frame selects ARP or IPv4
+ * handling, and the destination port of a UDP datagram (IPv4 protocol
+ * {@value IPv4Protocol#PROTOCOL_UDP}) the application bound to it with
+ * {@link #bind(int, App)}.
+ * </p>
+ * <p>
+ * Its counters, such as messages delivered, and the hits and misses of
+ * its {@link RouteCache} are registered with the {@link MetricsRegistry}
+ * as {@code node.<name>.<metric>}.
+ * </p>
  */
 public abstract class NetworkNode implements Node {
     private static final Logger logger = Logger.getInstance();
@@ -23,6 +68,23 @@ public abstract class NetworkNode implements Node {
     protected final List<Interface> interfaces;
     protected final RoutingTable   routingTable;
     protected final ArpTable       arpTable;
+    protected       EventScheduler scheduler;
+    protected final IPv4Reassembler reassembler;
+    protected final RouteCache     routeCache;
+    protected final ArpResolver    arpResolver;
+    protected final LatencyHistogram residenceTimes;
+    private   final Map<String, FlowStats> flows;
+    protected final Counter        delivered;
+    private   final Counter        unknownEtherType;
+    private   final DispatchTable<BiConsumer<ProtocolPipeline, PacketBuffer>> etherTypes;
+    private   final DispatchTable<App> ports;
+    // next IPv4 identification per destination; nodes run on one thread
+    private   final Map<Integer, int[]> identifications;
+    // reused to read each received packet's header; nodes run on one thread
+    protected final IPv4HeaderView ipHeader;
+    // work posted from other threads, run in order by one drain at a time
+    private   final ConcurrentLinkedQueue<Event> mailbox;
+    private   final AtomicBoolean  draining;
 
     /**
      * @param name         node identifier (non‐null)
@@ -46,7 +108,25 @@ public abstract class NetworkNode implements Node {
         this.routingTable = routingTable;
         this.arpTable     = arpTable;
         this.interfaces   = interfaces;
-        logger.info("[" + CLS + "] node '" + this.name
+        this.scheduler    = EventScheduler.getInstance();
+        this.reassembler  = new IPv4Reassembler();
+        this.routeCache   = new RouteCache();
+        this.arpResolver  = new ArpResolver(this);
+        this.residenceTimes = new LatencyHistogram();
+        this.flows          = new ConcurrentHashMap<>();
+        this.delivered      = this.counter("delivered");
+        this.unknownEtherType = this.counter("unknown_ethertype");
+        this.gauge("route_cache.hits", this.routeCache::getHits);
+        this.gauge("route_cache.misses", this.routeCache::getMisses);
+        this.etherTypes     = new DispatchTable<>();
+        this.ports          = new DispatchTable<>();
+        this.identifications = new HashMap<>();
+        this.ipHeader       = new IPv4HeaderView();
+        this.mailbox        = new ConcurrentLinkedQueue<>();
+        this.draining       = new AtomicBoolean(false);
+        this.etherTypes.register(SimpleDLLProtocol.ETHERTYPE_ARP, this::receiveArp);
+        this.etherTypes.register(SimpleDLLProtocol.ETHERTYPE_IPV4, this::receiveInPlace);
+        logger.info(() -> "[" + CLS + "] node '" + this.name
             + "' created with " + this.interfaces.size() + " interfaces");
     }
 
@@ -58,6 +138,77 @@ public abstract class NetworkNode implements Node {
         return this.name;
     }
 
+    /**
+     * @return the scheduler on which this node posts deliveries
+     */
+    public EventScheduler getScheduler() {
+        return this.scheduler;
+    }
+
+    /**
+     * Sets the scheduler on which this node posts deliveries.
+     *
+     * @param newScheduler the scheduler to use (non‐null)
+     * @throws IllegalArgumentException if newScheduler is null
+     */
+    public void setScheduler(EventScheduler newScheduler) throws IllegalArgumentException {
+        if (newScheduler == null) {
+            logger.error("[" + CLS + "] scheduler cannot be null");
+            throw new IllegalArgumentException(CLS + ": scheduler cannot be null");
+        }
+        this.scheduler = newScheduler;
+    }
+
+    /**
+     * Hands work to this node from any thread, e.g. a command typed into
+     * an application. It is queued in the node's own mailbox, and one
+     * drain at a time is posted to the node's scheduler, so the node runs
+     * its posted work in order, one item after the other, on the thread
+     * driving its scheduler: node state is only ever touched by that
+     * thread. Under a {@code ParallelSimulator} that is the thread of the
+     * node's partition, so nodes of different partitions work through
+     * their mailboxes concurrently.
+     *
+     * @param event the work to run (non‐null)
+     * @throws IllegalArgumentException if event is null
+     */
+    public void post(Event event) throws IllegalArgumentException {
+        if (event == null) {
+            logger.error("[" + CLS + "] event cannot be null");
+            throw new IllegalArgumentException(CLS + ": event cannot be null");
+        }
+        this.mailbox.add(event);
+        if (this.draining.compareAndSet(false, true)) {
+            this.scheduler.post(this::drainMailbox);
+        }
+    }
+
+    /**
+     * Runs the work posted to this node. A post made while it runs either
+     * is picked up here or posts the next drain; if an item throws, the
+     * rest is left to a new drain.
+     */
+    private void drainMailbox() {
+        this.draining.set(false);
+        try {
+            Event next;
+            while ((next = this.mailbox.poll()) != null) {
+                next.execute();
+            }
+        } finally {
+            if (!this.mailbox.isEmpty() && this.draining.compareAndSet(false, true)) {
+                this.scheduler.post(this::drainMailbox);
+            }
+        }
+    }
+
+    /**
+     * @return the number of items posted to this node and not run yet
+     */
+    public int getMailboxSize() {
+        return this.mailbox.size();
+    }
+
     /**
      * Finds the Interface with the given IP.
      *
@@ -68,7 +219,7 @@ public abstract class NetworkNode implements Node {
     public Interface getInterface(IPv4 ip) {
         for (Interface iface : this.interfaces) {
             if (iface.getIP().equals(ip)) {
-                logger.debug("[" + CLS + "] found interface for IP "
+                logger.debug(() -> "[" + CLS + "] found interface for IP "
                     + ip.stringRepresentation());
                 return iface;
             }
@@ -89,7 +240,7 @@ public abstract class NetworkNode implements Node {
     public Interface getInterface(NetworkAdapter adapter) {
         for (Interface iface : this.interfaces) {
             if (iface.getAdapter().equals(adapter)) {
-                logger.debug("[" + CLS + "] found interface for adapter "
+                logger.debug(() -> "[" + CLS + "] found interface for adapter "
                     + adapter.getName());
                 return iface;
             }
@@ -107,6 +258,337 @@ public abstract class NetworkNode implements Node {
         return this.interfaces;
     }
 
+    /**
+     * @return the reassembler holding this node's incomplete datagrams
+     */
+    public IPv4Reassembler getReassembler() {
+        return this.reassembler;
+    }
+
+    /**
+     * Feeds IPv4 fragments, back to back, to this node's reassembler and
+     * hands over the payload of each datagram they complete. Fragments of
+     * datagrams still incomplete are kept for later packets.
+     *
+     * @param stack   the pipeline the fragments arrived with (non‐null)
+     * @param packets the fragments (non‐null)
+     * @param deliver receives each completed payload, with the pipeline to
+     *                unwind it: {@code stack} for the first, a copy for others
+     * @throws IllegalArgumentException if a fragment is malformed
+     */
+    protected void reassemble(ProtocolPipeline stack,
+                              byte[] packets,
+                              BiConsumer<ProtocolPipeline, byte[]> deliver) throws IllegalArgumentException {
+        long    now       = this.scheduler.now();
+        boolean delivered = false;
+        for (int at = 0; at < packets.length; ) {
+            int    length  = IPv4Reassembler.fragmentLength(packets, at);
+            byte[] payload = this.reassembler.accept(packets, at, now);
+            at += length;
+            if (payload != null) {
+                deliver.accept(delivered ? stack.copy() : stack, payload);
+                delivered = true;
+            }
+        }
+    }
+
+    /**
+     * Hands the payload of a frame to the handler registered for its
+     * EtherType: ARP messages to the {@link ArpResolver}, IPv4 packets to
+     * {@link #receiveInPlace(ProtocolPipeline, PacketBuffer)}. Payloads of
+     * any other type are dropped and counted as
+     * {@code node.<name>.unknown_ethertype}.
+     *
+     * @param etherType the EtherType read from the frame header
+     * @param stack     the protocol pipeline (non‐null)
+     * @param packet    the payload (non‐null); this node takes over the reference
+     * @throws IllegalArgumentException if stack or packet is null, or the payload is malformed
+     */
+    @Override
+    public void receiveInPlace(int etherType, ProtocolPipeline stack, PacketBuffer packet)
+            throws IllegalArgumentException {
+        if (stack == null || packet == null) {
+            if (packet != null) {
+                packet.release();
+            }
+            logger.error("[" + CLS + "] invalid arguments to receive");
+            throw new IllegalArgumentException(CLS + ": invalid arguments");
+        }
+        BiConsumer<ProtocolPipeline, PacketBuffer> handler = this.etherTypes.get(etherType);
+        if (handler == null) {
+            packet.release();
+            this.unknownEtherType.increment();
+            logger.debug(() -> "[" + CLS + "] " + this.name + ": dropped frame of unknown EtherType 0x"
+                + Integer.toHexString(etherType));
+            return;
+        }
+        handler.accept(stack, packet);
+    }
+
+    /**
+     * Hands an ARP message to the resolver, popping the sender's ARP
+     * protocol if the pipeline carries it.
+     */
+    private void receiveArp(ProtocolPipeline stack, PacketBuffer packet) {
+        if (!stack.isEmpty() && stack.peek() instanceof ARPProtocol) {
+            stack.pop();
+        }
+        byte[] message = packet.toByteArray();
+        packet.release();
+        this.arpResolver.receive(message);
+    }
+
+    /**
+     * Pops the sender's IPv4 protocol if the pipeline carries it, so the
+     * layers above find theirs on top. Nothing is read from it.
+     *
+     * @param stack the pipeline a packet arrived with (non‐null)
+     */
+    protected static void popNetworkLayer(ProtocolPipeline stack) {
+        if (!stack.isEmpty() && stack.peek() instanceof IPv4Protocol) {
+            stack.pop();
+        }
+    }
+
+    /**
+     * Names the transport protocol of a datagram handed down with a
+     * pipeline, for the IPv4 header's protocol field.
+     *
+     * @param stack the pipeline the datagram is sent with (non‐null)
+     * @return {@value IPv4Protocol#PROTOCOL_UDP} if UDP is on top of it, 0 otherwise
+     */
+    protected static int transportProtocolOf(ProtocolPipeline stack) {
+        return !stack.isEmpty() && stack.peek() instanceof UDPProtocol ? IPv4Protocol.PROTOCOL_UDP : 0;
+    }
+
+    /**
+     * Reads the destination of a received packet from its header. The
+     * sender's IPv4 address object is returned when the pipeline carries
+     * one for the same address, so nothing is allocated; otherwise a host
+     * address is built from the header.
+     *
+     * @param stack  the pipeline the packet arrived with (non‐null)
+     * @param packet the packet (non‐null)
+     * @return the destination address
+     * @throws IllegalArgumentException if the header is truncated or malformed
+     */
+    protected IPv4 destinationOf(ProtocolPipeline stack, PacketBuffer packet) throws IllegalArgumentException {
+        int      bits = this.ipHeader.wrap(packet).getDestination();
+        Protocol top  = stack.isEmpty() ? null : stack.peek();
+        if (top instanceof IPv4Protocol) {
+            IPv4 configured = ((IPv4Protocol) top).getDestination();
+            if (configured.toInt() == bits) {
+                return configured;
+            }
+        }
+        return IPv4.fromInt(bits, 32);
+    }
+
+    /**
+     * @param address a packed IPv4 address, as read from a header
+     * @return true if one of this node's interfaces has that address
+     */
+    protected boolean isLocal(int address) {
+        for (int i = 0; i < this.interfaces.size(); i++) {
+            if (this.interfaces.get(i).getIP().toInt() == address) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Binds an application to a UDP port: datagrams received for that
+     * port are handed to it.
+     *
+     * @param port the port number (0–65535)
+     * @param app  the application (non‐null)
+     * @throws IllegalArgumentException if port is out of range or app is null
+     */
+    public void bind(int port, App app) throws IllegalArgumentException {
+        this.ports.register(port, app);
+        logger.info(() -> "[" + CLS + "] " + this.name + ": bound " + app.getName() + " to port " + port);
+    }
+
+    /**
+     * Releases a UDP port.
+     *
+     * @param port the port number (0–65535)
+     * @return the application that was bound to it, or null
+     * @throws IllegalArgumentException if port is out of range
+     */
+    public App unbind(int port) throws IllegalArgumentException {
+        return this.ports.unregister(port);
+    }
+
+    /**
+     * @param port a UDP port number
+     * @return the application bound to it, or null
+     */
+    public App getBoundApp(int port) {
+        return this.ports.get(port);
+    }
+
+    /**
+     * Binds an application to the port it listens on, if it has one,
+     * releasing the port of the application it replaces.
+     *
+     * @param previous the application being replaced, or null
+     * @param app      the new application (non‐null)
+     */
+    protected void bindApp(App previous, App app) {
+        if (previous != null && previous.getPort() != null
+            && this.ports.get(previous.getPort().getPort()) == previous) {
+            this.ports.unregister(previous.getPort().getPort());
+        }
+        if (app.getPort() != null) {
+            this.bind(app.getPort().getPort(), app);
+        }
+    }
+
+    /**
+     * Selects the application a datagram is for: the one bound to its
+     * destination port if it is UDP, {@code fallback} otherwise.
+     *
+     * @param protocol  the IPv4 protocol number of the datagram
+     * @param transport the datagram's payload
+     * @param fallback  the application to use when none is bound
+     * @return the application
+     */
+    protected App appFor(int protocol, byte[] transport, App fallback) {
+        if (protocol != IPv4Protocol.PROTOCOL_UDP || transport.length < UDPHeaderView.HEADER_LEN) {
+            return fallback;
+        }
+        App bound = this.ports.get(UDPHeaderView.readDestinationPort(transport, 0));
+        return bound != null ? bound : fallback;
+    }
+
+    /**
+     * @return nanoseconds packets spent in this node, from arrival to
+     *         departure towards an adapter or the application
+     */
+    public LatencyHistogram getResidenceTimes() {
+        return this.residenceTimes;
+    }
+
+    /**
+     * @return the flows delivered to this node's application, by origin node
+     */
+    public Map<String, FlowStats> getFlowStats() {
+        return Collections.unmodifiableMap(this.flows);
+    }
+
+    /**
+     * @param origin the name of the node the flow starts at
+     * @return the flow from that node, or null if nothing was delivered from it
+     */
+    public FlowStats getFlowStats(String origin) {
+        return origin == null ? null : this.flows.get(origin);
+    }
+
+    /**
+     * Creates a counter and registers it as {@code node.<name>.<metric>}.
+     *
+     * @param metric the name of the metric within the node
+     * @return the counter
+     */
+    protected Counter counter(String metric) {
+        Counter counter = new Counter();
+        MetricsRegistry.getInstance().register("node." + this.name + "." + metric, counter);
+        return counter;
+    }
+
+    /**
+     * Registers a gauge as {@code node.<name>.<metric>}.
+     *
+     * @param metric the name of the metric within the node
+     * @param gauge  the source of the value (non‐null)
+     */
+    protected void gauge(String metric, LongSupplier gauge) {
+        MetricsRegistry.getInstance().gauge("node." + this.name + "." + metric, gauge);
+    }
+
+    /**
+     * Stamps a packet handed down by this node's application: it arrives
+     * now and, unless an application it is relayed for already stamped it,
+     * originates here.
+     *
+     * @param stack the pipeline of the packet (non‐null)
+     */
+    protected void stampSent(ProtocolPipeline stack) {
+        long now = this.scheduler.now();
+        if (stack.getOriginTime() == ProtocolPipeline.UNSTAMPED) {
+            stack.stampOrigin(this.name, now);
+        }
+        stack.stampArrival(now);
+    }
+
+    /**
+     * Draws the IPv4 identification of the next datagram this node sends
+     * to a destination. Each destination has its own 16‐bit counter, so
+     * datagrams of one flow carry distinct identifications until it wraps
+     * and their fragments never reassemble into one another.
+     *
+     * @param destination the packed IPv4 destination
+     * @return the identification (0–65535)
+     */
+    protected int nextIdentification(int destination) {
+        int[] next = this.identifications.computeIfAbsent(destination, d -> new int[1]);
+        int   id   = next[0];
+        next[0] = (id + 1) & 0xFFFF;
+        return id;
+    }
+
+    /**
+     * Records the time a packet leaving now spent in this node.
+     *
+     * @param stack the pipeline of the packet (non‐null)
+     */
+    protected void recordDeparture(ProtocolPipeline stack) {
+        long arrival = stack.getArrivalTime();
+        if (arrival != ProtocolPipeline.UNSTAMPED) {
+            this.residenceTimes.record(Math.max(0L, this.scheduler.now() - arrival));
+        }
+    }
+
+    /**
+     * Records a message handed now to this node's application.
+     *
+     * @param stack  the pipeline it arrived with (non‐null)
+     * @param length the bytes delivered
+     */
+    protected void recordDelivery(ProtocolPipeline stack, int length) {
+        this.delivered.increment();
+        this.recordDeparture(stack);
+        String origin = stack.getOrigin();
+        if (origin != null) {
+            this.flows.computeIfAbsent(origin, FlowStats::new)
+                      .record(stack.getOriginTime(), this.scheduler.now(), length);
+        }
+    }
+
+    /**
+     * @return the cache in front of this node's routing table
+     */
+    public RouteCache getRouteCache() {
+        return this.routeCache;
+    }
+
+    /**
+     * Looks up the route to a destination IP through the route cache.
+     *
+     * @param destination the IPv4 destination (non‐null)
+     * @return routing information, or null if the destination is unroutable
+     * @throws IllegalArgumentException if destination is null
+     */
+    public RoutingInfo findRoute(IPv4 destination) throws IllegalArgumentException {
+        if (destination == null) {
+            logger.error("[" + CLS + "] findRoute: destination is null");
+            throw new IllegalArgumentException(CLS + ": destination cannot be null");
+        }
+        return this.routeCache.lookup(this.routingTable, destination.toInt());
+    }
+
     /**
      * Looks up the route to a destination IP.
      *
@@ -115,17 +597,37 @@ public abstract class NetworkNode implements Node {
      * @throws RuntimeException if no route is found
      */
     public RoutingInfo getRoute(IPv4 destination) {
-        try {
-            RoutingInfo info = this.routingTable.lookup(destination);
-            logger.debug("[" + CLS + "] route found for "
-                + destination.stringRepresentation());
-            return info;
-        } catch (NullPointerException e) {
+        RoutingInfo info = this.findRoute(destination);
+        if (info == null) {
             logger.error("[" + CLS + "] route to "
                 + destination.stringRepresentation() + " not found");
             throw new RuntimeException("Route to "
                 + destination.stringRepresentation() + " not found");
         }
+        logger.debug(() -> "[" + CLS + "] route found for "
+            + destination.stringRepresentation());
+        return info;
+    }
+
+    /**
+     * @return the routing table of this node
+     */
+    public RoutingTable getRoutingTable() {
+        return this.routingTable;
+    }
+
+    /**
+     * @return the ARP table of this node
+     */
+    public ArpTable getArpTable() {
+        return this.arpTable;
+    }
+
+    /**
+     * @return the resolver filling this node's ARP table
+     */
+    public ArpResolver getArpResolver() {
+        return this.arpResolver;
     }
 
     /**
@@ -136,17 +638,127 @@ public abstract class NetworkNode implements Node {
      * @throws RuntimeException if not in ARP cache
      */
     public Mac getMac(IPv4 ip) {
-        try {
-            Mac mac = this.arpTable.lookup(ip);
-            logger.debug("[" + CLS + "] ARP lookup for "
-                + ip.stringRepresentation() + " → " + mac);
-            return mac;
-        } catch (NullPointerException e) {
+        long mac = this.arpTable.find(ip.toInt(), this.scheduler.now());
+        if (mac == ArpTable.MISSING) {
             logger.error("[" + CLS + "] MAC for "
                 + ip.stringRepresentation() + " not in ARP cache");
             throw new RuntimeException("MAC for "
                 + ip.stringRepresentation() + " not in ARP cache");
         }
+        Mac resolved = Mac.fromLong(mac);
+        logger.debug(() -> "[" + CLS + "] ARP lookup for "
+            + ip.stringRepresentation() + " → " + resolved);
+        return resolved;
+    }
+
+    /**
+     * Resolves the MAC a frame towards a destination must be addressed to.
+     * Only links to a {@link Bridge} need one: a point‐to‐point cable
+     * delivers to the adapter at its other end whatever the address.
+     *
+     * @param route       the route to the destination (non‐null)
+     * @param destination the IPv4 destination (non‐null)
+     * @return the MAC of the next hop, or the destination if on‐link, or
+     *         null if the outgoing link is point‐to‐point
+     * @throws RuntimeException if the MAC is not in the ARP cache
+     */
+    public Mac getNextHopMac(RoutingInfo route, IPv4 destination) {
+        NetworkAdapter device = route.getDevice();
+        if (!(device instanceof CabledAdapter) || !((CabledAdapter) device).isBridged()) {
+            return null;
+        }
+        IPv4 nextHop = route.getNextHop();
+        return this.getMac(nextHop != null ? nextHop : destination);
+    }
+
+    /**
+     * Sends a packet along a route. On a link to a {@link Bridge} the frame
+     * is addressed to the MAC of the next hop, or of the destination if it
+     * is on‐link; if that MAC is not in the ARP table yet, the packet waits
+     * in the {@link ArpResolver} until it is.
+     *
+     * @param route       the route to the destination (non‐null)
+     * @param destination the IPv4 destination (non‐null)
+     * @param stack       the protocol pipeline of the packet (non‐null)
+     * @param packet      the packet; ownership passes to the adapter or resolver (non‐null)
+     * @throws RuntimeException if the packet cannot be sent, e.g. the adapter is down
+     */
+    protected void transmit(RoutingInfo route, IPv4 destination, ProtocolPipeline stack, PacketBuffer packet) {
+        NetworkAdapter device = route.getDevice();
+        if (!(device instanceof CabledAdapter) || !((CabledAdapter) device).isBridged()) {
+            this.recordDeparture(stack);
+            device.sendInPlace(stack, packet, SimpleDLLProtocol.ETHERTYPE_IPV4, null);
+            return;
+        }
+        IPv4 nextHop = route.getNextHop();
+        int  target  = (nextHop != null ? nextHop : destination).toInt();
+        long mac     = this.arpTable.find(target, this.scheduler.now());
+        if (mac != ArpTable.MISSING) {
+            this.recordDeparture(stack);
+            device.sendInPlace(stack, packet, SimpleDLLProtocol.ETHERTYPE_IPV4, Mac.fromLong(mac));
+            return;
+        }
+        Interface iface;
+        try {
+            iface = this.getInterface(device);
+        } catch (RuntimeException e) {
+            packet.release();
+            throw e;
+        }
+        logger.debug(() -> "[" + CLS + "] " + this.name + ": resolving "
+            + IPv4.fromInt(target, 32).stringRepresentation());
+        this.arpResolver.enqueue(iface, target, stack, packet);
+    }
+
+    /**
+     * Sends the fragments of a datagram along a route, a buffer each, as
+     * one batch ({@link NetworkAdapter#sendBatch(ProtocolPipeline, List, int, Mac)}).
+     * Addressing is as in
+     * {@link #transmit(RoutingInfo, IPv4, ProtocolPipeline, PacketBuffer)};
+     * while the MAC is being resolved, each fragment waits in the
+     * {@link ArpResolver} with its own copy of the pipeline.
+     *
+     * @param route       the route to the destination (non‐null)
+     * @param destination the IPv4 destination (non‐null)
+     * @param stack       the protocol pipeline shared by the fragments (non‐null)
+     * @param fragments   the fragments, in order (non‐empty); ownership passes to
+     *                    the adapter or resolver
+     * @throws RuntimeException if the fragments cannot be sent, e.g. the adapter is down
+     */
+    protected void transmit(RoutingInfo route, IPv4 destination, ProtocolPipeline stack,
+                            List<PacketBuffer> fragments) {
+        int last = fragments.size() - 1;
+        if (last == 0) {
+            this.transmit(route, destination, stack, fragments.get(0));
+            return;
+        }
+        NetworkAdapter device = route.getDevice();
+        Mac            mac    = null;
+        if (device instanceof CabledAdapter && ((CabledAdapter) device).isBridged()) {
+            IPv4 nextHop = route.getNextHop();
+            int  target  = (nextHop != null ? nextHop : destination).toInt();
+            long found   = this.arpTable.find(target, this.scheduler.now());
+            if (found == ArpTable.MISSING) {
+                Interface iface;
+                try {
+                    iface = this.getInterface(device);
+                } catch (RuntimeException e) {
+                    for (PacketBuffer fragment : fragments) {
+                        fragment.release();
+                    }
+                    throw e;
+                }
+                logger.debug(() -> "[" + CLS + "] " + this.name + ": resolving "
+                    + IPv4.fromInt(target, 32).stringRepresentation());
+                for (int i = 0; i <= last; i++) {
+                    this.arpResolver.enqueue(iface, target, i < last ? stack.copy() : stack, fragments.get(i));
+                }
+                return;
+            }
+            mac = Mac.fromLong(found);
+        }
+        this.recordDeparture(stack);
+        device.sendBatch(stack, fragments, SimpleDLLProtocol.ETHERTYPE_IPV4, mac);
     }
 
     /**
@@ -163,18 +775,16 @@ public abstract class NetworkNode implements Node {
             throw new IllegalArgumentException("destination cannot be null");
         }
         for (Interface iface : this.interfaces) {
-            IPv4 local  = iface.getIP();
-            int  prefix = local.getMask();
-            String net  = local.stringRepresentation();
-            if (destination.isInSubnet(net, prefix)) {
+            IPv4 local = iface.getIP();
+            if (destination.isInSubnet(local.toInt(), local.getMask())) {
                 Mac mac = this.getMac(destination);
-                logger.info("[" + CLS + "] destination "
+                logger.info(() -> "[" + CLS + "] destination "
                     + destination.stringRepresentation()
                     + " is on-link; MAC=" + mac);
                 return mac;
             }
         }
-        logger.info("[" + CLS + "] destination "
+        logger.info(() -> "[" + CLS + "] destination "
             + destination.stringRepresentation()
             + " is off-link; using broadcast");
         return Mac.broadcast();
@@ -190,9 +800,9 @@ public abstract class NetworkNode implements Node {
         for (Interface iface : this.interfaces) {
             mtu = Math.min(mtu, iface.getAdapter().getMTU());
         }
-        mtu = (mtu == Integer.MAX_VALUE ? 0 : mtu);
-        logger.debug("[" + CLS + "] computed MTU=" + mtu);
-        return mtu;
+        int effective = (mtu == Integer.MAX_VALUE ? 0 : mtu);
+        logger.debug(() -> "[" + CLS + "] computed MTU=" + effective);
+        return effective;
     }
 
     /**
@@ -206,7 +816,7 @@ public abstract class NetworkNode implements Node {
         int    max      = 0xFFFF;
         int    portNum  = rnd.nextInt(max - min + 1) + min;
         Port   p        = new Port(Integer.toString(portNum));
-        logger.debug("[" + CLS + "] generated random port " + p.getPort());
+        logger.debug(() -> "[" + CLS + "] generated random port " + p.getPort());
         return p;
     }
 
@@ -2,6 +2,7 @@ package com.netsim.network;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import com.netsim.addresses.IPv4;
 import com.netsim.addresses.Mac;
@@ -64,7 +65,7 @@ public abstract class NetworkNodeBuilder<T extends NetworkNode> {
             throw new IllegalArgumentException(CLS + ": iface cannot be null");
         }
         this.interfaces.add(iface);
-        logger.info("[" + CLS + "] interface added: adapter="
+        logger.info(() -> "[" + CLS + "] interface added: adapter="
             + iface.getAdapter().getName()
             + ", ip=" + iface.getIP().stringRepresentation());
         return this;
@@ -86,24 +87,22 @@ public abstract class NetworkNodeBuilder<T extends NetworkNode> {
             logger.error("[" + CLS + "] route arguments cannot be null");
             throw new IllegalArgumentException(CLS + ": arguments cannot be null");
         }
-        Interface iface = this.interfaces.stream()
-            .filter(i -> i.getAdapter().getName().equals(adapterName))
-            .findFirst()
-            .orElseThrow(() -> {
-                logger.error("[" + CLS + "] no interface named " + adapterName);
-                return new IllegalArgumentException(
-                    CLS + ": no interface named " + adapterName);
-            });
+        Interface iface = null;
+        for (Interface candidate : this.interfaces) {
+            if (candidate.getAdapter().getName().equals(adapterName)) {
+                iface = candidate;
+                break;
+            }
+        }
+        if (iface == null) {
+            logger.error("[" + CLS + "] no interface named " + adapterName);
+            throw new IllegalArgumentException(CLS + ": no interface named " + adapterName);
+        }
         this.routingTable.add(subnet, new RoutingInfo(iface.getAdapter(), nextHop));
-        String msg = "[" + CLS + "] route added: subnet="
+        logger.info(() -> "[" + CLS + "] route added: subnet="
             + subnet.stringRepresentation()
             + ", adapter=" + adapterName
-            + ", nextHop=";
-        if(nextHop == null) 
-            msg += "null";
-        else
-            msg += nextHop.stringRepresentation();
-        logger.info(msg);
+            + ", nextHop=" + (nextHop == null ? "null" : nextHop.stringRepresentation()));
         return this;
     }
 
@@ -121,12 +120,34 @@ public abstract class NetworkNodeBuilder<T extends NetworkNode> {
             throw new IllegalArgumentException(CLS + ": arguments cannot be null");
         }
         this.arpTable.add(ip, mac);
-        logger.info("[" + CLS + "] ARP entry added: ip="
+        logger.info(() -> "[" + CLS + "] ARP entry added: ip="
             + ip.stringRepresentation()
             + ", mac=" + mac.stringRepresentation());
         return this;
     }
 
+    /**
+     * Applies several builder calls as one routing table update: the
+     * routes they add are published as a single FIB when {@code changes}
+     * returns, rather than one FIB per route, which keeps loading a node
+     * with many routes linear in their number.
+     *
+     * @param changes calls {@link #addRoute} and the other setters on the
+     *                builder it is given (non‐null)
+     * @return this builder
+     * @throws IllegalArgumentException if changes is null, or as thrown by
+     *                                  the calls it makes
+     */
+    public NetworkNodeBuilder<T> update(Consumer<? super NetworkNodeBuilder<T>> changes)
+            throws IllegalArgumentException {
+        if (changes == null) {
+            logger.error("[" + CLS + "] changes cannot be null");
+            throw new IllegalArgumentException(CLS + ": changes cannot be null");
+        }
+        this.routingTable.update(table -> changes.accept(this));
+        return this;
+    }
+
     /**
      * Builds and returns the configured {@link NetworkNode}.
      *
@@ -1,12 +1,13 @@
 package com.netsim.network;
 
 import com.netsim.addresses.IPv4;
+import com.netsim.networkstack.PacketBuffer;
 import com.netsim.networkstack.ProtocolPipeline;
 
 /**
  * Represents a network node capable of sending and receiving IP‐based packets.
  */
-public interface Node {
+public interface Node extends Device {
     /**
      * Sends data to the given IPv4 destination using the specified protocol pipeline.
      *
@@ -17,6 +18,28 @@ public interface Node {
      */
     void send(IPv4 destination, ProtocolPipeline protocols, byte[] data) throws IllegalArgumentException;
 
+    /**
+     * Sends a packet held in a buffer, whose upper layers already wrote
+     * their headers into its headroom. The node takes over the caller's
+     * reference. Nodes that can encapsulate in the buffer override this;
+     * the default copies the packet out, releases the buffer and calls
+     * {@link #send(IPv4, ProtocolPipeline, byte[])}.
+     *
+     * @param destination the IPv4 address to send to (non‐null)
+     * @param protocols   the protocol pipeline to apply (non‐null)
+     * @param packet      the packet to send (non‐null, non‐empty)
+     * @throws IllegalArgumentException if any argument is null or packet is empty
+     */
+    default void sendInPlace(IPv4 destination, ProtocolPipeline protocols, PacketBuffer packet)
+            throws IllegalArgumentException {
+        if (packet == null) {
+            throw new IllegalArgumentException("Node: packet cannot be null");
+        }
+        byte[] data = packet.toByteArray();
+        packet.release();
+        this.send(destination, protocols, data);
+    }
+
     /**
      * Receives a block of raw bytes from the network and processes it through the
      * provided protocol pipeline, delivering the result to an upper layer handler.
@@ -28,7 +51,39 @@ public interface Node {
     void receive(ProtocolPipeline protocols, byte[] data) throws IllegalArgumentException;
 
     /**
-     * @return the name of this node
+     * Receives a packet held in a buffer. The node takes over the caller's
+     * reference. Nodes that can work on the buffer directly override this;
+     * the default copies the packet out, releases the buffer and calls
+     * {@link #receive(ProtocolPipeline, byte[])}.
+     *
+     * @param protocols the protocol pipeline to apply (non‐null)
+     * @param packet    the packet received (non‐null, non‐empty)
+     * @throws IllegalArgumentException if any argument is null or packet is empty
+     */
+    default void receiveInPlace(ProtocolPipeline protocols, PacketBuffer packet) throws IllegalArgumentException {
+        if (packet == null) {
+            throw new IllegalArgumentException("Node: packet cannot be null");
+        }
+        byte[] data = packet.toByteArray();
+        packet.release();
+        this.receive(protocols, data);
+    }
+
+    /**
+     * Receives the payload of a frame, named by the EtherType its adapter
+     * read from the frame header, so a node can demultiplex from the bytes
+     * alone. The node takes over the caller's reference. The default
+     * treats every payload as a packet and calls
+     * {@link #receiveInPlace(ProtocolPipeline, PacketBuffer)}.
+     *
+     * @param etherType the EtherType of the frame, e.g.
+     *                  {@link com.netsim.protocols.SimpleDLL.SimpleDLLProtocol#ETHERTYPE_IPV4}
+     * @param protocols the protocol pipeline to apply (non‐null)
+     * @param packet    the payload received (non‐null, non‐empty)
+     * @throws IllegalArgumentException if any argument is null or packet is empty
      */
-    String getName();
+    default void receiveInPlace(int etherType, ProtocolPipeline protocols, PacketBuffer packet)
+            throws IllegalArgumentException {
+        this.receiveInPlace(protocols, packet);
+    }
 }
@@ -0,0 +1,112 @@
+package com.netsim.network.capture;
+
+import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Mac;
+import com.netsim.addresses.Port;
+import com.netsim.protocols.IPv4.IPv4HeaderView;
+import com.netsim.protocols.SimpleDLL.DLLHeaderView;
+import com.netsim.protocols.UDP.UDPHeaderView;
+
+/**
+ * Decides which frames a {@link CaptureTap} keeps. A filter reads the
+ * frame where it lies, in the adapter's buffer, before anything is
+ * copied, so frames it refuses cost no more than the test.
+ * <p>
+ * The factories match the addresses in the DLL, IPv4 and UDP headers;
+ * filters combine with {@link #and(CaptureFilter)} and
+ * {@link #or(CaptureFilter)}.
+ * </p>
+ */
+@FunctionalInterface
+public interface CaptureFilter {
+
+    /**
+     * @param frame  the array holding the frame, DLL header first
+     * @param offset the index of the frame's first byte
+     * @param length the frame length
+     * @return true if the frame is to be captured
+     */
+    boolean matches(byte[] frame, int offset, int length);
+
+    /**
+     * @return a filter keeping every frame
+     */
+    static CaptureFilter all() {
+        return (frame, offset, length) -> true;
+    }
+
+    /**
+     * @param mac the MAC to look for (non‐null)
+     * @return a filter keeping frames sent from or to {@code mac}
+     * @throws IllegalArgumentException if mac is null
+     */
+    static CaptureFilter mac(Mac mac) throws IllegalArgumentException {
+        if (mac == null) {
+            throw new IllegalArgumentException("CaptureFilter: mac cannot be null");
+        }
+        long bits = mac.toLong();
+        return (frame, offset, length) -> length >= FrameLayout.DLL_HEADER
+            && (DLLHeaderView.readDestination(frame, offset) == bits || DLLHeaderView.readSource(frame, offset) == bits);
+    }
+
+    /**
+     * @param address the IPv4 address to look for; its mask is ignored (non‐null)
+     * @return a filter keeping IPv4 packets sent from or to {@code address}
+     * @throws IllegalArgumentException if address is null
+     */
+    static CaptureFilter ip(IPv4 address) throws IllegalArgumentException {
+        if (address == null) {
+            throw new IllegalArgumentException("CaptureFilter: address cannot be null");
+        }
+        int bits = address.toInt();
+        return (frame, offset, length) -> {
+            int ip = FrameLayout.ipv4(frame, offset, length);
+            return ip >= 0
+                && (IPv4HeaderView.readSource(frame, ip) == bits || IPv4HeaderView.readDestination(frame, ip) == bits);
+        };
+    }
+
+    /**
+     * Fragments after the first carry no UDP header and never match.
+     *
+     * @param port the UDP port to look for (non‐null)
+     * @return a filter keeping UDP segments sent from or to {@code port}
+     * @throws IllegalArgumentException if port is null
+     */
+    static CaptureFilter port(Port port) throws IllegalArgumentException {
+        if (port == null) {
+            throw new IllegalArgumentException("CaptureFilter: port cannot be null");
+        }
+        int number = port.getPort();
+        return (frame, offset, length) -> {
+            int udp = FrameLayout.udp(frame, offset, length);
+            return udp >= 0
+                && (UDPHeaderView.readSourcePort(frame, udp) == number
+                    || UDPHeaderView.readDestinationPort(frame, udp) == number);
+        };
+    }
+
+    /**
+     * @param other the second filter (non‐null)
+     * @return a filter keeping the frames both filters keep
+     * @throws IllegalArgumentException if other is null
+     */
+    default CaptureFilter and(CaptureFilter other) throws IllegalArgumentException {
+        if (other == null) {
+            throw new IllegalArgumentException("CaptureFilter: filter cannot be null");
+        }
+        return (frame, offset, length) -> this.matches(frame, offset, length) && other.matches(frame, offset, length);
+    }
+
+    /**
+     * @param other the second filter (non‐null)
+     * @return a filter keeping the frames either filter keeps
+     * @throws IllegalArgumentException if other is null
+     */
+    default CaptureFilter or(CaptureFilter other) throws IllegalArgumentException {
+        if (other == null) {
+            throw new IllegalArgumentException("CaptureFilter: filter cannot be null");
+        }
+        return (frame, offset, length) -> this.matches(frame, offset, length) || other.matches(frame, offset, length);
+    }
+}
@@ -0,0 +1,307 @@
+package com.netsim.network.capture;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.netsim.networkstack.PacketBuffer;
+import com.netsim.utils.Logger;
+
+/**
+ * Records the frames an adapter sends and receives into a pcap file
+ * (see {@link com.netsim.network.CabledAdapter#setCaptureTap(CaptureTap)}).
+ * <p>
+ * Capturing never blocks the simulation. The {@link CaptureFilter} is
+ * applied to the frame in the adapter's buffer; a frame it keeps is copied,
+ * up to the snap length, into a bounded staging ring, and a background
+ * thread shared by all taps appends the ring's contents to the file
+ * through a memory map. When the ring is full because the writer has
+ * fallen behind, the frame is dropped and counted in
+ * {@link #getDroppedFrames()}.
+ * </p>
+ * <p>
+ * A tap serves one adapter: frames are staged by the thread running that
+ * adapter's scheduler, and the ring has a single producer. Call
+ * {@link #close()} once the simulation has stopped to write what is left
+ * and complete the file.
+ * </p>
+ */
+public final class CaptureTap implements AutoCloseable {
+    private static final Logger logger = Logger.getInstance();
+    private static final String CLS    = CaptureTap.class.getSimpleName();
+
+    /** Staging ring size used unless another is given. */
+    public static final int DEFAULT_RING_BYTES  = 1 << 16;
+    /** Bytes kept of each frame unless another snap length is given. */
+    public static final int DEFAULT_SNAP_LENGTH = 4096;
+
+    // ring record: [int captured][int original][long time][bytes], 8-aligned;
+    // a captured length of WRAP sends the reader back to the ring's start
+    private static final int RECORD = 16;
+    private static final int WRAP   = -1;
+
+    private final Path          file;
+    private final CaptureFilter filter;
+    private final int           snapLength;
+    private final byte[]        ring;
+    private final ByteBuffer    view;
+    private final int           mask;
+    private final AtomicLong    head;
+    private final AtomicLong    tail;
+    private final LongAdder     captured;
+    private final LongAdder     dropped;
+    private final PcapWriter    writer;
+    private final CaptureWriter drainer;
+    private volatile boolean    closed;
+    private volatile long       written;
+    private          boolean    writing;
+
+    /**
+     * Opens a tap keeping every frame, with the default ring and snap length.
+     *
+     * @param file the pcap file to write, truncated if it exists (non‐null)
+     * @throws IllegalArgumentException if file is null
+     * @throws RuntimeException         if the file cannot be opened
+     */
+    public CaptureTap(Path file) throws IllegalArgumentException, RuntimeException {
+        this(file, CaptureFilter.all());
+    }
+
+    /**
+     * Opens a tap with the default ring and snap length.
+     *
+     * @param file   the pcap file to write, truncated if it exists (non‐null)
+     * @param filter the frames to keep (non‐null)
+     * @throws IllegalArgumentException if file or filter is null
+     * @throws RuntimeException         if the file cannot be opened
+     */
+    public CaptureTap(Path file, CaptureFilter filter) throws IllegalArgumentException, RuntimeException {
+        this(file, filter, DEFAULT_RING_BYTES, DEFAULT_SNAP_LENGTH);
+    }
+
+    /**
+     * Opens a tap.
+     *
+     * @param file       the pcap file to write, truncated if it exists (non‐null)
+     * @param filter     the frames to keep (non‐null)
+     * @param ringBytes  the staging ring size, a power of two holding at
+     *                   least two frames of {@code snapLength} bytes
+     * @param snapLength the largest number of bytes kept of a frame (&gt; 0)
+     * @throws IllegalArgumentException if file or filter is null, or a size is invalid
+     * @throws RuntimeException         if the file cannot be opened
+     */
+    public CaptureTap(Path file, CaptureFilter filter, int ringBytes, int snapLength)
+            throws IllegalArgumentException, RuntimeException {
+        if (file == null || filter == null) {
+            logger.error("[" + CLS + "] file and filter cannot be null");
+            throw new IllegalArgumentException(CLS + ": file and filter cannot be null");
+        }
+        if (snapLength <= 0) {
+            logger.error("[" + CLS + "] snap length must be positive: " + snapLength);
+            throw new IllegalArgumentException(CLS + ": snap length must be positive");
+        }
+        if (Integer.bitCount(ringBytes) != 1 || ringBytes < 2 * align(RECORD + (long) snapLength)) {
+            logger.error("[" + CLS + "] invalid ring size " + ringBytes + " for snap length " + snapLength);
+            throw new IllegalArgumentException(CLS + ": ring must be a power of two holding two frames");
+        }
+        this.file       = file;
+        this.filter     = filter;
+        this.snapLength = snapLength;
+        this.ring       = new byte[ringBytes];
+        this.view       = ByteBuffer.wrap(this.ring);
+        this.mask       = ringBytes - 1;
+        this.head       = new AtomicLong();
+        this.tail       = new AtomicLong();
+        this.captured   = new LongAdder();
+        this.dropped    = new LongAdder();
+        try {
+            this.writer = new PcapWriter(file, snapLength);
+        } catch (IOException e) {
+            logger.error("[" + CLS + "] cannot open " + file + ": " + e.getMessage());
+            throw new RuntimeException(CLS + ": cannot open " + file, e);
+        }
+        this.writing = true;
+        this.drainer = CaptureWriter.getInstance();
+        this.drainer.register(this);
+        logger.info(() -> "[" + CLS + "] capturing to " + this.file);
+    }
+
+    /**
+     * @return the size of a ring record holding {@code bytes}, 8‐aligned
+     */
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    /**
+     * Stages a frame held in a buffer, if the filter keeps it.
+     *
+     * @param time  the simulated time in nanoseconds
+     * @param frame the frame, DLL header first (non‐null); left untouched
+     */
+    public void capture(long time, PacketBuffer frame) {
+        this.capture(time, frame.array(), frame.offset(), frame.length());
+    }
+
+    /**
+     * Stages a frame, if the filter keeps it. Returns at once: a frame that
+     * does not fit in the ring is dropped.
+     *
+     * @param time   the simulated time in nanoseconds
+     * @param frame  the array holding the frame, DLL header first (non‐null)
+     * @param offset the index of the frame's first byte
+     * @param length the frame length
+     */
+    public void capture(long time, byte[] frame, int offset, int length) {
+        if (this.closed || !this.filter.matches(frame, offset, length)) {
+            return;
+        }
+        int  kept     = Math.min(length, this.snapLength);
+        int  size     = (int) align(RECORD + kept);
+        long position = this.head.get();
+        int  at       = (int) position & this.mask;
+        int  skip     = at + size > this.ring.length ? this.ring.length - at : 0;
+        long used     = position + skip + size - this.tail.get();
+        if (used > this.ring.length) {
+            this.dropped.increment();
+            this.drainer.wake();
+            return;
+        }
+        if (skip > 0) {
+            this.view.putInt(at, WRAP);
+            position += skip;
+            at        = 0;
+        }
+        this.view.putInt(at, kept);
+        this.view.putInt(at + 4, length);
+        this.view.putLong(at + 8, time);
+        System.arraycopy(frame, offset, this.ring, at + RECORD, kept);
+        this.head.lazySet(position + size);
+        this.captured.increment();
+        if (used > this.ring.length / 2) {
+            this.drainer.wake();
+        }
+    }
+
+    /**
+     * Appends the staged frames to the file. Called by the writer thread,
+     * and by {@link #flush()} and {@link #close()}; an empty ring is
+     * skipped without taking the lock.
+     *
+     * @return frames written
+     */
+    int drain() {
+        if (this.tail.get() == this.head.get()) {
+            return 0;
+        }
+        return this.drainStaged();
+    }
+
+    private synchronized int drainStaged() {
+        if (!this.writing) {
+            return 0;
+        }
+        long position = this.tail.get();
+        long end      = this.head.get();
+        int  count    = 0;
+        while (position < end) {
+            int at   = (int) position & this.mask;
+            int kept = this.view.getInt(at);
+            if (kept == WRAP) {
+                position += this.ring.length - at;
+                continue;
+            }
+            try {
+                this.writer.write(this.view.getLong(at + 8), this.view.getInt(at + 4), this.ring, at + RECORD, kept);
+                count++;
+            } catch (IOException e) {
+                logger.error("[" + CLS + "] cannot write to " + this.file + ": " + e.getMessage());
+                this.dropped.increment();
+                this.closed = true;
+            }
+            position += align(RECORD + kept);
+        }
+        this.tail.lazySet(position);
+        this.written += count;
+        return count;
+    }
+
+    /**
+     * Writes the frames staged so far without waiting for the writer thread.
+     */
+    public void flush() {
+        this.drain();
+    }
+
+    /**
+     * Stops capturing, writes the frames still staged and completes the
+     * file. Closing twice has no effect.
+     *
+     * @throws RuntimeException if the file cannot be completed
+     */
+    @Override
+    public void close() throws RuntimeException {
+        this.closed = true;
+        this.drainer.unregister(this);
+        synchronized (this) {
+            if (!this.writing) {
+                return;
+            }
+            this.drainStaged();
+            this.writing = false;
+            try {
+                this.writer.close();
+            } catch (IOException e) {
+                logger.error("[" + CLS + "] cannot close " + this.file + ": " + e.getMessage());
+                throw new RuntimeException(CLS + ": cannot close " + this.file, e);
+            }
+        }
+        logger.info(() -> "[" + CLS + "] closed " + this.file + " after " + this.written
+            + " frame(s), " + this.getDroppedFrames() + " dropped");
+    }
+
+    /**
+     * @return the pcap file
+     */
+    public Path getFile() {
+        return this.file;
+    }
+
+    /**
+     * @return the largest number of bytes kept of a frame
+     */
+    public int getSnapLength() {
+        return this.snapLength;
+    }
+
+    /**
+     * @return frames the filter kept and the ring accepted
+     */
+    public long getCapturedFrames() {
+        return this.captured.sum();
+    }
+
+    /**
+     * @return frames the filter kept but that were lost because the ring
+     *         was full or the file could not be written
+     */
+    public long getDroppedFrames() {
+        return this.dropped.sum();
+    }
+
+    /**
+     * @return frames written to the file
+     */
+    public long getWrittenFrames() {
+        return this.written;
+    }
+
+    /**
+     * @return true once {@link #close()} has been called
+     */
+    public boolean isClosed() {
+        return this.closed;
+    }
+}
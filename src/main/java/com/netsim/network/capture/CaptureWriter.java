@@ -0,0 +1,79 @@
+package com.netsim.network.capture;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The background thread that moves frames from the staging rings of
+ * every open {@link CaptureTap} to their files. One thread serves all
+ * taps, so capturing on many links costs one thread and, per link, only
+ * a ring.
+ */
+final class CaptureWriter {
+    private static final long IDLE_NANOS = 1_000_000L;
+
+    private static CaptureWriter instance;
+
+    private final CopyOnWriteArrayList<CaptureTap> taps;
+    private final Thread                           thread;
+    private volatile boolean                       woken;
+
+    private CaptureWriter() {
+        this.taps   = new CopyOnWriteArrayList<>();
+        this.thread = new Thread(this::run, "netsim-capture");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * @return the writer, started on first use
+     */
+    static synchronized CaptureWriter getInstance() {
+        if (instance == null) {
+            instance = new CaptureWriter();
+        }
+        return instance;
+    }
+
+    /**
+     * Starts draining a tap.
+     */
+    void register(CaptureTap tap) {
+        this.taps.add(tap);
+    }
+
+    /**
+     * Stops draining a tap.
+     */
+    void unregister(CaptureTap tap) {
+        this.taps.remove(tap);
+    }
+
+    /**
+     * Asks for a sweep as soon as possible, e.g. when a ring is filling up.
+     */
+    void wake() {
+        if (!this.woken) {
+            this.woken = true;
+            LockSupport.unpark(this.thread);
+        }
+    }
+
+    /**
+     * Body of the thread: drains every tap, then sleeps until a tap asks
+     * for a sweep or {@value #IDLE_NANOS} ns have passed, so that frames
+     * are written in batches rather than one sweep over every tap per
+     * frame.
+     */
+    private void run() {
+        while (true) {
+            this.woken = false;
+            for (CaptureTap tap : this.taps) {
+                tap.drain();
+            }
+            if (!this.woken) {
+                LockSupport.parkNanos(IDLE_NANOS);
+            }
+        }
+    }
+}
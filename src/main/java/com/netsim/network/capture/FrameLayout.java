@@ -0,0 +1,51 @@
+package com.netsim.network.capture;
+
+import com.netsim.protocols.SimpleDLL.DLLHeaderView;
+import com.netsim.protocols.SimpleDLL.SimpleDLLProtocol;
+
+/**
+ * Offsets of the headers inside a frame as it travels on a cable:
+ * a {@link SimpleDLLProtocol} header, then the payload its EtherType
+ * names, such as an IPv4 packet or an ARP message. Every method reads the frame
+ * where it lies and returns -1 rather than throwing when the frame is too
+ * short or carries something else.
+ */
+final class FrameLayout {
+    /** Length of the DLL header: destination MAC, source MAC, EtherType. */
+    static final int DLL_HEADER = DLLHeaderView.HEADER_LEN;
+
+    private FrameLayout() {}
+
+    /**
+     * @return the offset of the IPv4 header in the frame, or -1 if the frame
+     *         does not carry a complete one
+     */
+    static int ipv4(byte[] frame, int offset, int length) {
+        if (length < DLL_HEADER + 20) {
+            return -1;
+        }
+        int ip = offset + DLL_HEADER;
+        if (DLLHeaderView.readEtherType(frame, offset) != SimpleDLLProtocol.ETHERTYPE_IPV4
+            || (frame[ip] & 0xF0) != 0x40 || (frame[ip] & 0x0F) < 5) {
+            return -1;
+        }
+        return ip;
+    }
+
+    /**
+     * @return the offset of the UDP header in the frame, or -1 if the frame
+     *         carries no IPv4 packet or a fragment other than the first
+     */
+    static int udp(byte[] frame, int offset, int length) {
+        int ip = ipv4(frame, offset, length);
+        if (ip < 0) {
+            return -1;
+        }
+        int fragmentOffset = ((frame[ip + 6] & 0x1F) << 8) | (frame[ip + 7] & 0xFF);
+        int udp            = ip + (frame[ip] & 0x0F) * 4;
+        if (fragmentOffset != 0 || udp + 4 > offset + length) {
+            return -1;
+        }
+        return udp;
+    }
+}
@@ -0,0 +1,119 @@
+package com.netsim.network.capture;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends frames to a pcap file through a memory map.
+ * <p>
+ * The file is mapped in windows of {@value #WINDOW} bytes that are
+ * replaced as it grows, so writing a record is a copy into memory and the
+ * kernel writes pages back on its own. Timestamps are in nanoseconds
+ * (magic {@code 0xA1B23C4D}) and the link type is Ethernet, whose header
+ * the DLL header matches: two MACs then an EtherType, so frames are
+ * written as they are. {@link #close()} trims the file to the bytes
+ * written. Not thread‐safe.
+ * </p>
+ */
+final class PcapWriter {
+    static final int MAGIC_NANOS       = 0xA1B23C4D;
+    static final int LINKTYPE_ETHERNET = 1;
+    static final int FILE_HEADER       = 24;
+    static final int RECORD_HEADER     = 16;
+
+    private static final int WINDOW = 1 << 22;
+
+    private final FileChannel      channel;
+    private final int              snapLength;
+    private       MappedByteBuffer window;
+    private       long             windowStart;
+    private       long             position;
+
+    /**
+     * Creates (or truncates) the file and writes the pcap header.
+     *
+     * @param file       the file to write
+     * @param snapLength the largest number of bytes kept of a frame
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    PcapWriter(Path file, int snapLength) throws IOException {
+        this.channel    = FileChannel.open(file,
+                                           StandardOpenOption.CREATE,
+                                           StandardOpenOption.TRUNCATE_EXISTING,
+                                           StandardOpenOption.READ,
+                                           StandardOpenOption.WRITE);
+        this.snapLength = snapLength;
+        this.position   = 0L;
+        this.reserve(FILE_HEADER);
+        this.window.putInt(MAGIC_NANOS)
+                   .putShort((short) 2)
+                   .putShort((short) 4)
+                   .putInt(0)
+                   .putInt(0)
+                   .putInt(snapLength)
+                   .putInt(LINKTYPE_ETHERNET);
+        this.position += FILE_HEADER;
+    }
+
+    /**
+     * Appends one frame.
+     *
+     * @param time     the capture time in nanoseconds
+     * @param original the length of the frame on the cable
+     * @param frame    the array holding the captured bytes
+     * @param offset   the index of the first captured byte
+     * @param captured the bytes captured, at most the snap length
+     * @throws IOException if the file cannot grow
+     */
+    void write(long time, int original, byte[] frame, int offset, int captured) throws IOException {
+        this.reserve(RECORD_HEADER + captured);
+        this.window.putInt((int) (time / 1_000_000_000L))
+                   .putInt((int) (time % 1_000_000_000L))
+                   .putInt(captured)
+                   .putInt(original)
+                   .put(frame, offset, captured);
+        this.position += RECORD_HEADER + captured;
+    }
+
+    /**
+     * @return bytes written, file header included
+     */
+    long size() {
+        return this.position;
+    }
+
+    /**
+     * Maps a new window if the current one cannot take {@code bytes} more.
+     */
+    private void reserve(int bytes) throws IOException {
+        if (this.window != null && this.position + bytes <= this.windowStart + this.window.capacity()) {
+            return;
+        }
+        this.windowStart = this.position;
+        this.window      = this.channel.map(FileChannel.MapMode.READ_WRITE,
+                                            this.windowStart,
+                                            Math.max(WINDOW, bytes));
+        this.window.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Trims the file to the bytes written and closes it.
+     *
+     * @throws IOException if the file cannot be trimmed or closed
+     */
+    void close() throws IOException {
+        try {
+            if (this.window != null) {
+                this.window.force();
+                this.window = null;
+            }
+            this.channel.truncate(this.position);
+        } finally {
+            this.channel.close();
+        }
+    }
+}
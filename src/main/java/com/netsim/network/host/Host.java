@@ -3,11 +3,15 @@ package com.netsim.network.host;
 import java.util.List;
 
 import com.netsim.app.App;
+import com.netsim.app.AppThreadFactory;
 import com.netsim.addresses.IPv4;
+import com.netsim.metrics.Counter;
 import com.netsim.network.Interface;
 import com.netsim.network.NetworkNode;
-import com.netsim.networkstack.Protocol;
+import com.netsim.networkstack.PacketBuffer;
+import com.netsim.networkstack.PacketBufferPool;
 import com.netsim.networkstack.ProtocolPipeline;
+import com.netsim.protocols.IPv4.IPv4HeaderView;
 import com.netsim.protocols.IPv4.IPv4Protocol;
 import com.netsim.table.ArpTable;
 import com.netsim.table.RoutingInfo;
@@ -22,6 +26,7 @@ public class Host extends NetworkNode {
     private static final String CLS    = Host.class.getSimpleName();
 
     private App runningApp;
+    private final Counter notForMe;
 
     /**
      * Constructs a Host node.
@@ -39,11 +44,13 @@ public class Host extends NetworkNode {
     {
         super(name, routingTable, arpTable, interfaces);
         this.runningApp = null;
-        logger.info("[" + CLS + "] initialized with " + interfaces.size() + " interface(s)");
+        this.notForMe   = this.counter("not_for_me");
+        logger.info(() -> "[" + CLS + "] initialized with " + interfaces.size() + " interface(s)");
     }
 
     /**
-     * Sets the application to run on this host.
+     * Sets the application to run on this host, binding it to its port if
+     * it has one.
      *
      * @param newApp the App instance (non-null)
      * @throws IllegalArgumentException if newApp is null
@@ -53,8 +60,9 @@ public class Host extends NetworkNode {
             logger.error("[" + CLS + "] cannot set null application");
             throw new IllegalArgumentException(CLS + ": app cannot be null");
         }
+        this.bindApp(this.runningApp, newApp);
         this.runningApp = newApp;
-        logger.info("[" + CLS + "] application set successfully");
+        logger.info(() -> "[" + CLS + "] application set successfully");
     }
 
     /**
@@ -67,10 +75,31 @@ public class Host extends NetworkNode {
             logger.error("[" + CLS + "] no application set");
             throw new IllegalArgumentException(CLS + ": no App set");
         }
-        logger.info("[" + CLS + "] starting application");
+        logger.info(() -> "[" + CLS + "] starting application");
         this.runningApp.start();
     }
 
+    /**
+     * Launches the configured application on its own thread (virtual
+     * where the runtime supports it) and returns at once, so several
+     * interactive applications can wait for input while the calling
+     * thread drives the simulation, e.g. through
+     * {@link com.netsim.engine.EventScheduler#serve()}.
+     *
+     * @return the started application thread
+     * @throws IllegalArgumentException if no App has been set
+     */
+    public Thread launchApp() throws IllegalArgumentException {
+        if (this.runningApp == null) {
+            logger.error("[" + CLS + "] no application set");
+            throw new IllegalArgumentException(CLS + ": no App set");
+        }
+        Thread thread = AppThreadFactory.getInstance().newThread(this::runApp);
+        thread.start();
+        logger.info(() -> "[" + CLS + "] application launched on " + thread.getName());
+        return thread;
+    }
+
     /**
      * Checks whether a packet destined for the given IP belongs to this host.
      *
@@ -82,13 +111,15 @@ public class Host extends NetworkNode {
             this.getInterface(destination);
             return true;
         } catch (RuntimeException e) {
-            logger.debug("[" + CLS + "] " + e.getLocalizedMessage());
+            logger.debug(() -> "[" + CLS + "] " + e.getLocalizedMessage());
             return false;
         }
     }
 
     /**
      * Sends data to a destination IP by performing IP encapsulation and forwarding.
+     * The bytes are copied into a pooled buffer and sent with
+     * {@link #sendInPlace(IPv4, ProtocolPipeline, PacketBuffer)}.
      *
      * @param destination the IPv4 destination (non-null)
      * @param stack       the protocol pipeline (non-null)
@@ -103,42 +134,76 @@ public class Host extends NetworkNode {
             logger.error("[" + CLS + "] invalid arguments to send");
             throw new IllegalArgumentException(CLS + ": invalid arguments");
         }
+        this.sendInPlace(destination, stack, PacketBufferPool.getInstance().acquire(data));
+    }
 
-        RoutingInfo route;
-        try {
-            route = this.getRoute(destination);
-        } catch (RuntimeException e) {
-            logger.error("[" + CLS + "] routing failed for destination " 
+    /**
+     * Sends a packet to a destination IP, writing the IPv4 header into the
+     * buffer's headroom, and forwards it. A packet larger than the MTU
+     * leaves as a batch of fragments, a buffer each. The host takes over the caller's
+     * reference; the buffer is released if the packet cannot be sent.
+     *
+     * @param destination the IPv4 destination (non-null)
+     * @param stack       the protocol pipeline (non-null)
+     * @param packet      the payload, upper layers already encapsulated (non-null, non-empty)
+     * @throws IllegalArgumentException if any argument invalid
+     */
+    @Override
+    public void sendInPlace(IPv4 destination,
+                            ProtocolPipeline stack,
+                            PacketBuffer packet) throws IllegalArgumentException
+    {
+        if (destination == null || stack == null || packet == null || packet.length() == 0) {
+            if (packet != null) {
+                packet.release();
+            }
+            logger.error("[" + CLS + "] invalid arguments to send");
+            throw new IllegalArgumentException(CLS + ": invalid arguments");
+        }
+
+        this.stampSent(stack);
+
+        RoutingInfo route = this.findRoute(destination);
+        if (route == null) {
+            packet.release();
+            logger.error("[" + CLS + "] routing failed for destination "
                          + destination.stringRepresentation());
-            logger.debug("[" + CLS + "] " + e.getLocalizedMessage());
             return;
         }
+        List<PacketBuffer> fragments;
+        try {
+            IPv4Protocol ipProto = new IPv4Protocol(
+                this.getInterface(route.getDevice()).getIP(),
+                destination,
+                5,          // IHL
+                0,          // TOS
+                this.nextIdentification(destination.toInt()), // identification
+                0,          // flags
+                64,         // TTL
+                transportProtocolOf(stack), // protocol
+                this.getMTU()
+            );
+            fragments = ipProto.fragmentInPlace(packet);
+            stack.push(ipProto);
+        } catch (RuntimeException e) {
+            packet.release();
+            throw e;
+        }
 
-        IPv4Protocol ipProto = new IPv4Protocol(
-            this.getInterface(route.getDevice()).getIP(),
-            destination,
-            5,          // IHL
-            0,          // TOS
-            0,          // identification
-            0,          // flags
-            64,         // TTL
-            0,          // protocol
-            this.getMTU()
-        );
-        byte[] encapsulated = ipProto.encapsulate(data);
-        stack.push(ipProto);
-
-        logger.info("[" + CLS + "] sending packet to " + destination.stringRepresentation());
-        route.getDevice().send(stack, encapsulated);
+        logger.info(() -> "[" + CLS + "] sending packet to " + destination.stringRepresentation());
+        this.transmit(route, destination, stack, fragments);
     }
 
     /**
-     * Receives raw packets, decapsulates IP, and delivers to the running App.
+     * Receives raw IPv4 packets, reassembles them, and delivers each
+     * datagram to the App bound to its UDP port, or to the running App.
+     * Addresses and protocol are read from the header; the sender's IPv4
+     * protocol is only popped off the pipeline.
      *
      * @param stack   the protocol pipeline (non-null)
      * @param packets the raw packet bytes (non-null, non-empty)
-     * @throws IllegalArgumentException if arguments invalid
-     * @throws RuntimeException         if no App is set or wrong protocol
+     * @throws IllegalArgumentException if arguments invalid or the header is malformed
+     * @throws RuntimeException         if no App is set
      */
     public void receive(ProtocolPipeline stack, byte[] packets)
             throws IllegalArgumentException, RuntimeException
@@ -147,29 +212,31 @@ public class Host extends NetworkNode {
             logger.error("[" + CLS + "] invalid arguments to receive");
             throw new IllegalArgumentException(CLS + ": invalid arguments");
         }
+
         if (this.runningApp == null) {
             logger.error("[" + CLS + "] no application set");
             throw new RuntimeException(CLS + ": no application set");
         }
-
-        Protocol p = stack.pop();
-        if (!(p instanceof IPv4Protocol)) {
-            logger.error("[" + CLS + "] expected IPv4 protocol, got "
-                         + p.getClass().getSimpleName());
-            throw new RuntimeException(CLS + ": expected IPv4 protocol");
-        }
-        IPv4Protocol ipProtocol = (IPv4Protocol) p;
-        IPv4 destination = ipProtocol.extractDestination(packets);
-
-        if (!this.isForMe(destination)) {
-            logger.error("[" + CLS + "] packet not for me (dest=" 
-                         + destination.stringRepresentation() + ")");
+        popNetworkLayer(stack);
+        IPv4HeaderView header      = this.ipHeader.wrap(packets, 0, packets.length);
+        int            destination = header.getDestination();
+        int            protocol    = header.getProtocol();
+
+        if (!this.isLocal(destination)) {
+            this.notForMe.increment();
+            logger.error("[" + CLS + "] packet not for me (dest="
+                         + IPv4.fromInt(destination, 32).stringRepresentation() + ")");
             return;
         }
 
-        byte[] transport = ipProtocol.decapsulate(packets);
-        logger.info("[" + CLS + "] received packet for " 
-                    + destination.stringRepresentation());
-        this.runningApp.receive(stack, transport);
+        App running = this.runningApp;
+        this.reassemble(stack, packets, (upper, transport) -> {
+            App target = this.appFor(protocol, transport, running);
+            logger.info(() -> "[" + CLS + "] received packet for " + IPv4.fromInt(destination, 32).stringRepresentation());
+            this.scheduler.schedule(0L, () -> {
+                this.recordDelivery(upper, transport.length);
+                target.receive(upper, transport);
+            });
+        });
     }
 }
\ No newline at end of file
@@ -5,7 +5,8 @@ import com.netsim.utils.Logger;
 
 /**
  * Builder for creating Host instances.
- * Ensures that routing, ARP tables, and interfaces are configured before build().
+ * Ensures that the routing table and interfaces are configured before build().
+ * The ARP table may be left empty: neighbours are then resolved with ARP.
  */
 public class HostBuilder extends NetworkNodeBuilder<Host> {
     private static final Logger logger = Logger.getInstance();
@@ -23,17 +24,13 @@ public class HostBuilder extends NetworkNodeBuilder<Host> {
      * Builds and returns a Host.
      *
      * @return a fully configured Host instance
-     * @throws RuntimeException if routing table, ARP table, or interfaces list is empty
+     * @throws RuntimeException if routing table or interfaces list is empty
      */
     public Host build() throws RuntimeException {
         if (this.routingTable.isEmpty()) {
             logger.error("[" + CLS + "] routing table cannot be empty");
             throw new RuntimeException("HostBuilder: routing table cannot be empty");
         }
-        if (this.arpTable.isEmpty()) {
-            logger.error("[" + CLS + "] ARP table cannot be empty");
-            throw new RuntimeException("HostBuilder: ARP table cannot be empty");
-        }
         if (this.interfaces.isEmpty()) {
             logger.error("[" + CLS + "] interfaces must be at least one");
             throw new RuntimeException("HostBuilder: interfaces must be at least one");
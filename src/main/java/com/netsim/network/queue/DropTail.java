@@ -0,0 +1,38 @@
+package com.netsim.network.queue;
+
+import com.netsim.utils.Logger;
+
+/**
+ * First-in first-out queue that drops arrivals once it is full.
+ */
+public final class DropTail implements QueueDiscipline {
+    private static final Logger logger = Logger.getInstance();
+    private static final String CLS    = DropTail.class.getSimpleName();
+
+    private final int capacity;
+
+    /**
+     * @param capacity the most packets the queue may hold (≥ 0)
+     * @throws IllegalArgumentException if capacity is negative
+     */
+    public DropTail(int capacity) throws IllegalArgumentException {
+        if (capacity < 0) {
+            logger.error("[" + CLS + "] capacity cannot be negative: " + capacity);
+            throw new IllegalArgumentException(CLS + ": capacity cannot be negative");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return true while the queue has room
+     */
+    @Override
+    public boolean admit(int queued) {
+        return queued < this.capacity;
+    }
+
+    @Override
+    public int getCapacity() {
+        return this.capacity;
+    }
+}
@@ -0,0 +1,25 @@
+package com.netsim.network.queue;
+
+/**
+ * Admission policy of an adapter's bounded egress queue.
+ * <p>
+ * The adapter asks its discipline about every packet that arrives while
+ * the link is serializing another one; a refused packet is dropped. A
+ * discipline may keep state (e.g. an average queue size), so each adapter
+ * needs its own instance.
+ * </p>
+ */
+public interface QueueDiscipline {
+    /**
+     * Decides whether an arriving packet may join the queue.
+     *
+     * @param queued packets already waiting, not counting the one on the wire
+     * @return true to enqueue the packet, false to drop it
+     */
+    boolean admit(int queued);
+
+    /**
+     * @return the most packets the queue may hold
+     */
+    int getCapacity();
+}
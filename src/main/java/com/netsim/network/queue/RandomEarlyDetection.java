@@ -0,0 +1,123 @@
+package com.netsim.network.queue;
+
+import java.util.Random;
+
+import com.netsim.utils.Logger;
+
+/**
+ * Random Early Detection (Floyd and Jacobson, 1993).
+ * <p>
+ * Keeps an exponentially weighted average of the queue size, updated on
+ * every arrival. Below the minimum threshold every packet is admitted;
+ * between the thresholds packets are dropped with a probability growing
+ * linearly up to {@code maxProbability}, spread out by the count of
+ * packets admitted since the last drop; at or above the maximum threshold,
+ * or when the queue is full, every packet is dropped.
+ * </p>
+ * <p>
+ * Drops are drawn from a seeded generator, so runs are reproducible.
+ * </p>
+ */
+public final class RandomEarlyDetection implements QueueDiscipline {
+    private static final Logger logger = Logger.getInstance();
+    private static final String CLS    = RandomEarlyDetection.class.getSimpleName();
+
+    /** Averaging weight recommended by the original paper. */
+    public static final double DEFAULT_WEIGHT = 0.002;
+
+    private final int    capacity;
+    private final double minThreshold;
+    private final double maxThreshold;
+    private final double maxProbability;
+    private final double weight;
+    private final Random random;
+    private       double average;
+    private       int    count;
+
+    /**
+     * Creates a RED queue with the default averaging weight.
+     *
+     * @param capacity       the most packets the queue may hold (≥ 1)
+     * @param minThreshold   average size below which nothing is dropped
+     * @param maxThreshold   average size from which everything is dropped
+     * @param maxProbability drop probability reached at maxThreshold (0–1]
+     * @param seed           seed of the drop decisions
+     * @throws IllegalArgumentException if any parameter is out of range
+     */
+    public RandomEarlyDetection(int capacity,
+                                double minThreshold,
+                                double maxThreshold,
+                                double maxProbability,
+                                long seed) throws IllegalArgumentException {
+        this(capacity, minThreshold, maxThreshold, maxProbability, DEFAULT_WEIGHT, seed);
+    }
+
+    /**
+     * @param capacity       the most packets the queue may hold (≥ 1)
+     * @param minThreshold   average size below which nothing is dropped (≥ 0)
+     * @param maxThreshold   average size from which everything is dropped (> minThreshold)
+     * @param maxProbability drop probability reached at maxThreshold (0–1]
+     * @param weight         weight of each new sample in the average (0–1]
+     * @param seed           seed of the drop decisions
+     * @throws IllegalArgumentException if any parameter is out of range
+     */
+    public RandomEarlyDetection(int capacity,
+                                double minThreshold,
+                                double maxThreshold,
+                                double maxProbability,
+                                double weight,
+                                long seed) throws IllegalArgumentException {
+        if (capacity < 1 || minThreshold < 0 || maxThreshold <= minThreshold
+            || maxProbability <= 0 || maxProbability > 1 || weight <= 0 || weight > 1) {
+            logger.error("[" + CLS + "] invalid parameters: capacity=" + capacity
+                + " min=" + minThreshold + " max=" + maxThreshold
+                + " maxP=" + maxProbability + " weight=" + weight);
+            throw new IllegalArgumentException(CLS + ": invalid parameters");
+        }
+        this.capacity       = capacity;
+        this.minThreshold   = minThreshold;
+        this.maxThreshold   = maxThreshold;
+        this.maxProbability = maxProbability;
+        this.weight         = weight;
+        this.random         = new Random(seed);
+        this.average        = 0.0;
+        this.count          = -1;
+    }
+
+    /**
+     * Updates the average with the current queue size and decides.
+     */
+    @Override
+    public boolean admit(int queued) {
+        this.average += this.weight * (queued - this.average);
+        if (queued >= this.capacity || this.average >= this.maxThreshold) {
+            this.count = 0;
+            return false;
+        }
+        if (this.average < this.minThreshold) {
+            this.count = -1;
+            return true;
+        }
+        this.count++;
+        double pb = this.maxProbability * (this.average - this.minThreshold)
+                  / (this.maxThreshold - this.minThreshold);
+        double pa = this.count * pb >= 1 ? 1.0 : pb / (1 - this.count * pb);
+        if (this.random.nextDouble() < pa) {
+            this.count = 0;
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * @return the current average queue size
+     */
+    public double getAverage() {
+        return this.average;
+    }
+}
@@ -3,10 +3,11 @@ package com.netsim.network.router;
 import java.util.List;
 
 import com.netsim.addresses.IPv4;
+import com.netsim.metrics.Counter;
 import com.netsim.network.Interface;
-import com.netsim.network.NetworkAdapter;
 import com.netsim.network.NetworkNode;
-import com.netsim.networkstack.Protocol;
+import com.netsim.networkstack.PacketBuffer;
+import com.netsim.networkstack.PacketBufferPool;
 import com.netsim.networkstack.ProtocolPipeline;
 import com.netsim.protocols.IPv4.IPv4Protocol;
 import com.netsim.table.ArpTable;
@@ -16,11 +17,25 @@ import com.netsim.utils.Logger;
 
 /**
  * A router node that forwards IPv4 packets according to its routing table.
+ * <p>
+ * Forwarding works on the received buffer: the TTL is rewritten in each
+ * fragment's header and the fragments go out as they arrived, unless the
+ * egress MTU forces them to be split. The payload is never reassembled or
+ * copied on the way through.
+ * </p>
+ * <p>
+ * Besides the counters of every node it counts packets forwarded,
+ * dropped because their TTL expired and dropped for lack of a route.
+ * </p>
  */
 public class Router extends NetworkNode {
     private static final Logger logger = Logger.getInstance();
     private final String CLS = this.getClass().getSimpleName();
 
+    private final Counter forwarded;
+    private final Counter ttlExpired;
+    private final Counter noRoute;
+
     /**
      * Constructs a Router with the given name, routing table, ARP table, and interfaces.
      *
@@ -33,11 +48,16 @@ public class Router extends NetworkNode {
     public Router(String name, RoutingTable routingTable, ArpTable arpTable, List<Interface> interfaces)
             throws IllegalArgumentException {
         super(name, routingTable, arpTable, interfaces);
-        logger.info("[" + this.CLS + "] initialized with " + this.interfaces.size() + " interface(s)");
+        this.forwarded  = this.counter("forwarded");
+        this.ttlExpired = this.counter("ttl_expired");
+        this.noRoute    = this.counter("no_route");
+        logger.info(() -> "[" + this.CLS + "] initialized with " + this.interfaces.size() + " interface(s)");
     }
 
     /**
-     * Sends a packet to the next hop for the given destination.
+     * Sends a packet to the next hop for the given destination. The bytes
+     * are copied into a pooled buffer and sent with
+     * {@link #sendInPlace(IPv4, ProtocolPipeline, PacketBuffer)}.
      *
      * @param destination  the IPv4 destination address (non-null)
      * @param stack        the protocol pipeline (non-null)
@@ -50,19 +70,51 @@ public class Router extends NetworkNode {
             logger.error("Router.send: invalid arguments");
             throw new IllegalArgumentException("Router.send: invalid arguments");
         }
+        this.sendInPlace(destination, stack, PacketBufferPool.getInstance().acquire(data));
+    }
+
+    /**
+     * Sends a packet held in a buffer to the next hop for the given
+     * destination. The router takes over the caller's reference.
+     *
+     * @param destination  the IPv4 destination address (non-null)
+     * @param stack        the protocol pipeline (non-null)
+     * @param packet       the packet (non-null, non-empty)
+     * @throws IllegalArgumentException if arguments are invalid
+     */
+    @Override
+    public void sendInPlace(IPv4 destination, ProtocolPipeline stack, PacketBuffer packet)
+            throws IllegalArgumentException {
+        if (destination == null || stack == null || packet == null || packet.length() == 0) {
+            if (packet != null) {
+                packet.release();
+            }
+            logger.error("Router.send: invalid arguments");
+            throw new IllegalArgumentException("Router.send: invalid arguments");
+        }
+        this.stampSent(stack);
+
+        RoutingInfo route = this.findRoute(destination);
+        if (route == null) {
+            packet.release();
+            this.noRoute.increment();
+            logger.error("[" + this.CLS + "] cannot forward to " + destination.stringRepresentation()
+                + ": no route");
+            return;
+        }
         try {
-            RoutingInfo route = this.getRoute(destination);
-            NetworkAdapter outAdapter = route.getDevice();
-            outAdapter.send(stack, data);
-            logger.info("[" + this.CLS + "] forwarded packet to " + destination.stringRepresentation());
+            this.transmit(route, destination, stack, packet);
+            logger.info(() -> "[" + this.CLS + "] forwarded packet to " + destination.stringRepresentation());
         } catch (RuntimeException e) {
             logger.error("[" + this.CLS + "] cannot forward to " + destination.stringRepresentation());
-            logger.debug("[" + this.CLS + "] routing failure: " + e.getLocalizedMessage());
+            logger.debug(() -> "[" + this.CLS + "] routing failure: " + e.getLocalizedMessage());
         }
     }
 
     /**
      * Receives an IPv4 packet, decrements its TTL, and forwards or drops it.
+     * The bytes are copied into a pooled buffer and handled by
+     * {@link #receiveInPlace(ProtocolPipeline, PacketBuffer)}.
      *
      * @param stack    the protocol pipeline (non-null)
      * @param packets  the raw packet bytes (non-null, non-empty)
@@ -76,40 +128,87 @@ public class Router extends NetworkNode {
             logger.error("Router.receive: invalid arguments");
             throw new IllegalArgumentException("Router.receive: invalid arguments");
         }
+        this.receiveInPlace(stack, PacketBufferPool.getInstance().acquire(packets));
+    }
 
-        Protocol p = stack.pop();
-        if (!(p instanceof IPv4Protocol)) {
-            logger.error("[" + this.CLS + "] expected IPv4Protocol but got " + p.getClass().getSimpleName());
-            throw new RuntimeException("Router.receive: expected IPv4Protocol");
+    /**
+     * Receives one or more IPv4 fragments, decrements their TTL in place,
+     * and forwards them or drops them. The destination is read from the
+     * header; the sender's IPv4 protocol, if the pipeline carries it, is
+     * left for the receiving host to pop.
+     *
+     * @param stack    the protocol pipeline (non-null)
+     * @param packets  the fragments (non-null, non-empty); the router takes over the reference
+     * @throws IllegalArgumentException if arguments are invalid or the fragments are malformed
+     */
+    @Override
+    public void receiveInPlace(ProtocolPipeline stack, PacketBuffer packets)
+            throws IllegalArgumentException, RuntimeException {
+        if (stack == null || packets == null || packets.length() == 0) {
+            if (packets != null) {
+                packets.release();
+            }
+            logger.error("Router.receive: invalid arguments");
+            throw new IllegalArgumentException("Router.receive: invalid arguments");
         }
 
-        IPv4Protocol ipProtocol = (IPv4Protocol) p;
-        IPv4 dest = ipProtocol.extractDestination(packets);
-        byte[] payload = ipProtocol.decapsulate(packets);
-        int oldTTL = ipProtocol.getTtl();
+        IPv4 dest;
+        int  oldTTL;
+        try {
+            dest   = this.destinationOf(stack, packets);
+            oldTTL = IPv4Protocol.decrementTtl(packets);
+        } catch (RuntimeException e) {
+            packets.release();
+            throw e;
+        }
 
         if (oldTTL == 0) {
+            packets.release();
+            this.ttlExpired.increment();
             logger.error("[" + this.CLS + "] dropped packet due to TTL=0");
             return;
         }
 
-        // Decrement TTL and rebuild header
-        IPv4Protocol newIp = new IPv4Protocol(
-            ipProtocol.getSource(),
-            dest,
-            ipProtocol.getIHL(),
-            ipProtocol.getTypeOfService(),
-            ipProtocol.getIdentification(),
-            ipProtocol.getFlags(),
-            oldTTL - 1,
-            ipProtocol.getProtocol(),
-            ipProtocol.getMTU()
-        );
-        byte[] encapsulated = newIp.encapsulate(payload);
-
-        stack.push(newIp);
-        logger.info("[" + this.CLS + "] received for " + dest.stringRepresentation()
+        logger.info(() -> "[" + this.CLS + "] received for " + dest.stringRepresentation()
                     + ", TTL decremented from " + oldTTL + " to " + (oldTTL - 1));
-        this.send(dest, stack, encapsulated);
+        this.forward(dest, stack, packets);
+    }
+
+    /**
+     * Sends fragments out of the interface routing to the destination,
+     * splitting those larger than its MTU, as a batch of one buffer per
+     * fragment. Failures are logged and the
+     * packet dropped, as in {@link #send(IPv4, ProtocolPipeline, byte[])}.
+     *
+     * @param destination the IPv4 destination address
+     * @param stack       the protocol pipeline
+     * @param packets     the fragments; ownership passes to the adapter or ARP resolver
+     */
+    private void forward(IPv4 destination, ProtocolPipeline stack, PacketBuffer packets) {
+        RoutingInfo route = this.findRoute(destination);
+        if (route == null) {
+            packets.release();
+            this.noRoute.increment();
+            logger.error("[" + this.CLS + "] cannot forward to " + destination.stringRepresentation()
+                + ": no route");
+            return;
+        }
+        List<PacketBuffer> fragments;
+        try {
+            fragments = IPv4Protocol.refragment(packets, route.getDevice().getMTU());
+        } catch (RuntimeException e) {
+            packets.release();
+            logger.error("[" + this.CLS + "] cannot forward to " + destination.stringRepresentation());
+            logger.debug(() -> "[" + this.CLS + "] routing failure: " + e.getLocalizedMessage());
+            return;
+        }
+        try {
+            this.transmit(route, destination, stack, fragments);
+            this.forwarded.increment();
+            logger.info(() -> "[" + this.CLS + "] forwarded packet to " + destination.stringRepresentation());
+        } catch (RuntimeException e) {
+            logger.error("[" + this.CLS + "] cannot forward to " + destination.stringRepresentation());
+            logger.debug(() -> "[" + this.CLS + "] routing failure: " + e.getLocalizedMessage());
+        }
     }
-}
\ No newline at end of file
+}
@@ -6,8 +6,9 @@ import com.netsim.utils.Logger;
 /**
  * Builder for creating {@link Router} instances.
  * <p>
- * Validates that the routing table, ARP table, and interfaces contain entries
- * before constructing the Router.
+ * Validates that the routing table and interfaces contain entries before
+ * constructing the Router. The ARP table may be left empty: neighbours
+ * are then resolved with ARP.
  * </p>
  */
 public class RouterBuilder extends NetworkNodeBuilder<Router> {
@@ -26,7 +27,7 @@ public class RouterBuilder extends NetworkNodeBuilder<Router> {
     /**
      * Builds and returns a {@link Router}.
      * <p>
-     * Ensures that routing table, ARP table, and interfaces are not empty.
+     * Ensures that routing table and interfaces are not empty.
      * </p>
      *
      * @return configured Router
@@ -38,10 +39,6 @@ public class RouterBuilder extends NetworkNodeBuilder<Router> {
             logger.error("[" + CLS + "] routing table cannot be empty");
             throw new RuntimeException("RouterBuilder: routing table cannot be empty");
         }
-        if (this.arpTable.isEmpty()) {
-            logger.error("[" + CLS + "] ARP table cannot be empty");
-            throw new RuntimeException("RouterBuilder: ARP table cannot be empty");
-        }
         if (this.interfaces.isEmpty()) {
             logger.error("[" + CLS + "] interfaces must be at least one");
             throw new RuntimeException("RouterBuilder: interfaces must be at least one");
@@ -3,11 +3,14 @@ package com.netsim.network.server;
 import java.util.List;
 
 import com.netsim.addresses.IPv4;
+import com.netsim.metrics.Counter;
 import com.netsim.app.App;
 import com.netsim.network.Interface;
 import com.netsim.network.NetworkNode;
-import com.netsim.networkstack.Protocol;
+import com.netsim.networkstack.PacketBuffer;
+import com.netsim.networkstack.PacketBufferPool;
 import com.netsim.networkstack.ProtocolPipeline;
+import com.netsim.protocols.IPv4.IPv4HeaderView;
 import com.netsim.protocols.IPv4.IPv4Protocol;
 import com.netsim.table.ArpTable;
 import com.netsim.table.RoutingInfo;
@@ -23,6 +26,7 @@ public class Server<AppType extends App> extends NetworkNode {
     private final String CLS = this.getClass().getSimpleName();
 
     private AppType app;
+    private final Counter notForMe;
 
     /**
      * @param name         the node name (non-null)
@@ -36,12 +40,14 @@ public class Server<AppType extends App> extends NetworkNode {
                   ArpTable arpTable,
                   List<Interface> interfaces) throws IllegalArgumentException {
         super(name, routingTable, arpTable, interfaces);
-        logger.info("[" + this.CLS + "] initialized with " + interfaces.size() + " interface(s)");
+        logger.info(() -> "[" + this.CLS + "] initialized with " + interfaces.size() + " interface(s)");
         this.app = null;
+        this.notForMe = this.counter("not_for_me");
     }
 
     /**
-     * Associates and starts the application on this server.
+     * Associates and starts the application on this server, binding it to
+     * its port if it has one.
      *
      * @param app the application instance (non-null)
      * @throws IllegalArgumentException if app is null
@@ -51,9 +57,10 @@ public class Server<AppType extends App> extends NetworkNode {
             logger.error("[" + this.CLS + "] attempt to set null App");
             throw new IllegalArgumentException("Server: app cannot be null");
         }
+        this.bindApp(this.app, app);
         this.app = app;
         this.app.start();
-        logger.info("[" + this.CLS + "] application set and started");
+        logger.info(() -> "[" + this.CLS + "] application set and started");
     }
 
     /**
@@ -67,13 +74,15 @@ public class Server<AppType extends App> extends NetworkNode {
             this.getInterface(destination);
             return true;
         } catch (RuntimeException e) {
-            logger.debug("[" + this.CLS + "] isForMe check failed: " + e.getLocalizedMessage());
+            logger.debug(() -> "[" + this.CLS + "] isForMe check failed: " + e.getLocalizedMessage());
             return false;
         }
     }
 
     /**
-     * Sends raw data to the given IPv4, wrapped in an IPv4 header.
+     * Sends raw data to the given IPv4, wrapped in an IPv4 header. The
+     * bytes are copied into a pooled buffer and sent with
+     * {@link #sendInPlace(IPv4, ProtocolPipeline, PacketBuffer)}.
      *
      * @param destination the target IPv4 address (non-null)
      * @param stack       the protocol pipeline (non-null)
@@ -85,39 +94,80 @@ public class Server<AppType extends App> extends NetworkNode {
             logger.error("[" + this.CLS + "] invalid arguments to send");
             throw new IllegalArgumentException("Server: invalid arguments");
         }
+        this.sendInPlace(destination, stack, PacketBufferPool.getInstance().acquire(data));
+    }
 
+    /**
+     * Sends a packet to the given IPv4, writing the IPv4 header into the
+     * buffer's headroom. A packet larger than the MTU leaves as a batch of
+     * fragments, a buffer each. The server takes over the caller's
+     * reference; the buffer is released if the packet cannot be sent.
+     *
+     * @param destination the target IPv4 address (non-null)
+     * @param stack       the protocol pipeline (non-null)
+     * @param packet      the payload, upper layers already encapsulated (non-empty)
+     * @throws IllegalArgumentException if arguments are invalid
+     */
+    @Override
+    public void sendInPlace(IPv4 destination, ProtocolPipeline stack, PacketBuffer packet)
+            throws IllegalArgumentException {
+        if (destination == null || stack == null || packet == null || packet.length() == 0) {
+            if (packet != null) {
+                packet.release();
+            }
+            logger.error("[" + this.CLS + "] invalid arguments to send");
+            throw new IllegalArgumentException("Server: invalid arguments");
+        }
+
+        this.stampSent(stack);
+
+        RoutingInfo route = this.findRoute(destination);
+        if (route == null) {
+            packet.release();
+            logger.error("[" + this.CLS + "] routing failed for " + destination.stringRepresentation());
+            return;
+        }
+        IPv4Protocol       ipProto;
+        List<PacketBuffer> fragments;
         try {
-            RoutingInfo route = this.getRoute(destination);
-            IPv4Protocol ipProto = new IPv4Protocol(
+            ipProto = new IPv4Protocol(
                 this.getInterface(route.getDevice()).getIP(),
                 destination,
                 5,  /* IHL */
                 0,  /* ToS */
-                0,  /* ID */
+                this.nextIdentification(destination.toInt()), /* ID */
                 0,  /* flags */
                 64, /* TTL */
-                0,  /* protocol */
+                transportProtocolOf(stack), /* protocol */
                 this.getMTU()
             );
-            byte[] encapsulated = ipProto.encapsulate(data);
-            stack.push(ipProto);
-
-            logger.info("[" + this.CLS + "] sending packet to " + destination.stringRepresentation());
-            route.getDevice().send(stack, encapsulated);
+            fragments = ipProto.fragmentInPlace(packet);
         } catch (RuntimeException e) {
+            packet.release();
             logger.error("[" + this.CLS + "] routing failed for " + destination.stringRepresentation());
-            logger.debug("[" + this.CLS + "] " + e.getLocalizedMessage());
+            logger.debug(() -> "[" + this.CLS + "] " + e.getLocalizedMessage());
+            return;
+        }
+        stack.push(ipProto);
+        try {
+            logger.info(() -> "[" + this.CLS + "] sending packet to " + destination.stringRepresentation());
+            this.transmit(route, destination, stack, fragments);
+        } catch (RuntimeException e) {
+            logger.error("[" + this.CLS + "] routing failed for " + destination.stringRepresentation());
+            logger.debug(() -> "[" + this.CLS + "] " + e.getLocalizedMessage());
         }
     }
 
     /**
      * Receives an IPv4‐encapsulated packet, decapsulates it, and forwards
-     * the payload to the associated application.
+     * the payload to the application bound to its UDP port, or to the
+     * associated application. Addresses and protocol are read from the
+     * header; the sender's IPv4 protocol is only popped off the pipeline.
      *
      * @param stack   the protocol pipeline (non-null)
      * @param packets the raw packet bytes (non-empty)
-     * @throws IllegalArgumentException if arguments are invalid
-     * @throws RuntimeException         if no application is set or protocol mismatch
+     * @throws IllegalArgumentException if arguments are invalid or the header is malformed
+     * @throws RuntimeException         if no application is set
      */
     public void receive(ProtocolPipeline stack, byte[] packets) throws IllegalArgumentException, RuntimeException {
         if (stack == null || packets == null || packets.length == 0) {
@@ -129,24 +179,27 @@ public class Server<AppType extends App> extends NetworkNode {
             logger.error("[" + this.CLS + "] no application set to handle incoming packets");
             throw new RuntimeException("Server: no application set");
         }
-
-        Protocol p = stack.pop();
-        if (!(p instanceof IPv4Protocol)) {
-            logger.error("[" + this.CLS + "] expected IPv4Protocol but got " + p.getClass().getSimpleName());
-            throw new RuntimeException("Server: expected IPv4 protocol");
-        }
-
-        IPv4Protocol ipProtocol = (IPv4Protocol) p;
-        IPv4 destination = ipProtocol.extractDestination(packets);
-
-        if (!this.isForMe(destination)) {
-            logger.error("[" + this.CLS + "] packet not for this server: dest=" + destination.stringRepresentation());
+        popNetworkLayer(stack);
+        IPv4HeaderView header      = this.ipHeader.wrap(packets, 0, packets.length);
+        int            destination = header.getDestination();
+        int            protocol    = header.getProtocol();
+
+        if (!this.isLocal(destination)) {
+            this.notForMe.increment();
+            logger.error("[" + this.CLS + "] packet not for this server: dest="
+                + IPv4.fromInt(destination, 32).stringRepresentation());
             return;
         }
 
-        byte[] transport = ipProtocol.decapsulate(packets);
-        logger.info("[" + this.CLS + "] received packet for " + destination.stringRepresentation()
-                    + ", handing up to App");
-        this.app.receive(stack, transport);
+        AppType running = this.app;
+        this.reassemble(stack, packets, (upper, transport) -> {
+            App target = this.appFor(protocol, transport, running);
+            logger.info(() -> "[" + this.CLS + "] received packet for " + IPv4.fromInt(destination, 32).stringRepresentation()
+                        + ", handing up to App");
+            this.scheduler.schedule(0L, () -> {
+                this.recordDelivery(upper, transport.length);
+                target.receive(upper, transport);
+            });
+        });
     }
 }
\ No newline at end of file
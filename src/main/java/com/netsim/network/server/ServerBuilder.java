@@ -7,8 +7,9 @@ import com.netsim.utils.Logger;
 /**
  * Builder for creating {@link Server} instances.
  * <p>
- * Validates that all required fields (name, routing table, ARP table,
- * and interfaces) are configured before building.
+ * Validates that all required fields (name, routing table and interfaces)
+ * are configured before building. The ARP table may be left empty:
+ * neighbours are then resolved with ARP.
  * </p>
  *
  * @param <AppType> the application type for the Server
@@ -31,8 +32,8 @@ public class ServerBuilder<AppType extends App>
      * Builds and returns a configured {@link Server}.
      *
      * @return the configured Server
-     * @throws RuntimeException if name is null, or if routing table,
-     *         ARP table, or interfaces are empty
+     * @throws RuntimeException if name is null, or if routing table
+     *         or interfaces are empty
      */
     @Override
     public Server<AppType> build() throws RuntimeException {
@@ -46,11 +47,6 @@ public class ServerBuilder<AppType extends App>
             logger.error("[" + CLS + "] " + msg);
             throw new RuntimeException("ServerBuilder: " + msg);
         }
-        if (this.arpTable.isEmpty()) {
-            String msg = "ARP table cannot be empty";
-            logger.error("[" + CLS + "] " + msg);
-            throw new RuntimeException("ServerBuilder: " + msg);
-        }
         if (this.interfaces.isEmpty()) {
             String msg = "interfaces must be at least one";
             logger.error("[" + CLS + "] " + msg);
@@ -0,0 +1,192 @@
+package com.netsim.network.switching;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.netsim.addresses.Mac;
+import com.netsim.network.Bridge;
+import com.netsim.network.CabledAdapter;
+import com.netsim.network.NetworkAdapter;
+import com.netsim.networkstack.PacketBuffer;
+import com.netsim.networkstack.PacketBufferPool;
+import com.netsim.networkstack.ProtocolPipeline;
+import com.netsim.protocols.SimpleDLL.DLLHeaderView;
+import com.netsim.table.MacTable;
+import com.netsim.utils.Logger;
+
+/**
+ * A learning Ethernet switch joining the hosts cabled to its ports into
+ * one data‐link segment.
+ * <p>
+ * For every frame the switch records the source MAC against the port it
+ * arrived on, then looks the destination MAC up in its {@link MacTable}:
+ * a known unicast destination costs that one lookup and goes out of its
+ * port in the received buffer, while group addresses (broadcast included)
+ * and unknown destinations are flooded out of every other port, each
+ * getting its own copy. Both MACs are read from the frame header as longs,
+ * so forwarding builds no {@link Mac} objects. Learned entries age out
+ * after {@link MacTable#getAgingTime()} without traffic from their address.
+ * </p>
+ * <p>
+ * A switch runs on the one thread driving the scheduler of its ports;
+ * its table and counters are not shared with other threads.
+ * </p>
+ */
+public class Switch implements Bridge {
+    private static final Logger logger = Logger.getInstance();
+    private static final String CLS    = Switch.class.getSimpleName();
+
+    /** Aging time used until another is set: 300 s, the IEEE 802.1D default. */
+    public static final long DEFAULT_AGING_TIME = 300_000_000_000L;
+
+    private static final int  HEADER_LEN = DLLHeaderView.HEADER_LEN;
+    // I/G bit of the first octet: set for multicast and broadcast addresses
+    private static final long GROUP_BIT  = 1L << 40;
+
+    private final String              name;
+    private final List<CabledAdapter> ports;
+    private final MacTable            macTable;
+    private       long                forwarded;
+    private       long                flooded;
+    private       long                filtered;
+
+    /**
+     * Creates a switch and takes ownership of its ports.
+     *
+     * @param name  the switch's name (non‐null)
+     * @param ports the ports (non‐null, non‐empty)
+     * @throws IllegalArgumentException if name or ports is null, or ports is empty
+     */
+    public Switch(String name, List<CabledAdapter> ports) throws IllegalArgumentException {
+        if (name == null) {
+            logger.error("[" + CLS + "] name cannot be null");
+            throw new IllegalArgumentException(CLS + ": name cannot be null");
+        }
+        if (ports == null || ports.isEmpty()) {
+            logger.error("[" + CLS + "] ports cannot be null or empty");
+            throw new IllegalArgumentException(CLS + ": ports cannot be null or empty");
+        }
+        this.name     = name;
+        this.ports    = new ArrayList<>(ports);
+        this.macTable = new MacTable();
+        this.macTable.setAgingTime(DEFAULT_AGING_TIME);
+        for (CabledAdapter port : this.ports) {
+            port.setOwner(this);
+        }
+        logger.info(() -> "[" + CLS + "] \"" + name + "\" initialized with " + this.ports.size() + " port(s)");
+    }
+
+    /** @return the switch name */
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * @return the ports, in the order given at construction
+     */
+    @Override
+    public List<CabledAdapter> getPorts() {
+        return Collections.unmodifiableList(this.ports);
+    }
+
+    /**
+     * @return the table of learned addresses
+     */
+    public MacTable getMacTable() {
+        return this.macTable;
+    }
+
+    /**
+     * @return frames sent out of the single port their destination was learned on
+     */
+    public long getForwarded() {
+        return this.forwarded;
+    }
+
+    /**
+     * @return frames flooded for a group or unknown destination
+     */
+    public long getFlooded() {
+        return this.flooded;
+    }
+
+    /**
+     * @return frames dropped because their destination is on the port they came from
+     */
+    public long getFiltered() {
+        return this.filtered;
+    }
+
+    /**
+     * Learns the source of a frame and forwards, floods or filters it.
+     *
+     * @param port  the adapter the frame arrived on (non‐null)
+     * @param stack the protocol pipeline, DLL protocol on top (non‐null)
+     * @param frame the frame; this switch takes over the reference
+     */
+    @Override
+    public void receiveFrame(CabledAdapter port, ProtocolPipeline stack, PacketBuffer frame) {
+        if (frame.length() < HEADER_LEN) {
+            frame.release();
+            logger.error("[" + CLS + "] \"" + this.name + "\" dropped truncated frame");
+            return;
+        }
+        byte[] bytes       = frame.array();
+        long   destination = DLLHeaderView.readDestination(bytes, frame.offset());
+        long   source      = DLLHeaderView.readSource(bytes, frame.offset());
+        long   now         = port.getScheduler().now();
+        if ((source & GROUP_BIT) == 0) {
+            this.macTable.learn(source, port, now);
+        }
+
+        NetworkAdapter out = (destination & GROUP_BIT) == 0 ? this.macTable.find(destination, now) : null;
+        if (out == null) {
+            this.flooded++;
+            this.flood(port, stack, frame);
+            return;
+        }
+        if (out == port) {
+            this.filtered++;
+            frame.release();
+            return;
+        }
+        this.forwarded++;
+        this.transmit((CabledAdapter) out, stack, frame);
+    }
+
+    /**
+     * Sends a frame out of every up, linked port but the one it came from.
+     * The last port gets the received buffer, the others a copy.
+     */
+    private void flood(CabledAdapter ingress, ProtocolPipeline stack, PacketBuffer frame) {
+        CabledAdapter last = null;
+        for (CabledAdapter port : this.ports) {
+            if (port == ingress || !port.isUp() || !port.isLinked()) {
+                continue;
+            }
+            if (last != null) {
+                PacketBuffer copy = PacketBufferPool.getInstance().acquire(frame.length());
+                copy.put(frame.length());
+                System.arraycopy(frame.array(), frame.offset(), copy.array(), copy.offset(), frame.length());
+                this.transmit(last, stack.copy(), copy);
+            }
+            last = port;
+        }
+        if (last == null) {
+            frame.release();
+            return;
+        }
+        this.transmit(last, stack, frame);
+    }
+
+    private void transmit(CabledAdapter port, ProtocolPipeline stack, PacketBuffer frame) {
+        try {
+            port.forwardFrame(stack, frame);
+        } catch (RuntimeException e) {
+            logger.error("[" + CLS + "] \"" + this.name + "\" cannot send out of " + port.getName());
+            logger.debug(() -> "[" + CLS + "] " + e.getLocalizedMessage());
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.netsim.network.switching;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.netsim.network.CabledAdapter;
+import com.netsim.utils.Logger;
+
+/**
+ * Builder for creating {@link Switch} instances.
+ * <p>
+ * Validates that a name and at least one port are set before
+ * constructing the Switch.
+ * </p>
+ */
+public class SwitchBuilder {
+    private static final Logger logger = Logger.getInstance();
+    private static final String CLS    = SwitchBuilder.class.getSimpleName();
+
+    private       String              name;
+    private final List<CabledAdapter> ports;
+    private       long                agingTime;
+
+    /**
+     * Constructs a new SwitchBuilder with no ports and the default aging time.
+     */
+    public SwitchBuilder() {
+        this.name      = null;
+        this.ports     = new ArrayList<>();
+        this.agingTime = Switch.DEFAULT_AGING_TIME;
+        logger.info("[" + CLS + "] initialized");
+    }
+
+    /**
+     * Sets the switch name.
+     *
+     * @param name the name (non-null)
+     * @return this builder
+     * @throws IllegalArgumentException if name is null
+     */
+    public SwitchBuilder setName(String name) throws IllegalArgumentException {
+        if (name == null) {
+            logger.error("[" + CLS + "] name cannot be null");
+            throw new IllegalArgumentException("SwitchBuilder: name cannot be null");
+        }
+        this.name = name;
+        return this;
+    }
+
+    /**
+     * Adds a port.
+     *
+     * @param port the adapter (non-null, not already added)
+     * @return this builder
+     * @throws IllegalArgumentException if port is null or already added
+     */
+    public SwitchBuilder addPort(CabledAdapter port) throws IllegalArgumentException {
+        if (port == null) {
+            logger.error("[" + CLS + "] port cannot be null");
+            throw new IllegalArgumentException("SwitchBuilder: port cannot be null");
+        }
+        for (CabledAdapter existing : this.ports) {
+            if (existing == port) {
+                logger.error("[" + CLS + "] port \"" + port.getName() + "\" already added");
+                throw new IllegalArgumentException("SwitchBuilder: port already added");
+            }
+        }
+        this.ports.add(port);
+        return this;
+    }
+
+    /**
+     * Sets how long learned addresses survive without traffic.
+     *
+     * @param nanos aging time in nanoseconds, 0 to never age (≥ 0)
+     * @return this builder
+     * @throws IllegalArgumentException if nanos is negative
+     */
+    public SwitchBuilder setAgingTime(long nanos) throws IllegalArgumentException {
+        if (nanos < 0) {
+            logger.error("[" + CLS + "] aging time cannot be negative");
+            throw new IllegalArgumentException("SwitchBuilder: aging time cannot be negative");
+        }
+        this.agingTime = nanos;
+        return this;
+    }
+
+    /**
+     * Builds and returns a {@link Switch} owning the added ports.
+     *
+     * @return configured Switch
+     * @throws RuntimeException if the name is unset or there are no ports
+     */
+    public Switch build() throws RuntimeException {
+        if (this.name == null) {
+            logger.error("[" + CLS + "] name must be set");
+            throw new RuntimeException("SwitchBuilder: name must be set");
+        }
+        if (this.ports.isEmpty()) {
+            logger.error("[" + CLS + "] ports must be at least one");
+            throw new RuntimeException("SwitchBuilder: ports must be at least one");
+        }
+        Switch sw = new Switch(this.name, this.ports);
+        sw.getMacTable().setAgingTime(this.agingTime);
+        logger.info("[" + CLS + "] built Switch \"" + this.name + "\" successfully");
+        return sw;
+    }
+}
@@ -0,0 +1,140 @@
+package com.netsim.network.topology;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+import com.netsim.app.App;
+import com.netsim.network.CabledAdapter;
+import com.netsim.network.NetworkNode;
+import com.netsim.network.host.Host;
+import com.netsim.network.router.Router;
+import com.netsim.network.server.Server;
+import com.netsim.utils.Logger;
+
+/**
+ * The nodes and adapters read by a {@link TopologyLoader}, looked up by
+ * the names the scenario file gives them.
+ */
+public final class Topology {
+    private static final Logger logger = Logger.getInstance();
+    private static final String CLS    = Topology.class.getSimpleName();
+
+    private final Map<String, NetworkNode>   nodes;
+    private final Map<String, CabledAdapter> adapters;
+    private final long                       routes;
+    private final int                        links;
+
+    /**
+     * @param nodes    the nodes by name, in file order
+     * @param adapters the adapters by {@code <node>.<adapter>}
+     * @param routes   routes loaded over all nodes
+     * @param links    links wired
+     */
+    Topology(Map<String, NetworkNode> nodes,
+             Map<String, CabledAdapter> adapters,
+             long routes,
+             int links) {
+        this.nodes    = nodes;
+        this.adapters = adapters;
+        this.routes   = routes;
+        this.links    = links;
+    }
+
+    /**
+     * Tears down every node of the topology, unregistering their metrics
+     * and their adapters', so another topology with the same names can be
+     * loaded in this JVM.
+     */
+    public void close() {
+        for (NetworkNode node : this.nodes.values()) {
+            node.close();
+        }
+        logger.info(() -> "[" + CLS + "] closed " + this.nodes.size() + " nodes");
+    }
+
+    /**
+     * @param name a node name
+     * @return the node, or null if the topology has none by that name
+     */
+    public NetworkNode getNode(String name) {
+        return this.nodes.get(name);
+    }
+
+    /**
+     * @param name a host name
+     * @return the host, or null if the topology has no node by that name
+     * @throws IllegalArgumentException if the node is not a host
+     */
+    public Host getHost(String name) throws IllegalArgumentException {
+        return this.nodeOf(name, Host.class);
+    }
+
+    /**
+     * @param name a router name
+     * @return the router, or null if the topology has no node by that name
+     * @throws IllegalArgumentException if the node is not a router
+     */
+    public Router getRouter(String name) throws IllegalArgumentException {
+        return this.nodeOf(name, Router.class);
+    }
+
+    /**
+     * @param name a server name
+     * @return the server, or null if the topology has no node by that name
+     * @throws IllegalArgumentException if the node is not a server
+     */
+    @SuppressWarnings("unchecked")
+    public Server<App> getServer(String name) throws IllegalArgumentException {
+        return (Server<App>) this.nodeOf(name, Server.class);
+    }
+
+    private <N extends NetworkNode> N nodeOf(String name, Class<N> kind) throws IllegalArgumentException {
+        NetworkNode node = this.nodes.get(name);
+        if (node == null) {
+            return null;
+        }
+        if (!kind.isInstance(node)) {
+            logger.error("[" + CLS + "] node " + name + " is not a " + kind.getSimpleName());
+            throw new IllegalArgumentException(CLS + ": node " + name + " is not a " + kind.getSimpleName());
+        }
+        return kind.cast(node);
+    }
+
+    /**
+     * @param node    a node name
+     * @param adapter the name of one of its adapters
+     * @return the adapter, or null if there is none by those names
+     */
+    public CabledAdapter getAdapter(String node, String adapter) {
+        return this.adapters.get(node + "." + adapter);
+    }
+
+    /**
+     * @return the nodes, in the order the file declares them
+     */
+    public Collection<NetworkNode> getNodes() {
+        return Collections.unmodifiableCollection(this.nodes.values());
+    }
+
+    /**
+     * @return the number of nodes
+     */
+    public int size() {
+        return this.nodes.size();
+    }
+
+    /**
+     * @return the routes loaded over all nodes
+     */
+    public long getRouteCount() {
+        return this.routes;
+    }
+
+    /**
+     * @return the links wired
+     */
+    public int getLinkCount() {
+        return this.links;
+    }
+}
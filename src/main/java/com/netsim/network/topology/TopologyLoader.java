@@ -0,0 +1,543 @@
+package com.netsim.network.topology;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Mac;
+import com.netsim.app.App;
+import com.netsim.network.CabledAdapter;
+import com.netsim.network.Interface;
+import com.netsim.network.NetworkNode;
+import com.netsim.network.NetworkNodeBuilder;
+import com.netsim.network.host.HostBuilder;
+import com.netsim.network.router.RouterBuilder;
+import com.netsim.network.server.ServerBuilder;
+import com.netsim.utils.Logger;
+
+/**
+ * Builds a {@link Topology} from a line‐oriented scenario file.
+ * <p>
+ * Each line holds whitespace‐separated fields; {@code #} starts a comment
+ * and blank lines are skipped. A {@code host}, {@code router} or
+ * {@code server} line opens a node, and the {@code iface}, {@code route}
+ * and {@code arp} lines after it configure that node until the next one
+ * opens:
+ * </p>
+ * <pre>
+ * router r1
+ * iface  eth0 02:00:00:00:00:41 10.0.0.1/30 [mtu]
+ * route  10.0.0.0/30 eth0 [next-hop | -]
+ * arp    10.0.0.2 02:00:00:00:00:11
+ * link   h1.eth0 r1.eth0 [latency-ns [bandwidth-bits/s]]
+ * </pre>
+ * <p>
+ * A {@code link} line cables two adapters declared on earlier lines, both
+ * ways, and may appear anywhere after them. Nodes are built through their
+ * {@link NetworkNodeBuilder}s, and the adapters of a node are owned by it
+ * once it is built.
+ * </p>
+ * <p>
+ * The file is read as bytes through one buffer: keywords are matched in
+ * place and addresses are parsed straight into their packed form, so the
+ * only strings made are node and adapter names. The routes of a node are
+ * collected in primitive arrays and added in one routing table update,
+ * which publishes a single FIB per node however many routes it has.
+ * </p>
+ */
+public final class TopologyLoader {
+    private static final Logger logger = Logger.getInstance();
+    private static final String CLS    = TopologyLoader.class.getSimpleName();
+
+    /** MTU of the interfaces whose line does not give one. */
+    public static final int DEFAULT_MTU = 1500;
+
+    private static final int  BUFFER     = 1 << 16;
+    private static final int  MAX_FIELDS = 8;
+    // marks a route without a next hop; packed next hops are unsigned
+    private static final long NO_HOP     = -1L;
+
+    private static final byte[] HOST   = ascii("host");
+    private static final byte[] ROUTER = ascii("router");
+    private static final byte[] SERVER = ascii("server");
+    private static final byte[] IFACE  = ascii("iface");
+    private static final byte[] ROUTE  = ascii("route");
+    private static final byte[] ARP    = ascii("arp");
+    private static final byte[] LINK   = ascii("link");
+    private static final byte[] NONE   = ascii("-");
+
+    private final InputStream in;
+    private final byte[]      buffer;
+    private       int         filled;
+    private       int         position;
+    private       byte[]      line;
+    private       int         length;
+    private       int         lineNumber;
+    private final int[]       starts;
+    private final int[]       ends;
+    private       int         fields;
+    // prefix length of the last address parsed with one
+    private       int         prefix;
+
+    private final Map<String, NetworkNode>   nodes;
+    private final Map<String, CabledAdapter> adapters;
+    private       long                       routeCount;
+    private       int                        linkCount;
+
+    // the node being read
+    private       NetworkNodeBuilder<?>      builder;
+    private       String                     nodeName;
+    private       int                        nodeLine;
+    private final List<CabledAdapter>        nodeAdapters;
+    private final List<byte[]>               adapterNames;
+    private       int[]                      subnets;
+    private       int[]                      prefixes;
+    private       int[]                      devices;
+    private       long[]                     hops;
+    private       int                        routes;
+
+    private TopologyLoader(InputStream in) {
+        this.in           = in;
+        this.buffer       = new byte[BUFFER];
+        this.line         = new byte[256];
+        this.starts       = new int[MAX_FIELDS];
+        this.ends         = new int[MAX_FIELDS];
+        this.nodes        = new LinkedHashMap<>();
+        this.adapters     = new HashMap<>();
+        this.nodeAdapters = new ArrayList<>();
+        this.adapterNames = new ArrayList<>();
+        this.subnets      = new int[64];
+        this.prefixes     = new int[64];
+        this.devices      = new int[64];
+        this.hops         = new long[64];
+    }
+
+    /**
+     * Loads a scenario file.
+     *
+     * @param file the file to read (non‐null)
+     * @return the topology it describes
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if file is null or a line is invalid
+     */
+    public static Topology load(Path file) throws IOException, IllegalArgumentException {
+        if (file == null) {
+            logger.error("[" + CLS + "] file cannot be null");
+            throw new IllegalArgumentException(CLS + ": file cannot be null");
+        }
+        try (InputStream stream = Files.newInputStream(file)) {
+            return load(stream);
+        }
+    }
+
+    /**
+     * Loads a scenario from a stream, which is read to its end but not
+     * closed.
+     *
+     * @param in the stream to read (non‐null)
+     * @return the topology it describes
+     * @throws IOException              if the stream cannot be read
+     * @throws IllegalArgumentException if in is null or a line is invalid;
+     *                                  the message gives the line number
+     */
+    public static Topology load(InputStream in) throws IOException, IllegalArgumentException {
+        if (in == null) {
+            logger.error("[" + CLS + "] stream cannot be null");
+            throw new IllegalArgumentException(CLS + ": stream cannot be null");
+        }
+        long     start    = System.nanoTime();
+        Topology topology = new TopologyLoader(in).read();
+        logger.info(() -> "[" + CLS + "] loaded " + topology.size() + " nodes, "
+            + topology.getRouteCount() + " routes and " + topology.getLinkCount()
+            + " links in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return topology;
+    }
+
+    private Topology read() throws IOException, IllegalArgumentException {
+        try {
+            return this.readAll();
+        } catch (IOException | RuntimeException e) {
+            // nodes already built have registered their metrics
+            this.nodes.values().forEach(NetworkNode::close);
+            throw e;
+        }
+    }
+
+    private Topology readAll() throws IOException, IllegalArgumentException {
+        while (this.nextLine()) {
+            if (this.fields == 0) {
+                continue;
+            }
+            if (this.is(0, ROUTE)) {
+                this.readRoute();
+            } else if (this.is(0, ARP)) {
+                this.readArp();
+            } else if (this.is(0, IFACE)) {
+                this.readInterface();
+            } else if (this.is(0, LINK)) {
+                this.readLink();
+            } else if (this.is(0, HOST)) {
+                this.openNode(new HostBuilder());
+            } else if (this.is(0, ROUTER)) {
+                this.openNode(new RouterBuilder());
+            } else if (this.is(0, SERVER)) {
+                this.openNode(new ServerBuilder<App>());
+            } else {
+                throw this.error("unknown keyword " + this.string(0));
+            }
+        }
+        this.closeNode();
+        return new Topology(this.nodes, this.adapters, this.routeCount, this.linkCount);
+    }
+
+    /* ---------- lines ---------- */
+
+    /**
+     * Reads the next line into {@code line} and splits it into fields.
+     *
+     * @return false at the end of the stream
+     */
+    private boolean nextLine() throws IOException, IllegalArgumentException {
+        this.length = 0;
+        boolean read = false;
+        while (true) {
+            if (this.position == this.filled) {
+                this.filled   = Math.max(this.in.read(this.buffer, 0, BUFFER), 0);
+                this.position = 0;
+                if (this.filled == 0) {
+                    if (!read) {
+                        return false;
+                    }
+                    break;
+                }
+            }
+            read = true;
+            byte c = this.buffer[this.position++];
+            if (c == '\n') {
+                break;
+            }
+            if (this.length == this.line.length) {
+                this.line = Arrays.copyOf(this.line, this.length * 2);
+            }
+            this.line[this.length++] = c;
+        }
+        this.lineNumber++;
+        this.split();
+        return true;
+    }
+
+    private void split() throws IllegalArgumentException {
+        this.fields = 0;
+        int i = 0;
+        while (i < this.length) {
+            byte c = this.line[i];
+            if (c == '#') {
+                return;
+            }
+            if (c == ' ' || c == '\t' || c == '\r') {
+                i++;
+                continue;
+            }
+            if (this.fields == MAX_FIELDS) {
+                throw this.error("too many fields");
+            }
+            this.starts[this.fields] = i;
+            while (i < this.length
+                   && (c = this.line[i]) != ' ' && c != '\t' && c != '\r' && c != '#') {
+                i++;
+            }
+            this.ends[this.fields++] = i;
+        }
+    }
+
+    private void expectFields(int min, int max, String usage) throws IllegalArgumentException {
+        if (this.fields < min || this.fields > max) {
+            throw this.error("expected " + usage);
+        }
+    }
+
+    private IllegalArgumentException error(String msg) {
+        logger.error("[" + CLS + "] line " + this.lineNumber + ": " + msg);
+        return new IllegalArgumentException(CLS + ": line " + this.lineNumber + ": " + msg);
+    }
+
+    /* ---------- statements ---------- */
+
+    private void openNode(NetworkNodeBuilder<?> newBuilder) throws IllegalArgumentException {
+        this.closeNode();
+        this.expectFields(2, 2, this.string(0) + " <name>");
+        String name = this.string(1);
+        if (this.nodes.containsKey(name)) {
+            throw this.error("node " + name + " already defined");
+        }
+        newBuilder.setName(name);
+        this.builder  = newBuilder;
+        this.nodeName = name;
+        this.nodeLine = this.lineNumber;
+    }
+
+    private void requireNode() throws IllegalArgumentException {
+        if (this.builder == null) {
+            throw this.error(this.string(0) + " before any host, router or server");
+        }
+    }
+
+    private void readInterface() throws IllegalArgumentException {
+        this.requireNode();
+        this.expectFields(4, 5, "iface <adapter> <mac> <address>/<prefix> [mtu]");
+        String name = this.string(1);
+        String key  = this.nodeName + "." + name;
+        if (this.adapters.containsKey(key)) {
+            throw this.error("adapter " + key + " already defined");
+        }
+        long mac     = this.parseMac(2);
+        int  address = this.parseAddress(3, true);
+        int  mtu     = this.fields == 5 ? (int) this.parseNumber(4, Integer.MAX_VALUE) : DEFAULT_MTU;
+
+        CabledAdapter adapter = new CabledAdapter(name, mtu, Mac.valueOf(mac));
+        this.builder.addInterface(new Interface(adapter, IPv4.fromInt(address, this.prefix)));
+        this.adapters.put(key, adapter);
+        this.nodeAdapters.add(adapter);
+        this.adapterNames.add(Arrays.copyOfRange(this.line, this.starts[1], this.ends[1]));
+    }
+
+    private void readRoute() throws IllegalArgumentException {
+        this.requireNode();
+        this.expectFields(3, 4, "route <subnet>/<prefix> <adapter> [next-hop | -]");
+        int subnet = this.parseAddress(1, true);
+        int device = this.adapterIndex(2);
+        long hop   = this.fields == 4 && !this.is(3, NONE)
+                   ? this.parseAddress(3, false) & 0xFFFF_FFFFL
+                   : NO_HOP;
+
+        if (this.routes == this.subnets.length) {
+            int capacity  = this.routes * 2;
+            this.subnets  = Arrays.copyOf(this.subnets, capacity);
+            this.prefixes = Arrays.copyOf(this.prefixes, capacity);
+            this.devices  = Arrays.copyOf(this.devices, capacity);
+            this.hops     = Arrays.copyOf(this.hops, capacity);
+        }
+        this.subnets[this.routes]  = subnet;
+        this.prefixes[this.routes] = this.prefix;
+        this.devices[this.routes]  = device;
+        this.hops[this.routes]     = hop;
+        this.routes++;
+    }
+
+    private void readArp() throws IllegalArgumentException {
+        this.requireNode();
+        this.expectFields(3, 3, "arp <address> <mac>");
+        int  address = this.parseAddress(1, false);
+        long mac     = this.parseMac(2);
+        this.builder.addArpEntry(IPv4.fromInt(address, 32), Mac.valueOf(mac));
+    }
+
+    private void readLink() throws IllegalArgumentException {
+        this.expectFields(3, 5, "link <node>.<adapter> <node>.<adapter> [latency [bandwidth]]");
+        CabledAdapter a = this.adapterOf(1);
+        CabledAdapter b = this.adapterOf(2);
+        if (a == b) {
+            throw this.error("cannot link " + this.string(1) + " to itself");
+        }
+        long latency   = this.fields >= 4 ? this.parseNumber(3, Long.MAX_VALUE) : 0L;
+        long bandwidth = this.fields == 5 ? this.parseNumber(4, Long.MAX_VALUE) : 0L;
+
+        a.setRemoteAdapter(b);
+        b.setRemoteAdapter(a);
+        a.setLatency(latency);
+        b.setLatency(latency);
+        a.setBandwidth(bandwidth);
+        b.setBandwidth(bandwidth);
+        this.linkCount++;
+    }
+
+    /**
+     * Adds the collected routes in one update, builds the node and hands
+     * it its adapters.
+     */
+    private void closeNode() throws IllegalArgumentException {
+        if (this.builder == null) {
+            return;
+        }
+        NetworkNode node;
+        try {
+            node = this.build(this.builder);
+        } catch (RuntimeException e) {
+            logger.error("[" + CLS + "] line " + this.nodeLine + ": node " + this.nodeName
+                + ": " + e.getMessage());
+            throw new IllegalArgumentException(CLS + ": line " + this.nodeLine + ": node "
+                + this.nodeName + ": " + e.getMessage(), e);
+        }
+        for (CabledAdapter adapter : this.nodeAdapters) {
+            adapter.setOwner(node);
+        }
+        this.nodes.put(this.nodeName, node);
+        this.routeCount += this.routes;
+        this.routes      = 0;
+        this.builder     = null;
+        this.nodeName    = null;
+        this.nodeAdapters.clear();
+        this.adapterNames.clear();
+    }
+
+    private <N extends NetworkNode> N build(NetworkNodeBuilder<N> nodeBuilder) throws RuntimeException {
+        if (this.routes > 0) {
+            nodeBuilder.update(b -> {
+                // consecutive routes usually share a next hop
+                long hopBits = NO_HOP;
+                IPv4 hop     = null;
+                for (int i = 0; i < this.routes; i++) {
+                    if (this.hops[i] != hopBits) {
+                        hopBits = this.hops[i];
+                        hop     = hopBits == NO_HOP ? null : IPv4.fromInt((int) hopBits, 32);
+                    }
+                    b.addRoute(IPv4.fromInt(this.subnets[i], this.prefixes[i]),
+                               this.nodeAdapters.get(this.devices[i]).getName(),
+                               hop);
+                }
+            });
+        }
+        return nodeBuilder.build();
+    }
+
+    /* ---------- fields ---------- */
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private boolean is(int field, byte[] keyword) {
+        return Arrays.equals(this.line, this.starts[field], this.ends[field],
+                             keyword, 0, keyword.length);
+    }
+
+    private String string(int field) {
+        return new String(this.line, this.starts[field], this.ends[field] - this.starts[field],
+                          StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the index in {@code nodeAdapters} of the adapter the field names
+     */
+    private int adapterIndex(int field) throws IllegalArgumentException {
+        for (int i = 0; i < this.adapterNames.size(); i++) {
+            if (this.is(field, this.adapterNames.get(i))) {
+                return i;
+            }
+        }
+        throw this.error("node " + this.nodeName + " has no adapter " + this.string(field));
+    }
+
+    private CabledAdapter adapterOf(int field) throws IllegalArgumentException {
+        CabledAdapter adapter = this.adapters.get(this.string(field));
+        if (adapter == null) {
+            throw this.error("unknown adapter " + this.string(field));
+        }
+        return adapter;
+    }
+
+    /**
+     * Parses a non‐negative decimal number.
+     *
+     * @param max the largest value accepted
+     */
+    private long parseNumber(int field, long max) throws IllegalArgumentException {
+        int  end   = this.ends[field];
+        long value = 0L;
+        for (int i = this.starts[field]; i < end; i++) {
+            int digit = this.line[i] - '0';
+            if (digit < 0 || digit > 9 || value > (max - digit) / 10) {
+                throw this.error("invalid number " + this.string(field));
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Parses a dotted‐quad address, followed by {@code /<prefix>} when
+     * {@code prefixed}, which is then left in {@code prefix}.
+     *
+     * @return the address packed big‐endian
+     */
+    private int parseAddress(int field, boolean prefixed) throws IllegalArgumentException {
+        int i       = this.starts[field];
+        int end     = this.ends[field];
+        int address = 0;
+        for (int octet = 0; octet < 4; octet++) {
+            if (octet > 0) {
+                if (i == end || this.line[i] != '.') {
+                    throw this.error("invalid address " + this.string(field));
+                }
+                i++;
+            }
+            int value  = 0;
+            int digits = 0;
+            while (i < end && this.line[i] >= '0' && this.line[i] <= '9' && digits < 3) {
+                value = value * 10 + (this.line[i++] - '0');
+                digits++;
+            }
+            if (digits == 0 || value > 255) {
+                throw this.error("invalid address " + this.string(field));
+            }
+            address = (address << 8) | value;
+        }
+        if (!prefixed) {
+            if (i != end) {
+                throw this.error("invalid address " + this.string(field));
+            }
+            return address;
+        }
+        if (i == end || this.line[i] != '/' || i + 1 == end || end - i > 3) {
+            throw this.error("expected <address>/<prefix>, got " + this.string(field));
+        }
+        int length = 0;
+        for (i++; i < end; i++) {
+            int digit = this.line[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw this.error("invalid prefix in " + this.string(field));
+            }
+            length = length * 10 + digit;
+        }
+        if (length > 32) {
+            throw this.error("invalid prefix in " + this.string(field));
+        }
+        this.prefix = length;
+        return address;
+    }
+
+    /**
+     * Parses a MAC written as six colon‐separated hex pairs.
+     *
+     * @return the address packed big‐endian in the low 48 bits
+     */
+    private long parseMac(int field) throws IllegalArgumentException {
+        int start = this.starts[field];
+        if (this.ends[field] - start != 17) {
+            throw this.error("invalid MAC " + this.string(field));
+        }
+        long mac = 0L;
+        for (int octet = 0; octet < 6; octet++) {
+            int i = start + octet * 3;
+            if (octet > 0 && this.line[i - 1] != ':') {
+                throw this.error("invalid MAC " + this.string(field));
+            }
+            int high = Character.digit(this.line[i], 16);
+            int low  = Character.digit(this.line[i + 1], 16);
+            if (high < 0 || low < 0) {
+                throw this.error("invalid MAC " + this.string(field));
+            }
+            mac = (mac << 8) | (high << 4) | low;
+        }
+        return mac;
+    }
+}
@@ -0,0 +1,111 @@
+package com.netsim.networkstack;
+
+import com.netsim.utils.Logger;
+
+/**
+ * Maps 16‐bit wire values, such as EtherTypes or UDP ports, to handlers
+ * in constant time. Values are split into a high and a low byte indexing
+ * a two‐level table whose second‐level pages are allocated only when a
+ * value in them is registered, so a node binding a handful of ports holds
+ * a few hundred slots rather than 65536.
+ * <p>
+ * Lookups take no lock and are meant for the thread that owns the table;
+ * registration is usually done while the topology is being built.
+ * </p>
+ *
+ * @param <H> the handler type
+ */
+public final class DispatchTable<H> {
+    private static final Logger logger = Logger.getInstance();
+    private static final String CLS    = DispatchTable.class.getSimpleName();
+
+    /** Largest value a table accepts. */
+    public static final int MAX_KEY = 0xFFFF;
+
+    private final Object[][] pages;
+    private       int        size;
+
+    /**
+     * Creates an empty table.
+     */
+    public DispatchTable() {
+        this.pages = new Object[256][];
+    }
+
+    private static void checkKey(int key) throws IllegalArgumentException {
+        if (key < 0 || key > MAX_KEY) {
+            logger.error("[" + CLS + "] key out of range: " + key);
+            throw new IllegalArgumentException(CLS + ": key must be 0–65535");
+        }
+    }
+
+    /**
+     * Registers the handler for a value, replacing any previous one.
+     *
+     * @param key     the value (0–65535)
+     * @param handler the handler (non‐null)
+     * @return the handler it replaced, or null
+     * @throws IllegalArgumentException if key is out of range or handler is null
+     */
+    @SuppressWarnings("unchecked")
+    public H register(int key, H handler) throws IllegalArgumentException {
+        checkKey(key);
+        if (handler == null) {
+            logger.error("[" + CLS + "] handler cannot be null");
+            throw new IllegalArgumentException(CLS + ": handler cannot be null");
+        }
+        Object[] page = this.pages[key >>> 8];
+        if (page == null) {
+            page = new Object[256];
+            this.pages[key >>> 8] = page;
+        }
+        H previous = (H) page[key & 0xFF];
+        page[key & 0xFF] = handler;
+        if (previous == null) {
+            this.size++;
+        }
+        return previous;
+    }
+
+    /**
+     * Removes the handler for a value.
+     *
+     * @param key the value (0–65535)
+     * @return the handler removed, or null if there was none
+     * @throws IllegalArgumentException if key is out of range
+     */
+    @SuppressWarnings("unchecked")
+    public H unregister(int key) throws IllegalArgumentException {
+        checkKey(key);
+        Object[] page = this.pages[key >>> 8];
+        if (page == null || page[key & 0xFF] == null) {
+            return null;
+        }
+        H previous = (H) page[key & 0xFF];
+        page[key & 0xFF] = null;
+        this.size--;
+        return previous;
+    }
+
+    /**
+     * Looks a value up. Values out of range simply have no handler.
+     *
+     * @param key the value read from the wire
+     * @return its handler, or null
+     */
+    @SuppressWarnings("unchecked")
+    public H get(int key) {
+        if ((key & ~MAX_KEY) != 0) {
+            return null;
+        }
+        Object[] page = this.pages[key >>> 8];
+        return page == null ? null : (H) page[key & 0xFF];
+    }
+
+    /**
+     * @return handlers registered
+     */
+    public int size() {
+        return this.size;
+    }
+}
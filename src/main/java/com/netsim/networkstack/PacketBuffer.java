@@ -0,0 +1,420 @@
+package com.netsim.networkstack;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.netsim.utils.Logger;
+
+/**
+ * A packet held in a single byte array with free space before and after
+ * the data, in the style of an skb/mbuf.
+ * <p>
+ * The packet occupies {@code [offset(), offset() + length())} of
+ * {@link #array()}. Encapsulation prepends a header into the headroom with
+ * {@link #push(int)}; decapsulation skips a header with {@link #pull(int)}.
+ * Neither moves the payload, so a payload can travel down and back up a
+ * whole protocol stack without being copied.
+ * </p>
+ * <p>
+ * The multi-byte accessors are big-endian and take positions relative to
+ * the start of the packet.
+ * </p>
+ * <p>
+ * Buffers are reference counted. A new buffer holds one reference;
+ * {@link #retain()} and {@link #duplicate()} add one and {@link #release()}
+ * drops one. When the last reference goes, a buffer obtained from a
+ * {@link PacketBufferPool} returns to it. A buffer must not be written
+ * while {@link #isShared()}.
+ * </p>
+ */
+public final class PacketBuffer {
+    private static final Logger logger = Logger.getInstance();
+    private static final String CLS    = PacketBuffer.class.getSimpleName();
+
+    /** Headroom that fits the headers of every protocol in the stack. */
+    public static final int DEFAULT_HEADROOM = 128;
+
+    private final PacketBufferPool pool;
+    private final PacketBuffer     root;
+    private final AtomicInteger    refs;
+    private       byte[]           data;
+    private       int              head;
+    private       int              tail;
+    private       Throwable        origin;
+
+    /**
+     * Allocates an empty buffer.
+     *
+     * @param headroom bytes reserved in front of the packet (≥ 0)
+     * @param capacity total size of the backing array (≥ headroom)
+     * @throws IllegalArgumentException if headroom is negative or exceeds capacity
+     */
+    public PacketBuffer(int headroom, int capacity) throws IllegalArgumentException {
+        if (headroom < 0 || capacity < headroom) {
+            logger.error("[" + CLS + "] invalid headroom " + headroom + " for capacity " + capacity);
+            throw new IllegalArgumentException(CLS + ": invalid headroom or capacity");
+        }
+        this.pool = null;
+        this.root = this;
+        this.refs = new AtomicInteger(1);
+        this.data = new byte[capacity];
+        this.head = headroom;
+        this.tail = headroom;
+    }
+
+    /**
+     * Allocates a pooled buffer; the pool resets it before handing it out.
+     *
+     * @param pool     the owning pool (non-null)
+     * @param capacity total size of the backing array
+     */
+    PacketBuffer(PacketBufferPool pool, int capacity) {
+        this.pool = pool;
+        this.root = this;
+        this.refs = new AtomicInteger(0);
+        this.data = new byte[capacity];
+    }
+
+    /**
+     * Creates a view sharing the backing array and reference count of root.
+     */
+    private PacketBuffer(PacketBuffer root, byte[] data, int head, int tail) {
+        this.pool = null;
+        this.root = root;
+        this.refs = root.refs;
+        this.data = data;
+        this.head = head;
+        this.tail = tail;
+    }
+
+    /**
+     * Allocates a buffer holding a copy of the payload, with
+     * {@link #DEFAULT_HEADROOM} bytes free in front of it.
+     *
+     * @param payload the payload bytes (non-null)
+     * @return the new buffer
+     * @throws IllegalArgumentException if payload is null
+     */
+    public static PacketBuffer forPayload(byte[] payload) throws IllegalArgumentException {
+        if (payload == null) {
+            logger.error("[" + CLS + "] payload cannot be null");
+            throw new IllegalArgumentException(CLS + ": payload cannot be null");
+        }
+        PacketBuffer buffer = new PacketBuffer(DEFAULT_HEADROOM, DEFAULT_HEADROOM + payload.length);
+        System.arraycopy(payload, 0, buffer.data, buffer.head, payload.length);
+        buffer.tail += payload.length;
+        return buffer;
+    }
+
+    /**
+     * Prepares a recycled buffer for a new owner.
+     *
+     * @param headroom bytes reserved in front of the packet
+     * @param trace    where the buffer was acquired, or null
+     */
+    void reset(int headroom, Throwable trace) {
+        this.head   = headroom;
+        this.tail   = headroom;
+        this.origin = trace;
+        this.refs.set(1);
+    }
+
+    /**
+     * @return the pool this buffer returns to, or null
+     */
+    PacketBufferPool getPool() {
+        return this.pool;
+    }
+
+    /**
+     * @return where this buffer was acquired, if leak detection was on
+     */
+    Throwable getOrigin() {
+        return this.origin;
+    }
+
+    /**
+     * @throws IllegalStateException if every reference has been released
+     */
+    private void ensureLive() throws IllegalStateException {
+        if (this.refs.get() <= 0) {
+            logger.error("[" + CLS + "] access to a released buffer");
+            throw new IllegalStateException(CLS + ": buffer already released");
+        }
+    }
+
+    /**
+     * @return the number of live references to the backing array
+     */
+    public int refCount() {
+        return this.refs.get();
+    }
+
+    /**
+     * @return true if another reference may read the backing array
+     */
+    public boolean isShared() {
+        return this.refs.get() > 1;
+    }
+
+    /**
+     * Adds a reference to this buffer.
+     *
+     * @return this buffer
+     * @throws IllegalStateException if the buffer was already released
+     */
+    public PacketBuffer retain() throws IllegalStateException {
+        int current;
+        do {
+            current = this.refs.get();
+            if (current <= 0) {
+                logger.error("[" + CLS + "] retain on a released buffer");
+                throw new IllegalStateException(CLS + ": buffer already released");
+            }
+        } while (!this.refs.compareAndSet(current, current + 1));
+        return this;
+    }
+
+    /**
+     * Adds a reference and returns an independent view of the same bytes,
+     * with its own start and end, e.g. for delivering one frame to several
+     * receivers that each strip headers. Release the view like a buffer.
+     *
+     * @return the new view
+     * @throws IllegalStateException if the buffer was already released
+     */
+    public PacketBuffer duplicate() throws IllegalStateException {
+        this.retain();
+        return new PacketBuffer(this.root, this.data, this.head, this.tail);
+    }
+
+    /**
+     * Drops a reference; the last one returns the buffer to its pool.
+     *
+     * @return true if this was the last reference
+     * @throws IllegalStateException if the buffer was already released
+     */
+    public boolean release() throws IllegalStateException {
+        int left = this.refs.decrementAndGet();
+        if (left < 0) {
+            this.refs.incrementAndGet();
+            logger.error("[" + CLS + "] buffer released more than once");
+            throw new IllegalStateException(CLS + ": buffer released more than once");
+        }
+        if (left > 0) {
+            return false;
+        }
+        if (this.root.pool != null) {
+            this.root.pool.recycle(this.root);
+        }
+        return true;
+    }
+
+    /**
+     * @return the backing array; the packet starts at {@link #offset()}
+     */
+    public byte[] array() {
+        return this.data;
+    }
+
+    /**
+     * @return index of the first packet byte in {@link #array()}
+     */
+    public int offset() {
+        return this.head;
+    }
+
+    /**
+     * @return number of packet bytes
+     */
+    public int length() {
+        return this.tail - this.head;
+    }
+
+    /**
+     * @return free bytes in front of the packet
+     */
+    public int headroom() {
+        return this.head;
+    }
+
+    /**
+     * @return free bytes after the packet
+     */
+    public int tailroom() {
+        return this.data.length - this.tail;
+    }
+
+    /**
+     * Grows the packet at the front, for writing a header.
+     *
+     * @param bytes header length (≥ 0)
+     * @return the new {@link #offset()}, where the header starts
+     * @throws IllegalArgumentException if bytes is negative
+     * @throws IllegalStateException    if the headroom is too small
+     */
+    public int push(int bytes) throws IllegalArgumentException, IllegalStateException {
+        this.ensureLive();
+        if (bytes < 0) {
+            logger.error("[" + CLS + "] push: negative length " + bytes);
+            throw new IllegalArgumentException(CLS + ": length cannot be negative");
+        }
+        if (bytes > this.head) {
+            logger.error("[" + CLS + "] push: " + bytes + " bytes exceed headroom " + this.head);
+            throw new IllegalStateException(CLS + ": not enough headroom");
+        }
+        this.head -= bytes;
+        return this.head;
+    }
+
+    /**
+     * Shrinks the packet at the front, skipping a header.
+     *
+     * @param bytes header length (≥ 0)
+     * @return the offset the header started at
+     * @throws IllegalArgumentException if bytes is negative or longer than the packet
+     */
+    public int pull(int bytes) throws IllegalArgumentException {
+        this.ensureLive();
+        if (bytes < 0 || bytes > this.length()) {
+            logger.error("[" + CLS + "] pull: cannot strip " + bytes + " of " + this.length() + " bytes");
+            throw new IllegalArgumentException(CLS + ": invalid pull length");
+        }
+        int start = this.head;
+        this.head += bytes;
+        return start;
+    }
+
+    /**
+     * Grows the packet at the back, for writing a trailer or payload.
+     *
+     * @param bytes trailer length (≥ 0)
+     * @return the offset the new bytes start at
+     * @throws IllegalArgumentException if bytes is negative
+     * @throws IllegalStateException    if the tailroom is too small
+     */
+    public int put(int bytes) throws IllegalArgumentException, IllegalStateException {
+        this.ensureLive();
+        if (bytes < 0) {
+            logger.error("[" + CLS + "] put: negative length " + bytes);
+            throw new IllegalArgumentException(CLS + ": length cannot be negative");
+        }
+        if (bytes > this.tailroom()) {
+            logger.error("[" + CLS + "] put: " + bytes + " bytes exceed tailroom " + this.tailroom());
+            throw new IllegalStateException(CLS + ": not enough tailroom");
+        }
+        int start = this.tail;
+        this.tail += bytes;
+        return start;
+    }
+
+    /**
+     * Cuts the packet down to its first {@code newLength} bytes.
+     *
+     * @param newLength the new length (0 ≤ newLength ≤ length())
+     * @throws IllegalArgumentException if newLength is out of range
+     */
+    public void trim(int newLength) throws IllegalArgumentException {
+        this.ensureLive();
+        if (newLength < 0 || newLength > this.length()) {
+            logger.error("[" + CLS + "] trim: invalid length " + newLength);
+            throw new IllegalArgumentException(CLS + ": invalid trim length");
+        }
+        this.tail = this.head + newLength;
+    }
+
+    /**
+     * Replaces the packet with a copy of the given bytes, keeping the
+     * current headroom. Used by protocols that cannot work in place.
+     *
+     * @param bytes the new packet contents (non-null)
+     * @throws IllegalArgumentException if bytes is null
+     */
+    public void replace(byte[] bytes) throws IllegalArgumentException {
+        this.ensureLive();
+        if (bytes == null) {
+            logger.error("[" + CLS + "] replace: bytes cannot be null");
+            throw new IllegalArgumentException(CLS + ": bytes cannot be null");
+        }
+        if (this.head + bytes.length > this.data.length) {
+            this.data = new byte[this.head + bytes.length];
+        }
+        System.arraycopy(bytes, 0, this.data, this.head, bytes.length);
+        this.tail = this.head + bytes.length;
+    }
+
+    /**
+     * @return a copy of the packet bytes
+     */
+    public byte[] toByteArray() {
+        this.ensureLive();
+        return Arrays.copyOfRange(this.data, this.head, this.tail);
+    }
+
+    /**
+     * @param index position relative to the packet start
+     * @return the unsigned byte at that position
+     */
+    public int getUnsignedByte(int index) {
+        return this.data[this.head + index] & 0xFF;
+    }
+
+    /**
+     * @param index position relative to the packet start
+     * @return the big-endian unsigned 16-bit value at that position
+     */
+    public int getUnsignedShort(int index) {
+        int at = this.head + index;
+        return ((this.data[at] & 0xFF) << 8) | (this.data[at + 1] & 0xFF);
+    }
+
+    /**
+     * @param index position relative to the packet start
+     * @return the big-endian 32-bit value at that position
+     */
+    public int getInt(int index) {
+        int at = this.head + index;
+        return ((this.data[at]     & 0xFF) << 24)
+             | ((this.data[at + 1] & 0xFF) << 16)
+             | ((this.data[at + 2] & 0xFF) << 8)
+             |  (this.data[at + 3] & 0xFF);
+    }
+
+    /**
+     * @param index position relative to the packet start
+     * @param value the byte to store (low 8 bits)
+     */
+    public void putByte(int index, int value) {
+        this.data[this.head + index] = (byte) value;
+    }
+
+    /**
+     * @param index position relative to the packet start
+     * @param value the 16-bit value to store big-endian (low 16 bits)
+     */
+    public void putShort(int index, int value) {
+        int at = this.head + index;
+        this.data[at]     = (byte) (value >>> 8);
+        this.data[at + 1] = (byte) value;
+    }
+
+    /**
+     * @param index position relative to the packet start
+     * @param value the 32-bit value to store big-endian
+     */
+    public void putInt(int index, int value) {
+        int at = this.head + index;
+        this.data[at]     = (byte) (value >>> 24);
+        this.data[at + 1] = (byte) (value >>> 16);
+        this.data[at + 2] = (byte) (value >>> 8);
+        this.data[at + 3] = (byte) value;
+    }
+
+    /**
+     * @param index position relative to the packet start
+     * @param bytes the bytes to store (non-null)
+     */
+    public void putBytes(int index, byte[] bytes) {
+        System.arraycopy(bytes, 0, this.data, this.head + index, bytes.length);
+    }
+}
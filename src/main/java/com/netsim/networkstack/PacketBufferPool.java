@@ -0,0 +1,264 @@
+package com.netsim.networkstack;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.netsim.utils.Logger;
+
+/**
+ * Recycles {@link PacketBuffer}s so that steady traffic does not allocate
+ * a new array per packet.
+ * <p>
+ * Buffers come in three size classes, sized for the MTUs in use (1500,
+ * 9000 and 64K bytes) plus {@link PacketBuffer#DEFAULT_HEADROOM}; larger
+ * requests get an unpooled buffer. A released buffer goes to a small cache
+ * owned by the releasing thread, overflowing into a bounded shared queue
+ * per class, so acquire and release take no lock on the common path.
+ * </p>
+ * <p>
+ * With leak detection on, the pool remembers every buffer it hands out
+ * and where it was acquired; {@link #checkLeaks()} reports those never
+ * released. The shared instance enables it when the system property
+ * {@code netsim.leakDetection} is true, which the test build sets.
+ * </p>
+ */
+public final class PacketBufferPool {
+    private static final Logger logger = Logger.getInstance();
+    private static final String CLS    = PacketBufferPool.class.getSimpleName();
+
+    private static final int[] SIZE_CLASSES = { 1500, 9000, 65536 };
+    private static final int   LOCAL_LIMIT  = 64;
+    private static final int   SHARED_LIMIT = 1024;
+
+    private static final PacketBufferPool instance =
+        new PacketBufferPool(Boolean.getBoolean("netsim.leakDetection"));
+
+    private final boolean                                  leakDetection;
+    private final int[]                                    capacities;
+    private final ThreadLocal<ArrayDeque<PacketBuffer>[]>  local;
+    private final ConcurrentLinkedQueue<PacketBuffer>[]    shared;
+    private final AtomicInteger[]                          sharedSize;
+    private final LongAdder                                allocations;
+    private final Set<PacketBuffer>                        outstanding;
+
+    /**
+     * Creates an empty pool.
+     *
+     * @param leakDetection whether to track unreleased buffers
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public PacketBufferPool(boolean leakDetection) {
+        this.leakDetection = leakDetection;
+        this.capacities    = new int[SIZE_CLASSES.length];
+        this.shared        = new ConcurrentLinkedQueue[SIZE_CLASSES.length];
+        this.sharedSize    = new AtomicInteger[SIZE_CLASSES.length];
+        for (int i = 0; i < SIZE_CLASSES.length; i++) {
+            this.capacities[i] = PacketBuffer.DEFAULT_HEADROOM + SIZE_CLASSES[i];
+            this.shared[i]     = new ConcurrentLinkedQueue<>();
+            this.sharedSize[i] = new AtomicInteger();
+        }
+        this.local         = ThreadLocal.withInitial(() -> {
+            ArrayDeque<PacketBuffer>[] caches = new ArrayDeque[SIZE_CLASSES.length];
+            for (int i = 0; i < caches.length; i++) {
+                caches[i] = new ArrayDeque<>(LOCAL_LIMIT);
+            }
+            return caches;
+        });
+        this.allocations   = new LongAdder();
+        this.outstanding   = Collections.synchronizedSet(
+            Collections.newSetFromMap(new IdentityHashMap<>()));
+    }
+
+    /**
+     * @return the shared pool
+     */
+    public static PacketBufferPool getInstance() {
+        return instance;
+    }
+
+    /**
+     * @param capacity bytes needed including headroom
+     * @return the smallest size class that fits, or -1
+     */
+    private int sizeClass(int capacity) {
+        for (int i = 0; i < this.capacities.length; i++) {
+            if (capacity <= this.capacities[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Hands out an empty buffer with {@link PacketBuffer#DEFAULT_HEADROOM}
+     * bytes of headroom and room for at least {@code length} bytes after it.
+     *
+     * @param length packet bytes to make room for (≥ 0)
+     * @return a buffer holding one reference
+     * @throws IllegalArgumentException if length is negative
+     */
+    public PacketBuffer acquire(int length) throws IllegalArgumentException {
+        return this.take(length, PacketBuffer.DEFAULT_HEADROOM,
+                         this.leakDetection ? new Throwable("buffer acquired here") : null);
+    }
+
+    /**
+     * Hands out an empty buffer with {@code headroom} bytes of headroom and
+     * room for at least {@code length} bytes after it, for a layer that
+     * writes a header of its own above the ones
+     * {@link PacketBuffer#DEFAULT_HEADROOM} makes room for.
+     *
+     * @param length   packet bytes to make room for (≥ 0)
+     * @param headroom bytes reserved in front of the packet (≥ 0)
+     * @return a buffer holding one reference
+     * @throws IllegalArgumentException if length or headroom is negative
+     */
+    public PacketBuffer acquire(int length, int headroom) throws IllegalArgumentException {
+        return this.take(length, headroom, this.leakDetection ? new Throwable("buffer acquired here") : null);
+    }
+
+    /**
+     * Takes a buffer from the pool, or allocates one.
+     *
+     * @param trace where the buffer was acquired, or null without leak detection
+     */
+    private PacketBuffer take(int length, int headroom, Throwable trace) throws IllegalArgumentException {
+        if (length < 0 || headroom < 0) {
+            logger.error("[" + CLS + "] acquire: negative length " + length + " or headroom " + headroom);
+            throw new IllegalArgumentException(CLS + ": length and headroom cannot be negative");
+        }
+        int capacity = headroom + length;
+        int cls      = this.sizeClass(capacity);
+        if (cls < 0) {
+            this.allocations.increment();
+            return new PacketBuffer(headroom, capacity);
+        }
+
+        PacketBuffer buffer = this.local.get()[cls].pollLast();
+        if (buffer == null) {
+            buffer = this.shared[cls].poll();
+            if (buffer != null) {
+                this.sharedSize[cls].decrementAndGet();
+            }
+        }
+        if (buffer == null) {
+            this.allocations.increment();
+            buffer = new PacketBuffer(this, this.capacities[cls]);
+        }
+        buffer.reset(headroom, trace);
+        if (this.leakDetection) {
+            this.outstanding.add(buffer);
+        }
+        return buffer;
+    }
+
+    /**
+     * Hands out a buffer holding a copy of the payload.
+     *
+     * @param payload the payload bytes (non-null)
+     * @return a buffer holding one reference
+     * @throws IllegalArgumentException if payload is null
+     */
+    public PacketBuffer acquire(byte[] payload) throws IllegalArgumentException {
+        return this.acquire(payload, PacketBuffer.DEFAULT_HEADROOM);
+    }
+
+    /**
+     * Hands out a buffer holding a copy of the payload with {@code headroom}
+     * bytes free in front of it.
+     *
+     * @param payload  the payload bytes (non-null)
+     * @param headroom bytes reserved in front of the payload (≥ 0)
+     * @return a buffer holding one reference
+     * @throws IllegalArgumentException if payload is null or headroom negative
+     */
+    public PacketBuffer acquire(byte[] payload, int headroom) throws IllegalArgumentException {
+        if (payload == null) {
+            logger.error("[" + CLS + "] acquire: payload cannot be null");
+            throw new IllegalArgumentException(CLS + ": payload cannot be null");
+        }
+        PacketBuffer buffer = this.acquire(payload.length, headroom);
+        buffer.put(payload.length);
+        buffer.putBytes(0, payload);
+        return buffer;
+    }
+
+    /**
+     * Takes back a buffer whose last reference was released.
+     *
+     * @param buffer the buffer (owned by this pool)
+     */
+    void recycle(PacketBuffer buffer) {
+        if (buffer.getPool() != this) {
+            return;
+        }
+        if (this.leakDetection) {
+            this.outstanding.remove(buffer);
+        }
+        int cls = this.sizeClass(buffer.array().length);
+        if (cls < 0 || buffer.array().length != this.capacities[cls]) {
+            // grown by replace(): the array no longer fits a class
+            return;
+        }
+        ArrayDeque<PacketBuffer> cache = this.local.get()[cls];
+        if (cache.size() < LOCAL_LIMIT) {
+            cache.addLast(buffer);
+        } else if (this.sharedSize[cls].incrementAndGet() <= SHARED_LIMIT) {
+            this.shared[cls].add(buffer);
+        } else {
+            this.sharedSize[cls].decrementAndGet();
+        }
+    }
+
+    /**
+     * @return the number of backing arrays this pool has allocated
+     */
+    public long getAllocations() {
+        return this.allocations.sum();
+    }
+
+    /**
+     * @return whether unreleased buffers are tracked
+     */
+    public boolean isLeakDetection() {
+        return this.leakDetection;
+    }
+
+    /**
+     * @return the number of pooled buffers handed out and not yet released,
+     *         or 0 if leak detection is off
+     */
+    public int getOutstanding() {
+        return this.outstanding.size();
+    }
+
+    /**
+     * Fails if any pooled buffer handed out has not been released. The
+     * acquisition site of the first leak is attached as the cause. The
+     * buffers reported are forgotten, so a later check, e.g. after the
+     * next test, only reports leaks of its own.
+     *
+     * @throws IllegalStateException if buffers leaked
+     */
+    public void checkLeaks() throws IllegalStateException {
+        PacketBuffer first = null;
+        int          count;
+        synchronized (this.outstanding) {
+            count = this.outstanding.size();
+            if (count > 0) {
+                first = this.outstanding.iterator().next();
+                this.outstanding.clear();
+            }
+        }
+        if (count == 0) {
+            return;
+        }
+        logger.error("[" + CLS + "] " + count + " packet buffer(s) never released");
+        throw new IllegalStateException(CLS + ": " + count + " packet buffer(s) leaked", first.getOrigin());
+    }
+}
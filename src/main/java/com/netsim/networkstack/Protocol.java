@@ -25,6 +25,38 @@ public interface Protocol {
      */
     byte[] decapsulate(byte[] lowerLayerPDU) throws IllegalArgumentException;
 
+    /**
+     * Encapsulates the packet held in a buffer, prepending headers into its
+     * headroom. Implementations that can do so without copying the payload
+     * override this; the default round-trips through
+     * {@link #encapsulate(byte[])}.
+     *
+     * @param packet the upper-layer PDU, replaced by this layer's PDU (non-null, non-empty)
+     * @throws IllegalArgumentException if packet is null or empty
+     */
+    default void encapsulateInPlace(PacketBuffer packet) throws IllegalArgumentException {
+        if (packet == null) {
+            throw new IllegalArgumentException("Protocol: packet cannot be null");
+        }
+        packet.replace(this.encapsulate(packet.toByteArray()));
+    }
+
+    /**
+     * Decapsulates the packet held in a buffer, skipping this layer's
+     * headers. Implementations that can do so without copying the payload
+     * override this; the default round-trips through
+     * {@link #decapsulate(byte[])}.
+     *
+     * @param packet this layer's PDU, replaced by the upper-layer PDU (non-null, non-empty)
+     * @throws IllegalArgumentException if packet is null or empty
+     */
+    default void decapsulateInPlace(PacketBuffer packet) throws IllegalArgumentException {
+        if (packet == null) {
+            throw new IllegalArgumentException("Protocol: packet cannot be null");
+        }
+        packet.replace(this.decapsulate(packet.toByteArray()));
+    }
+
     /**
      * @return this protocol’s source Address, or null if not applicable
      */
@@ -8,19 +8,80 @@ import com.netsim.utils.Logger;
 
 /**
  * Manages a stack of Protocols for encapsulation and decapsulation.
+ * <p>
+ * As the pipeline travels with its packet, it also carries two stamps of
+ * simulated time used for latency measurements: when and at which node
+ * an application sent the data ({@link #getOriginTime()}), and when the
+ * packet entered the node currently holding it ({@link #getArrivalTime()}).
+ * </p>
  */
 public class ProtocolPipeline {
     private static final Logger logger = Logger.getInstance();
     private static final String CLS    = ProtocolPipeline.class.getSimpleName();
 
+    /** Value of a stamp that was never set. */
+    public static final long UNSTAMPED = -1L;
+
     private final List<Protocol> stack;
+    private       String         origin;
+    private       long           originTime;
+    private       long           arrivalTime;
 
     /**
      * Creates an empty pipeline.
      */
     public ProtocolPipeline() {
-        this.stack = new ArrayList<>();
-        logger.info("[" + CLS + "] initialized empty pipeline");
+        this.stack       = new ArrayList<>();
+        this.originTime  = UNSTAMPED;
+        this.arrivalTime = UNSTAMPED;
+        logger.info(() -> "[" + CLS + "] initialized empty pipeline");
+    }
+
+    /**
+     * Records where and when an application sent the data.
+     *
+     * @param node the name of the sending node (non-null)
+     * @param time the simulation time of the send (≥ 0)
+     * @throws IllegalArgumentException if node is null or time negative
+     */
+    public void stampOrigin(String node, long time) throws IllegalArgumentException {
+        if (node == null || time < 0) {
+            logger.error("[" + CLS + "] invalid origin stamp");
+            throw new IllegalArgumentException("ProtocolPipeline: invalid origin stamp");
+        }
+        this.origin     = node;
+        this.originTime = time;
+    }
+
+    /**
+     * @return the name of the node whose application sent the data, or
+     *         null if not stamped
+     */
+    public String getOrigin() {
+        return this.origin;
+    }
+
+    /**
+     * @return the time the data was sent, or {@link #UNSTAMPED}
+     */
+    public long getOriginTime() {
+        return this.originTime;
+    }
+
+    /**
+     * Records when the packet entered the node now holding it.
+     *
+     * @param time the simulation time (≥ 0)
+     */
+    public void stampArrival(long time) {
+        this.arrivalTime = time;
+    }
+
+    /**
+     * @return the time the packet entered its current node, or {@link #UNSTAMPED}
+     */
+    public long getArrivalTime() {
+        return this.arrivalTime;
     }
 
     /**
@@ -35,7 +96,7 @@ public class ProtocolPipeline {
             throw new IllegalArgumentException("ProtocolPipeline: protocol cannot be null");
         }
         this.stack.add(0, protocol);
-        logger.info("[" + CLS + "] pushed protocol: " + protocol.getClass().getSimpleName());
+        logger.info(() -> "[" + CLS + "] pushed protocol: " + protocol.getClass().getSimpleName());
     }
 
     /**
@@ -50,7 +111,7 @@ public class ProtocolPipeline {
             throw new RuntimeException("ProtocolPipeline: nothing to pop");
         }
         Protocol p = this.stack.remove(0);
-        logger.info("[" + CLS + "] popped protocol: " + p.getClass().getSimpleName());
+        logger.info(() -> "[" + CLS + "] popped protocol: " + p.getClass().getSimpleName());
         return p;
     }
 
@@ -66,14 +127,16 @@ public class ProtocolPipeline {
             logger.error("[" + CLS + "] encapsulate failed: data is null or empty");
             throw new IllegalArgumentException("ProtocolPipeline: data cannot be null or empty");
         }
-        logger.info("[" + CLS + "] starting encapsulation, initial length=" + data.length);
+        logger.info(() -> "[" + CLS + "] starting encapsulation, initial length=" + data.length);
         byte[] result = data;
         for (Protocol proto : this.stack) {
             result = proto.encapsulate(result);
-            logger.debug("[" + CLS + "] applied " +
-                         proto.getClass().getSimpleName() + ", new length=" + result.length);
+            int length = result.length;
+            logger.debug(() -> "[" + CLS + "] applied " +
+                         proto.getClass().getSimpleName() + ", new length=" + length);
         }
-        logger.info("[" + CLS + "] encapsulation complete, final length=" + result.length);
+        int finalLength = result.length;
+        logger.info(() -> "[" + CLS + "] encapsulation complete, final length=" + finalLength);
         return result;
     }
 
@@ -89,19 +152,60 @@ public class ProtocolPipeline {
             logger.error("[" + CLS + "] decapsulate failed: data is null or empty");
             throw new IllegalArgumentException("ProtocolPipeline: data cannot be null or empty");
         }
-        logger.info("[" + CLS + "] starting decapsulation, initial length=" + data.length);
+        logger.info(() -> "[" + CLS + "] starting decapsulation, initial length=" + data.length);
         byte[] result = data;
         List<Protocol> reversed = new ArrayList<>(this.stack);
         Collections.reverse(reversed);
         for (Protocol proto : reversed) {
             result = proto.decapsulate(result);
-            logger.debug("[" + CLS + "] stripped " +
-                         proto.getClass().getSimpleName() + ", new length=" + result.length);
+            int length = result.length;
+            logger.debug(() -> "[" + CLS + "] stripped " +
+                         proto.getClass().getSimpleName() + ", new length=" + length);
         }
-        logger.info("[" + CLS + "] decapsulation complete, final length=" + result.length);
+        int finalLength = result.length;
+        logger.info(() -> "[" + CLS + "] decapsulation complete, final length=" + finalLength);
         return result;
     }
 
+    /**
+     * Encapsulates a packet buffer through all Protocols in stack order,
+     * each layer prepending its headers in place.
+     *
+     * @param packet the payload to encapsulate (non-null, non-empty)
+     * @throws IllegalArgumentException if packet is null or empty
+     */
+    public void encapsulateInPlace(PacketBuffer packet) throws IllegalArgumentException {
+        if (packet == null || packet.length() == 0) {
+            logger.error("[" + CLS + "] encapsulate failed: packet is null or empty");
+            throw new IllegalArgumentException("ProtocolPipeline: packet cannot be null or empty");
+        }
+        for (Protocol proto : this.stack) {
+            proto.encapsulateInPlace(packet);
+            logger.debug(() -> "[" + CLS + "] applied " +
+                         proto.getClass().getSimpleName() + ", new length=" + packet.length());
+        }
+    }
+
+    /**
+     * Decapsulates a packet buffer through all Protocols in reverse stack
+     * order, each layer skipping its headers in place.
+     *
+     * @param packet the packet to decapsulate (non-null, non-empty)
+     * @throws IllegalArgumentException if packet is null or empty
+     */
+    public void decapsulateInPlace(PacketBuffer packet) throws IllegalArgumentException {
+        if (packet == null || packet.length() == 0) {
+            logger.error("[" + CLS + "] decapsulate failed: packet is null or empty");
+            throw new IllegalArgumentException("ProtocolPipeline: packet cannot be null or empty");
+        }
+        for (int i = this.stack.size() - 1; i >= 0; i--) {
+            Protocol proto = this.stack.get(i);
+            proto.decapsulateInPlace(packet);
+            logger.debug(() -> "[" + CLS + "] stripped " +
+                         proto.getClass().getSimpleName() + ", new length=" + packet.length());
+        }
+    }
+
     /**
      * Returns the number of Protocols in the stack.
      *
@@ -109,7 +213,7 @@ public class ProtocolPipeline {
      */
     public int size() {
         int sz = this.stack.size();
-        logger.debug("[" + CLS + "] size() = " + sz);
+        logger.debug(() -> "[" + CLS + "] size() = " + sz);
         return sz;
     }
 
@@ -120,7 +224,7 @@ public class ProtocolPipeline {
      */
     public boolean isEmpty() {
         boolean empty = this.stack.isEmpty();
-        logger.debug("[" + CLS + "] isEmpty() = " + empty);
+        logger.debug(() -> "[" + CLS + "] isEmpty() = " + empty);
         return empty;
     }
 
@@ -136,7 +240,24 @@ public class ProtocolPipeline {
             throw new RuntimeException("ProtocolPipeline: stack is empty");
         }
         Protocol p = this.stack.get(0).copy();
-        logger.debug("[" + CLS + "] peek() = " + p.getClass().getSimpleName());
+        logger.debug(() -> "[" + CLS + "] peek() = " + p.getClass().getSimpleName());
         return p;
     }
-}
\ No newline at end of file
+
+    /**
+     * Creates a pipeline holding the same Protocols in the same order, so
+     * that a packet sent several ways can be unwound independently along
+     * each. The Protocols themselves are shared, not copied; the stamps
+     * are kept.
+     *
+     * @return the new pipeline
+     */
+    public ProtocolPipeline copy() {
+        ProtocolPipeline copy = new ProtocolPipeline();
+        copy.stack.addAll(this.stack);
+        copy.origin      = this.origin;
+        copy.originTime  = this.originTime;
+        copy.arrivalTime = this.arrivalTime;
+        return copy;
+    }
+}
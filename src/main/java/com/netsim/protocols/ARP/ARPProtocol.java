@@ -0,0 +1,285 @@
+package com.netsim.protocols.ARP;
+
+import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Mac;
+import com.netsim.metrics.Counter;
+import com.netsim.metrics.MetricsRegistry;
+import com.netsim.networkstack.Protocol;
+import com.netsim.utils.Logger;
+
+/**
+ * Address Resolution Protocol (RFC 826) for IPv4 over the simulated link
+ * layer: a node broadcasts a request for the MAC of an IPv4 address on
+ * its segment and the owner of that address replies to it directly.
+ * <p>
+ * An ARP message is the whole payload of a
+ * {@link com.netsim.protocols.SimpleDLL.SimpleDLLProtocol} frame and
+ * carries no upper-layer data, so {@link #encapsulate(byte[])} builds the
+ * 28-byte message from this protocol's fields and
+ * {@link #decapsulate(byte[])} leaves nothing to hand up. Receivers read
+ * the fields of a message with the static {@code extract} methods.
+ * </p>
+ */
+public class ARPProtocol implements Protocol {
+    private static final Logger logger = Logger.getInstance();
+    private static final String CLS    = ARPProtocol.class.getSimpleName();
+
+    private static final Counter ENCAPSULATIONS = MetricsRegistry.getInstance().counter("protocol." + CLS + ".encapsulations");
+
+    /** Operation code of a request. */
+    public static final int REQUEST     = 1;
+    /** Operation code of a reply. */
+    public static final int REPLY       = 2;
+    /** Length of an ARP message for IPv4 over 48-bit MACs. */
+    public static final int MESSAGE_LEN = 28;
+
+    private static final int HTYPE_ETHERNET = 1;
+    private static final int PTYPE_IPV4     = 0x0800;
+
+    private final int  operation;
+    private final Mac  senderMac;
+    private final IPv4 senderIp;
+    private final Mac  targetMac;
+    private final IPv4 targetIp;
+
+    /**
+     * Constructs an ARP message.
+     *
+     * @param operation {@link #REQUEST} or {@link #REPLY}
+     * @param senderMac the MAC of the sender (non-null)
+     * @param senderIp  the IPv4 of the sender (non-null)
+     * @param targetMac the MAC of the target, or null if unknown (requests)
+     * @param targetIp  the IPv4 of the target (non-null)
+     * @throws IllegalArgumentException if the operation is unknown or an address is null
+     */
+    public ARPProtocol(int operation, Mac senderMac, IPv4 senderIp, Mac targetMac, IPv4 targetIp)
+            throws IllegalArgumentException {
+        if (operation != REQUEST && operation != REPLY) {
+            logger.error("[" + CLS + "] unknown operation: " + operation);
+            throw new IllegalArgumentException("ARPProtocol: unknown operation " + operation);
+        }
+        if (senderMac == null || senderIp == null || targetIp == null) {
+            logger.error("[" + CLS + "] addresses cannot be null");
+            throw new IllegalArgumentException("ARPProtocol: addresses cannot be null");
+        }
+        this.operation = operation;
+        this.senderMac = senderMac;
+        this.senderIp  = senderIp;
+        this.targetMac = targetMac;
+        this.targetIp  = targetIp;
+        logger.debug(() -> "[" + CLS + "] " + (operation == REQUEST ? "request" : "reply")
+                     + " from " + senderIp.stringRepresentation()
+                     + " for " + targetIp.stringRepresentation());
+    }
+
+    /**
+     * Creates a request asking who holds {@code targetIp}.
+     *
+     * @param senderMac the MAC of the asking interface (non-null)
+     * @param senderIp  the IPv4 of the asking interface (non-null)
+     * @param targetIp  the IPv4 to resolve (non-null)
+     * @return the request
+     * @throws IllegalArgumentException if an address is null
+     */
+    public static ARPProtocol request(Mac senderMac, IPv4 senderIp, IPv4 targetIp)
+            throws IllegalArgumentException {
+        return new ARPProtocol(REQUEST, senderMac, senderIp, null, targetIp);
+    }
+
+    /**
+     * Creates a reply telling {@code targetIp} that {@code senderIp} is at
+     * {@code senderMac}.
+     *
+     * @param senderMac the MAC of the replying interface (non-null)
+     * @param senderIp  the IPv4 that was asked for (non-null)
+     * @param targetMac the MAC of the asker (non-null)
+     * @param targetIp  the IPv4 of the asker (non-null)
+     * @return the reply
+     * @throws IllegalArgumentException if an address is null
+     */
+    public static ARPProtocol reply(Mac senderMac, IPv4 senderIp, Mac targetMac, IPv4 targetIp)
+            throws IllegalArgumentException {
+        if (targetMac == null) {
+            logger.error("[" + CLS + "] reply: target MAC cannot be null");
+            throw new IllegalArgumentException("ARPProtocol: addresses cannot be null");
+        }
+        return new ARPProtocol(REPLY, senderMac, senderIp, targetMac, targetIp);
+    }
+
+    /**
+     * Builds the ARP message. ARP carries no upper-layer data.
+     *
+     * @param upperLayerPDU null or empty
+     * @return the {@value #MESSAGE_LEN}-byte message
+     * @throws IllegalArgumentException if upperLayerPDU holds any bytes
+     */
+    @Override
+    public byte[] encapsulate(byte[] upperLayerPDU) throws IllegalArgumentException {
+        if (upperLayerPDU != null && upperLayerPDU.length > 0) {
+            logger.error("[" + CLS + "] encapsulate: ARP carries no payload");
+            throw new IllegalArgumentException("ARPProtocol: ARP carries no payload");
+        }
+        byte[] message = new byte[MESSAGE_LEN];
+        message[0] = (byte) (HTYPE_ETHERNET >>> 8);
+        message[1] = (byte) HTYPE_ETHERNET;
+        message[2] = (byte) (PTYPE_IPV4 >>> 8);
+        message[3] = (byte) PTYPE_IPV4;
+        message[4] = 6;
+        message[5] = 4;
+        message[6] = (byte) (this.operation >>> 8);
+        message[7] = (byte) this.operation;
+        this.senderMac.copyTo(message, 8);
+        putInt(message, 14, this.senderIp.toInt());
+        if (this.targetMac != null) {
+            this.targetMac.copyTo(message, 18);
+        }
+        putInt(message, 24, this.targetIp.toInt());
+        logger.debug(() -> "[" + CLS + "] encapsulate: built " + MESSAGE_LEN + "-byte message");
+        ENCAPSULATIONS.increment();
+        return message;
+    }
+
+    /**
+     * Checks an ARP message. Nothing is carried above ARP.
+     *
+     * @param lowerLayerPDU the message (non-null)
+     * @return an empty array
+     * @throws IllegalArgumentException if the message is not an ARP message for IPv4
+     */
+    @Override
+    public byte[] decapsulate(byte[] lowerLayerPDU) throws IllegalArgumentException {
+        check(lowerLayerPDU);
+        return new byte[0];
+    }
+
+    private static void check(byte[] message) throws IllegalArgumentException {
+        if (message == null || message.length < MESSAGE_LEN) {
+            logger.error("[" + CLS + "] message too short");
+            throw new IllegalArgumentException("ARPProtocol: message too short");
+        }
+        if (getShort(message, 0) != HTYPE_ETHERNET
+            || getShort(message, 2) != PTYPE_IPV4
+            || message[4] != 6
+            || message[5] != 4) {
+            logger.error("[" + CLS + "] not an ARP message for IPv4 over 48-bit MACs");
+            throw new IllegalArgumentException("ARPProtocol: unsupported hardware or protocol type");
+        }
+    }
+
+    private static int getShort(byte[] data, int at) {
+        return ((data[at] & 0xFF) << 8) | (data[at + 1] & 0xFF);
+    }
+
+    private static int getInt(byte[] data, int at) {
+        return ((data[at]     & 0xFF) << 24)
+             | ((data[at + 1] & 0xFF) << 16)
+             | ((data[at + 2] & 0xFF) << 8)
+             |  (data[at + 3] & 0xFF);
+    }
+
+    private static void putInt(byte[] data, int at, int value) {
+        data[at]     = (byte) (value >>> 24);
+        data[at + 1] = (byte) (value >>> 16);
+        data[at + 2] = (byte) (value >>> 8);
+        data[at + 3] = (byte) value;
+    }
+
+    /**
+     * @param message an ARP message (non-null)
+     * @return {@link #REQUEST}, {@link #REPLY} or another code
+     * @throws IllegalArgumentException if the message is malformed
+     */
+    public static int extractOperation(byte[] message) throws IllegalArgumentException {
+        check(message);
+        return getShort(message, 6);
+    }
+
+    /**
+     * @param message an ARP message (non-null)
+     * @return the sender MAC packed as by {@link Mac#toLong()}
+     * @throws IllegalArgumentException if the message is malformed
+     */
+    public static long extractSenderMac(byte[] message) throws IllegalArgumentException {
+        check(message);
+        return Mac.toLong(message, 8);
+    }
+
+    /**
+     * @param message an ARP message (non-null)
+     * @return the sender IPv4 packed as by {@link IPv4#toInt()}
+     * @throws IllegalArgumentException if the message is malformed
+     */
+    public static int extractSenderIp(byte[] message) throws IllegalArgumentException {
+        check(message);
+        return getInt(message, 14);
+    }
+
+    /**
+     * @param message an ARP message (non-null)
+     * @return the target IPv4 packed as by {@link IPv4#toInt()}
+     * @throws IllegalArgumentException if the message is malformed
+     */
+    public static int extractTargetIp(byte[] message) throws IllegalArgumentException {
+        check(message);
+        return getInt(message, 24);
+    }
+
+    /** @return {@link #REQUEST} or {@link #REPLY} */
+    public int getOperation() {
+        return this.operation;
+    }
+
+    /** @return the sender MAC */
+    public Mac getSenderMac() {
+        return this.senderMac;
+    }
+
+    /** @return the target MAC, or null if unknown */
+    public Mac getTargetMac() {
+        return this.targetMac;
+    }
+
+    /** @return the sender IPv4 */
+    @Override
+    public IPv4 getSource() {
+        return this.senderIp;
+    }
+
+    /** @return the target IPv4 */
+    @Override
+    public IPv4 getDestination() {
+        return this.targetIp;
+    }
+
+    /**
+     * Extracts the sender IPv4 from a message.
+     *
+     * @param pdu an ARP message (non-null)
+     * @return the sender IPv4, as a host address
+     * @throws IllegalArgumentException if the message is malformed
+     */
+    @Override
+    public IPv4 extractSource(byte[] pdu) throws IllegalArgumentException {
+        return IPv4.fromInt(extractSenderIp(pdu), 32);
+    }
+
+    /**
+     * Extracts the target IPv4 from a message.
+     *
+     * @param pdu an ARP message (non-null)
+     * @return the target IPv4, as a host address
+     * @throws IllegalArgumentException if the message is malformed
+     */
+    @Override
+    public IPv4 extractDestination(byte[] pdu) throws IllegalArgumentException {
+        return IPv4.fromInt(extractTargetIp(pdu), 32);
+    }
+
+    /**
+     * @return a new ARPProtocol with the same fields
+     */
+    @Override
+    public Protocol copy() {
+        return new ARPProtocol(this.operation, this.senderMac, this.senderIp, this.targetMac, this.targetIp);
+    }
+}
@@ -0,0 +1,204 @@
+package com.netsim.protocols.IPv4;
+
+import com.netsim.networkstack.PacketBuffer;
+import com.netsim.utils.Logger;
+
+/**
+ * Reads the fields of an IPv4 header where it lies in an array, without
+ * copying it or building an {@link IPv4Packet}. A view is a reusable
+ * flyweight: {@link #wrap(byte[], int, int)} points it at a header and the
+ * getters read that header until the view is wrapped again, so a node
+ * parsing every packet it receives keeps one view and allocates nothing.
+ * <p>
+ * The layout is the one {@link IPv4Protocol} writes: version and IHL,
+ * type of service, total length, identification, flags and fragment
+ * offset, then TTL and protocol as 16‐bit fields, then the source and
+ * destination addresses.
+ * </p>
+ */
+public final class IPv4HeaderView {
+    private static final Logger logger = Logger.getInstance();
+    private static final String CLS    = IPv4HeaderView.class.getSimpleName();
+
+    /** Length of a header without options. */
+    public static final int MIN_HEADER_LEN = 20;
+
+    private static final int MORE_FRAGMENTS = 0x4000;
+    private static final int OFFSET_MASK    = 0x1FFF;
+
+    private byte[] data;
+    private int    offset;
+
+    /**
+     * Points the view at the header of the packet starting at an index.
+     *
+     * @param data   the array holding the packet (non‐null)
+     * @param offset the index of the header's first byte
+     * @param length the bytes available from {@code offset}
+     * @return this view
+     * @throws IllegalArgumentException if data is null or holds less than a
+     *         header, or the header length field is invalid
+     */
+    public IPv4HeaderView wrap(byte[] data, int offset, int length) throws IllegalArgumentException {
+        if (data == null || offset < 0 || length < MIN_HEADER_LEN || offset + length > data.length) {
+            logger.error("[" + CLS + "] truncated header");
+            throw new IllegalArgumentException(CLS + ": truncated header");
+        }
+        int headerLen = (data[offset] & 0x0F) * 4;
+        if (headerLen < MIN_HEADER_LEN || headerLen > length) {
+            logger.error("[" + CLS + "] invalid header length " + headerLen);
+            throw new IllegalArgumentException(CLS + ": invalid header length");
+        }
+        this.data   = data;
+        this.offset = offset;
+        return this;
+    }
+
+    /**
+     * Points the view at the header of the packet held in a buffer.
+     *
+     * @param packet the packet, header first (non‐null)
+     * @return this view
+     * @throws IllegalArgumentException if packet is null or too short
+     */
+    public IPv4HeaderView wrap(PacketBuffer packet) throws IllegalArgumentException {
+        if (packet == null) {
+            logger.error("[" + CLS + "] packet cannot be null");
+            throw new IllegalArgumentException(CLS + ": packet cannot be null");
+        }
+        return this.wrap(packet.array(), packet.offset(), packet.length());
+    }
+
+    /**
+     * @return the index of the header's first byte in the wrapped array
+     */
+    public int getOffset() {
+        return this.offset;
+    }
+
+    /**
+     * @return the IP version
+     */
+    public int getVersion() {
+        return (this.data[this.offset] & 0xF0) >>> 4;
+    }
+
+    /**
+     * @return the header length in 32‐bit words
+     */
+    public int getIHL() {
+        return this.data[this.offset] & 0x0F;
+    }
+
+    /**
+     * @return the header length in bytes
+     */
+    public int getHeaderLength() {
+        return this.getIHL() * 4;
+    }
+
+    /**
+     * @return the type of service
+     */
+    public int getTypeOfService() {
+        return this.data[this.offset + 1] & 0xFF;
+    }
+
+    /**
+     * @return the length of the packet, header included
+     */
+    public int getTotalLength() {
+        return readShort(this.data, this.offset + 2);
+    }
+
+    /**
+     * @return the identification shared by the fragments of a datagram
+     */
+    public int getIdentification() {
+        return readShort(this.data, this.offset + 4);
+    }
+
+    /**
+     * @return true if more fragments of the datagram follow this one
+     */
+    public boolean hasMoreFragments() {
+        return (readShort(this.data, this.offset + 6) & MORE_FRAGMENTS) != 0;
+    }
+
+    /**
+     * @return the offset of this fragment's payload in the datagram, in bytes
+     */
+    public int getFragmentOffset() {
+        return (readShort(this.data, this.offset + 6) & OFFSET_MASK) * 8;
+    }
+
+    /**
+     * @return true if the packet is a whole datagram rather than a fragment
+     */
+    public boolean isUnfragmented() {
+        return (readShort(this.data, this.offset + 6) & (MORE_FRAGMENTS | OFFSET_MASK)) == 0;
+    }
+
+    /**
+     * @return the time to live
+     */
+    public int getTtl() {
+        return readShort(this.data, this.offset + 8);
+    }
+
+    /**
+     * @return the upper‐layer protocol number
+     */
+    public int getProtocol() {
+        return readShort(this.data, this.offset + 10);
+    }
+
+    /**
+     * @return the source address, packed as by {@link com.netsim.addresses.IPv4#toInt()}
+     */
+    public int getSource() {
+        return readSource(this.data, this.offset);
+    }
+
+    /**
+     * @return the destination address, packed as by {@link com.netsim.addresses.IPv4#toInt()}
+     */
+    public int getDestination() {
+        return readDestination(this.data, this.offset);
+    }
+
+    /**
+     * Reads the source address of a header without a view, for callers that
+     * only need that field. The caller checks the bounds.
+     *
+     * @param data   the array holding the header
+     * @param offset the index of the header's first byte
+     * @return the packed source address
+     */
+    public static int readSource(byte[] data, int offset) {
+        return readInt(data, offset + 12);
+    }
+
+    /**
+     * Reads the destination address of a header without a view, for callers
+     * that only need that field. The caller checks the bounds.
+     *
+     * @param data   the array holding the header
+     * @param offset the index of the header's first byte
+     * @return the packed destination address
+     */
+    public static int readDestination(byte[] data, int offset) {
+        return readInt(data, offset + 16);
+    }
+
+    private static int readShort(byte[] data, int at) {
+        return ((data[at] & 0xFF) << 8) | (data[at + 1] & 0xFF);
+    }
+
+    private static int readInt(byte[] data, int at) {
+        return ((data[at] & 0xFF) << 24)
+             | ((data[at + 1] & 0xFF) << 16)
+             | ((data[at + 2] & 0xFF) << 8)
+             |  (data[at + 3] & 0xFF);
+    }
+}
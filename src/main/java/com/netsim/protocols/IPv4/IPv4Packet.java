@@ -106,7 +106,7 @@ public class IPv4Packet extends PDU {
         }
         this.payload = payload;
 
-        logger.info("[" + CLS + "] constructed: src=" + this.getSource().stringRepresentation() +
+        logger.info(() -> "[" + CLS + "] constructed: src=" + this.getSource().stringRepresentation() +
                     " dst=" + this.getDestination().stringRepresentation() +
                     " ttl=" + this.ttl);
     }
@@ -118,7 +118,7 @@ public class IPv4Packet extends PDU {
      */
     @Override
     public byte[] getHeader() {
-        logger.debug("[" + CLS + "] getHeader()");
+        logger.debug(() -> "[" + CLS + "] getHeader()");
         int headerLen = this.versionAndIHL.getIhl() * 4;
         ByteBuffer buf = ByteBuffer.allocate(headerLen);
         buf.put(this.versionAndIHL.toByte());
@@ -128,10 +128,10 @@ public class IPv4Packet extends PDU {
         buf.putShort(this.flagsAndFragmentOffset);
         buf.putShort(this.ttl);
         buf.putShort(this.protocol);
-        buf.put(this.getSource().byteRepresentation());
-        buf.put(this.getDestination().byteRepresentation());
+        buf.putInt(((IPv4) this.source).toInt());
+        buf.putInt(((IPv4) this.destination).toInt());
         byte[] header = buf.array();
-        logger.debug("[" + CLS + "] header built, length=" + header.length);
+        logger.debug(() -> "[" + CLS + "] header built, length=" + header.length);
         return header;
     }
 
@@ -142,12 +142,12 @@ public class IPv4Packet extends PDU {
      */
     @Override
     public byte[] toByte() {
-        logger.info("[" + CLS + "] toByte()");
+        logger.info(() -> "[" + CLS + "] toByte()");
         byte[] header = this.getHeader();
         ByteBuffer buf = ByteBuffer.allocate(header.length + this.payload.length);
         buf.put(header).put(this.payload);
         byte[] packet = buf.array();
-        logger.info("[" + CLS + "] serialized packet, total length=" + packet.length);
+        logger.info(() -> "[" + CLS + "] serialized packet, total length=" + packet.length);
         return packet;
     }
 }
\ No newline at end of file
@@ -1,12 +1,15 @@
 package com.netsim.protocols.IPv4;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 import com.netsim.addresses.IPv4;
+import com.netsim.metrics.Counter;
+import com.netsim.metrics.MetricsRegistry;
+import com.netsim.networkstack.PacketBuffer;
+import com.netsim.networkstack.PacketBufferPool;
 import com.netsim.networkstack.Protocol;
 import com.netsim.utils.Logger;
 
@@ -18,6 +21,16 @@ public class IPv4Protocol implements Protocol {
     private static final Logger logger = Logger.getInstance();
     private static final String CLS    = IPv4Protocol.class.getSimpleName();
 
+    /** Protocol number of UDP datagrams. */
+    public static final int PROTOCOL_UDP = 17;
+
+    private static final Counter ENCAPSULATIONS = MetricsRegistry.getInstance().counter("protocol." + CLS + ".encapsulations");
+    private static final Counter FRAGMENTS      = MetricsRegistry.getInstance().counter("protocol." + CLS + ".fragments");
+
+    // "more fragments" as written by encapsulate (flags value 2, shifted into bits 13–15)
+    private static final int MORE_FRAGMENTS = 0x4000;
+    private static final int OFFSET_MASK    = 0x1FFF;
+
     private final IPv4 source;
     private final IPv4 destination;
     private final int  version;
@@ -52,7 +65,7 @@ public class IPv4Protocol implements Protocol {
                         int ttl,
                         int protocol,
                         int MTU) throws IllegalArgumentException {
-        logger.info("[" + CLS + "] instantiating: src="
+        logger.info(() -> "[" + CLS + "] instantiating: src="
                     + (source != null ? source.stringRepresentation() : "null")
                     + " dst="
                     + (destination != null ? destination.stringRepresentation() : "null")
@@ -106,7 +119,7 @@ public class IPv4Protocol implements Protocol {
     @Override
     public byte[] encapsulate(byte[] upperLayerPDU)
             throws IllegalArgumentException, RuntimeException {
-        logger.info("[" + CLS + "] encapsulate called, data length="
+        logger.info(() -> "[" + CLS + "] encapsulate called, data length="
                     + (upperLayerPDU != null ? upperLayerPDU.length : 0));
 
         if (upperLayerPDU == null || upperLayerPDU.length == 0) {
@@ -123,6 +136,7 @@ public class IPv4Protocol implements Protocol {
 
         ByteArrayOutputStream out = new ByteArrayOutputStream();
         int offsetBytes = 0;
+        int fragments   = 0;
 
         while (offsetBytes < upperLayerPDU.length) {
             int remaining          = upperLayerPDU.length - offsetBytes;
@@ -153,103 +167,393 @@ public class IPv4Protocol implements Protocol {
             byte[] encoded = packet.toByte();
             out.write(encoded, 0, encoded.length);
             offsetBytes += thisFragDataLen;
+            fragments++;
+        }
+        if (fragments > 1) {
+            FRAGMENTS.add(fragments);
         }
 
         byte[] result = out.toByteArray();
-        logger.info("[" + CLS + "] encapsulate produced " + result.length + " bytes");
+        logger.info(() -> "[" + CLS + "] encapsulate produced " + result.length + " bytes");
+        ENCAPSULATIONS.increment();
         return result;
     }
 
     /**
-     * Reassembles IPv4 fragments from the given byte stream.
+     * Reassembles IPv4 fragments from the given byte stream. Each
+     * fragment's data is copied once, straight to its place in the
+     * payload, by an {@link IPv4Reassembler}.
      *
      * @param lowerLayerPDU concatenated fragment bytes (non-null, non-empty)
      * @return reassembled payload bytes
-     * @throws IllegalArgumentException if input is null or empty
+     * @throws IllegalArgumentException if input is null or empty, malformed,
+     *                                  or does not hold a whole datagram
      */
     @Override
     public byte[] decapsulate(byte[] lowerLayerPDU) throws IllegalArgumentException {
-        logger.info("[" + CLS + "] decapsulate called, data length="
+        logger.info(() -> "[" + CLS + "] decapsulate called, data length="
                     + (lowerLayerPDU != null ? lowerLayerPDU.length : 0));
 
         if (lowerLayerPDU == null || lowerLayerPDU.length == 0) {
             throw new IllegalArgumentException("IP: lowerLayerPDU cannot be null or empty");
         }
 
-        final int MIN_IPV4_HEADER = 20;
-        ByteArrayInputStream in = new ByteArrayInputStream(lowerLayerPDU);
-        List<Fragment> fragments = new ArrayList<>();
+        IPv4Reassembler reassembler = new IPv4Reassembler();
+        byte[] reassembled = null;
+        for (int at = 0; at < lowerLayerPDU.length && reassembled == null; ) {
+            int length = IPv4Reassembler.fragmentLength(lowerLayerPDU, at);
+            reassembled = reassembler.accept(lowerLayerPDU, at, 0L);
+            at += length;
+        }
+        if (reassembled == null) {
+            logger.error("[" + CLS + "] decapsulate: fragments missing");
+            throw new IllegalArgumentException("IP: incomplete datagram");
+        }
 
-        while (in.available() >= MIN_IPV4_HEADER) {
-            in.mark(4);
-            byte[] first4 = new byte[4];
-            in.read(first4, 0, 4);
-            in.reset();
+        int size = reassembled.length;
+        logger.info(() -> "[" + CLS + "] decapsulate reassembled to " + size + " bytes");
+        return reassembled;
+    }
 
-            int ihl       = first4[0] & 0x0F;
-            int headerLen = ihl * 4;
+    /**
+     * Prepends an IPv4 header in the buffer's headroom when the payload
+     * fits in one fragment; larger payloads are fragmented by copying, as
+     * in {@link #encapsulate(byte[])}, and the fragments left concatenated
+     * in the buffer. Senders that want a buffer per fragment use
+     * {@link #fragmentInPlace(PacketBuffer)}.
+     *
+     * @param packet the payload (non-null, non-empty)
+     * @throws IllegalArgumentException if packet is null, empty, or too large to encode
+     * @throws RuntimeException         if MTU too small for header
+     */
+    @Override
+    public void encapsulateInPlace(PacketBuffer packet) throws IllegalArgumentException, RuntimeException {
+        if (packet == null || packet.length() == 0) {
+            throw new IllegalArgumentException("IP: upperLayerPDU cannot be null or empty");
+        }
+        int headerLen = this.IHL * 4;
+        int maxData   = ((this.MTU - headerLen) / 8) * 8;
+        if (packet.length() > maxData) {
+            Protocol.super.encapsulateInPlace(packet);
+            return;
+        }
+        int totalLen = headerLen + packet.length();
+        if (totalLen > 0xFFFF) {
+            logger.error("[" + CLS + "] totalLength out of range");
+            throw new IllegalArgumentException("IPv4Packet: totalLength must be 0–65535");
+        }
+        packet.push(headerLen);
+        this.writeHeader(packet, headerLen, totalLen, 0);
+        logger.info(() -> "[" + CLS + "] encapsulate produced " + packet.length() + " bytes");
+        ENCAPSULATIONS.increment();
+    }
 
-            byte[] header = new byte[headerLen];
-            in.read(header, 0, headerLen);
+    /**
+     * Encapsulates a payload into one buffer per fragment. A payload that
+     * fits in one fragment gets its header in the buffer's headroom, as in
+     * {@link #encapsulateInPlace(PacketBuffer)}. A larger one keeps its
+     * first fragment in the buffer, cut down to it; every further fragment
+     * is copied once, into a pooled buffer of its own.
+     *
+     * @param packet the payload (non-null, non-empty); on success it is the
+     *               first buffer returned, on failure it is left to the caller
+     * @return the fragments, in order, the first being {@code packet}
+     * @throws IllegalArgumentException if packet is null, empty, or too large to encode
+     * @throws RuntimeException         if MTU too small for header + payload
+     */
+    public List<PacketBuffer> fragmentInPlace(PacketBuffer packet) throws IllegalArgumentException, RuntimeException {
+        if (packet == null || packet.length() == 0) {
+            throw new IllegalArgumentException("IP: upperLayerPDU cannot be null or empty");
+        }
+        int headerLen = this.IHL * 4;
+        int maxData   = ((this.MTU - headerLen) / 8) * 8;
+        int length    = packet.length();
+        if (length <= maxData) {
+            this.encapsulateInPlace(packet);
+            List<PacketBuffer> single = new ArrayList<>(1);
+            single.add(packet);
+            return single;
+        }
+        if (maxData <= 0) {
+            logger.error("[" + CLS + "] MTU " + this.MTU + " too small to fragment");
+            throw new RuntimeException("IP: MTU too small for header + payload");
+        }
+        List<PacketBuffer> fragments = new ArrayList<>((length + maxData - 1) / maxData);
+        fragments.add(packet);
+        try {
+            for (int sent = maxData, chunk; sent < length; sent += chunk) {
+                chunk = Math.min(maxData, length - sent);
+                PacketBuffer fragment = PacketBufferPool.getInstance().acquire(chunk);
+                fragments.add(fragment);
+                System.arraycopy(packet.array(), packet.offset() + sent,
+                                 fragment.array(), fragment.put(chunk), chunk);
+                fragment.push(headerLen);
+                int more = sent + chunk < length ? MORE_FRAGMENTS : 0;
+                this.writeHeader(fragment, headerLen, headerLen + chunk, more | (sent / 8));
+            }
+        } catch (RuntimeException e) {
+            releaseAll(fragments, 1);
+            throw e;
+        }
+        packet.trim(maxData);
+        packet.push(headerLen);
+        this.writeHeader(packet, headerLen, headerLen + maxData, MORE_FRAGMENTS);
+        FRAGMENTS.add(fragments.size());
+        ENCAPSULATIONS.increment();
+        logger.info(() -> "[" + CLS + "] encapsulate produced " + fragments.size() + " fragments");
+        return fragments;
+    }
 
-            int totalLen         = ((header[2] & 0xFF) << 8) | (header[3] & 0xFF);
-            int flagsAndOffset   = ((header[6] & 0xFF) << 8) | (header[7] & 0xFF);
-            int fragOffsetBytes  = (flagsAndOffset & 0x1FFF) * 8;
-            int dataLen          = totalLen - headerLen;
+    /**
+     * Writes this protocol's header at the head of a buffer.
+     *
+     * @param packet         the buffer, header already pushed
+     * @param headerLen      the header length
+     * @param totalLen       header and data length of the fragment
+     * @param flagsAndOffset the flags and fragment offset field
+     */
+    private void writeHeader(PacketBuffer packet, int headerLen, int totalLen, int flagsAndOffset) {
+        Arrays.fill(packet.array(), packet.offset() + 20, packet.offset() + headerLen, (byte) 0);
+        packet.putByte(0, (this.version << 4) | this.IHL);
+        packet.putByte(1, this.typeOfService);
+        packet.putShort(2, totalLen);
+        packet.putShort(4, this.identification);
+        packet.putShort(6, flagsAndOffset);
+        packet.putShort(8, this.ttl);
+        packet.putShort(10, this.protocol);
+        packet.putInt(12, this.source.toInt());
+        packet.putInt(16, this.destination.toInt());
+    }
 
-            byte[] chunk = new byte[dataLen];
-            in.read(chunk, 0, dataLen);
+    /**
+     * Releases the buffers of a list from an index on.
+     */
+    private static void releaseAll(List<PacketBuffer> buffers, int from) {
+        for (int i = from; i < buffers.size(); i++) {
+            buffers.get(i).release();
+        }
+    }
 
-            fragments.add(new Fragment(fragOffsetBytes, chunk));
+    /**
+     * Skips the IPv4 header when the buffer holds one unfragmented packet;
+     * fragments are reassembled by copying, as in {@link #decapsulate(byte[])}.
+     *
+     * @param packet the packet bytes (non-null, non-empty)
+     * @throws IllegalArgumentException if packet is null or empty
+     */
+    @Override
+    public void decapsulateInPlace(PacketBuffer packet) throws IllegalArgumentException {
+        if (packet == null || packet.length() == 0) {
+            throw new IllegalArgumentException("IP: lowerLayerPDU cannot be null or empty");
         }
+        if (packet.length() < 20) {
+            Protocol.super.decapsulateInPlace(packet);
+            return;
+        }
+        int headerLen = (packet.getUnsignedByte(0) & 0x0F) * 4;
+        int totalLen  = packet.getUnsignedShort(2);
+        int fragment  = packet.getUnsignedShort(6) & 0x1FFF;
+        if (totalLen != packet.length() || fragment != 0 || headerLen < 20 || headerLen > totalLen) {
+            Protocol.super.decapsulateInPlace(packet);
+            return;
+        }
+        packet.pull(headerLen);
+        logger.info(() -> "[" + CLS + "] decapsulate reassembled to " + packet.length() + " bytes");
+    }
 
-        fragments.sort((a, b) -> Integer.compare(a.offset, b.offset));
-        int totalLen = fragments.stream()
-                                .mapToInt(f -> f.offset + f.data.length)
-                                .max()
-                                .orElse(0);
-        byte[] reassembled = new byte[totalLen];
+    /**
+     * Validates the fragment starting at a position of the buffer.
+     *
+     * @param packet the concatenated fragments
+     * @param at     position of the fragment's first byte
+     * @return the fragment's total length
+     * @throws IllegalArgumentException if the header or total length is malformed
+     */
+    private static int fragmentLength(PacketBuffer packet, int at) throws IllegalArgumentException {
+        int remaining = packet.length() - at;
+        if (remaining < 20) {
+            logger.error("[" + CLS + "] truncated IPv4 header at offset " + at);
+            throw new IllegalArgumentException("IP: truncated header");
+        }
+        int headerLen = (packet.getUnsignedByte(at) & 0x0F) * 4;
+        int totalLen  = packet.getUnsignedShort(at + 2);
+        if (headerLen < 20 || totalLen < headerLen || totalLen > remaining) {
+            logger.error("[" + CLS + "] invalid IPv4 header at offset " + at);
+            throw new IllegalArgumentException("IP: invalid header or total length");
+        }
+        return totalLen;
+    }
 
-        for (Fragment f : fragments) {
-            System.arraycopy(f.data, 0, reassembled, f.offset, f.data.length);
+    /**
+     * Decrements the TTL of every fragment in the buffer by rewriting the
+     * header bytes in place. The header carries no checksum, so nothing
+     * else needs updating. If any fragment arrived with TTL 0 the buffer
+     * is left untouched.
+     *
+     * @param packet one or more concatenated fragments (non-null)
+     * @return the TTL the first fragment arrived with, or 0 if the packet must be dropped
+     * @throws IllegalArgumentException if packet is null, empty or malformed
+     */
+    public static int decrementTtl(PacketBuffer packet) throws IllegalArgumentException {
+        if (packet == null || packet.length() == 0) {
+            throw new IllegalArgumentException("IP: lowerLayerPDU cannot be null or empty");
+        }
+        int length = packet.length();
+        for (int at = 0; at < length; at += fragmentLength(packet, at)) {
+            if (packet.getUnsignedShort(at + 8) == 0) {
+                return 0;
+            }
         }
+        int first = packet.getUnsignedShort(8);
+        for (int at = 0; at < length; at += packet.getUnsignedShort(at + 2)) {
+            packet.putShort(at + 8, packet.getUnsignedShort(at + 8) - 1);
+        }
+        return first;
+    }
 
-        logger.info("[" + CLS + "] decapsulate reassembled to " + reassembled.length + " bytes");
-        return reassembled;
+    /**
+     * Puts every fragment of the buffer into a buffer of its own, splitting
+     * those longer than the MTU into fragments that fit, keeping
+     * identification and offsets so the destination reassembles the
+     * original payload. The first fragment, or the first piece of it,
+     * stays in the buffer, which is cut down to it; only the rest is
+     * copied, once each. A buffer holding one fragment that fits is
+     * returned as it is.
+     *
+     * @param packet one or more concatenated fragments (non-null); on success
+     *               it is the first buffer returned, on failure it is left
+     *               to the caller
+     * @param MTU    the egress MTU, header included
+     * @return one buffer per fragment, in order, the first being {@code packet}
+     * @throws IllegalArgumentException if packet is null, empty or malformed
+     * @throws RuntimeException         if MTU too small for header + payload
+     */
+    public static List<PacketBuffer> refragment(PacketBuffer packet, int MTU)
+            throws IllegalArgumentException, RuntimeException {
+        if (packet == null || packet.length() == 0) {
+            throw new IllegalArgumentException("IP: lowerLayerPDU cannot be null or empty");
+        }
+        int length = packet.length();
+        for (int at = 0; at < length; at += fragmentLength(packet, at)) {
+            int headerLen = (packet.getUnsignedByte(at) & 0x0F) * 4;
+            if (packet.getUnsignedShort(at + 2) > MTU && (MTU - headerLen) / 8 <= 0) {
+                logger.error("[" + CLS + "] MTU " + MTU + " too small to refragment");
+                throw new RuntimeException("IP: MTU too small for header + payload");
+            }
+        }
+        List<PacketBuffer> fragments = new ArrayList<>();
+        fragments.add(packet);
+        int firstLen   = packet.getUnsignedShort(2);
+        int firstFlags = packet.getUnsignedShort(6);
+        try {
+            for (int at = 0, totalLen; at < length; at += totalLen) {
+                totalLen = packet.getUnsignedShort(at + 2);
+                int headerLen      = (packet.getUnsignedByte(at) & 0x0F) * 4;
+                int dataLen        = totalLen - headerLen;
+                int maxData        = totalLen <= MTU ? dataLen : ((MTU - headerLen) / 8) * 8;
+                int flagsAndOffset = packet.getUnsignedShort(at + 6);
+                int keptFlags      = flagsAndOffset & ~(MORE_FRAGMENTS | OFFSET_MASK);
+                int offset         = flagsAndOffset & OFFSET_MASK;
+                for (int sent = 0, chunk; sent < dataLen; sent += chunk) {
+                    chunk = Math.min(maxData, dataLen - sent);
+                    boolean last = sent + chunk == dataLen;
+                    int     more = last ? flagsAndOffset & MORE_FRAGMENTS : MORE_FRAGMENTS;
+                    int     next = keptFlags | more | (offset + sent / 8);
+                    if (totalLen > MTU) {
+                        FRAGMENTS.increment();
+                    }
+                    if (at == 0 && sent == 0) {
+                        firstLen   = headerLen + chunk;
+                        firstFlags = next;
+                        continue;
+                    }
+                    PacketBuffer fragment = PacketBufferPool.getInstance().acquire(headerLen + chunk);
+                    fragments.add(fragment);
+                    int start = fragment.put(headerLen + chunk);
+                    System.arraycopy(packet.array(), packet.offset() + at,
+                                     fragment.array(), start, headerLen);
+                    System.arraycopy(packet.array(), packet.offset() + at + headerLen + sent,
+                                     fragment.array(), start + headerLen, chunk);
+                    fragment.putShort(2, headerLen + chunk);
+                    fragment.putShort(6, next);
+                }
+            }
+        } catch (RuntimeException e) {
+            releaseAll(fragments, 1);
+            throw e;
+        }
+        packet.trim(firstLen);
+        packet.putShort(2, firstLen);
+        packet.putShort(6, firstFlags);
+        if (fragments.size() > 1) {
+            logger.debug(() -> "[" + CLS + "] refragmented to MTU " + MTU + ", " + fragments.size() + " fragments");
+        }
+        return fragments;
     }
 
     /**
-     * Extracts the destination IPv4 address from a packet.
+     * Extracts the destination IPv4 address from a packet, reading it from
+     * the header in place.
      *
      * @param packet the full IPv4 packet bytes
-     * @return the configured destination address
+     * @return the configured destination if the header carries it, so the
+     *         common case builds nothing, otherwise the address in the header
      * @throws IllegalArgumentException if packet is too short
      */
     @Override
     public IPv4 extractDestination(byte[] packet) throws IllegalArgumentException {
-        logger.debug("[" + CLS + "] extractDestination()");
         if (packet == null || packet.length < this.IHL * 4) {
             throw new IllegalArgumentException("IPv4Protocol.extractDestination: packet too short");
         }
-        logger.debug("[" + CLS + "] destination=" + this.destination.stringRepresentation());
-        return this.destination;
+        return this.extractDestination(packet, 0);
     }
 
     /**
-     * Extracts the source IPv4 address from a packet.
+     * Extracts the destination IPv4 address from the first packet held in
+     * a buffer.
+     *
+     * @param packet the packet, header first (non-null)
+     * @return the destination, as by {@link #extractDestination(byte[])}
+     * @throws IllegalArgumentException if packet is null or too short
+     */
+    public IPv4 extractDestination(PacketBuffer packet) throws IllegalArgumentException {
+        if (packet == null || packet.length() < this.IHL * 4) {
+            throw new IllegalArgumentException("IPv4Protocol.extractDestination: packet too short");
+        }
+        return this.extractDestination(packet.array(), packet.offset());
+    }
+
+    private IPv4 extractDestination(byte[] packet, int offset) {
+        IPv4 address = known(IPv4HeaderView.readDestination(packet, offset), this.destination);
+        logger.debug(() -> "[" + CLS + "] destination=" + address.stringRepresentation());
+        return address;
+    }
+
+    /**
+     * Extracts the source IPv4 address from a packet, reading it from the
+     * header in place.
      *
      * @param packet the full IPv4 packet bytes
-     * @return the configured source address
+     * @return the configured source if the header carries it, so the common
+     *         case builds nothing, otherwise the address in the header
      * @throws IllegalArgumentException if packet is too short
      */
     @Override
     public IPv4 extractSource(byte[] packet) throws IllegalArgumentException {
-        logger.debug("[" + CLS + "] extractSource()");
         if (packet == null || packet.length < this.IHL * 4) {
             throw new IllegalArgumentException("IPv4Protocol.extractSource: packet too short");
         }
-        logger.debug("[" + CLS + "] source=" + this.source.stringRepresentation());
-        return this.source;
+        IPv4 address = known(IPv4HeaderView.readSource(packet, 0), this.source);
+        logger.debug(() -> "[" + CLS + "] source=" + address.stringRepresentation());
+        return address;
+    }
+
+    /**
+     * @return {@code configured} if it packs to {@code bits}, otherwise a
+     *         new address with the same mask
+     */
+    private static IPv4 known(int bits, IPv4 configured) {
+        return configured.toInt() == bits ? configured : IPv4.fromInt(bits, configured.getMask());
     }
 
     /**
@@ -259,7 +563,7 @@ public class IPv4Protocol implements Protocol {
      */
     @Override
     public Protocol copy() {
-        logger.debug("[" + CLS + "] copy()");
+        logger.debug(() -> "[" + CLS + "] copy()");
         return new IPv4Protocol(
             this.source,
             this.destination,
@@ -273,17 +577,6 @@ public class IPv4Protocol implements Protocol {
         );
     }
 
-    // Internal holder for fragment data
-    private static class Fragment {
-        final int    offset;
-        final byte[] data;
-
-        Fragment(int offset, byte[] data) {
-            this.offset = offset;
-            this.data   = data;
-        }
-    }
-
     public IPv4 getSource()      { return this.source; }
     public IPv4 getDestination() { return this.destination; }
     public int  getTtl()         { return this.ttl; }
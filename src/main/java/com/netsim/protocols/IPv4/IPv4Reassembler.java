@@ -0,0 +1,336 @@
+package com.netsim.protocols.IPv4;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import com.netsim.metrics.Counter;
+import com.netsim.metrics.MetricsRegistry;
+import com.netsim.utils.Logger;
+
+/**
+ * Reassembles IPv4 datagrams from fragments that may arrive in any order,
+ * interleaved with fragments of other datagrams.
+ * <p>
+ * Fragments are keyed by (source, destination, identification, protocol),
+ * read in place through an {@link IPv4HeaderView}.
+ * Each fragment's data is copied once, straight to its offset in a
+ * per-datagram buffer, and a bitmap of the 8-byte blocks received tracks
+ * the holes, so a datagram is reassembled in time proportional to its
+ * size whatever the arrival order. Overlapping data overwrites what was
+ * there.
+ * </p>
+ * <p>
+ * Incomplete datagrams are dropped once they are older than the timeout
+ * and, oldest first, whenever the buffers held exceed the memory budget.
+ * Both are checked as fragments arrive and by {@link #expire(long)}.
+ * </p>
+ */
+public class IPv4Reassembler {
+    private static final Logger logger = Logger.getInstance();
+    private static final String CLS    = IPv4Reassembler.class.getSimpleName();
+    private static final Counter REASSEMBLIES =
+        MetricsRegistry.getInstance().counter("protocol." + IPv4Protocol.class.getSimpleName() + ".reassemblies");
+
+    /** Time an incomplete datagram is kept: 30 s, as in Linux. */
+    public static final long DEFAULT_TIMEOUT       = 30_000_000_000L;
+    /** Bytes of incomplete datagrams kept: 4 MiB, as in Linux. */
+    public static final long DEFAULT_MEMORY_BUDGET = 4L << 20;
+
+    private static final int MAX_PAYLOAD = 0xFFFF;
+
+    /** Identifies the datagram a fragment belongs to. */
+    private static final class Key {
+        long addresses;
+        int  datagram;
+
+        Key() {}
+
+        Key(Key other) {
+            this.addresses = other.addresses;
+            this.datagram  = other.datagram;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return this.addresses == other.addresses && this.datagram == other.datagram;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(this.addresses) * 31 + this.datagram;
+        }
+    }
+
+    /** A datagram being reassembled. */
+    private static final class Datagram {
+        final long created;
+        byte[]     data;
+        long[]     blocks;
+        int        received;
+        int        total;
+        int        highest;
+
+        Datagram(long created, int capacity) {
+            this.created = created;
+            this.data    = new byte[capacity];
+            this.blocks  = new long[(capacity + 511) >>> 9];
+            this.total   = -1;
+        }
+
+        /**
+         * Marks blocks [from, to) as received.
+         */
+        void mark(int from, int to) {
+            for (int block = from; block < to; ) {
+                int  word = block >>> 6;
+                int  last = Math.min(to, (word + 1) << 6);
+                long bits = (-1L >>> (64 - (last - block))) << (block & 63);
+                this.received += Long.bitCount(bits & ~this.blocks[word]);
+                this.blocks[word] |= bits;
+                block = last;
+            }
+        }
+
+        boolean complete() {
+            return this.total >= 0 && this.received == (this.total + 7) >>> 3;
+        }
+    }
+
+    private final LinkedHashMap<Key, Datagram> pending;
+    private final Key                          probe;
+    private final IPv4HeaderView               header;
+    private       long                         timeout;
+    private       long                         memoryBudget;
+    private       long                         memory;
+    private       long                         reassembled;
+    private       long                         timeouts;
+    private       long                         evictions;
+
+    /**
+     * Creates a reassembler with the default timeout and memory budget.
+     */
+    public IPv4Reassembler() {
+        this.pending      = new LinkedHashMap<>();
+        this.probe        = new Key();
+        this.header       = new IPv4HeaderView();
+        this.timeout      = DEFAULT_TIMEOUT;
+        this.memoryBudget = DEFAULT_MEMORY_BUDGET;
+    }
+
+    /**
+     * @return nanoseconds an incomplete datagram is kept
+     */
+    public long getTimeout() {
+        return this.timeout;
+    }
+
+    /**
+     * Sets how long an incomplete datagram is kept after its first fragment.
+     *
+     * @param nanos timeout in nanoseconds (&gt; 0)
+     * @throws IllegalArgumentException if nanos is not positive
+     */
+    public void setTimeout(long nanos) throws IllegalArgumentException {
+        if (nanos <= 0) {
+            logger.error("[" + CLS + "] timeout must be positive: " + nanos);
+            throw new IllegalArgumentException(CLS + ": timeout must be positive");
+        }
+        this.timeout = nanos;
+    }
+
+    /**
+     * @return bytes of buffers that incomplete datagrams may hold
+     */
+    public long getMemoryBudget() {
+        return this.memoryBudget;
+    }
+
+    /**
+     * Sets how many bytes of buffers incomplete datagrams may hold.
+     *
+     * @param bytes the budget (&gt; 0)
+     * @throws IllegalArgumentException if bytes is not positive
+     */
+    public void setMemoryBudget(long bytes) throws IllegalArgumentException {
+        if (bytes <= 0) {
+            logger.error("[" + CLS + "] memory budget must be positive: " + bytes);
+            throw new IllegalArgumentException(CLS + ": memory budget must be positive");
+        }
+        this.memoryBudget = bytes;
+    }
+
+    /**
+     * Validates the fragment starting at a position of an array.
+     *
+     * @param packets the fragments, back to back (non-null)
+     * @param at      index of the fragment's first byte
+     * @return the fragment's total length
+     * @throws IllegalArgumentException if the header or total length is malformed
+     */
+    public static int fragmentLength(byte[] packets, int at) throws IllegalArgumentException {
+        if (packets.length - at < 20) {
+            throw new IllegalArgumentException("IP: truncated header");
+        }
+        int headerLen = (packets[at] & 0x0F) * 4;
+        int totalLen  = ((packets[at + 2] & 0xFF) << 8) | (packets[at + 3] & 0xFF);
+        if (headerLen < 20 || totalLen < headerLen || totalLen > packets.length - at) {
+            throw new IllegalArgumentException("IP: invalid header or total length");
+        }
+        return totalLen;
+    }
+
+    /**
+     * Adds one fragment.
+     *
+     * @param packets array holding the fragment (non-null, not retained)
+     * @param at      index of the fragment's first byte
+     * @param now     the current simulation time
+     * @return the payload of the datagram this fragment completes, or null
+     * @throws IllegalArgumentException if the fragment is malformed
+     */
+    public byte[] accept(byte[] packets, int at, long now) throws IllegalArgumentException {
+        int            totalLen  = fragmentLength(packets, at);
+        IPv4HeaderView header    = this.header.wrap(packets, at, totalLen);
+        int            headerLen = header.getHeaderLength();
+        int            offset    = header.getFragmentOffset();
+        boolean        more      = header.hasMoreFragments();
+        int            length    = totalLen - headerLen;
+        int end       = offset + length;
+
+        if (offset == 0 && !more) {
+            this.reassembled++;
+            return Arrays.copyOfRange(packets, at + headerLen, at + totalLen);
+        }
+        if (end > MAX_PAYLOAD || (more && (length == 0 || (length & 7) != 0))) {
+            logger.error("[" + CLS + "] malformed fragment at offset " + offset + ", length " + length);
+            throw new IllegalArgumentException("IP: malformed fragment");
+        }
+        this.expire(now);
+
+        Key key = this.probe;
+        key.addresses = ((long) header.getSource() << 32) | (header.getDestination() & 0xFFFFFFFFL);
+        key.datagram  = (header.getIdentification() << 16) | header.getProtocol();
+        Datagram datagram = this.pending.get(key);
+        if (datagram == null) {
+            datagram = new Datagram(now, more ? Math.min(MAX_PAYLOAD, end * 2) : end);
+            this.pending.put(new Key(key), datagram);
+            this.memory += datagram.data.length;
+        }
+
+        if (!more) {
+            if ((datagram.total >= 0 && datagram.total != end) || datagram.highest > end) {
+                this.drop(key, datagram, "inconsistent length");
+                return null;
+            }
+            datagram.total = end;
+        } else if (datagram.total >= 0 && end > datagram.total) {
+            this.drop(key, datagram, "fragment past the end");
+            return null;
+        }
+        if (end > datagram.data.length) {
+            int capacity = datagram.total >= 0 ? datagram.total
+                                               : Math.min(MAX_PAYLOAD, Math.max(end, datagram.data.length * 2));
+            this.memory += capacity - datagram.data.length;
+            datagram.data   = Arrays.copyOf(datagram.data, capacity);
+            datagram.blocks = Arrays.copyOf(datagram.blocks, (capacity + 511) >>> 9);
+        }
+        System.arraycopy(packets, at + headerLen, datagram.data, offset, length);
+        datagram.highest = Math.max(datagram.highest, end);
+        datagram.mark(offset >>> 3, (end + 7) >>> 3);
+
+        if (datagram.complete()) {
+            this.pending.remove(key);
+            this.memory -= datagram.data.length;
+            this.reassembled++;
+            REASSEMBLIES.increment();
+            byte[] data = datagram.data;
+            return data.length == datagram.total ? data : Arrays.copyOf(data, datagram.total);
+        }
+        this.enforceBudget();
+        return null;
+    }
+
+    private void drop(Key key, Datagram datagram, String reason) {
+        this.pending.remove(key);
+        this.memory -= datagram.data.length;
+        logger.error("[" + CLS + "] dropped datagram: " + reason);
+    }
+
+    /**
+     * Evicts the oldest incomplete datagrams until the budget is met.
+     */
+    private void enforceBudget() {
+        Iterator<Datagram> oldest = this.pending.values().iterator();
+        while (this.memory > this.memoryBudget && oldest.hasNext()) {
+            this.memory -= oldest.next().data.length;
+            oldest.remove();
+            this.evictions++;
+        }
+    }
+
+    /**
+     * Drops the incomplete datagrams older than the timeout.
+     *
+     * @param now the current simulation time
+     * @return the number of datagrams dropped
+     */
+    public int expire(long now) {
+        int expired = 0;
+        Iterator<Datagram> oldest = this.pending.values().iterator();
+        while (oldest.hasNext()) {
+            Datagram datagram = oldest.next();
+            if (now - datagram.created < this.timeout) {
+                break;
+            }
+            this.memory -= datagram.data.length;
+            oldest.remove();
+            expired++;
+        }
+        if (expired > 0) {
+            this.timeouts += expired;
+            int count = expired;
+            logger.debug(() -> "[" + CLS + "] " + count + " incomplete datagram(s) timed out");
+        }
+        return expired;
+    }
+
+    /**
+     * @return incomplete datagrams held
+     */
+    public int getPending() {
+        return this.pending.size();
+    }
+
+    /**
+     * @return bytes of buffers held by incomplete datagrams
+     */
+    public long getMemoryUsage() {
+        return this.memory;
+    }
+
+    /**
+     * @return datagrams delivered, unfragmented ones included
+     */
+    public long getReassembled() {
+        return this.reassembled;
+    }
+
+    /**
+     * @return incomplete datagrams dropped by the timeout
+     */
+    public long getTimeouts() {
+        return this.timeouts;
+    }
+
+    /**
+     * @return incomplete datagrams dropped to stay within the memory budget
+     */
+    public long getEvictions() {
+        return this.evictions;
+    }
+}
@@ -28,7 +28,7 @@ public final class VersionIHL {
             throw new IllegalArgumentException("VersionIHL: IHL must be 5…15");
         }
         this.b = (byte) ((version << 4) | (ihl & 0xF));
-        logger.info("[" + CLS + "] constructed byte=0x" + String.format("%02X", this.b));
+        logger.info(() -> "[" + CLS + "] constructed byte=0x" + String.format("%02X", this.b));
     }
 
     /**
@@ -38,7 +38,7 @@ public final class VersionIHL {
      */
     public int getVersion() {
         int version = (this.b >>> 4) & 0xF;
-        logger.debug("[" + CLS + "] getVersion() → " + version);
+        logger.debug(() -> "[" + CLS + "] getVersion() → " + version);
         return version;
     }
 
@@ -49,7 +49,7 @@ public final class VersionIHL {
      */
     public int getIhl() {
         int ihl = this.b & 0xF;
-        logger.debug("[" + CLS + "] getIhl() → " + ihl);
+        logger.debug(() -> "[" + CLS + "] getIhl() → " + ihl);
         return ihl;
     }
 
@@ -59,7 +59,7 @@ public final class VersionIHL {
      * @return the byte combining version and IHL
      */
     public byte toByte() {
-        logger.debug("[" + CLS + "] toByte() → 0x" + String.format("%02X", this.b));
+        logger.debug(() -> "[" + CLS + "] toByte() → 0x" + String.format("%02X", this.b));
         return this.b;
     }
 
@@ -73,7 +73,7 @@ public final class VersionIHL {
     public static VersionIHL fromByte(byte raw) throws IllegalArgumentException {
         int version = (raw >>> 4) & 0xF;
         int ihl     = raw & 0xF;
-        logger.debug("[" + CLS + "] fromByte(raw=0x" + String.format("%02X", raw) +
+        logger.debug(() -> "[" + CLS + "] fromByte(raw=0x" + String.format("%02X", raw) +
                      ") → version=" + version + ", IHL=" + ihl);
         return new VersionIHL(version, ihl);
     }
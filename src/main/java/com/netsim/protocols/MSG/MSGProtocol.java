@@ -1,5 +1,9 @@
 package com.netsim.protocols.MSG;
 
+import com.netsim.metrics.Counter;
+import com.netsim.metrics.MetricsRegistry;
+import com.netsim.networkstack.PacketBuffer;
+import com.netsim.networkstack.PacketBufferPool;
 import com.netsim.networkstack.Protocol;
 import com.netsim.addresses.Address;
 import com.netsim.addresses.Port;
@@ -18,10 +22,13 @@ import java.util.Objects;
 public class MSGProtocol implements Protocol {
     private static final Logger logger = Logger.getInstance();
     private static final String CLS    = MSGProtocol.class.getSimpleName();
+    private static final Counter ENCAPSULATIONS = MetricsRegistry.getInstance().counter("protocol." + CLS + ".encapsulations");
+
     private final static int    port   = 9696;
 
     private static final int MAX_HEADER_LENGTH = 20;
     private final String name;
+    private final byte[] header;
 
     /**
      * Constructs a new MSGProtocol instance.
@@ -30,7 +37,7 @@ public class MSGProtocol implements Protocol {
      * @throws IllegalArgumentException if name is null or too long
      */
     public MSGProtocol(String name) throws IllegalArgumentException {
-        logger.info("[" + CLS + "] constructing with name=\"" + name + "\"");
+        logger.info(() -> "[" + CLS + "] constructing with name=\"" + name + "\"");
         if (name == null) {
             logger.error("[" + CLS + "] name cannot be null");
             throw new IllegalArgumentException("MSGProtocol: name cannot be null");
@@ -39,7 +46,8 @@ public class MSGProtocol implements Protocol {
             logger.error("[" + CLS + "] name is too long: " + name.length() + " > " + MAX_HEADER_LENGTH);
             throw new IllegalArgumentException("MSGProtocol: name is too long (max " + MAX_HEADER_LENGTH + " chars)");
         }
-        this.name = name;
+        this.name   = name;
+        this.header = (name + ": ").getBytes(StandardCharsets.UTF_8);
     }
 
     /**
@@ -51,7 +59,7 @@ public class MSGProtocol implements Protocol {
      */
     @Override
     public byte[] encapsulate(byte[] upperLayerPDU) throws IllegalArgumentException {
-        logger.debug("[" + CLS + "] encapsulate called, payload length=" +
+        logger.debug(() -> "[" + CLS + "] encapsulate called, payload length=" +
                      (upperLayerPDU == null ? "null" : upperLayerPDU.length));
         if (upperLayerPDU == null || upperLayerPDU.length == 0) {
             logger.error("[" + CLS + "] payload cannot be null or empty");
@@ -61,7 +69,8 @@ public class MSGProtocol implements Protocol {
         String message = new String(upperLayerPDU, StandardCharsets.UTF_8);
         String framed  = this.name + ": " + message;
         byte[] out     = framed.getBytes(StandardCharsets.UTF_8);
-        logger.info("[" + CLS + "] encapsulated length=" + out.length);
+        logger.info(() -> "[" + CLS + "] encapsulated length=" + out.length);
+        ENCAPSULATIONS.increment();
         return out;
     }
 
@@ -74,7 +83,7 @@ public class MSGProtocol implements Protocol {
      */
     @Override
     public byte[] decapsulate(byte[] lowerLayerPDU) throws IllegalArgumentException {
-        logger.debug("[" + CLS + "] decapsulate called, input length=" +
+        logger.debug(() -> "[" + CLS + "] decapsulate called, input length=" +
                      (lowerLayerPDU == null ? "null" : lowerLayerPDU.length));
         if (lowerLayerPDU == null || lowerLayerPDU.length == 0) {
             logger.error("[" + CLS + "] input cannot be null or empty");
@@ -90,10 +99,72 @@ public class MSGProtocol implements Protocol {
 
         String message = full.substring(prefix.length());
         byte[] out     = message.getBytes(StandardCharsets.UTF_8);
-        logger.info("[" + CLS + "] decapsulated length=" + out.length);
+        logger.info(() -> "[" + CLS + "] decapsulated length=" + out.length);
         return out;
     }
 
+    /**
+     * Prefixes "name: " to the payload in the buffer's headroom.
+     *
+     * @param packet the application payload (non-null, non-empty)
+     * @throws IllegalArgumentException if packet is null or empty
+     */
+    @Override
+    public void encapsulateInPlace(PacketBuffer packet) throws IllegalArgumentException {
+        if (packet == null || packet.length() == 0) {
+            logger.error("[" + CLS + "] payload cannot be null or empty");
+            throw new IllegalArgumentException("MSGProtocol: payload cannot be null or empty");
+        }
+        packet.push(this.header.length);
+        packet.putBytes(0, this.header);
+        logger.info(() -> "[" + CLS + "] encapsulated length=" + packet.length());
+        ENCAPSULATIONS.increment();
+    }
+
+    /**
+     * Builds a message in a pooled buffer: the payload behind the "name: "
+     * prefix, with {@link PacketBuffer#DEFAULT_HEADROOM} left in front for
+     * the headers of the layers below.
+     *
+     * @param upperLayerPDU the application payload bytes (non-null, non-empty)
+     * @return a buffer holding one reference to the message
+     * @throws IllegalArgumentException if payload is null or empty
+     */
+    public PacketBuffer encapsulateInBuffer(byte[] upperLayerPDU) throws IllegalArgumentException {
+        if (upperLayerPDU == null || upperLayerPDU.length == 0) {
+            logger.error("[" + CLS + "] payload cannot be null or empty");
+            throw new IllegalArgumentException("MSGProtocol: payload cannot be null or empty");
+        }
+        PacketBuffer packet = PacketBufferPool.getInstance()
+            .acquire(upperLayerPDU, PacketBuffer.DEFAULT_HEADROOM + this.header.length);
+        this.encapsulateInPlace(packet);
+        return packet;
+    }
+
+    /**
+     * Skips the "name: " prefix of the message in the buffer.
+     *
+     * @param packet the received message (non-null, non-empty)
+     * @throws IllegalArgumentException if packet is null, empty, or missing prefix
+     */
+    @Override
+    public void decapsulateInPlace(PacketBuffer packet) throws IllegalArgumentException {
+        if (packet == null || packet.length() == 0) {
+            logger.error("[" + CLS + "] input cannot be null or empty");
+            throw new IllegalArgumentException("MSGProtocol: input cannot be null or empty");
+        }
+        boolean matches = packet.length() >= this.header.length;
+        for (int i = 0; matches && i < this.header.length; i++) {
+            matches = packet.getUnsignedByte(i) == (this.header[i] & 0xFF);
+        }
+        if (!matches) {
+            logger.error("[" + CLS + "] missing prefix \"" + this.name + ": \"");
+            throw new IllegalArgumentException("MSGProtocol: expected prefix \"" + this.name + ": \"");
+        }
+        packet.pull(this.header.length);
+        logger.info(() -> "[" + CLS + "] decapsulated length=" + packet.length());
+    }
+
     /**
      * Retrieves the user name associated with this protocol.
      *
@@ -142,7 +213,7 @@ public class MSGProtocol implements Protocol {
         }
         MSGProtocol that = (MSGProtocol) obj;
         boolean eq = Objects.equals(this.name, that.name);
-        logger.debug("[" + CLS + "] equals() → " + eq);
+        logger.debug(() -> "[" + CLS + "] equals() → " + eq);
         return eq;
     }
 
@@ -154,7 +225,7 @@ public class MSGProtocol implements Protocol {
     @Override
     public int hashCode() {
         int h = Objects.hash(this.name);
-        logger.debug("[" + CLS + "] hashCode() = " + h);
+        logger.debug(() -> "[" + CLS + "] hashCode() = " + h);
         return h;
     }
 
@@ -165,7 +236,7 @@ public class MSGProtocol implements Protocol {
      */
     @Override
     public Protocol copy() {
-        logger.info("[" + CLS + "] copying protocol instance");
+        logger.info(() -> "[" + CLS + "] copying protocol instance");
         return new MSGProtocol(this.name);
     }
 }
\ No newline at end of file
@@ -0,0 +1,139 @@
+package com.netsim.protocols.SimpleDLL;
+
+import com.netsim.addresses.Mac;
+import com.netsim.networkstack.PacketBuffer;
+import com.netsim.utils.Logger;
+
+/**
+ * Reads the addresses and EtherType of a {@link SimpleDLLProtocol} header
+ * where it lies in an array, the addresses as packed longs (see
+ * {@link Mac#toLong()}), so a frame can be filtered, switched or
+ * demultiplexed without building a {@link Mac}. A view is a
+ * reusable flyweight: {@link #wrap(byte[], int, int)} points it at a
+ * header and the getters read that header until the view is wrapped again.
+ */
+public final class DLLHeaderView {
+    private static final Logger logger = Logger.getInstance();
+    private static final String CLS    = DLLHeaderView.class.getSimpleName();
+
+    /** Length of the header: destination MAC, source MAC, then EtherType. */
+    public static final int HEADER_LEN = 14;
+
+    private byte[] data;
+    private int    offset;
+
+    /**
+     * Points the view at the header of the frame starting at an index.
+     *
+     * @param data   the array holding the frame (non‐null)
+     * @param offset the index of the header's first byte
+     * @param length the bytes available from {@code offset}
+     * @return this view
+     * @throws IllegalArgumentException if data is null or holds less than a header
+     */
+    public DLLHeaderView wrap(byte[] data, int offset, int length) throws IllegalArgumentException {
+        if (data == null || offset < 0 || length < HEADER_LEN || offset + length > data.length) {
+            logger.error("[" + CLS + "] truncated header");
+            throw new IllegalArgumentException(CLS + ": truncated header");
+        }
+        this.data   = data;
+        this.offset = offset;
+        return this;
+    }
+
+    /**
+     * Points the view at the header of the frame held in a buffer.
+     *
+     * @param frame the frame, header first (non‐null)
+     * @return this view
+     * @throws IllegalArgumentException if frame is null or too short
+     */
+    public DLLHeaderView wrap(PacketBuffer frame) throws IllegalArgumentException {
+        if (frame == null) {
+            logger.error("[" + CLS + "] frame cannot be null");
+            throw new IllegalArgumentException(CLS + ": frame cannot be null");
+        }
+        return this.wrap(frame.array(), frame.offset(), frame.length());
+    }
+
+    /**
+     * @return the index of the header's first byte in the wrapped array
+     */
+    public int getOffset() {
+        return this.offset;
+    }
+
+    /**
+     * @return the destination MAC, packed
+     */
+    public long getDestination() {
+        return readDestination(this.data, this.offset);
+    }
+
+    /**
+     * @return the source MAC, packed
+     */
+    public long getSource() {
+        return readSource(this.data, this.offset);
+    }
+
+    /**
+     * @return the EtherType naming the payload, e.g.
+     *         {@link SimpleDLLProtocol#ETHERTYPE_IPV4}
+     */
+    public int getEtherType() {
+        return readEtherType(this.data, this.offset);
+    }
+
+    /**
+     * @return true if the frame is addressed to every station
+     */
+    public boolean isBroadcast() {
+        return this.getDestination() == Mac.BROADCAST_BITS;
+    }
+
+    /**
+     * @param mac a station's address (non‐null)
+     * @return true if the frame is addressed to that station or broadcast
+     */
+    public boolean isFor(Mac mac) {
+        long destination = this.getDestination();
+        return destination == mac.toLong() || destination == Mac.BROADCAST_BITS;
+    }
+
+    /**
+     * Reads the destination MAC of a header without a view. The caller
+     * checks the bounds.
+     *
+     * @param data   the array holding the header
+     * @param offset the index of the header's first byte
+     * @return the packed destination MAC
+     */
+    public static long readDestination(byte[] data, int offset) {
+        return Mac.toLong(data, offset);
+    }
+
+    /**
+     * Reads the source MAC of a header without a view. The caller checks
+     * the bounds.
+     *
+     * @param data   the array holding the header
+     * @param offset the index of the header's first byte
+     * @return the packed source MAC
+     */
+    public static long readSource(byte[] data, int offset) {
+        return Mac.toLong(data, offset + 6);
+    }
+
+    /**
+     * Reads the EtherType of a header without a view. The caller checks the
+     * bounds.
+     *
+     * @param data   the array holding the header
+     * @param offset the index of the header's first byte
+     * @return the EtherType
+     */
+    public static int readEtherType(byte[] data, int offset) {
+        return ((data[offset + 12] & 0xFF) << 8) | (data[offset + 13] & 0xFF);
+    }
+}
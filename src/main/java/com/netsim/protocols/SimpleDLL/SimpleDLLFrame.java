@@ -8,16 +8,17 @@ import java.nio.ByteBuffer;
 
 /**
  * A simple Data Link Layer frame that prepends destination and source MAC addresses
- * to an encapsulated PDU payload.
+ * and an EtherType to an encapsulated PDU payload.
  */
 public final class SimpleDLLFrame extends PDU {
     private static final Logger logger = Logger.getInstance();
     private static final String CLS    = SimpleDLLFrame.class.getSimpleName();
 
     private final byte[] payload;
+    private final int    etherType;
 
     /**
-     * Constructs a new SimpleDLLFrame.
+     * Constructs a new SimpleDLLFrame carrying an IPv4 payload.
      *
      * @param srcMac  the source MAC address (non-null)
      * @param dstMac  the destination MAC address (non-null)
@@ -25,6 +26,19 @@ public final class SimpleDLLFrame extends PDU {
      * @throws IllegalArgumentException if any argument is null or empty
      */
     public SimpleDLLFrame(Mac srcMac, Mac dstMac, byte[] payload) throws IllegalArgumentException {
+        this(srcMac, dstMac, SimpleDLLProtocol.ETHERTYPE_IPV4, payload);
+    }
+
+    /**
+     * Constructs a new SimpleDLLFrame.
+     *
+     * @param srcMac    the source MAC address (non-null)
+     * @param dstMac    the destination MAC address (non-null)
+     * @param etherType the type of the payload (0–65535)
+     * @param payload   the encapsulated PDU bytes (non-null, non-empty)
+     * @throws IllegalArgumentException if any argument is null or empty, or etherType is out of range
+     */
+    public SimpleDLLFrame(Mac srcMac, Mac dstMac, int etherType, byte[] payload) throws IllegalArgumentException {
         super(srcMac, dstMac);
         if (srcMac == null) {
             logger.error("[" + CLS + "] srcMac cannot be null");
@@ -38,28 +52,40 @@ public final class SimpleDLLFrame extends PDU {
             logger.error("[" + CLS + "] payload cannot be null or empty");
             throw new IllegalArgumentException("SimpleDLLFrame: payload cannot be null or empty");
         }
-        this.payload = payload.clone();
-        logger.info("[" + CLS + "] constructed with payload length=" + this.payload.length);
+        if (etherType < 0 || etherType > 0xFFFF) {
+            logger.error("[" + CLS + "] invalid EtherType " + etherType);
+            throw new IllegalArgumentException("SimpleDLLFrame: EtherType must be 0–65535");
+        }
+        this.payload   = payload.clone();
+        this.etherType = etherType;
+        logger.info(() -> "[" + CLS + "] constructed with payload length=" + this.payload.length);
     }
 
     /**
      * Builds the Data Link header consisting of:
-     * [6 bytes destination MAC][6 bytes source MAC]
+     * [6 bytes destination MAC][6 bytes source MAC][2 bytes EtherType]
      *
-     * @return a 12-byte header array
+     * @return a 14-byte header array
      */
     @Override
     public byte[] getHeader() {
-        logger.debug("[" + CLS + "] getHeader()");
+        logger.debug(() -> "[" + CLS + "] getHeader()");
         byte[] dstBytes = this.destination.byteRepresentation();
         byte[] srcBytes = this.source.byteRepresentation();
-        ByteBuffer buf = ByteBuffer.allocate(dstBytes.length + srcBytes.length);
-        buf.put(dstBytes).put(srcBytes);
+        ByteBuffer buf = ByteBuffer.allocate(dstBytes.length + srcBytes.length + 2);
+        buf.put(dstBytes).put(srcBytes).putShort((short) this.etherType);
         byte[] header = buf.array();
-        logger.debug("[" + CLS + "] header built, length=" + header.length);
+        logger.debug(() -> "[" + CLS + "] header built, length=" + header.length);
         return header;
     }
 
+    /**
+     * @return the EtherType naming the payload
+     */
+    public int getEtherType() {
+        return this.etherType;
+    }
+
     /**
      * Serializes the entire frame: header || payload.
      *
@@ -67,13 +93,13 @@ public final class SimpleDLLFrame extends PDU {
      */
     @Override
     public byte[] toByte() {
-        logger.debug("[" + CLS + "] toByte()");
+        logger.debug(() -> "[" + CLS + "] toByte()");
         byte[] header = this.getHeader();
         byte[] body   = this.payload;
         ByteBuffer buf = ByteBuffer.allocate(header.length + body.length);
         buf.put(header).put(body);
         byte[] frame = buf.array();
-        logger.info("[" + CLS + "] serialized frame, total length=" + frame.length);
+        logger.info(() -> "[" + CLS + "] serialized frame, total length=" + frame.length);
         return frame;
     }
 }
\ No newline at end of file
@@ -1,31 +1,62 @@
 package com.netsim.protocols.SimpleDLL;
 
 import java.io.ByteArrayOutputStream;
-import java.util.Arrays;
 
 import com.netsim.addresses.Mac;
+import com.netsim.metrics.Counter;
+import com.netsim.metrics.MetricsRegistry;
+import com.netsim.networkstack.PacketBuffer;
 import com.netsim.networkstack.Protocol;
 import com.netsim.utils.Logger;
 
 /**
  * A Data Link Layer protocol that fragments or reassembles raw IP packets
  * into Ethernet‐like frames using MAC addresses.
+ * <p>
+ * Each frame carries an EtherType after its MACs naming its payload, so a
+ * receiver unframes it from the bytes alone (see
+ * {@link #unframe(PacketBuffer)}). IPv4 payloads may be several
+ * concatenated packets, framed one per packet; any other payload, such as
+ * an ARP message, is carried whole in a single frame.
+ * </p>
  */
 public class SimpleDLLProtocol implements Protocol {
     private static final Logger logger = Logger.getInstance();
     private static final String CLS    = SimpleDLLProtocol.class.getSimpleName();
 
+    /** EtherType of frames carrying IPv4 packets. */
+    public static final int ETHERTYPE_IPV4 = 0x0800;
+    /** EtherType of frames carrying ARP messages. */
+    public static final int ETHERTYPE_ARP  = 0x0806;
+
+    private static final int     HEADER_LEN     = DLLHeaderView.HEADER_LEN;
+    private static final Counter ENCAPSULATIONS = MetricsRegistry.getInstance().counter("protocol." + CLS + ".encapsulations");
+
     private final Mac source;
     private final Mac destination;
+    private final int etherType;
 
     /**
-     * Constructs a new SimpleDLLProtocol.
+     * Constructs a new SimpleDLLProtocol framing IPv4 packets.
      *
      * @param source      the source MAC address (non-null)
      * @param destination the destination MAC address (non-null)
      * @throws IllegalArgumentException if either MAC is null
      */
     public SimpleDLLProtocol(Mac source, Mac destination) {
+        this(source, destination, ETHERTYPE_IPV4);
+    }
+
+    /**
+     * Constructs a new SimpleDLLProtocol framing payloads of a given type.
+     *
+     * @param source      the source MAC address (non-null)
+     * @param destination the destination MAC address (non-null)
+     * @param etherType   the EtherType written in each frame (0–65535), e.g.
+     *                    {@link #ETHERTYPE_IPV4} or {@link #ETHERTYPE_ARP}
+     * @throws IllegalArgumentException if either MAC is null or etherType is out of range
+     */
+    public SimpleDLLProtocol(Mac source, Mac destination, int etherType) {
         if (source == null) {
             logger.error("[" + CLS + "] source MAC cannot be null");
             throw new IllegalArgumentException("SimpleDLLProtocol: source MAC cannot be null");
@@ -34,16 +65,41 @@ public class SimpleDLLProtocol implements Protocol {
             logger.error("[" + CLS + "] destination MAC cannot be null");
             throw new IllegalArgumentException("SimpleDLLProtocol: destination MAC cannot be null");
         }
+        if (etherType < 0 || etherType > 0xFFFF) {
+            logger.error("[" + CLS + "] invalid EtherType " + etherType);
+            throw new IllegalArgumentException("SimpleDLLProtocol: EtherType must be 0–65535");
+        }
         this.source      = source;
         this.destination = destination;
-        logger.info("[" + CLS + "] instantiated with src=" + this.source.stringRepresentation()
-                    + " dst=" + this.destination.stringRepresentation());
+        this.etherType   = etherType;
+        logger.info(() -> "[" + CLS + "] instantiated with src=" + this.source.stringRepresentation()
+                    + " dst=" + this.destination.stringRepresentation()
+                    + " type=0x" + Integer.toHexString(this.etherType));
+    }
+
+    /**
+     * @return the EtherType this protocol writes in its frames
+     */
+    public int getEtherType() {
+        return this.etherType;
+    }
+
+    private void writeHeader(byte[] frame, int at) {
+        this.destination.copyTo(frame, at);
+        this.source.copyTo(frame, at + 6);
+        frame[at + 12] = (byte) (this.etherType >>> 8);
+        frame[at + 13] = (byte) this.etherType;
     }
 
     /**
-     * Encapsulates one or more concatenated IP packets into DLL frames.
+     * Encapsulates a payload into DLL frames: one frame per packet when
+     * the EtherType is IPv4, a single frame otherwise.
+     * <p>
+     * The packets are measured first, so the frames are written straight
+     * into one array of the final size.
+     * </p>
      *
-     * @param ipPackets the raw IP packet bytes (non-null, non-empty)
+     * @param ipPackets the payload bytes (non-null, non-empty)
      * @return DLL‐framed bytes
      * @throws IllegalArgumentException if ipPackets is null/empty or malformed
      */
@@ -53,53 +109,92 @@ public class SimpleDLLProtocol implements Protocol {
             logger.error("[" + CLS + "] encapsulate: ipPackets cannot be null or empty");
             throw new IllegalArgumentException("SimpleDLLProtocol: ipPackets cannot be null or empty");
         }
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        int offset = 0;
-        while (offset < ipPackets.length) {
-            if (offset + 4 > ipPackets.length) {
-                logger.error("[" + CLS + "] encapsulate: truncated IP packet at offset " + offset);
-                throw new IllegalArgumentException("SimpleDLLProtocol: truncated IP packet");
-            }
-            int ihl         = ipPackets[offset] & 0x0F;
-            int headerBytes = ihl * 4;
-            if (ihl < 5 || offset + headerBytes > ipPackets.length) {
-                logger.error("[" + CLS + "] encapsulate: invalid IHL or incomplete header");
-                throw new IllegalArgumentException("SimpleDLLProtocol: invalid IHL or incomplete header");
-            }
-            int totalLen = ((ipPackets[offset + 2] & 0xFF) << 8)
-                         |  (ipPackets[offset + 3] & 0xFF);
-            if (totalLen < headerBytes || offset + totalLen > ipPackets.length) {
-                logger.error("[" + CLS + "] encapsulate: invalid total length=" + totalLen);
-                throw new IllegalArgumentException("SimpleDLLProtocol: invalid total length");
-            }
-            byte[] ipPkt = Arrays.copyOfRange(ipPackets, offset, offset + totalLen);
-            SimpleDLLFrame frame = new SimpleDLLFrame(this.source, this.destination, ipPkt);
-            out.write(frame.toByte(), 0, frame.toByte().length);
-            logger.debug("[" + CLS + "] encapsulate: framed IP packet length=" + totalLen);
-            offset += totalLen;
+        boolean split = this.etherType == ETHERTYPE_IPV4;
+        int frames = 0;
+        for (int offset = 0; offset < ipPackets.length; frames++) {
+            offset += split ? packetLength(ipPackets, offset) : ipPackets.length;
         }
-        byte[] result = out.toByteArray();
-        logger.info("[" + CLS + "] encapsulate: produced " + result.length + " bytes");
+        byte[] result = new byte[ipPackets.length + HEADER_LEN * frames];
+        int out = 0;
+        for (int offset = 0; offset < ipPackets.length; ) {
+            int length = split ? packetLength(ipPackets, offset) : ipPackets.length;
+            this.writeHeader(result, out);
+            System.arraycopy(ipPackets, offset, result, out + HEADER_LEN, length);
+            logger.debug(() -> "[" + CLS + "] encapsulate: framed packet length=" + length);
+            offset += length;
+            out    += HEADER_LEN + length;
+        }
+        logger.info(() -> "[" + CLS + "] encapsulate: produced " + result.length + " bytes");
+        ENCAPSULATIONS.increment();
         return result;
     }
 
     /**
-     * Decapsulates DLL frames to extract concatenated IP packets.
+     * Measures the IPv4 packet starting at an offset by its total length.
+     *
+     * @param ipPackets concatenated packets
+     * @param offset    start of the packet
+     * @return the packet length
+     * @throws IllegalArgumentException if the IPv4 header is malformed
+     */
+    private static int packetLength(byte[] ipPackets, int offset) throws IllegalArgumentException {
+        if (offset + 4 > ipPackets.length) {
+            logger.error("[" + CLS + "] encapsulate: truncated IP packet at offset " + offset);
+            throw new IllegalArgumentException("SimpleDLLProtocol: truncated IP packet");
+        }
+        int ihl         = ipPackets[offset] & 0x0F;
+        int headerBytes = ihl * 4;
+        if ((ipPackets[offset] & 0xF0) != 0x40 || ihl < 5 || offset + headerBytes > ipPackets.length) {
+            logger.error("[" + CLS + "] encapsulate: invalid IHL or incomplete header");
+            throw new IllegalArgumentException("SimpleDLLProtocol: invalid IHL or incomplete header");
+        }
+        int totalLen = ((ipPackets[offset + 2] & 0xFF) << 8)
+                     |  (ipPackets[offset + 3] & 0xFF);
+        if (totalLen < headerBytes || offset + totalLen > ipPackets.length) {
+            logger.error("[" + CLS + "] encapsulate: invalid total length=" + totalLen);
+            throw new IllegalArgumentException("SimpleDLLProtocol: invalid total length");
+        }
+        return totalLen;
+    }
+
+    /**
+     * Decapsulates DLL frames, whatever protocol instance framed them; see
+     * {@link #unframe(byte[])}.
      *
-     * @param frames the raw DLL‐framed bytes (non-null, length ≥12)
-     * @return concatenated IP packet bytes
+     * @param frames the raw DLL‐framed bytes (non-null, length ≥14)
+     * @return the payload bytes
      * @throws IllegalArgumentException if frames is null, too short, or malformed
      */
     @Override
     public byte[] decapsulate(byte[] frames) {
-        if (frames == null || frames.length < 12) {
+        return unframe(frames);
+    }
+
+    /**
+     * Extracts the payload of DLL frames, reading each frame's EtherType:
+     * IPv4 frames are measured by the packet's total length and their
+     * packets concatenated, while a frame of any other type runs to the
+     * end of the array.
+     *
+     * @param frames the raw DLL‐framed bytes (non-null, length ≥14)
+     * @return the payload bytes
+     * @throws IllegalArgumentException if frames is null, too short, or malformed
+     */
+    public static byte[] unframe(byte[] frames) throws IllegalArgumentException {
+        if (frames == null || frames.length < HEADER_LEN) {
             logger.error("[" + CLS + "] decapsulate: frames too short");
             throw new IllegalArgumentException("SimpleDLLProtocol: frames too short");
         }
         ByteArrayOutputStream out = new ByteArrayOutputStream();
         int offset = 0;
-        while (offset + 12 <= frames.length) {
-            int ipOffset    = offset + 12;
+        while (offset + HEADER_LEN <= frames.length) {
+            int ipOffset = offset + HEADER_LEN;
+            if (DLLHeaderView.readEtherType(frames, offset) != ETHERTYPE_IPV4) {
+                out.write(frames, ipOffset, frames.length - ipOffset);
+                logger.debug(() -> "[" + CLS + "] decapsulate: extracted non-IP payload length="
+                             + (frames.length - ipOffset));
+                break;
+            }
             if (ipOffset + 4 > frames.length) {
                 logger.error("[" + CLS + "] decapsulate: truncated IP header at offset " + ipOffset);
                 throw new IllegalArgumentException("SimpleDLLProtocol: truncated IP header");
@@ -117,14 +212,81 @@ public class SimpleDLLProtocol implements Protocol {
                 throw new IllegalArgumentException("SimpleDLLProtocol: invalid total length");
             }
             out.write(frames, ipOffset, totalLen);
-            logger.debug("[" + CLS + "] decapsulate: extracted IP packet length=" + totalLen);
-            offset += 12 + totalLen;
+            logger.debug(() -> "[" + CLS + "] decapsulate: extracted IP packet length=" + totalLen);
+            offset += HEADER_LEN + totalLen;
         }
         byte[] result = out.toByteArray();
-        logger.info("[" + CLS + "] decapsulate: reassembled " + result.length + " bytes");
+        logger.info(() -> "[" + CLS + "] decapsulate: reassembled " + result.length + " bytes");
         return result;
     }
 
+    /**
+     * Prepends the MAC header in the buffer's headroom when it holds a
+     * single IP packet or a non-IP payload; several packets are framed by
+     * copying, as in {@link #encapsulate(byte[])}.
+     *
+     * @param packet the payload bytes (non-null, non-empty)
+     * @throws IllegalArgumentException if packet is null/empty or malformed
+     */
+    @Override
+    public void encapsulateInPlace(PacketBuffer packet) {
+        if (packet == null || packet.length() == 0) {
+            logger.error("[" + CLS + "] encapsulate: ipPackets cannot be null or empty");
+            throw new IllegalArgumentException("SimpleDLLProtocol: ipPackets cannot be null or empty");
+        }
+        if (this.etherType == ETHERTYPE_IPV4
+            && (packet.length() < 4
+                || (packet.getUnsignedByte(0) & 0xF0) != 0x40
+                || (packet.getUnsignedByte(0) & 0x0F) < 5
+                || packet.getUnsignedShort(2) != packet.length())) {
+            Protocol.super.encapsulateInPlace(packet);
+            return;
+        }
+        int start = packet.push(HEADER_LEN);
+        this.writeHeader(packet.array(), start);
+        logger.info(() -> "[" + CLS + "] encapsulate: produced " + packet.length() + " bytes");
+        ENCAPSULATIONS.increment();
+    }
+
+    /**
+     * Skips the MAC header; see {@link #unframe(PacketBuffer)}.
+     *
+     * @param packet the raw frame bytes (non-null, length ≥14)
+     * @throws IllegalArgumentException if packet is null, too short, or malformed
+     */
+    @Override
+    public void decapsulateInPlace(PacketBuffer packet) {
+        unframe(packet);
+    }
+
+    /**
+     * Skips the MAC header in place when the buffer holds a single frame or
+     * a frame that is not IPv4; several IPv4 frames are unpacked by copying,
+     * as in {@link #unframe(byte[])}. Only the frame's own bytes are read,
+     * so a receiver needs no protocol instance to call it.
+     *
+     * @param packet the raw frame bytes (non-null, length ≥14)
+     * @return the EtherType of the (first) frame
+     * @throws IllegalArgumentException if packet is null, too short, or malformed
+     */
+    public static int unframe(PacketBuffer packet) throws IllegalArgumentException {
+        if (packet == null || packet.length() < HEADER_LEN) {
+            logger.error("[" + CLS + "] decapsulate: frames too short");
+            throw new IllegalArgumentException("SimpleDLLProtocol: frames too short");
+        }
+        int type = packet.getUnsignedShort(12);
+        if (type == ETHERTYPE_IPV4
+            && (packet.length() < HEADER_LEN + 4
+                || (packet.getUnsignedByte(HEADER_LEN) & 0x0F) < 5
+                || packet.getUnsignedShort(HEADER_LEN + 2) != packet.length() - HEADER_LEN)) {
+            packet.replace(unframe(packet.toByteArray()));
+            return type;
+        }
+        packet.pull(HEADER_LEN);
+        logger.info(() -> "[" + CLS + "] decapsulate: reassembled " + packet.length() + " bytes");
+        return type;
+    }
+
     @Override
     public Mac getSource() {
         return this.source;
@@ -138,19 +300,18 @@ public class SimpleDLLProtocol implements Protocol {
     /**
      * Extracts the source MAC from a single DLL frame.
      *
-     * @param frame the raw frame bytes (non-null, length ≥12)
+     * @param frame the raw frame bytes (non-null, length ≥14)
      * @return the source MAC address
      * @throws IllegalArgumentException if frame is null or too short
      */
     @Override
     public Mac extractSource(byte[] frame) {
-        if (frame == null || frame.length < 12) {
+        if (frame == null || frame.length < HEADER_LEN) {
             logger.error("[" + CLS + "] extractSource: frame too short");
             throw new IllegalArgumentException("SimpleDLLProtocol: frame too short");
         }
-        byte[] srcBytes = Arrays.copyOfRange(frame, 6, 12);
-        Mac mac = Mac.bytesToMac(srcBytes);
-        logger.debug("[" + CLS + "] extractSource: " + mac.stringRepresentation());
+        Mac mac = Mac.valueOf(DLLHeaderView.readSource(frame, 0));
+        logger.debug(() -> "[" + CLS + "] extractSource: " + mac.stringRepresentation());
         return mac;
     }
 
@@ -167,20 +328,19 @@ public class SimpleDLLProtocol implements Protocol {
             logger.error("[" + CLS + "] extractDestination: frame too short");
             throw new IllegalArgumentException("SimpleDLLProtocol: frame too short");
         }
-        byte[] dstBytes = Arrays.copyOfRange(frame, 0, 6);
-        Mac mac = Mac.bytesToMac(dstBytes);
-        logger.debug("[" + CLS + "] extractDestination: " + mac.stringRepresentation());
+        Mac mac = Mac.valueOf(DLLHeaderView.readDestination(frame, 0));
+        logger.debug(() -> "[" + CLS + "] extractDestination: " + mac.stringRepresentation());
         return mac;
     }
 
     /**
      * Creates a copy of this protocol instance.
      *
-     * @return a new SimpleDLLProtocol with the same MAC addresses
+     * @return a new SimpleDLLProtocol with the same MAC addresses and EtherType
      */
     @Override
     public Protocol copy() {
-        logger.debug("[" + CLS + "] copy()");
-        return new SimpleDLLProtocol(this.source, this.destination);
+        logger.debug(() -> "[" + CLS + "] copy()");
+        return new SimpleDLLProtocol(this.source, this.destination, this.etherType);
     }
 }
\ No newline at end of file
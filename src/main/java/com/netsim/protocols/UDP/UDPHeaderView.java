@@ -0,0 +1,145 @@
+package com.netsim.protocols.UDP;
+
+import com.netsim.networkstack.PacketBuffer;
+import com.netsim.utils.Logger;
+
+/**
+ * Reads the fields of a UDP header where it lies in an array, without
+ * building {@link com.netsim.addresses.Port}s or a {@link UDPSegment}. A
+ * view is a reusable flyweight: {@link #wrap(byte[], int, int)} points it
+ * at a header and the getters read that header until the view is wrapped
+ * again.
+ * <p>
+ * The layout is the one {@link UDPProtocol} writes: source port,
+ * destination port, sequence number and the segment length in bits, each
+ * 16 bits wide.
+ * </p>
+ */
+public final class UDPHeaderView {
+    private static final Logger logger = Logger.getInstance();
+    private static final String CLS    = UDPHeaderView.class.getSimpleName();
+
+    /** Length of the header. */
+    public static final int HEADER_LEN = 8;
+
+    private byte[] data;
+    private int    offset;
+
+    /**
+     * Points the view at the header of the segment starting at an index.
+     *
+     * @param data   the array holding the segment (non‐null)
+     * @param offset the index of the header's first byte
+     * @param length the bytes available from {@code offset}
+     * @return this view
+     * @throws IllegalArgumentException if data is null or holds less than a header
+     */
+    public UDPHeaderView wrap(byte[] data, int offset, int length) throws IllegalArgumentException {
+        if (data == null || offset < 0 || length < HEADER_LEN || offset + length > data.length) {
+            logger.error("[" + CLS + "] truncated header");
+            throw new IllegalArgumentException(CLS + ": truncated header");
+        }
+        this.data   = data;
+        this.offset = offset;
+        return this;
+    }
+
+    /**
+     * Points the view at the header of the segment held in a buffer.
+     *
+     * @param segment the segment, header first (non‐null)
+     * @return this view
+     * @throws IllegalArgumentException if segment is null or too short
+     */
+    public UDPHeaderView wrap(PacketBuffer segment) throws IllegalArgumentException {
+        if (segment == null) {
+            logger.error("[" + CLS + "] segment cannot be null");
+            throw new IllegalArgumentException(CLS + ": segment cannot be null");
+        }
+        return this.wrap(segment.array(), segment.offset(), segment.length());
+    }
+
+    /**
+     * @return the index of the header's first byte in the wrapped array
+     */
+    public int getOffset() {
+        return this.offset;
+    }
+
+    /**
+     * @return the source port number
+     */
+    public int getSourcePort() {
+        return readSourcePort(this.data, this.offset);
+    }
+
+    /**
+     * @return the destination port number
+     */
+    public int getDestinationPort() {
+        return readDestinationPort(this.data, this.offset);
+    }
+
+    /**
+     * @return the sequence number of the segment
+     */
+    public int getSequenceNumber() {
+        return readShort(this.data, this.offset + 4);
+    }
+
+    /**
+     * @return the length field, in bits, as written on the wire
+     */
+    public int getLengthBits() {
+        return readShort(this.data, this.offset + 6);
+    }
+
+    /**
+     * @return the length of the segment in bytes, header included
+     */
+    public int getLength() {
+        return this.getLengthBits() / Byte.SIZE;
+    }
+
+    /**
+     * @return the length of the payload in bytes
+     */
+    public int getPayloadLength() {
+        return this.getLength() - HEADER_LEN;
+    }
+
+    /**
+     * @return the index of the payload's first byte in the wrapped array
+     */
+    public int getPayloadOffset() {
+        return this.offset + HEADER_LEN;
+    }
+
+    /**
+     * Reads the source port of a header without a view. The caller checks
+     * the bounds.
+     *
+     * @param data   the array holding the header
+     * @param offset the index of the header's first byte
+     * @return the source port number
+     */
+    public static int readSourcePort(byte[] data, int offset) {
+        return readShort(data, offset);
+    }
+
+    /**
+     * Reads the destination port of a header without a view. The caller
+     * checks the bounds.
+     *
+     * @param data   the array holding the header
+     * @param offset the index of the header's first byte
+     * @return the destination port number
+     */
+    public static int readDestinationPort(byte[] data, int offset) {
+        return readShort(data, offset + 2);
+    }
+
+    private static int readShort(byte[] data, int at) {
+        return ((data[at] & 0xFF) << 8) | (data[at + 1] & 0xFF);
+    }
+}
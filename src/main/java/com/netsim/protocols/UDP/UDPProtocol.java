@@ -2,12 +2,12 @@ package com.netsim.protocols.UDP;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.nio.ByteBuffer;
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.List;
+import java.util.Arrays;
 
 import com.netsim.addresses.Port;
+import com.netsim.metrics.Counter;
+import com.netsim.metrics.MetricsRegistry;
+import com.netsim.networkstack.PacketBuffer;
 import com.netsim.networkstack.Protocol;
 import com.netsim.utils.Logger;
 
@@ -18,6 +18,10 @@ public class UDPProtocol implements Protocol {
     private static final Logger logger = Logger.getInstance();
     private static final String CLS    = UDPProtocol.class.getSimpleName();
 
+    private static final Counter ENCAPSULATIONS = MetricsRegistry.getInstance().counter("protocol." + CLS + ".encapsulations");
+
+    private static final int HEADER_LEN = 8;
+
     private final int   MSS;
     private final Port  sourcePort;
     private final Port  destinationPort;
@@ -31,7 +35,7 @@ public class UDPProtocol implements Protocol {
      * @throws IllegalArgumentException if MSS ≤ 0 or any port is null
      */
     public UDPProtocol(int MSS, Port source, Port destination) throws IllegalArgumentException {
-        logger.info("[" + CLS + "] constructing with MSS=" + MSS
+        logger.info(() -> "[" + CLS + "] constructing with MSS=" + MSS
                     + ", src=" + (source != null ? source : "null")
                     + ", dst=" + (destination != null ? destination : "null"));
         if (MSS <= 0) {
@@ -56,7 +60,7 @@ public class UDPProtocol implements Protocol {
      */
     @Override
     public byte[] encapsulate(byte[] upperLayerPDU) throws IllegalArgumentException {
-        logger.debug("[" + CLS + "] encapsulate called, payload length="
+        logger.debug(() -> "[" + CLS + "] encapsulate called, payload length="
                      + (upperLayerPDU == null ? "null" : upperLayerPDU.length));
         if (upperLayerPDU == null || upperLayerPDU.length == 0) {
             logger.error("[" + CLS + "] payload cannot be null or empty");
@@ -80,7 +84,7 @@ public class UDPProtocol implements Protocol {
 
             try {
                 baos.write(segment.toByte());
-                logger.debug("[" + CLS + "] wrote segment seq=" + (sequenceNumber - 1)
+                logger.debug(() -> "[" + CLS + "] wrote segment seq=" + segment.getSequenceNumber()
                              + ", payloadLen=" + len);
             } catch (IOException e) {
                 logger.error("[" + CLS + "] error during segment writing");
@@ -89,7 +93,8 @@ public class UDPProtocol implements Protocol {
         }
 
         byte[] out = baos.toByteArray();
-        logger.info("[" + CLS + "] encapsulated total length=" + out.length);
+        logger.info(() -> "[" + CLS + "] encapsulated total length=" + out.length);
+        ENCAPSULATIONS.increment();
         return out;
     }
 
@@ -102,88 +107,138 @@ public class UDPProtocol implements Protocol {
      */
     @Override
     public byte[] decapsulate(byte[] lowerLayerPDU) throws IllegalArgumentException {
-        logger.debug("[" + CLS + "] decapsulate called, input length="
+        logger.debug(() -> "[" + CLS + "] decapsulate called, input length="
                      + (lowerLayerPDU == null ? "null" : lowerLayerPDU.length));
         if (lowerLayerPDU == null || lowerLayerPDU.length == 0) {
             logger.error("[" + CLS + "] received empty data");
             throw new IllegalArgumentException("UDPProtocol: received empty data");
         }
 
-        List<UDPSegment> segments = parseSegments(lowerLayerPDU);
-        if (segments.isEmpty()) {
+        // sequence number in the high half, segment start in the low half,
+        // so sorting orders the segments and keeps arrival order for ties
+        UDPHeaderView header   = new UDPHeaderView();
+        long[]        segments = new long[lowerLayerPDU.length / HEADER_LEN];
+        int           count    = this.parseSegments(lowerLayerPDU, header, segments);
+        if (count == 0) {
             logger.error("[" + CLS + "] no valid segments found");
             throw new IllegalArgumentException("UDPProtocol: no valid segments found");
         }
+        Arrays.sort(segments, 0, count);
 
-        segments.sort(Comparator.comparingInt(UDPSegment::getSequenceNumber));
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        for (UDPSegment seg : segments) {
-            try {
-                baos.write(seg.getPayload());
-                logger.debug("[" + CLS + "] reassembled segment seq="
-                             + seg.getSequenceNumber()
-                             + ", payloadLen=" + seg.getPayload().length);
-            } catch (IOException e) {
-                logger.error("[" + CLS + "] error reassembling payload");
-                throw new RuntimeException("UDPProtocol: error reassembling payload", e);
-            }
+        int total = 0;
+        for (int i = 0; i < count; i++) {
+            total += header.wrap(lowerLayerPDU, (int) segments[i], lowerLayerPDU.length - (int) segments[i])
+                           .getPayloadLength();
         }
-
-        byte[] out = baos.toByteArray();
-        logger.info("[" + CLS + "] decapsulated total length=" + out.length);
+        byte[] out = new byte[total];
+        int    at  = 0;
+        for (int i = 0; i < count; i++) {
+            header.wrap(lowerLayerPDU, (int) segments[i], lowerLayerPDU.length - (int) segments[i]);
+            System.arraycopy(lowerLayerPDU, header.getPayloadOffset(), out, at, header.getPayloadLength());
+            at += header.getPayloadLength();
+        }
+        logger.info(() -> "[" + CLS + "] decapsulated total length=" + out.length);
         return out;
     }
 
     /**
-     * Parses raw bytes into individual UDPSegment objects.
+     * Prepends a UDP header in the buffer's headroom when the payload fits
+     * in one segment; larger payloads are segmented by copying, as in
+     * {@link #encapsulate(byte[])}.
      *
-     * @param data the concatenated segment bytes (non-null)
-     * @return list of UDPSegment instances (possibly empty)
+     * @param packet the payload (non-null, non-empty)
+     * @throws IllegalArgumentException if packet is null, empty, or too large to encode
+     */
+    @Override
+    public void encapsulateInPlace(PacketBuffer packet) throws IllegalArgumentException {
+        if (packet == null || packet.length() == 0) {
+            logger.error("[" + CLS + "] payload cannot be null or empty");
+            throw new IllegalArgumentException("UDPProtocol: payload cannot be null or empty");
+        }
+        if (packet.length() > this.MSS) {
+            Protocol.super.encapsulateInPlace(packet);
+            return;
+        }
+        int totalBits = (HEADER_LEN + packet.length()) * Byte.SIZE;
+        if (totalBits > Short.MAX_VALUE) {
+            logger.error("[" + CLS + "] segment too large: " + totalBits + " bits");
+            throw new IllegalArgumentException("UDPSegment: segment too large to encode length");
+        }
+        packet.push(HEADER_LEN);
+        packet.putShort(0, this.sourcePort.getPort());
+        packet.putShort(2, this.destinationPort.getPort());
+        packet.putShort(4, 0);
+        packet.putShort(6, totalBits);
+        logger.info(() -> "[" + CLS + "] encapsulated total length=" + packet.length());
+        ENCAPSULATIONS.increment();
+    }
+
+    /**
+     * Skips the UDP header when the buffer holds a single segment; several
+     * segments are reassembled by copying, as in {@link #decapsulate(byte[])}.
+     *
+     * @param packet the raw UDP segment bytes (non-null, non-empty)
+     * @throws IllegalArgumentException if packet is null, empty, or malformed
+     */
+    @Override
+    public void decapsulateInPlace(PacketBuffer packet) throws IllegalArgumentException {
+        if (packet == null || packet.length() == 0) {
+            logger.error("[" + CLS + "] received empty data");
+            throw new IllegalArgumentException("UDPProtocol: received empty data");
+        }
+        if (packet.length() <= HEADER_LEN
+            || packet.getUnsignedShort(6) != packet.length() * Byte.SIZE) {
+            Protocol.super.decapsulateInPlace(packet);
+            return;
+        }
+        packet.pull(HEADER_LEN);
+        logger.info(() -> "[" + CLS + "] decapsulated total length=" + packet.length());
+    }
+
+    /**
+     * Validates the segments held back to back in an array, reading their
+     * headers in place. Trailing bytes too short for a header are ignored.
+     *
+     * @param data     the concatenated segment bytes (non-null)
+     * @param header   the view to read the headers with
+     * @param segments receives, per segment, its sequence number shifted
+     *                 into the high 32 bits and its start index in the low ones
+     * @return segments found
      * @throws IllegalArgumentException if data is null or malformed
      */
-    private List<UDPSegment> parseSegments(byte[] data) throws IllegalArgumentException {
-        logger.debug("[" + CLS + "] parseSegments called, data length="
+    private int parseSegments(byte[] data, UDPHeaderView header, long[] segments) throws IllegalArgumentException {
+        logger.debug(() -> "[" + CLS + "] parseSegments called, data length="
                      + (data == null ? "null" : data.length));
         if (data == null) {
             logger.error("[" + CLS + "] null input to parseSegments");
             throw new IllegalArgumentException("UDPProtocol: null input");
         }
 
-        List<UDPSegment> list = new ArrayList<>();
-        ByteBuffer bb = ByteBuffer.wrap(data);
-        final int HEADER_LEN = 8;
-
-        while (bb.remaining() >= HEADER_LEN) {
-            byte[] header = new byte[HEADER_LEN];
-            bb.get(header);
-
-            ByteBuffer hbuf = ByteBuffer.wrap(header);
-            hbuf.position(6);
-            short lengthBits = hbuf.getShort();
-            if (lengthBits < HEADER_LEN * Byte.SIZE || (lengthBits % Byte.SIZE) != 0) {
+        int count = 0;
+        for (int at = 0; data.length - at >= HEADER_LEN; ) {
+            header.wrap(data, at, data.length - at);
+            int lengthBits = header.getLengthBits();
+            if (lengthBits < HEADER_LEN * Byte.SIZE || lengthBits > Short.MAX_VALUE
+                || (lengthBits % Byte.SIZE) != 0) {
                 logger.error("[" + CLS + "] invalid segment length: " + lengthBits);
                 throw new IllegalArgumentException("UDPProtocol: invalid segment length");
             }
-
-            int totalBytes   = lengthBits / Byte.SIZE;
-            int payloadBytes = totalBytes - HEADER_LEN;
-            if (payloadBytes > bb.remaining()) {
+            int payloadBytes = header.getPayloadLength();
+            if (payloadBytes > data.length - at - HEADER_LEN) {
                 logger.error("[" + CLS + "] truncated segment payload");
                 throw new IllegalArgumentException("UDPProtocol: truncated segment payload");
             }
-
-            byte[] fullSegment = new byte[totalBytes];
-            System.arraycopy(header, 0, fullSegment, 0, HEADER_LEN);
-            bb.get(fullSegment, HEADER_LEN, payloadBytes);
-
-            UDPSegment seg = UDPSegment.fromBytes(fullSegment);
-            list.add(seg);
-            logger.debug("[" + CLS + "] parsed segment seq="
-                         + seg.getSequenceNumber()
-                         + ", totalBytes=" + totalBytes);
+            if (payloadBytes == 0) {
+                logger.error("[" + CLS + "] empty segment payload");
+                throw new IllegalArgumentException("UDPSegment: payload must be non-null and non-empty");
+            }
+            int sequenceNumber = header.getSequenceNumber();
+            segments[count++] = ((long) sequenceNumber << 32) | at;
+            logger.debug(() -> "[" + CLS + "] parsed segment seq=" + sequenceNumber
+                         + ", totalBytes=" + (lengthBits / Byte.SIZE));
+            at += lengthBits / Byte.SIZE;
         }
-
-        return list;
+        return count;
     }
 
     /** @return the source port */
@@ -199,7 +254,8 @@ public class UDPProtocol implements Protocol {
      * Extracts the source port from a raw UDP segment.
      *
      * @param segment the raw segment bytes (non-null, length ≥4)
-     * @return the source Port
+     * @return the configured source Port if the header carries it, so the
+     *         common case builds nothing, otherwise the port in the header
      * @throws IllegalArgumentException if segment is null or too short
      */
     @Override
@@ -208,16 +264,17 @@ public class UDPProtocol implements Protocol {
             logger.error("[" + CLS + "] segment too short to extractSource");
             throw new IllegalArgumentException("UDPProtocol: segment too short");
         }
-        int src = ((segment[0] & 0xFF) << 8) | (segment[1] & 0xFF);
-        logger.debug("[" + CLS + "] extractSource port=" + src);
-        return new Port(Integer.toString(src));
+        int src = UDPHeaderView.readSourcePort(segment, 0);
+        logger.debug(() -> "[" + CLS + "] extractSource port=" + src);
+        return src == this.sourcePort.getPort() ? this.sourcePort : new Port(Integer.toString(src));
     }
 
     /**
      * Extracts the destination port from a raw UDP segment.
      *
      * @param segment the raw segment bytes (non-null, length ≥4)
-     * @return the destination Port
+     * @return the configured destination Port if the header carries it, so
+     *         the common case builds nothing, otherwise the port in the header
      * @throws IllegalArgumentException if segment is null or too short
      */
     @Override
@@ -226,9 +283,9 @@ public class UDPProtocol implements Protocol {
             logger.error("[" + CLS + "] segment too short to extractDestination");
             throw new IllegalArgumentException("UDPProtocol: segment too short");
         }
-        int dst = ((segment[2] & 0xFF) << 8) | (segment[3] & 0xFF);
-        logger.debug("[" + CLS + "] extractDestination port=" + dst);
-        return new Port(Integer.toString(dst));
+        int dst = UDPHeaderView.readDestinationPort(segment, 0);
+        logger.debug(() -> "[" + CLS + "] extractDestination port=" + dst);
+        return dst == this.destinationPort.getPort() ? this.destinationPort : new Port(Integer.toString(dst));
     }
 
     /**
@@ -238,7 +295,7 @@ public class UDPProtocol implements Protocol {
      */
     @Override
     public Protocol copy() {
-        logger.debug("[" + CLS + "] copy()");
+        logger.debug(() -> "[" + CLS + "] copy()");
         return new UDPProtocol(this.MSS, this.sourcePort, this.destinationPort);
     }
 }
\ No newline at end of file
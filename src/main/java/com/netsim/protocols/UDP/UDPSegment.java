@@ -28,7 +28,7 @@ public class UDPSegment extends PDU {
      */
     public UDPSegment(Port source, Port destination, int sequenceNumber, byte[] payload) throws IllegalArgumentException {
         super(source, destination);
-        logger.info("[" + CLS + "] creating segment seq=" + sequenceNumber
+        logger.info(() -> "[" + CLS + "] creating segment seq=" + sequenceNumber
                     + ", src=" + source + ", dst=" + destination
                     + ", payloadLen=" + (payload == null ? "null" : payload.length));
         if (source == null || destination == null) {
@@ -46,7 +46,7 @@ public class UDPSegment extends PDU {
         this.sequenceNumber = (short) sequenceNumber;
         this.payload        = payload.clone();
         this.length         = calculateLength();
-        logger.debug("[" + CLS + "] segment length (bits)=" + this.length);
+        logger.debug(() -> "[" + CLS + "] segment length (bits)=" + this.length);
     }
 
     /**
@@ -108,7 +108,7 @@ public class UDPSegment extends PDU {
         byte[] header = getHeader();
         ByteBuffer buf = ByteBuffer.allocate(header.length + this.payload.length);
         buf.put(header).put(this.payload);
-        logger.debug("[" + CLS + "] toByte(): total bytes=" + buf.capacity());
+        logger.debug(() -> "[" + CLS + "] toByte(): total bytes=" + buf.capacity());
         return buf.array();
     }
 
@@ -120,7 +120,7 @@ public class UDPSegment extends PDU {
      * @throws IllegalArgumentException if data is null, too short, or inconsistent
      */
     public static UDPSegment fromBytes(byte[] data) throws IllegalArgumentException {
-        logger.info("[" + CLS + "] fromBytes(): data length=" + (data == null ? "null" : data.length));
+        logger.info(() -> "[" + CLS + "] fromBytes(): data length=" + (data == null ? "null" : data.length));
         if (data == null || data.length < 8) {
             logger.error("[" + CLS + "] data is null or too short");
             throw new IllegalArgumentException("UDPSegment: input must be at least 8 bytes");
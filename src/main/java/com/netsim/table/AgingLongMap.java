@@ -0,0 +1,224 @@
+package com.netsim.table;
+
+/**
+ * Map from primitive keys to primitive values, with the time each entry
+ * was last refreshed, behind {@link ArpTable} and {@link MacTable}.
+ * <p>
+ * Entries are kept in an open-addressing hash table of parallel arrays
+ * with linear probing, so storing and finding an entry allocates nothing.
+ * Keys are at most {@code keyBits} wide; a bit above them is set on every
+ * stored key so that 0 can mark an empty slot, and removals shift the
+ * following entries back so that no tombstones are needed.
+ * </p>
+ * <p>
+ * Once an aging time is set, an entry not refreshed for that long is
+ * removed when {@link #find(long, long)} or {@link #expire(long)} meets
+ * it. Entries stored as {@link #STATIC} never age. The map is meant for
+ * one node and is not thread-safe.
+ * </p>
+ */
+final class AgingLongMap {
+    /** Refresh time of entries that never age. */
+    static final long STATIC = Long.MAX_VALUE;
+
+    private static final long GOLDEN   = 0x9E37_79B9_7F4A_7C15L;
+    private static final int  CAPACITY = 16;
+
+    private final long   keyMask;
+    private final long   present;
+    private       long[] keys;
+    private       long[] values;
+    private       long[] refreshed;
+    private       int    shift;
+    private       int    size;
+    private       long   agingTime;
+
+    /**
+     * Creates an empty map whose entries never age.
+     *
+     * @param keyBits width of the keys in bits (1–63); higher bits are ignored
+     */
+    AgingLongMap(int keyBits) {
+        this.keyMask   = (1L << keyBits) - 1;
+        this.present   = 1L << keyBits;
+        this.agingTime = 0L;
+        this.allocate(CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        this.keys      = new long[capacity];
+        this.values    = new long[capacity];
+        this.refreshed = new long[capacity];
+        this.shift     = 64 - Integer.numberOfTrailingZeros(capacity);
+        this.size      = 0;
+    }
+
+    /**
+     * @param stored a stored key
+     * @return the home slot of the key
+     */
+    private int home(long stored) {
+        return (int) ((stored * GOLDEN) >>> this.shift);
+    }
+
+    /**
+     * @param key a key
+     * @return the slot holding it, or -1 if absent
+     */
+    int indexOf(long key) {
+        long stored = (key & this.keyMask) | this.present;
+        int  mask   = this.keys.length - 1;
+        for (int i = this.home(stored); this.keys[i] != 0L; i = (i + 1) & mask) {
+            if (this.keys[i] == stored) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds a key, removing its entry if it has aged out.
+     *
+     * @param key a key
+     * @param now the current simulation time
+     * @return the slot holding it, or -1 if absent or aged out
+     */
+    int find(long key, long now) {
+        int slot = this.indexOf(key);
+        if (slot >= 0 && this.expired(slot, now)) {
+            this.removeAt(slot);
+            return -1;
+        }
+        return slot;
+    }
+
+    /**
+     * @param slot an occupied slot
+     * @return the value stored in it
+     */
+    long valueAt(int slot) {
+        return this.values[slot];
+    }
+
+    /**
+     * Inserts or updates an entry.
+     *
+     * @param key   the key
+     * @param value the value
+     * @param seen  the time the entry is refreshed at, or {@link #STATIC}
+     */
+    void put(long key, long value, long seen) {
+        this.store((key & this.keyMask) | this.present, value, seen);
+    }
+
+    private void store(long stored, long value, long seen) {
+        int mask = this.keys.length - 1;
+        int i    = this.home(stored);
+        while (this.keys[i] != 0L) {
+            if (this.keys[i] == stored) {
+                this.values[i]    = value;
+                this.refreshed[i] = seen;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        this.keys[i]      = stored;
+        this.values[i]    = value;
+        this.refreshed[i] = seen;
+        this.size++;
+        if (this.size * 2 > this.keys.length) {
+            this.grow();
+        }
+    }
+
+    private void grow() {
+        long[] oldKeys   = this.keys;
+        long[] oldValues = this.values;
+        long[] oldSeen   = this.refreshed;
+        this.allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0L) {
+                this.store(oldKeys[i], oldValues[i], oldSeen[i]);
+            }
+        }
+    }
+
+    /**
+     * Empties a slot, shifting back the entries of the probe run after it
+     * so that no tombstones are needed.
+     *
+     * @param slot an occupied slot
+     */
+    void removeAt(int slot) {
+        int mask = this.keys.length - 1;
+        int hole = slot;
+        for (int j = (slot + 1) & mask; this.keys[j] != 0L; j = (j + 1) & mask) {
+            int home = this.home(this.keys[j]);
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                this.keys[hole]      = this.keys[j];
+                this.values[hole]    = this.values[j];
+                this.refreshed[hole] = this.refreshed[j];
+                hole = j;
+            }
+        }
+        this.keys[hole] = 0L;
+        this.size--;
+    }
+
+    private boolean expired(int slot, long now) {
+        return this.agingTime > 0 && now - this.refreshed[slot] >= this.agingTime;
+    }
+
+    /**
+     * Removes every entry that has aged out.
+     *
+     * @param now the current simulation time
+     * @return the number of entries removed
+     */
+    int expire(long now) {
+        if (this.agingTime <= 0) {
+            return 0;
+        }
+        int removed = 0;
+        int i = 0;
+        while (i < this.keys.length) {
+            if (this.keys[i] != 0L && this.expired(i, now)) {
+                // an entry may have shifted into slot i: look at it again
+                this.removeAt(i);
+                removed++;
+            } else {
+                i++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * @return nanoseconds after which an entry not refreshed ages out, 0 if never
+     */
+    long getAgingTime() {
+        return this.agingTime;
+    }
+
+    /**
+     * @param nanos nanoseconds after which an entry not refreshed ages out,
+     *              0 to never age (≥ 0, checked by the caller)
+     */
+    void setAgingTime(long nanos) {
+        this.agingTime = nanos;
+    }
+
+    /**
+     * @return the number of entries, including aged-out ones not yet removed
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Removes every entry.
+     */
+    void clear() {
+        this.allocate(CAPACITY);
+    }
+}
@@ -1,8 +1,5 @@
 package com.netsim.table;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import com.netsim.addresses.IPv4;
 import com.netsim.addresses.Mac;
 import com.netsim.utils.Logger;
@@ -10,19 +7,110 @@ import com.netsim.utils.Logger;
 /**
  * A simple ARP table mapping IPv4 addresses to MAC addresses.
  * Ignores the NetworkAdapter parameter of NetworkTable, as ARP is per‐host.
+ * <p>
+ * Entries are keyed by the address alone ({@link IPv4#toInt()}; the mask
+ * plays no part) and kept in an open-addressing hash table of parallel
+ * primitive arrays ({@link AgingLongMap}) holding the packed MAC
+ * ({@link Mac#toLong()}), so a
+ * node with tens of thousands of neighbours stores no object per entry
+ * and resolves a next hop without allocating or throwing.
+ * </p>
+ * <p>
+ * Learned entries carry the time they were last refreshed and, once an
+ * aging time is set, are no longer returned by {@link #find(int, long)}
+ * after that long. Entries added through {@link #add(IPv4, Mac)} or
+ * {@link #setGateway(Mac)} are static and never age.
+ * </p>
  */
 public class ArpTable implements NetworkTable<IPv4, Mac> {
-    private static final Logger logger = Logger.getInstance();
-    private static final String CLS    = ArpTable.class.getSimpleName();
+    private static final Logger logger  = Logger.getInstance();
+    private static final String CLS     = ArpTable.class.getSimpleName();
+
+    /** Returned by {@link #find(int, long)} for an unknown address. */
+    public static final long MISSING = -1L;
+
+    // the default gateway is kept under 0.0.0.0
+    private static final int  GATEWAY = 0;
 
-    private final Map<IPv4, Mac> table;
+    private final AgingLongMap entries;
 
     /**
-     * Initializes an empty ARP table.
+     * Initializes an empty ARP table whose entries never age.
      */
     public ArpTable() {
-        this.table = new HashMap<>();
-        logger.info("[" + CLS + "] initialized");
+        this.entries = new AgingLongMap(32);
+        logger.info(() -> "[" + CLS + "] initialized");
+    }
+
+    /**
+     * @return nanoseconds after which a learned entry that was not
+     *         refreshed is forgotten, 0 if entries never age
+     */
+    public long getAgingTime() {
+        return this.entries.getAgingTime();
+    }
+
+    /**
+     * Sets how long a learned entry survives without being refreshed.
+     *
+     * @param nanos aging time in nanoseconds, 0 to never age (≥ 0)
+     * @throws IllegalArgumentException if nanos is negative
+     */
+    public void setAgingTime(long nanos) throws IllegalArgumentException {
+        if (nanos < 0) {
+            logger.error("[" + CLS + "] aging time cannot be negative: " + nanos);
+            throw new IllegalArgumentException("ArpTable: aging time cannot be negative");
+        }
+        this.entries.setAgingTime(nanos);
+    }
+
+    /**
+     * Records or refreshes a learned mapping. A static entry for the same
+     * address is replaced by a learned one.
+     *
+     * @param ip  the IPv4 address packed in an int
+     * @param mac the MAC address packed in a long
+     * @param now the current simulation time
+     */
+    public void learn(int ip, long mac, long now) {
+        this.entries.put(ip, mac, now);
+    }
+
+    /**
+     * Looks up the MAC for an address, forgetting the entry if it has aged out.
+     *
+     * @param ip  the IPv4 address packed in an int
+     * @param now the current simulation time
+     * @return the MAC packed in a long, or {@link #MISSING} if the address
+     *         is unknown or aged out
+     */
+    public long find(int ip, long now) {
+        int slot = this.entries.find(ip, now);
+        return slot < 0 ? MISSING : this.entries.valueAt(slot);
+    }
+
+    /**
+     * Removes every learned entry that has aged out.
+     *
+     * @param now the current simulation time
+     * @return the number of entries removed
+     */
+    public int expire(long now) {
+        return this.entries.expire(now);
+    }
+
+    /**
+     * @return the number of entries, including aged-out ones not yet removed
+     */
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Removes every entry.
+     */
+    public void clear() {
+        this.entries.clear();
     }
 
     /**
@@ -36,9 +124,8 @@ public class ArpTable implements NetworkTable<IPv4, Mac> {
             logger.error("[" + CLS + "] setGateway: router cannot be null");
             throw new IllegalArgumentException("ArpTable: router cannot be null");
         }
-        IPv4 gw = new IPv4("0.0.0.0", 0);
-        this.table.put(gw, router);
-        logger.info("[" + CLS + "] gateway set to " + router.stringRepresentation());
+        this.entries.put(GATEWAY, router.toLong(), AgingLongMap.STATIC);
+        logger.info(() -> "[" + CLS + "] gateway set to " + router.stringRepresentation());
     }
 
     /**
@@ -48,19 +135,18 @@ public class ArpTable implements NetworkTable<IPv4, Mac> {
      * @throws RuntimeException if gateway not set
      */
     public Mac gateway() throws RuntimeException {
-        try {
-            Mac mac = lookup(new IPv4("0.0.0.0", 0));
-            logger.info("[" + CLS + "] gateway lookup succeeded: " + mac.stringRepresentation());
-            return mac;
-        } catch (NullPointerException e) {
+        int slot = this.entries.indexOf(GATEWAY);
+        if (slot < 0) {
             logger.error("[" + CLS + "] gateway not set");
-            logger.debug("[" + CLS + "] " + e.getLocalizedMessage());
             throw new RuntimeException("ArpTable: default gateway not set");
         }
+        Mac mac = Mac.fromLong(this.entries.valueAt(slot));
+        logger.info(() -> "[" + CLS + "] gateway lookup succeeded: " + mac.stringRepresentation());
+        return mac;
     }
 
     /**
-     * Looks up the MAC address for the given IPv4 key.
+     * Looks up the MAC address for the given IPv4 key, regardless of age.
      *
      * @param key the IPv4 address to resolve (non-null)
      * @return the corresponding MAC address
@@ -73,18 +159,37 @@ public class ArpTable implements NetworkTable<IPv4, Mac> {
             logger.error("[" + CLS + "] lookup: key cannot be null");
             throw new IllegalArgumentException("ArpTable: key cannot be null");
         }
-        Mac mac = this.table.get(key);
-        if (mac == null) {
+        int slot = this.entries.indexOf(key.toInt());
+        if (slot < 0) {
             logger.error("[" + CLS + "] lookup failed for IP " + key.stringRepresentation());
             throw new NullPointerException("ArpTable: no MAC entry for IP " + key.stringRepresentation());
         }
-        logger.info("[" + CLS + "] lookup succeeded for IP " 
+        Mac mac = Mac.fromLong(this.entries.valueAt(slot));
+        logger.info(() -> "[" + CLS + "] lookup succeeded for IP "
                     + key.stringRepresentation() + ": " + mac.stringRepresentation());
         return mac;
     }
 
     /**
-     * Adds or updates an ARP entry mapping IPv4 → MAC.
+     * Looks up the MAC address for the given IPv4 key, regardless of age,
+     * without throwing on a miss.
+     *
+     * @param key      the IPv4 address to resolve (non-null)
+     * @param fallback returned if no entry exists for key (may be null)
+     * @return the corresponding MAC address, or fallback
+     * @throws IllegalArgumentException if key is null
+     */
+    public Mac lookupOrDefault(IPv4 key, Mac fallback) throws IllegalArgumentException {
+        if (key == null) {
+            logger.error("[" + CLS + "] lookupOrDefault: key cannot be null");
+            throw new IllegalArgumentException("ArpTable: key cannot be null");
+        }
+        int slot = this.entries.indexOf(key.toInt());
+        return slot < 0 ? fallback : Mac.fromLong(this.entries.valueAt(slot));
+    }
+
+    /**
+     * Adds or updates a static ARP entry mapping IPv4 → MAC.
      *
      * @param key   the IPv4 address (non-null)
      * @param value the MAC address (non-null)
@@ -100,8 +205,8 @@ public class ArpTable implements NetworkTable<IPv4, Mac> {
             logger.error("[" + CLS + "] add: value cannot be null");
             throw new IllegalArgumentException("ArpTable.add: value cannot be null");
         }
-        this.table.put(key, value);
-        logger.info("[" + CLS + "] added entry: " 
+        this.entries.put(key.toInt(), value.toLong(), AgingLongMap.STATIC);
+        logger.info(() -> "[" + CLS + "] added entry: "
                     + key.stringRepresentation() + " -> " + value.stringRepresentation());
     }
 
@@ -118,14 +223,15 @@ public class ArpTable implements NetworkTable<IPv4, Mac> {
             logger.error("[" + CLS + "] remove: key cannot be null");
             throw new IllegalArgumentException("ArpTable.remove: key cannot be null");
         }
-        Mac removed = this.table.remove(key);
-        if (removed == null) {
+        int slot = this.entries.indexOf(key.toInt());
+        if (slot < 0) {
             logger.error("[" + CLS + "] remove failed for IP " + key.stringRepresentation());
             throw new NullPointerException(
                 "ArpTable.remove: no entry for IP " + key.stringRepresentation()
             );
         }
-        logger.info("[" + CLS + "] removed entry for IP " + key.stringRepresentation());
+        this.entries.removeAt(slot);
+        logger.info(() -> "[" + CLS + "] removed entry for IP " + key.stringRepresentation());
     }
 
     /**
@@ -135,8 +241,8 @@ public class ArpTable implements NetworkTable<IPv4, Mac> {
      */
     @Override
     public boolean isEmpty() {
-        boolean empty = this.table.isEmpty();
-        logger.debug("[" + CLS + "] isEmpty = " + empty);
+        boolean empty = this.entries.size() == 0;
+        logger.debug(() -> "[" + CLS + "] isEmpty = " + empty);
         return empty;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,78 @@
+package com.netsim.table;
+
+/**
+ * Immutable, lookup-only copy of a {@link PrefixTrie}, published by
+ * {@link RoutingTable} for lock-free readers.
+ * <p>
+ * Holds the trie's child and route slots trimmed to the nodes in use,
+ * without the bookkeeping needed to update it. The trie hands its arrays
+ * over and copies them before its next change, so once constructed they
+ * are never written and any number of threads may read it while writers
+ * prepare the next snapshot.
+ * </p>
+ */
+final class FibSnapshot {
+    static final FibSnapshot EMPTY = new FibSnapshot(new int[PrefixTrie.FANOUT],
+                                                     new RoutingInfo[PrefixTrie.FANOUT],
+                                                     null,
+                                                     0,
+                                                     0L);
+
+    private final int[]         child;
+    private final RoutingInfo[] route;
+    private final RoutingInfo   defaultRoute;
+    private final int           size;
+    private final long          generation;
+
+    /**
+     * @param child        child slots (not copied, must not be written afterwards)
+     * @param route        route slots (not copied, must not be written afterwards)
+     * @param defaultRoute the /0 route, or null
+     * @param size         number of routes in the table it was taken from
+     * @param generation   sequence number of this snapshot
+     */
+    FibSnapshot(int[] child, RoutingInfo[] route, RoutingInfo defaultRoute, int size, long generation) {
+        this.child        = child;
+        this.route        = route;
+        this.defaultRoute = defaultRoute;
+        this.size         = size;
+        this.generation   = generation;
+    }
+
+    /**
+     * Longest-prefix-match lookup, same walk as {@link PrefixTrie#lookup(int)}.
+     *
+     * @param address the destination address
+     * @return the best matching route, or null if none matches
+     */
+    RoutingInfo lookup(int address) {
+        RoutingInfo best = this.defaultRoute;
+        int node = 0;
+        for (int shift = 24; shift >= 0; shift -= PrefixTrie.STRIDE) {
+            int slot = (node << PrefixTrie.STRIDE) | ((address >>> shift) & 0xFF);
+            RoutingInfo candidate = this.route[slot];
+            if (candidate != null) {
+                best = candidate;
+            }
+            node = this.child[slot];
+            if (node == 0) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return number of routes in the table this snapshot was taken from
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * @return sequence number of this snapshot, 0 for the empty table
+     */
+    long generation() {
+        return this.generation;
+    }
+}
@@ -1,6 +1,6 @@
 package com.netsim.table;
 
-import java.util.HashMap;
+import java.util.Arrays;
 
 import com.netsim.addresses.Mac;
 import com.netsim.network.NetworkAdapter;
@@ -8,23 +8,148 @@ import com.netsim.utils.Logger;
 
 /**
  * Table mapping MAC addresses to their corresponding network adapters.
+ * <p>
+ * Entries are keyed by the address packed in a long ({@link Mac#toLong()})
+ * and kept in an open-addressing hash table of parallel primitive arrays
+ * ({@link AgingLongMap}), each entry holding the index of its adapter
+ * among those the table has seen, so the
+ * forwarding path of a switch can learn and look up straight from the
+ * header bytes of a frame without building or hashing {@link Mac} objects.
+ * </p>
+ * <p>
+ * Learned entries carry the time they were last seen and, once an aging
+ * time is set, are no longer returned by {@link #find(long, long)} after
+ * that long without traffic. Entries added through
+ * {@link #add(Mac, NetworkAdapter)} are static and never age.
+ * </p>
  */
 public class MacTable implements NetworkTable<Mac, NetworkAdapter> {
     private static final Logger logger = Logger.getInstance();
     private static final String CLS    = MacTable.class.getSimpleName();
 
-    private final HashMap<Mac, NetworkAdapter> table;
+    private final AgingLongMap     entries;
+    // adapters entries point to, by the index stored as their value
+    private       NetworkAdapter[] ports;
+    private       int              portCount;
 
     /**
-     * Initializes an empty MacTable.
+     * Initializes an empty MacTable whose entries never age.
      */
     public MacTable() {
-        this.table = new HashMap<>();
-        logger.info("[" + CLS + "] initialized");
+        this.entries   = new AgingLongMap(48);
+        this.ports     = new NetworkAdapter[4];
+        this.portCount = 0;
+        logger.info(() -> "[" + CLS + "] initialized");
     }
 
     /**
-     * Looks up the NetworkAdapter for the given MAC address.
+     * @param port an adapter
+     * @return the index entries pointing to it store, registering it if new
+     */
+    private int portIndex(NetworkAdapter port) {
+        for (int i = 0; i < this.portCount; i++) {
+            if (this.ports[i] == port) {
+                return i;
+            }
+        }
+        if (this.portCount == this.ports.length) {
+            this.ports = Arrays.copyOf(this.ports, this.portCount * 2);
+        }
+        this.ports[this.portCount] = port;
+        return this.portCount++;
+    }
+
+    /**
+     * @param slot an occupied slot of the entries
+     * @return the adapter its entry points to
+     */
+    private NetworkAdapter portAt(int slot) {
+        return this.ports[(int) this.entries.valueAt(slot)];
+    }
+
+    /**
+     * @return nanoseconds after which a learned entry without traffic is
+     *         forgotten, 0 if entries never age
+     */
+    public long getAgingTime() {
+        return this.entries.getAgingTime();
+    }
+
+    /**
+     * Sets how long a learned entry survives without traffic.
+     *
+     * @param nanos aging time in nanoseconds, 0 to never age (≥ 0)
+     * @throws IllegalArgumentException if nanos is negative
+     */
+    public void setAgingTime(long nanos) throws IllegalArgumentException {
+        if (nanos < 0) {
+            logger.error("[" + CLS + "] aging time cannot be negative: " + nanos);
+            throw new IllegalArgumentException("MacTable: aging time cannot be negative");
+        }
+        this.entries.setAgingTime(nanos);
+    }
+
+    /**
+     * Records that a frame from mac arrived on port, refreshing its age.
+     * A static entry for the same address is replaced by a learned one.
+     *
+     * @param mac  the source address packed in a long
+     * @param port the adapter the frame arrived on (non-null)
+     * @param now  the current simulation time
+     * @throws IllegalArgumentException if port is null
+     */
+    public void learn(long mac, NetworkAdapter port, long now) throws IllegalArgumentException {
+        if (port == null) {
+            logger.error("[" + CLS + "] learn: port cannot be null");
+            throw new IllegalArgumentException("MacTable: adapter cannot be null");
+        }
+        int slot  = this.entries.indexOf(mac);
+        int index = slot >= 0 && this.portAt(slot) == port
+                  ? (int) this.entries.valueAt(slot)
+                  : this.portIndex(port);
+        this.entries.put(mac, index, now);
+    }
+
+    /**
+     * Looks up the port for an address, forgetting the entry if it has aged out.
+     *
+     * @param mac the destination address packed in a long
+     * @param now the current simulation time
+     * @return the adapter, or null if the address is unknown or aged out
+     */
+    public NetworkAdapter find(long mac, long now) {
+        int slot = this.entries.find(mac, now);
+        return slot < 0 ? null : this.portAt(slot);
+    }
+
+    /**
+     * Removes every learned entry that has aged out.
+     *
+     * @param now the current simulation time
+     * @return the number of entries removed
+     */
+    public int expire(long now) {
+        return this.entries.expire(now);
+    }
+
+    /**
+     * @return the number of entries, including aged-out ones not yet removed
+     */
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Removes every entry.
+     */
+    public void clear() {
+        this.entries.clear();
+        Arrays.fill(this.ports, null);
+        this.portCount = 0;
+    }
+
+    /**
+     * Looks up the NetworkAdapter for the given MAC address, regardless of age.
      *
      * @param key the MAC address to resolve (non-null)
      * @return the associated NetworkAdapter
@@ -37,20 +162,21 @@ public class MacTable implements NetworkTable<Mac, NetworkAdapter> {
             logger.error("[" + CLS + "] lookup: key cannot be null");
             throw new IllegalArgumentException("MacTable: key cannot be null");
         }
-        NetworkAdapter adapter = this.table.get(key);
-        if (adapter == null) {
+        int slot = this.entries.indexOf(key.toLong());
+        if (slot < 0) {
             logger.error("[" + CLS + "] lookup failed for MAC " + key.stringRepresentation());
             throw new NullPointerException(
                 "MacTable: no network adapter associated with MAC " + key.stringRepresentation()
             );
         }
-        logger.info("[" + CLS + "] lookup succeeded for MAC " 
+        NetworkAdapter adapter = this.portAt(slot);
+        logger.info(() -> "[" + CLS + "] lookup succeeded for MAC "
                     + key.stringRepresentation() + " -> adapter " + adapter.getName());
         return adapter;
     }
 
     /**
-     * Adds or updates a mapping from MAC to NetworkAdapter.
+     * Adds or updates a static mapping from MAC to NetworkAdapter.
      *
      * @param address the MAC address (non-null)
      * @param adapter the NetworkAdapter (non-null)
@@ -66,8 +192,8 @@ public class MacTable implements NetworkTable<Mac, NetworkAdapter> {
             logger.error("[" + CLS + "] add: adapter cannot be null");
             throw new IllegalArgumentException("MacTable: adapter cannot be null");
         }
-        this.table.put(address, adapter);
-        logger.info("[" + CLS + "] added entry: MAC " 
+        this.entries.put(address.toLong(), this.portIndex(adapter), AgingLongMap.STATIC);
+        logger.info(() -> "[" + CLS + "] added entry: MAC "
                     + address.stringRepresentation() + " -> adapter " + adapter.getName());
     }
 
@@ -84,15 +210,16 @@ public class MacTable implements NetworkTable<Mac, NetworkAdapter> {
             logger.error("[" + CLS + "] remove: address cannot be null");
             throw new IllegalArgumentException("MacTable: address cannot be null");
         }
-        NetworkAdapter removed = this.table.remove(address);
-        if (removed == null) {
-            logger.error("[" + CLS + "] remove failed: no adapter for MAC " 
+        int slot = this.entries.indexOf(address.toLong());
+        if (slot < 0) {
+            logger.error("[" + CLS + "] remove failed: no adapter for MAC "
                          + address.stringRepresentation());
             throw new NullPointerException(
                 "MacTable: no network adapter associated with MAC " + address.stringRepresentation()
             );
         }
-        logger.info("[" + CLS + "] removed entry for MAC " + address.stringRepresentation());
+        this.entries.removeAt(slot);
+        logger.info(() -> "[" + CLS + "] removed entry for MAC " + address.stringRepresentation());
     }
 
     /**
@@ -102,8 +229,8 @@ public class MacTable implements NetworkTable<Mac, NetworkAdapter> {
      */
     @Override
     public boolean isEmpty() {
-        boolean empty = this.table.isEmpty();
-        logger.debug("[" + CLS + "] isEmpty = " + empty);
+        boolean empty = this.entries.size() == 0;
+        logger.debug(() -> "[" + CLS + "] isEmpty = " + empty);
         return empty;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,270 @@
+package com.netsim.table;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import com.netsim.utils.Logger;
+
+/**
+ * Longest-prefix-match index over 32-bit IPv4 addresses.
+ * <p>
+ * A four-level multibit trie with an 8-bit stride: each node is a block of
+ * 256 slots in flat parallel arrays, and a prefix is stored at the level
+ * holding its last bit, expanded over every slot it covers (controlled
+ * prefix expansion). A lookup reads at most four slots and allocates
+ * nothing. The default route (/0) is kept outside the trie.
+ * </p>
+ * <p>
+ * Nodes are never freed by {@link #remove(int, int)}; they are reused if
+ * the same region is populated again, and released by {@link #clear()}.
+ * </p>
+ * <p>
+ * A {@link #snapshot snapshot} takes the slot arrays as they are, and the
+ * trie copies them before its next change, so a table loaded in one
+ * update holds a single copy of its trie rather than two.
+ * </p>
+ */
+public final class PrefixTrie {
+    private static final Logger logger = Logger.getInstance();
+    private static final String CLS    = PrefixTrie.class.getSimpleName();
+
+    static final int STRIDE = 8;
+    static final int FANOUT = 1 << STRIDE;
+    // enough for one /32 path; tables of a few routes, as most nodes hold, stay under 10 KB
+    static final int INITIAL_NODES = 4;
+
+    private final HashMap<Long, RoutingInfo> exact;
+    private int[]         child;
+    private RoutingInfo[] route;
+    private byte[]        length;
+    private int           nodes;
+    private RoutingInfo   defaultRoute;
+    // the slot arrays belong to a published snapshot
+    private boolean       shared;
+
+    /**
+     * Creates an empty trie holding only the root node.
+     */
+    public PrefixTrie() {
+        this.exact = new HashMap<>();
+        this.allocate(INITIAL_NODES);
+    }
+
+    private void allocate(int capacity) {
+        this.child        = new int[capacity * FANOUT];
+        this.route        = new RoutingInfo[capacity * FANOUT];
+        this.length       = new byte[capacity * FANOUT];
+        this.nodes        = 1;
+        this.defaultRoute = null;
+        this.shared       = false;
+    }
+
+    /**
+     * Copies the slot arrays if a snapshot holds them, before they change.
+     */
+    private void ensureWritable() {
+        if (this.shared) {
+            this.child  = this.child.clone();
+            this.route  = this.route.clone();
+            this.shared = false;
+        }
+    }
+
+    /**
+     * @param network the network address (host bits ignored)
+     * @param prefix  the prefix length
+     * @return the key of the prefix in the exact-match map
+     */
+    private static long key(int network, int prefix) {
+        return ((network & 0xFFFFFFFFL) << 6) | prefix;
+    }
+
+    /**
+     * @param prefix prefix length (0–32)
+     * @return the netmask as an int
+     */
+    private static int mask(int prefix) {
+        return prefix == 0 ? 0 : -1 << (32 - prefix);
+    }
+
+    private static void checkPrefix(int prefix) throws IllegalArgumentException {
+        if (prefix < 0 || prefix > 32) {
+            logger.error("[" + CLS + "] invalid prefix length: " + prefix);
+            throw new IllegalArgumentException(CLS + ": prefix length must be in [0, 32]");
+        }
+    }
+
+    /**
+     * Returns the child of a slot, creating the node if needed.
+     *
+     * @param slot absolute slot index
+     * @return the child node index
+     */
+    private int childOf(int slot) {
+        int next = this.child[slot];
+        if (next == 0) {
+            if ((this.nodes + 1) * FANOUT > this.child.length) {
+                int capacity = this.child.length * 2;
+                this.child  = Arrays.copyOf(this.child, capacity);
+                this.route  = Arrays.copyOf(this.route, capacity);
+                this.length = Arrays.copyOf(this.length, capacity);
+            }
+            next = this.nodes++;
+            this.child[slot] = next;
+        }
+        return next;
+    }
+
+    /**
+     * Inserts or replaces a prefix.
+     *
+     * @param network the network address (host bits are ignored)
+     * @param prefix  the prefix length (0–32)
+     * @param info    the route (non-null)
+     * @throws IllegalArgumentException if prefix is out of range or info is null
+     */
+    public void insert(int network, int prefix, RoutingInfo info) throws IllegalArgumentException {
+        checkPrefix(prefix);
+        if (info == null) {
+            logger.error("[" + CLS + "] insert: route cannot be null");
+            throw new IllegalArgumentException(CLS + ": route cannot be null");
+        }
+        network &= mask(prefix);
+        this.exact.put(key(network, prefix), info);
+        if (prefix == 0) {
+            this.defaultRoute = info;
+            return;
+        }
+        this.ensureWritable();
+        int level = (prefix - 1) / STRIDE;
+        int node  = 0;
+        for (int l = 0; l < level; l++) {
+            node = this.childOf((node << STRIDE) | ((network >>> (24 - STRIDE * l)) & 0xFF));
+        }
+        int span  = 1 << (STRIDE * (level + 1) - prefix);
+        int first = (node << STRIDE) | ((network >>> (24 - STRIDE * level)) & 0xFF);
+        for (int slot = first; slot < first + span; slot++) {
+            if (this.length[slot] <= prefix) {
+                this.route[slot]  = info;
+                this.length[slot] = (byte) prefix;
+            }
+        }
+    }
+
+    /**
+     * Removes a prefix, re-exposing any shorter prefix it was hiding.
+     *
+     * @param network the network address (host bits are ignored)
+     * @param prefix  the prefix length (0–32)
+     * @return the removed route, or null if the prefix was not present
+     * @throws IllegalArgumentException if prefix is out of range
+     */
+    public RoutingInfo remove(int network, int prefix) throws IllegalArgumentException {
+        checkPrefix(prefix);
+        network &= mask(prefix);
+        RoutingInfo removed = this.exact.remove(key(network, prefix));
+        if (removed == null) {
+            return null;
+        }
+        if (prefix == 0) {
+            this.defaultRoute = null;
+            return removed;
+        }
+        this.ensureWritable();
+        int level = (prefix - 1) / STRIDE;
+        int node  = 0;
+        for (int l = 0; l < level; l++) {
+            node = this.child[(node << STRIDE) | ((network >>> (24 - STRIDE * l)) & 0xFF)];
+        }
+
+        RoutingInfo cover    = null;
+        int         coverLen = 0;
+        for (int l = prefix - 1; l > STRIDE * level; l--) {
+            cover = this.exact.get(key(network & mask(l), l));
+            if (cover != null) {
+                coverLen = l;
+                break;
+            }
+        }
+        int span  = 1 << (STRIDE * (level + 1) - prefix);
+        int first = (node << STRIDE) | ((network >>> (24 - STRIDE * level)) & 0xFF);
+        for (int slot = first; slot < first + span; slot++) {
+            if (this.length[slot] == prefix) {
+                this.route[slot]  = cover;
+                this.length[slot] = (byte) coverLen;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Exact-match lookup of a prefix.
+     *
+     * @param network the network address (host bits are ignored)
+     * @param prefix  the prefix length (0–32)
+     * @return the route stored for that prefix, or null
+     * @throws IllegalArgumentException if prefix is out of range
+     */
+    public RoutingInfo get(int network, int prefix) throws IllegalArgumentException {
+        checkPrefix(prefix);
+        return this.exact.get(key(network & mask(prefix), prefix));
+    }
+
+    /**
+     * Longest-prefix-match lookup.
+     *
+     * @param address the destination address
+     * @return the best matching route, or null if none matches
+     */
+    public RoutingInfo lookup(int address) {
+        RoutingInfo best = this.defaultRoute;
+        int node = 0;
+        for (int shift = 24; shift >= 0; shift -= STRIDE) {
+            int slot = (node << STRIDE) | ((address >>> shift) & 0xFF);
+            RoutingInfo candidate = this.route[slot];
+            if (candidate != null) {
+                best = candidate;
+            }
+            node = this.child[slot];
+            if (node == 0) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Publishes the lookup structure as an immutable snapshot. The slot
+     * arrays are trimmed to the nodes in use and handed over; the trie
+     * copies them before it next changes.
+     *
+     * @param size       number of routes to report for the snapshot
+     * @param generation sequence number of the snapshot
+     * @return a snapshot answering the same lookups as this trie does now
+     */
+    FibSnapshot snapshot(int size, long generation) {
+        int slots = this.nodes * FANOUT;
+        if (this.child.length != slots) {
+            this.child  = Arrays.copyOf(this.child, slots);
+            this.route  = Arrays.copyOf(this.route, slots);
+            this.length = Arrays.copyOf(this.length, slots);
+        }
+        this.shared = true;
+        return new FibSnapshot(this.child, this.route, this.defaultRoute, size, generation);
+    }
+
+    /**
+     * @return the number of prefixes stored
+     */
+    public int size() {
+        return this.exact.size();
+    }
+
+    /**
+     * Removes every prefix and releases the nodes.
+     */
+    public void clear() {
+        this.exact.clear();
+        this.allocate(INITIAL_NODES);
+    }
+}
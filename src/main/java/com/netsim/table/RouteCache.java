@@ -0,0 +1,191 @@
+package com.netsim.table;
+
+import java.util.Arrays;
+
+import com.netsim.utils.Logger;
+
+/**
+ * Bounded cache of route lookups, keyed by destination address.
+ * <p>
+ * Entries live in an open-addressing table of parallel arrays with a
+ * fixed capacity. A destination is looked for in at most
+ * {@link #MAX_PROBES} slots from its home slot; when they are all taken,
+ * the entry in the home slot makes room for the new one. Slots are never
+ * emptied one at a time, so no entry is lost behind a hole.
+ * </p>
+ * <p>
+ * Unroutable destinations are cached too, as entries without a route, so
+ * repeated misses cost a probe rather than a full lookup. The whole
+ * cache is emptied when the {@link RoutingTable#getGeneration() generation}
+ * of the table it fronts changes, so it never serves a route the table
+ * no longer holds. The arrays are allocated on the first lookup, so the
+ * cache of a node that never routes costs nothing. A cache is meant for
+ * one node and is not thread-safe.
+ * </p>
+ */
+public class RouteCache {
+    private static final Logger logger = Logger.getInstance();
+    private static final String CLS    = RouteCache.class.getSimpleName();
+
+    /** Capacity used by nodes: 1024 destinations. */
+    public static final int DEFAULT_CAPACITY = 1024;
+    /** Slots looked at from a destination's home slot. */
+    public static final int MAX_PROBES       = 8;
+
+    // set on every stored key so that 0 can mark an empty slot
+    private static final long PRESENT = 1L << 32;
+    private static final int  GOLDEN  = 0x9E37_79B9;
+
+    private final int           capacity;
+    private final int           shift;
+    private       long[]        keys;
+    private       RoutingInfo[] routes;
+    private       RoutingTable  table;
+    private       long          generation;
+    private       int           size;
+    private       long          hits;
+    private       long          misses;
+    private       long          invalidations;
+
+    /**
+     * Creates a cache holding up to {@link #DEFAULT_CAPACITY} destinations.
+     */
+    public RouteCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a cache holding up to {@code capacity} destinations.
+     *
+     * @param capacity a power of two (≥ {@link #MAX_PROBES})
+     * @throws IllegalArgumentException if capacity is not a power of two or too small
+     */
+    public RouteCache(int capacity) throws IllegalArgumentException {
+        if (capacity < MAX_PROBES || Integer.bitCount(capacity) != 1) {
+            logger.error("[" + CLS + "] invalid capacity: " + capacity);
+            throw new IllegalArgumentException(CLS + ": capacity must be a power of two ≥ " + MAX_PROBES);
+        }
+        this.capacity   = capacity;
+        this.keys       = null;
+        this.routes     = null;
+        this.shift      = 32 - Integer.numberOfTrailingZeros(capacity);
+        this.table      = null;
+        this.generation = -1L;
+        logger.info(() -> "[" + CLS + "] initialized with capacity " + capacity);
+    }
+
+    /**
+     * @param address a destination address
+     * @return the home slot of the address
+     */
+    private int home(int address) {
+        return (address * GOLDEN) >>> this.shift;
+    }
+
+    /**
+     * Looks up the route to a destination, through the cache.
+     *
+     * @param table   the routing table the cache fronts (non-null)
+     * @param address the destination address, as {@link com.netsim.addresses.IPv4#toInt()}
+     * @return the best matching route, or null if the destination is unroutable
+     * @throws IllegalArgumentException if table is null
+     */
+    public RoutingInfo lookup(RoutingTable table, int address) throws IllegalArgumentException {
+        if (table == null) {
+            logger.error("[" + CLS + "] lookup: table cannot be null");
+            throw new IllegalArgumentException(CLS + ": table cannot be null");
+        }
+        // read the generation first: a change racing with the lookup below
+        // then invalidates what is cached on the next call
+        long current = table.getGeneration();
+        if (table != this.table || current != this.generation) {
+            this.invalidate();
+            this.table      = table;
+            this.generation = current;
+        }
+
+        if (this.keys == null) {
+            this.keys   = new long[this.capacity];
+            this.routes = new RoutingInfo[this.capacity];
+        }
+        long key  = (address & 0xFFFF_FFFFL) | PRESENT;
+        int  mask = this.capacity - 1;
+        int  home = this.home(address);
+        int  free = home;
+        for (int i = 0, slot = home; i < MAX_PROBES; i++, slot = (slot + 1) & mask) {
+            long stored = this.keys[slot];
+            if (stored == key) {
+                this.hits++;
+                return this.routes[slot];
+            }
+            if (stored == 0L) {
+                free = slot;
+                break;
+            }
+        }
+
+        this.misses++;
+        RoutingInfo route = table.find(address);
+        if (this.keys[free] == 0L) {
+            this.size++;
+        }
+        this.keys[free]   = key;
+        this.routes[free] = route;
+        return route;
+    }
+
+    /**
+     * Empties the cache.
+     */
+    public void invalidate() {
+        if (this.size > 0) {
+            Arrays.fill(this.keys, 0L);
+            Arrays.fill(this.routes, null);
+            this.size = 0;
+            this.invalidations++;
+        }
+    }
+
+    /**
+     * @return the number of destinations cached, unroutable ones included
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return the maximum number of destinations cached
+     */
+    public int capacity() {
+        return this.capacity;
+    }
+
+    /**
+     * @return lookups answered from the cache
+     */
+    public long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * @return lookups that went to the routing table
+     */
+    public long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * @return hits over lookups, or 0 before the first lookup
+     */
+    public double getHitRatio() {
+        long lookups = this.hits + this.misses;
+        return lookups == 0 ? 0.0 : (double) this.hits / lookups;
+    }
+
+    /**
+     * @return how many times a non-empty cache was emptied
+     */
+    public long getInvalidations() {
+        return this.invalidations;
+    }
+}
@@ -28,7 +28,7 @@ public class RoutingInfo {
         }
         this.device  = device;
         this.nextHop = nextHop;
-        logger.info("[" + CLS + "] created with device=" + this.device.getName()
+        logger.info(() -> "[" + CLS + "] created with device=" + this.device.getName()
                     + " nextHop=" + (this.nextHop == null
                                      ? "direct"
                                      : this.nextHop.stringRepresentation()));
@@ -40,7 +40,7 @@ public class RoutingInfo {
      * @return the next-hop IPv4, or null
      */
     public IPv4 getNextHop() {
-        logger.debug("[" + CLS + "] getNextHop -> "
+        logger.debug(() -> "[" + CLS + "] getNextHop -> "
                      + (this.nextHop == null
                         ? "direct"
                         : this.nextHop.stringRepresentation()));
@@ -53,7 +53,7 @@ public class RoutingInfo {
      * @return the NetworkAdapter
      */
     public NetworkAdapter getDevice() {
-        logger.debug("[" + CLS + "] getDevice -> " + this.device.getName());
+        logger.debug(() -> "[" + CLS + "] getDevice -> " + this.device.getName());
         return this.device;
     }
 
@@ -64,7 +64,7 @@ public class RoutingInfo {
      */
     public void setNextHop(IPv4 newNextHop) {
         this.nextHop = newNextHop;
-        logger.info("[" + CLS + "] nextHop set to "
+        logger.info(() -> "[" + CLS + "] nextHop set to "
                     + (this.nextHop == null
                        ? "direct"
                        : this.nextHop.stringRepresentation()));
@@ -82,6 +82,6 @@ public class RoutingInfo {
             throw new IllegalArgumentException("RoutingInfo: newDevice cannot be null");
         }
         this.device = newDevice;
-        logger.info("[" + CLS + "] device set to " + this.device.getName());
+        logger.info(() -> "[" + CLS + "] device set to " + this.device.getName());
     }
 }
\ No newline at end of file
@@ -2,29 +2,52 @@ package com.netsim.table;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import com.netsim.addresses.IPv4;
 import com.netsim.utils.Logger;
 
 /**
  * A routing table mapping IPv4 subnets to {@link RoutingInfo}.
+ * <p>
+ * Routes are kept in a map keyed by the configured subnet and mirrored in a
+ * {@link PrefixTrie}, which answers longest-prefix-match lookups.
+ * </p>
+ * <p>
+ * The table is safe to share between threads. Lookups never lock: they
+ * read an immutable copy of the trie, the forwarding information base
+ * (FIB), through one volatile reference. Writers serialize on the table,
+ * change the trie and publish a fresh FIB with a single reference swap,
+ * so readers see each change entirely or not at all. Every change
+ * publishes one FIB, at a cost proportional to the size of the trie;
+ * group many changes in {@link #update(Consumer)} to publish them once.
+ * </p>
  */
 public class RoutingTable implements NetworkTable<IPv4, RoutingInfo> {
     private static final Logger logger = Logger.getInstance();
     private static final String CLS    = RoutingTable.class.getSimpleName();
 
-    private final HashMap<IPv4, RoutingInfo> table;
+    private final    HashMap<IPv4, RoutingInfo> table;
+    private final    PrefixTrie                 index;
+    private          int                        aliases;
+    private          int                        batchDepth;
+    private volatile FibSnapshot                fib;
 
     /**
      * Constructs an empty RoutingTable.
      */
     public RoutingTable() {
-        this.table = new HashMap<>();
-        logger.info("[" + CLS + "] initialized");
+        this.table      = new HashMap<>();
+        this.index      = new PrefixTrie();
+        this.aliases    = 0;
+        this.batchDepth = 0;
+        this.fib        = FibSnapshot.EMPTY;
+        logger.info(() -> "[" + CLS + "] initialized");
     }
 
     /**
-     * Looks up the best-matching route for the given destination.
+     * Looks up the best-matching route for the given destination in the
+     * latest published FIB, without locking.
      *
      * @param destination the IPv4 address to route (non-null)
      * @return the {@link RoutingInfo} for the best match
@@ -37,18 +60,7 @@ public class RoutingTable implements NetworkTable<IPv4, RoutingInfo> {
             throw new IllegalArgumentException("RoutingTable: destination cannot be null");
         }
 
-        RoutingInfo bestMatch = null;
-        int         bestPrefix = -1;
-        for (Map.Entry<IPv4, RoutingInfo> e : this.table.entrySet()) {
-            IPv4 subnet = e.getKey();
-            int  prefix = subnet.getMask();
-            if (destination.isInSubnet(subnet.stringRepresentation(), prefix)
-                    && prefix > bestPrefix) {
-                bestMatch = e.getValue();
-                bestPrefix = prefix;
-            }
-        }
-
+        RoutingInfo bestMatch = this.fib.lookup(destination.toInt());
         if (bestMatch == null) {
             logger.error("[" + CLS + "] lookup: no route found for " + destination.stringRepresentation());
             throw new NullPointerException(
@@ -56,7 +68,7 @@ public class RoutingTable implements NetworkTable<IPv4, RoutingInfo> {
             );
         }
 
-        logger.debug("[" + CLS + "] lookup: selected route via "
+        logger.debug(() -> "[" + CLS + "] lookup: selected route via "
                      + bestMatch.getDevice().getName()
                      + (bestMatch.getNextHop() != null
                         ? " nextHop=" + bestMatch.getNextHop().stringRepresentation()
@@ -64,6 +76,17 @@ public class RoutingTable implements NetworkTable<IPv4, RoutingInfo> {
         return bestMatch;
     }
 
+    /**
+     * Looks up the best-matching route for a packed address in the latest
+     * published FIB, without locking, logging or throwing on a miss.
+     *
+     * @param address the destination address, as {@link IPv4#toInt()}
+     * @return the best matching route, or null if none matches
+     */
+    public RoutingInfo find(int address) {
+        return this.fib.lookup(address);
+    }
+
     /**
      * Adds a new route for the given subnet.
      *
@@ -72,7 +95,7 @@ public class RoutingTable implements NetworkTable<IPv4, RoutingInfo> {
      * @throws IllegalArgumentException if destination or route is null
      * @throws RuntimeException         if a route for this subnet already exists
      */
-    public void add(IPv4 destination, RoutingInfo route) throws IllegalArgumentException, RuntimeException {
+    public synchronized void add(IPv4 destination, RoutingInfo route) throws IllegalArgumentException, RuntimeException {
         if (destination == null) {
             logger.error("[" + CLS + "] add: destination cannot be null");
             throw new IllegalArgumentException("RoutingTable: destination cannot be null");
@@ -86,27 +109,35 @@ public class RoutingTable implements NetworkTable<IPv4, RoutingInfo> {
             throw new RuntimeException("RoutingTable: route already contained");
         }
         this.table.put(destination, route);
-        logger.info("[" + CLS + "] add: added route to " + destination.stringRepresentation());
+        if (this.index.get(destination.toInt(), destination.getMask()) == null) {
+            this.index.insert(destination.toInt(), destination.getMask(), route);
+        } else {
+            // same subnet written with different host bits: the first one keeps serving lookups
+            this.aliases++;
+        }
+        this.publish();
+        logger.info(() -> "[" + CLS + "] add: added route to " + destination.stringRepresentation());
     }
 
     /**
-     * Sets or replaces the default (0.0.0.0/0) route.
+     * Sets or replaces the default (0.0.0.0/0) route. Readers see either
+     * the old default route or the new one, never none.
      *
      * @param route the RoutingInfo for default route (non-null)
      * @throws IllegalArgumentException if route is null
      */
-    public void setDefault(RoutingInfo route) throws IllegalArgumentException {
+    public synchronized void setDefault(RoutingInfo route) throws IllegalArgumentException {
         if (route == null) {
             logger.error("[" + CLS + "] setDefault: route cannot be null");
             throw new IllegalArgumentException("RoutingTable: route cannot be null");
         }
         IPv4 defaultIP = new IPv4("0.0.0.0", 0);
-        if (this.table.containsKey(defaultIP)) {
-            this.table.remove(defaultIP);
-            logger.debug("[" + CLS + "] setDefault: removed existing default route");
+        if (this.table.put(defaultIP, route) != null) {
+            logger.debug(() -> "[" + CLS + "] setDefault: replaced existing default route");
         }
-        this.table.put(defaultIP, route);
-        logger.info("[" + CLS + "] setDefault: set default route via " + route.getDevice().getName());
+        this.index.insert(0, 0, route);
+        this.publish();
+        logger.info(() -> "[" + CLS + "] setDefault: set default route via " + route.getDevice().getName());
     }
 
     /**
@@ -116,7 +147,7 @@ public class RoutingTable implements NetworkTable<IPv4, RoutingInfo> {
      * @throws IllegalArgumentException if destination is null
      * @throws NullPointerException     if no such route exists
      */
-    public void remove(IPv4 destination) throws IllegalArgumentException, NullPointerException {
+    public synchronized void remove(IPv4 destination) throws IllegalArgumentException, NullPointerException {
         if (destination == null) {
             logger.error("[" + CLS + "] remove: destination cannot be null");
             throw new IllegalArgumentException("RoutingTable: destination cannot be null");
@@ -128,28 +159,90 @@ public class RoutingTable implements NetworkTable<IPv4, RoutingInfo> {
                 "RoutingTable: unable to remove " + destination.stringRepresentation()
             );
         }
-        logger.info("[" + CLS + "] remove: removed route to " + destination.stringRepresentation());
+        int network = destination.toInt();
+        int prefix  = destination.getMask();
+        this.index.remove(network, prefix);
+        if (this.aliases > 0) {
+            int netmask = prefix == 0 ? 0 : -1 << (32 - prefix);
+            for (Map.Entry<IPv4, RoutingInfo> e : this.table.entrySet()) {
+                IPv4 other = e.getKey();
+                if (other.getMask() == prefix && ((other.toInt() ^ network) & netmask) == 0) {
+                    this.index.insert(network, prefix, e.getValue());
+                    this.aliases--;
+                    break;
+                }
+            }
+        }
+        this.publish();
+        logger.info(() -> "[" + CLS + "] remove: removed route to " + destination.stringRepresentation());
+    }
+
+    /**
+     * Applies several changes and publishes them as one FIB. Lookups made
+     * meanwhile, from other threads, keep answering from the previous FIB.
+     * Updates may nest; the outermost one publishes. If {@code changes}
+     * throws, the changes it made before are published all the same.
+     *
+     * @param changes calls {@link #add}, {@link #remove}, {@link #setDefault}
+     *                or {@link #clear} on the table it is given (non-null)
+     * @throws IllegalArgumentException if changes is null
+     */
+    public synchronized void update(Consumer<RoutingTable> changes) throws IllegalArgumentException {
+        if (changes == null) {
+            logger.error("[" + CLS + "] update: changes cannot be null");
+            throw new IllegalArgumentException("RoutingTable: changes cannot be null");
+        }
+        this.batchDepth++;
+        try {
+            changes.accept(this);
+        } finally {
+            this.batchDepth--;
+            this.publish();
+        }
+        logger.info(() -> "[" + CLS + "] update: published FIB " + this.fib.generation()
+                     + " with " + this.fib.size() + " routes");
+    }
+
+    /**
+     * Publishes the trie as a new FIB unless an update is collecting changes.
+     * Called with the table's lock held.
+     */
+    private void publish() {
+        if (this.batchDepth == 0) {
+            this.fib = this.index.snapshot(this.table.size(), this.fib.generation() + 1);
+        }
+    }
+
+    /**
+     * @return the number of FIBs published so far, each table change or
+     *         update counting once
+     */
+    public long getGeneration() {
+        return this.fib.generation();
     }
 
     /**
-     * @return the number of entries in this table
+     * @return the number of entries in the latest published FIB
      */
     public int size() {
-        return this.table.size();
+        return this.fib.size();
     }
 
     /**
      * Clears all routes from this table.
      */
-    public void clear() {
+    public synchronized void clear() {
         this.table.clear();
-        logger.info("[" + CLS + "] clear: all routes removed");
+        this.index.clear();
+        this.aliases = 0;
+        this.publish();
+        logger.info(() -> "[" + CLS + "] clear: all routes removed");
     }
 
     /**
-     * @return true if the table contains no entries
+     * @return true if the latest published FIB contains no entries
      */
     public boolean isEmpty() {
-        return this.table.isEmpty();
+        return this.size() == 0;
     }
 }
\ No newline at end of file
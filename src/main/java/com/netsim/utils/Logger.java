@@ -1,16 +1,40 @@
 package com.netsim.utils;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.util.Locale;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
 
 /**
  * Singleton logger utility that writes to a file (and optionally to console),
  * supporting INFO, ERROR, and DEBUG levels.
+ * <p>
+ * Logging is asynchronous: callers publish messages into a bounded
+ * lock-free ring buffer and return immediately, while a background thread
+ * drains the ring into a buffered file writer (and the console, if
+ * enabled). Messages from one thread keep their order. When the ring is
+ * full callers wait for the writer rather than drop messages. Call
+ * {@link #flush()} to wait until everything logged so far is on disk.
+ * </p>
+ * <p>
+ * Settings are read from {@code application.properties} on the classpath:
+ * {@code LOG_FILE} (default {@code default.log}), {@code LOG_ON_CONSOLE}
+ * (default false) and {@code LOG_LEVEL}, the lowest level written: one of
+ * DEBUG, INFO (default), ERROR or OFF. Use the {@link Supplier} overloads
+ * for messages that are costly to build: the supplier is only called if
+ * the level is enabled.
+ * </p>
  */
 public class Logger {
     private static final String RESET       = "\u001B[0m";
@@ -18,8 +42,29 @@ public class Logger {
     private static final String GREEN       = "\u001B[32m";
     private static final String YELLOW      = "\u001B[33m";
     private static final String BLUE        = "\u001B[34m";
+    private static final int    CAPACITY    = 1 << 13;
+    private static final int    BATCH       = 256;
+    private static final long   IDLE_NANOS  = 1_000_000L;
     private static final Logger instance    = createInstance();
 
+    /**
+     * Logging levels, from most to least verbose.
+     */
+    public enum Level {
+        DEBUG("LOGGER DEBUG:\t", BLUE),
+        INFO ("LOGGER  INFO:\t", GREEN),
+        ERROR("LOGGER ERROR:\t", RED),
+        OFF  ("", "");
+
+        private final String prefix;
+        private final String color;
+
+        Level(String prefix, String color) {
+            this.prefix = prefix;
+            this.color  = color;
+        }
+    }
+
     private final Path    logFile;
     private final String  fileName;
     private final boolean logOnConsole;
@@ -27,25 +72,55 @@ public class Logger {
     private final boolean errorLevelOn;
     private final boolean infoLevelOn;
 
-    private Logger(Path logFile,
-                   String fileName,
-                   boolean logOnConsole,
-                   boolean debugLevelOn,
-                   boolean errorLevelOn,
-                   boolean infoLevelOn) {
+    // ring buffer: slot i is free for position p when sequences[i] == p,
+    // and holds the message for position p when sequences[i] == p + 1
+    private final AtomicReferenceArray<String> messages;
+    private final Level[]                      levels;
+    private final AtomicLongArray              sequences;
+    private final AtomicLong                   tail;
+    private final int                          mask;
+    private final Thread                       writerThread;
+    private volatile boolean                   sleeping;
+    private volatile long                      written;
+    private volatile long                      requested;
+
+    /**
+     * Creates a logger and starts its writer thread.
+     *
+     * @param logFile      the file to log to (truncated)
+     * @param logOnConsole whether messages are echoed to the console
+     * @param threshold    the lowest level written (non-null)
+     */
+    Logger(Path logFile, boolean logOnConsole, Level threshold) {
         this.logFile       = logFile;
-        this.fileName      = fileName;
+        this.fileName      = logFile.toString();
         this.logOnConsole  = logOnConsole;
-        this.debugLevelOn  = debugLevelOn;
-        this.errorLevelOn  = errorLevelOn;
-        this.infoLevelOn   = infoLevelOn;
+        this.debugLevelOn  = threshold.compareTo(Level.DEBUG) <= 0;
+        this.infoLevelOn   = threshold.compareTo(Level.INFO)  <= 0;
+        this.errorLevelOn  = threshold.compareTo(Level.ERROR) <= 0;
+        this.messages      = new AtomicReferenceArray<>(CAPACITY);
+        this.levels        = new Level[CAPACITY];
+        this.sequences     = new AtomicLongArray(CAPACITY);
+        this.tail          = new AtomicLong();
+        this.mask          = CAPACITY - 1;
+        this.sleeping      = false;
+        this.written       = 0L;
+        this.requested     = 0L;
+        for (int i = 0; i < CAPACITY; i++) {
+            this.sequences.set(i, i);
+        }
         cleanFile();
+
+        this.writerThread  = new Thread(this::drain, "netsim-logger");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
     }
 
     private static Logger createInstance() {
         Properties props = new Properties();
         boolean    consoleFlag = false;
         String     fname       = "default.log";
+        Level      threshold   = Level.INFO;
 
         try (InputStream in = Logger.class.getClassLoader()
                                           .getResourceAsStream("application.properties")) {
@@ -53,6 +128,7 @@ public class Logger {
                 props.load(in);
                 consoleFlag = Boolean.parseBoolean(props.getProperty("LOG_ON_CONSOLE", "false").trim());
                 fname       = props.getProperty("LOG_FILE", fname).trim();
+                threshold   = parseLevel(props.getProperty("LOG_LEVEL", threshold.name()));
             } else {
                 System.err.println("Unable to load application properties, defaulting LOG_ON_CONSOLE=false");
             }
@@ -60,13 +136,22 @@ public class Logger {
             System.err.println("Unable to load application properties: " + e.getMessage());
         }
 
-        Path logPath = Paths.get(fname);
-        return new Logger(logPath,
-                          fname,
-                          consoleFlag,
-                          true,   // debugLevelOn
-                          true,   // errorLevelOn
-                          true);  // infoLevelOn
+        Logger created = new Logger(Paths.get(fname), consoleFlag, threshold);
+        Runtime.getRuntime().addShutdownHook(new Thread(created::flush, "netsim-logger-flush"));
+        return created;
+    }
+
+    /**
+     * @param value a level name, case-insensitive
+     * @return the level, or INFO if the name is not recognised
+     */
+    private static Level parseLevel(String value) {
+        try {
+            return Level.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown LOG_LEVEL " + value + ", defaulting to INFO");
+            return Level.INFO;
+        }
     }
 
     /**
@@ -101,20 +186,157 @@ public class Logger {
         return instance;
     }
 
+    /**
+     * Publishes a message into the ring, waiting for a free slot if the
+     * writer has fallen a full ring behind.
+     *
+     * @param level the level, or null for a raw line
+     * @param msg   the message
+     */
+    private void publish(Level level, String msg) {
+        long position;
+        int  slot;
+        while (true) {
+            position = this.tail.get();
+            slot     = (int) position & this.mask;
+            long available = this.sequences.get(slot) - position;
+            if (available == 0) {
+                if (this.tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (available < 0) {
+                // full: let the writer catch up
+                LockSupport.unpark(this.writerThread);
+                Thread.yield();
+            }
+        }
+        this.levels[slot] = level;
+        this.messages.set(slot, msg);
+        this.sequences.lazySet(slot, position + 1);
+        if (this.sleeping) {
+            LockSupport.unpark(this.writerThread);
+        }
+    }
+
+    /**
+     * Body of the writer thread: moves messages from the ring to the file,
+     * flushing whenever the ring runs empty.
+     */
+    private void drain() {
+        BufferedWriter out  = null;
+        long           head = 0L;
+        while (true) {
+            int batch = 0;
+            while (batch < BATCH) {
+                int slot = (int) head & this.mask;
+                if (this.sequences.get(slot) != head + 1) {
+                    break;
+                }
+                Level  level = this.levels[slot];
+                String msg   = this.messages.get(slot);
+                this.messages.set(slot, null);
+                this.sequences.lazySet(slot, head + CAPACITY);
+                head++;
+                batch++;
+                out = this.write(out, level, msg);
+            }
+            // keep batching unless a flush() caller is waiting
+            if (batch > 0 && this.requested <= this.written) {
+                continue;
+            }
+
+            if (out != null) {
+                try {
+                    out.flush();
+                } catch (IOException e) {
+                    System.out.println(YELLOW + "Unable to write file " + this.fileName + RESET);
+                    out = null;
+                }
+            }
+            this.written = head;
+            if (batch > 0) {
+                continue;
+            }
+            this.sleeping = true;
+            if (this.sequences.get((int) head & this.mask) != head + 1) {
+                LockSupport.parkNanos(this, IDLE_NANOS);
+            }
+            this.sleeping = false;
+        }
+    }
+
+    /**
+     * Writes one message, opening the file if needed.
+     *
+     * @return the writer to use for the next message, or null if the file is unavailable
+     */
+    private BufferedWriter write(BufferedWriter out, Level level, String msg) {
+        String line = level == null ? String.valueOf(msg) : level.prefix + msg;
+        if (out == null) {
+            try {
+                out = Files.newBufferedWriter(this.logFile,
+                                              StandardCharsets.UTF_8,
+                                              StandardOpenOption.CREATE,
+                                              StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                System.out.println(YELLOW + "Unable to open file " + this.fileName + RESET);
+            }
+        }
+        if (out != null) {
+            try {
+                out.write(line);
+                out.write('\n');
+            } catch (IOException e) {
+                System.out.println(YELLOW + "Unable to write file " + this.fileName + RESET);
+                out = null;
+            }
+        }
+        if (this.logOnConsole && level != null) {
+            if (level == Level.ERROR) {
+                System.err.println(level.color + line + RESET);
+            } else {
+                System.out.println(level.color + line + RESET);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Blocks until every message logged before this call has been written
+     * to the log file.
+     */
+    public void flush() {
+        long target = this.tail.get();
+        if (this.requested < target) {
+            this.requested = target;
+        }
+        while (this.written < target) {
+            LockSupport.unpark(this.writerThread);
+            LockSupport.parkNanos(IDLE_NANOS / 10);
+        }
+    }
+
     /**
      * Logs a raw message to the log file.
      *
      * @param msg the message to append (non-null)
      */
     public void log(String msg) {
-        try {
-            Files.writeString(this.logFile,
-                              msg + "\n",
-                              StandardOpenOption.CREATE,
-                              StandardOpenOption.APPEND);
-        } catch (IOException e) {
-            System.out.println(YELLOW + "Unable to open file " + this.fileName + RESET);
-        }
+        this.publish(null, msg);
+    }
+
+    /**
+     * @return true if DEBUG messages are written
+     */
+    public boolean isDebugEnabled() {
+        return this.debugLevelOn;
+    }
+
+    /**
+     * @return true if INFO messages are written
+     */
+    public boolean isInfoEnabled() {
+        return this.infoLevelOn;
     }
 
     /**
@@ -126,11 +348,19 @@ public class Logger {
         if (!this.infoLevelOn) {
             return;
         }
-        String logMsg = String.format("LOGGER %5s:\t%s", "INFO", msg);
-        log(logMsg);
-        if (this.logOnConsole) {
-            System.out.println(GREEN + logMsg + RESET);
+        this.publish(Level.INFO, msg);
+    }
+
+    /**
+     * Logs an INFO-level message built only if INFO is enabled.
+     *
+     * @param msg supplier of the message to log (non-null)
+     */
+    public void info(Supplier<String> msg) {
+        if (!this.infoLevelOn) {
+            return;
         }
+        this.publish(Level.INFO, msg.get());
     }
 
     /**
@@ -142,11 +372,19 @@ public class Logger {
         if (!this.errorLevelOn) {
             return;
         }
-        String logMsg = String.format("LOGGER %5s:\t%s", "ERROR", err);
-        log(logMsg);
-        if (this.logOnConsole) {
-            System.err.println(RED + logMsg + RESET);
+        this.publish(Level.ERROR, err);
+    }
+
+    /**
+     * Logs an ERROR-level message built only if ERROR is enabled.
+     *
+     * @param err supplier of the error message to log (non-null)
+     */
+    public void error(Supplier<String> err) {
+        if (!this.errorLevelOn) {
+            return;
         }
+        this.publish(Level.ERROR, err.get());
     }
 
     /**
@@ -158,15 +396,23 @@ public class Logger {
         if (!this.debugLevelOn) {
             return;
         }
-        String logMsg = String.format("LOGGER %5s:\t%s", "DEBUG", msg);
-        log(logMsg);
-        if (this.logOnConsole) {
-            System.out.println(BLUE + logMsg + RESET);
+        this.publish(Level.DEBUG, msg);
+    }
+
+    /**
+     * Logs a DEBUG-level message built only if DEBUG is enabled.
+     *
+     * @param msg supplier of the debug message to log (non-null)
+     */
+    public void debug(Supplier<String> msg) {
+        if (!this.debugLevelOn) {
+            return;
         }
+        this.publish(Level.DEBUG, msg.get());
     }
 
     /** @return logging filenam */
     public String getFilename() {
         return this.fileName;
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,8 @@
 package com.netsim.addresses;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -128,4 +130,66 @@ public class IPv4Test {
         
         assertEquals(expectedBroadcast.stringRepresentation(), ip.subnetBroadcast().stringRepresentation());
     }
+
+    @Test
+    public void testPackedIntRoundTrip() {
+        IPv4 ip = new IPv4("192.168.1.100", 24);
+        assertEquals(0xC0A80164, ip.toInt());
+
+        IPv4 rebuilt = IPv4.fromInt(0xC0A80164, 24);
+        assertEquals("192.168.1.100", rebuilt.stringRepresentation());
+        assertEquals(24, rebuilt.getMask());
+        assertEquals(ip, rebuilt);
+        assertEquals(ip.hashCode(), rebuilt.hashCode());
+    }
+
+    @Test
+    public void testPackedIntFollowsSetAddress() {
+        IPv4 ip = new IPv4("10.0.0.1", 8);
+        ip.setAddress("10.0.0.2");
+        assertEquals(0x0A000002, ip.toInt());
+        assertEquals(new IPv4("10.0.0.2", 8), ip);
+    }
+
+    @Test
+    public void testEqualsConsidersPrefix() {
+        assertNotEquals(new IPv4("10.0.0.1", 8), new IPv4("10.0.0.1", 24));
+        assertNotEquals(new IPv4("10.0.0.1", 8), new IPv4("10.0.0.2", 8));
+    }
+
+    @Test
+    public void testIsInSubnetPacked() {
+        IPv4 ip = new IPv4("172.16.5.4", 32);
+        assertTrue(ip.isInSubnet(0xAC100000, 12));
+        assertTrue(ip.isInSubnet(0xAC1005FF, 24));
+        assertFalse(ip.isInSubnet(0xAC110000, 16));
+        assertTrue(ip.isInSubnet(0, 0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIsInSubnetPackedRejectsBadPrefix() {
+        new IPv4("172.16.5.4", 32).isInSubnet(0, 33);
+    }
+
+    @Test
+    public void testOctetsAndMaskAreBuiltFromThePackedForm() {
+        IPv4 ip = IPv4.fromInt(0xC0A80164, 20);
+        assertArrayEquals(new byte[] {(byte) 192, (byte) 168, 1, 100}, ip.byteRepresentation());
+        assertEquals("192.168.1.100", ip.stringRepresentation());
+        assertEquals("255.255.240.0", ip.mask().stringRepresentation());
+
+        byte[] header = new byte[6];
+        ip.copyTo(header, 1);
+        assertArrayEquals(new byte[] {0, (byte) 192, (byte) 168, 1, 100, 0}, header);
+
+        ip.setMask(8);
+        assertEquals(8, ip.getMask());
+        assertEquals("255.0.0.0", ip.mask().stringRepresentation());
+        assertEquals(24, new IPv4("10.0.0.1", "255.255.255.0").getMask());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructorRejectsBadPrefix() {
+        new IPv4("10.0.0.1", 33);
+    }
 }
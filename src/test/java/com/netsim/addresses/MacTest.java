@@ -73,4 +73,68 @@ public class MacTest {
         String repr = mac.stringRepresentation();
         assertEquals("Round-trip of stringRepresentation and parse should preserve value", original, repr);
     }
+
+    @Test
+    public void testToLongPacksOctetsBigEndian() {
+        Mac mac = new Mac("02:1B:2C:3D:4E:5F");
+        assertEquals(0x021B2C3D4E5FL, mac.toLong());
+        byte[] frame = {0, 0x02, 0x1B, 0x2C, 0x3D, 0x4E, 0x5F, 0};
+        assertEquals(mac.toLong(), Mac.toLong(frame, 1));
+    }
+
+    @Test
+    public void testToLongFollowsSetAddress() {
+        Mac mac = new Mac("00:00:00:00:00:01");
+        mac.setAddress("FF:FF:FF:FF:FF:FF");
+        assertEquals(0xFFFFFFFFFFFFL, mac.toLong());
+        assertEquals(Mac.broadcast(), mac);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testToLongRejectsShortArray() {
+        Mac.toLong(new byte[8], 3);
+    }
+
+    @Test
+    public void testEqualsAndHashCodeByAddress() {
+        Mac a = new Mac("aa:bb:cc:dd:ee:ff");
+        Mac b = Mac.bytesToMac(a.byteRepresentation());
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertNotEquals(a, new Mac("aa:bb:cc:dd:ee:fe"));
+    }
+
+    @Test
+    public void testFromLongRoundTrips() {
+        Mac a = new Mac("aa:bb:cc:dd:ee:ff");
+        Mac b = Mac.fromLong(a.toLong());
+        assertEquals(a, b);
+        assertEquals("AA:BB:CC:DD:EE:FF", b.stringRepresentation());
+        assertEquals(Mac.broadcast(), Mac.fromLong(0xFFFFFFFFFFFFL));
+    }
+
+    @Test
+    public void testValueOfSharesInstances() {
+        Mac a = Mac.valueOf(0x02AABBCCDDEEL);
+        assertSame(a, Mac.valueOf(0x02AABBCCDDEEL));
+        assertSame(a, Mac.bytesToMac(new byte[]{0x02, (byte) 0xAA, (byte) 0xBB, (byte) 0xCC, (byte) 0xDD, (byte) 0xEE}));
+        assertEquals(new Mac("02:AA:BB:CC:DD:EE"), a);
+        assertSame(Mac.broadcast(), Mac.broadcast());
+        assertSame(Mac.broadcast(), Mac.valueOf(-1L));
+        assertTrue(Mac.broadcast().isBroadcast());
+        assertFalse(a.isBroadcast());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSharedInstanceCannotChange() {
+        Mac.valueOf(0x020000000001L).setAddress("02:00:00:00:00:02");
+    }
+
+    @Test
+    public void testNewInstancesStayMutable() {
+        Mac mac = new Mac("02:00:00:00:00:01");
+        assertNotSame(mac, Mac.valueOf(mac.toLong()));
+        mac.setAddress("02:00:00:00:00:02");
+        assertEquals(0x020000000002L, mac.toLong());
+    }
 }
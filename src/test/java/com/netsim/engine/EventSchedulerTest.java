@@ -0,0 +1,264 @@
+package com.netsim.engine;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class EventSchedulerTest {
+    private EventScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        scheduler = new EventScheduler();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void scheduleRejectsNullEvent() {
+        scheduler.schedule(0L, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void scheduleRejectsNegativeDelay() {
+        scheduler.schedule(-1L, () -> {});
+    }
+
+    @Test
+    public void eventsRunInTimeOrderAndAdvanceClock() {
+        List<Long> fired = new ArrayList<>();
+        scheduler.schedule(30L, () -> fired.add(scheduler.now()));
+        scheduler.schedule(10L, () -> fired.add(scheduler.now()));
+        scheduler.schedule(20L, () -> fired.add(scheduler.now()));
+
+        assertEquals(3, scheduler.pending());
+        assertEquals(3L, scheduler.run());
+        assertEquals(List.of(10L, 20L, 30L), fired);
+        assertEquals(30L, scheduler.now());
+        assertEquals(0, scheduler.pending());
+    }
+
+    @Test
+    public void simultaneousEventsRunInInsertionOrder() {
+        List<Integer> fired = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            final int id = i;
+            scheduler.schedule(5L, () -> fired.add(id));
+        }
+        scheduler.run();
+        assertEquals(List.of(0, 1, 2, 3, 4), fired);
+    }
+
+    @Test
+    public void simultaneousEventsOrderedByOriginThenSequence() {
+        List<String> fired = new ArrayList<>();
+        scheduler.scheduleAt(5L, 2L, 0L, () -> fired.add("b0"));
+        scheduler.scheduleAt(5L, 1L, 1L, () -> fired.add("a1"));
+        scheduler.scheduleAt(5L, () -> fired.add("local"));
+        scheduler.scheduleAt(5L, 1L, 0L, () -> fired.add("a0"));
+        scheduler.run();
+        assertEquals(List.of("local", "a0", "a1", "b0"), fired);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void scheduleAtRejectsNonPositiveOrigin() {
+        scheduler.scheduleAt(5L, 0L, 0L, () -> {});
+    }
+
+    @Test
+    public void runUntilStopsAtBoundary() {
+        List<Long> fired = new ArrayList<>();
+        scheduler.schedule(10L, () -> fired.add(10L));
+        scheduler.schedule(50L, () -> fired.add(50L));
+
+        assertEquals(1L, scheduler.runUntil(20L));
+        assertEquals(List.of(10L), fired);
+        assertEquals(20L, scheduler.now());
+        assertEquals(1, scheduler.pending());
+    }
+
+    @Test
+    public void cancelledEventNeitherRunsNorAdvancesClock() {
+        List<Long> fired = new ArrayList<>();
+        ScheduledEvent early   = scheduler.schedule(5L, () -> fired.add(scheduler.now()));
+        scheduler.schedule(10L, () -> fired.add(scheduler.now()));
+        ScheduledEvent timeout = scheduler.schedule(1_000L, () -> fired.add(scheduler.now()));
+        early.cancel();
+        timeout.cancel();
+        timeout.cancel();
+        assertTrue(timeout.isCancelled());
+        assertEquals(10L, scheduler.nextEventTime());
+
+        scheduler.run();
+        assertEquals(List.of(10L), fired);
+        assertEquals(10L, scheduler.now());
+        assertEquals(1L, scheduler.getExecutedCount());
+        assertEquals(0, scheduler.pending());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void scheduleAtRejectsPastTime() {
+        scheduler.schedule(10L, () -> {});
+        scheduler.run();
+        scheduler.scheduleAt(5L, () -> {});
+    }
+
+    @Test
+    public void autoRunDrainsOnFirstSchedule() {
+        EventScheduler auto = new EventScheduler(true);
+        List<String> fired = new ArrayList<>();
+        auto.schedule(0L, () -> {
+            fired.add("outer");
+            auto.schedule(1L, () -> fired.add("nested"));
+            fired.add("outer-end");
+        });
+        assertEquals(List.of("outer", "outer-end", "nested"), fired);
+        assertEquals(0, auto.pending());
+    }
+
+    @Test
+    public void longEventChainDoesNotGrowTheStack() {
+        final int hops = 200_000;
+        int[] counter = {0};
+        Event[] hop = new Event[1];
+        hop[0] = () -> {
+            if (++counter[0] < hops) {
+                scheduler.schedule(1L, hop[0]);
+            }
+        };
+        scheduler.schedule(0L, hop[0]);
+        scheduler.run();
+
+        assertEquals(hops, counter[0]);
+        assertEquals(hops - 1, scheduler.now());
+        assertEquals(hops, scheduler.getExecutedCount());
+    }
+
+    @Test
+    public void resetClearsQueueAndClock() {
+        scheduler.schedule(10L, () -> {});
+        scheduler.runUntil(5L);
+        scheduler.reset();
+        assertEquals(0L, scheduler.now());
+        assertEquals(0, scheduler.pending());
+        assertEquals(0L, scheduler.getExecutedCount());
+    }
+
+    @Test
+    public void postedEventRunsAtCurrentTimeAfterDueEvents() {
+        List<String> fired = new ArrayList<>();
+        scheduler.schedule(5L, () -> {
+            scheduler.post(() -> fired.add("posted@" + scheduler.now()));
+            fired.add("first");
+        });
+        scheduler.schedule(5L, () -> fired.add("second"));
+        scheduler.schedule(6L, () -> fired.add("later"));
+        scheduler.run();
+        assertEquals(List.of("first", "second", "posted@5", "later"), fired);
+    }
+
+    @Test
+    public void postOnIdleAutoRunSchedulerRunsOnCaller() {
+        EventScheduler auto = new EventScheduler(true);
+        Thread[] ranOn = new Thread[1];
+        auto.post(() -> ranOn[0] = Thread.currentThread());
+        assertSame(Thread.currentThread(), ranOn[0]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void postRejectsNullEvent() {
+        scheduler.post(null);
+    }
+
+    @Test
+    public void serveRunsEventsPostedFromOtherThreads() throws Exception {
+        final int posters = 8;
+        final int each    = 1_000;
+        CountDownLatch done    = new CountDownLatch(posters * each);
+        Set<Thread>    ranOn   = ConcurrentHashMap.newKeySet();
+        Thread         server  = new Thread(() -> scheduler.serve());
+        server.start();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < posters; i++) {
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < each; j++) {
+                    scheduler.post(() -> {
+                        ranOn.add(Thread.currentThread());
+                        done.countDown();
+                    });
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        scheduler.stop();
+        server.join(10_000L);
+
+        assertFalse(server.isAlive());
+        assertEquals(Collections.singleton(server), ranOn);
+        assertEquals(posters * each, scheduler.getExecutedCount());
+        assertFalse(scheduler.isRunning());
+    }
+
+    @Test
+    public void serveRunsEventsScheduledFromOtherThreads() throws Exception {
+        final int schedulers = 8;
+        final int each       = 1_000;
+        CountDownLatch done   = new CountDownLatch(schedulers * each);
+        Thread         server = new Thread(() -> scheduler.serve());
+        server.start();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < schedulers; i++) {
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < each; j++) {
+                    scheduler.schedule(j, done::countDown);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        scheduler.stop();
+        server.join(10_000L);
+
+        assertEquals(schedulers * each, scheduler.getExecutedCount());
+        assertEquals(0, scheduler.pending());
+    }
+
+    @Test
+    public void postWhileAutoRunWindsDownIsNotLeftInTheMailbox() throws Exception {
+        EventScheduler auto   = new EventScheduler(true);
+        boolean[]      ran    = {false};
+        Thread[]       poster = new Thread[1];
+        auto.schedule(0L, () -> {
+            poster[0] = new Thread(() -> auto.post(() -> ran[0] = true));
+            poster[0].start();
+        });
+        poster[0].join(10_000L);
+        assertTrue(ran[0]);
+        assertEquals(0, auto.pending());
+    }
+
+    @Test
+    public void serveAdvancesThroughScheduledEventsUntilStopped() {
+        List<Long> fired = new ArrayList<>();
+        scheduler.schedule(10L, () -> fired.add(scheduler.now()));
+        scheduler.schedule(20L, () -> {
+            fired.add(scheduler.now());
+            scheduler.stop();
+        });
+        scheduler.schedule(30L, () -> fired.add(scheduler.now()));
+
+        assertEquals(2L, scheduler.serve());
+        assertEquals(List.of(10L, 20L), fired);
+        assertEquals(1, scheduler.pending());
+    }
+}
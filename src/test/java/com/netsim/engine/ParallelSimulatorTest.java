@@ -0,0 +1,277 @@
+package com.netsim.engine;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Mac;
+import com.netsim.app.App;
+import com.netsim.app.msg.MsgCommandFactory;
+import com.netsim.network.CabledAdapter;
+import com.netsim.network.Interface;
+import com.netsim.network.host.Host;
+import com.netsim.network.router.Router;
+import com.netsim.network.switching.Switch;
+import com.netsim.networkstack.ProtocolPipeline;
+import com.netsim.table.ArpTable;
+import com.netsim.table.RoutingInfo;
+import com.netsim.table.RoutingTable;
+
+public class ParallelSimulatorTest {
+    private static final int  ROUTERS     = 6;
+    private static final long HOST_DELAY  = 500L;
+    private static final long TRUNK_DELAY = 1_000L;
+
+    /** Records every delivery as "time:payload". */
+    private static final class RecordingApp extends App {
+        private final List<String> trace = new ArrayList<>();
+
+        RecordingApp(Host owner) {
+            super("recorder", "", new MsgCommandFactory(), owner);
+        }
+
+        public void start() {}
+
+        public void send(ProtocolPipeline stack, byte[] data) {}
+
+        public void receive(ProtocolPipeline stack, byte[] data) {
+            this.trace.add(this.owner.getScheduler().now() + ":" + new String(data));
+        }
+    }
+
+    private static String mac(int a, int b) {
+        return String.format("aa:bb:cc:00:%02x:%02x", a, b);
+    }
+
+    private static void link(CabledAdapter a, CabledAdapter b, long latency) {
+        a.setRemoteAdapter(b);
+        b.setRemoteAdapter(a);
+        a.setLatency(latency);
+        b.setLatency(latency);
+    }
+
+    /**
+     * Builds a line of routers, each with one host, and has every host send
+     * two messages to every other host at the same instants.
+     *
+     * @return per-host delivery traces after the run
+     */
+    private List<List<String>> simulate(int workers) {
+        ParallelSimulator sim = new ParallelSimulator(workers);
+        Host[]          hosts   = new Host[ROUTERS];
+        RecordingApp[]  apps    = new RecordingApp[ROUTERS];
+        CabledAdapter[] leftOf  = new CabledAdapter[ROUTERS];
+        CabledAdapter[] rightOf = new CabledAdapter[ROUTERS];
+
+        for (int i = 0; i < ROUTERS; i++) {
+            leftOf[i]  = new CabledAdapter("r" + i + "-left", 1500, new Mac(mac(i, 1)));
+            rightOf[i] = new CabledAdapter("r" + i + "-right", 1500, new Mac(mac(i, 2)));
+        }
+        for (int i = 1; i < ROUTERS; i++) {
+            link(rightOf[i - 1], leftOf[i], TRUNK_DELAY);
+        }
+
+        for (int i = 0; i < ROUTERS; i++) {
+            CabledAdapter toHost   = new CabledAdapter("r" + i + "-host", 1500, new Mac(mac(i, 3)));
+            CabledAdapter hostSide = new CabledAdapter("h" + i, 1500, new Mac(mac(i, 4)));
+            link(toHost, hostSide, HOST_DELAY);
+
+            RoutingTable rt = new RoutingTable();
+            for (int j = 0; j < ROUTERS; j++) {
+                CabledAdapter out = j == i ? toHost : (j < i ? leftOf[i] : rightOf[i]);
+                rt.add(new IPv4("10." + j + ".0.0", 24), new RoutingInfo(out, null));
+            }
+            List<Interface> rIfaces = new ArrayList<>();
+            rIfaces.add(new Interface(toHost, new IPv4("10." + i + ".0.1", 24)));
+            if (i > 0) {
+                rIfaces.add(new Interface(leftOf[i], new IPv4("192.168." + i + ".2", 24)));
+            }
+            if (i < ROUTERS - 1) {
+                rIfaces.add(new Interface(rightOf[i], new IPv4("192.168." + (i + 1) + ".1", 24)));
+            }
+            Router router = new Router("r" + i, rt, new ArpTable(), rIfaces);
+            for (Interface iface : rIfaces) {
+                iface.getAdapter().setOwner(router);
+            }
+
+            RoutingTable hostRt = new RoutingTable();
+            hostRt.add(new IPv4("10.0.0.0", 8), new RoutingInfo(hostSide, null));
+            List<Interface> hIfaces = new ArrayList<>();
+            hIfaces.add(new Interface(hostSide, new IPv4("10." + i + ".0.2", 24)));
+            hosts[i] = new Host("h" + i, hostRt, new ArpTable(), hIfaces);
+            hostSide.setOwner(hosts[i]);
+            apps[i] = new RecordingApp(hosts[i]);
+            hosts[i].setApp(apps[i]);
+
+            sim.addNode(router);
+            sim.addNode(hosts[i]);
+        }
+
+        for (int round = 0; round < 2; round++) {
+            for (int src = 0; src < ROUTERS; src++) {
+                for (int dst = 0; dst < ROUTERS; dst++) {
+                    if (src == dst) {
+                        continue;
+                    }
+                    Host   from    = hosts[src];
+                    IPv4   to      = new IPv4("10." + dst + ".0.2", 24);
+                    byte[] payload = ("m" + round + "-" + src + ">" + dst).getBytes();
+                    sim.scheduleAt(from, round * 1_000L, () -> from.send(to, new ProtocolPipeline(), payload));
+                }
+            }
+        }
+
+        sim.run();
+
+        List<List<String>> traces = new ArrayList<>();
+        for (RecordingApp app : apps) {
+            traces.add(app.trace);
+        }
+        return traces;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructorRejectsZeroWorkers() {
+        new ParallelSimulator(0);
+    }
+
+    @Test
+    public void lookaheadIsSmallestCrossPartitionLatency() {
+        ParallelSimulator sim = new ParallelSimulator(2);
+        CabledAdapter a = new CabledAdapter("a", 1500, new Mac("aa:bb:cc:00:00:01"));
+        CabledAdapter b = new CabledAdapter("b", 1500, new Mac("aa:bb:cc:00:00:02"));
+        link(a, b, 700L);
+        Host ha = hostOn(a, "10.0.0.1");
+        Host hb = hostOn(b, "10.0.0.2");
+        sim.addNode(ha, 0);
+        sim.addNode(hb, 1);
+        assertEquals(700L, sim.getLookahead());
+        assertSame(sim.getProcess(0), ha.getScheduler());
+        assertSame(sim.getProcess(1), b.getScheduler());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void zeroLatencyCableAcrossPartitionsIsRejected() {
+        ParallelSimulator sim = new ParallelSimulator(2);
+        CabledAdapter a = new CabledAdapter("a", 1500, new Mac("aa:bb:cc:00:00:01"));
+        CabledAdapter b = new CabledAdapter("b", 1500, new Mac("aa:bb:cc:00:00:02"));
+        link(a, b, 0L);
+        sim.addNode(hostOn(a, "10.0.0.1"), 0);
+        sim.addNode(hostOn(b, "10.0.0.2"), 1);
+        sim.prepare();
+    }
+
+    @Test
+    public void partitionedRunMatchesSingleThreadedRun() {
+        List<List<String>> reference = simulate(1);
+        int delivered = 0;
+        for (List<String> trace : reference) {
+            delivered += trace.size();
+        }
+        assertEquals(2 * ROUTERS * (ROUTERS - 1), delivered);
+
+        assertEquals(reference, simulate(2));
+        assertEquals(reference, simulate(4));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void eventInsideTheWindowFailsTheRun() {
+        ParallelSimulator sim = new ParallelSimulator(2);
+        sim.setLookahead(10L);
+        LogicalProcess first  = sim.getProcess(0);
+        LogicalProcess second = sim.getProcess(1);
+        first.scheduleAt(0L, () -> second.scheduleAt(first.now() + 5L, 1L, 0L, () -> {}));
+        sim.run();
+    }
+
+    @Test
+    public void crossPartitionEventsAreDeliveredAfterTheWindow() {
+        ParallelSimulator sim = new ParallelSimulator(2);
+        sim.setLookahead(10L);
+        LogicalProcess first  = sim.getProcess(0);
+        LogicalProcess second = sim.getProcess(1);
+        List<Long> fired = new ArrayList<>();
+        first.scheduleAt(0L, () -> second.scheduleAt(first.now() + 10L, 1L, 0L,
+            () -> fired.add(second.now())));
+        sim.run();
+        assertEquals(List.of(10L), fired);
+    }
+
+    /**
+     * Hosts on one switch, each on its own partition with the switch on
+     * the first, exchange messages resolved through ARP.
+     *
+     * @return per-host delivery traces after the run
+     */
+    private List<List<String>> simulateSwitched(int workers) {
+        int               count   = 3;
+        ParallelSimulator sim     = new ParallelSimulator(workers);
+        Host[]            hosts   = new Host[count];
+        RecordingApp[]    apps    = new RecordingApp[count];
+        List<CabledAdapter> ports = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            CabledAdapter station = new CabledAdapter("s" + i, 1500, new Mac(mac(i, 5)));
+            CabledAdapter port    = new CabledAdapter("p" + i, 1500, new Mac(mac(i, 6)));
+            link(station, port, HOST_DELAY);
+            ports.add(port);
+            hosts[i] = hostOn(station, "10.0.0." + (i + 1));
+            hosts[i].getRoutingTable().add(new IPv4("10.0.0.0", 24), new RoutingInfo(station, null));
+            apps[i] = new RecordingApp(hosts[i]);
+            hosts[i].setApp(apps[i]);
+            sim.addNode(hosts[i], i % workers);
+        }
+        Switch sw = new Switch("sw", ports);
+        sim.addBridge(sw, 0);
+
+        for (int src = 0; src < count; src++) {
+            for (int dst = 0; dst < count; dst++) {
+                if (src != dst) {
+                    Host   from    = hosts[src];
+                    IPv4   to      = new IPv4("10.0.0." + (dst + 1), 24);
+                    byte[] payload = (src + ">" + dst).getBytes();
+                    sim.scheduleAt(from, 0L, () -> from.send(to, new ProtocolPipeline(), payload));
+                }
+            }
+        }
+        sim.run();
+        assertSame(sim.getProcess(0), ports.get(2).getScheduler());
+
+        List<List<String>> traces = new ArrayList<>();
+        for (RecordingApp app : apps) {
+            traces.add(app.trace);
+        }
+        return traces;
+    }
+
+    @Test
+    public void switchedRunMatchesSingleThreadedRun() {
+        List<List<String>> reference = simulateSwitched(1);
+        for (List<String> trace : reference) {
+            assertEquals(2, trace.size());
+        }
+        assertEquals(reference, simulateSwitched(3));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void unregisteredSwitchIsRejected() {
+        ParallelSimulator sim = new ParallelSimulator(2);
+        CabledAdapter a = new CabledAdapter("a", 1500, new Mac("aa:bb:cc:00:00:01"));
+        CabledAdapter p = new CabledAdapter("p", 1500, new Mac("aa:bb:cc:00:00:02"));
+        link(a, p, 100L);
+        new Switch("sw", List.of(p));
+        sim.addNode(hostOn(a, "10.0.0.1"));
+        sim.prepare();
+    }
+
+    private static Host hostOn(CabledAdapter adapter, String ip) {
+        List<Interface> ifaces = new ArrayList<>();
+        ifaces.add(new Interface(adapter, new IPv4(ip, 24)));
+        Host host = new Host("h-" + ip, new RoutingTable(), new ArpTable(), ifaces);
+        adapter.setOwner(host);
+        return host;
+    }
+}
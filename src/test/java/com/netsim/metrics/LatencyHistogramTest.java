@@ -0,0 +1,92 @@
+package com.netsim.metrics;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void smallValuesAreExact() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (long v = 1; v <= 10; v++) {
+            h.record(v);
+        }
+        assertEquals(10, h.getCount());
+        assertEquals(1, h.getMin());
+        assertEquals(10, h.getMax());
+        assertEquals(5.5, h.getMean(), 1e-9);
+        assertEquals(5, h.getValueAtPercentile(50.0));
+        assertEquals(10, h.getValueAtPercentile(99.0));
+        assertEquals(1, h.getValueAtPercentile(0.0));
+    }
+
+    @Test
+    public void largeValuesKeepTheirPrecision() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (long v = 1; v <= 100_000; v++) {
+            h.record(v * 1_000L);
+        }
+        long p50  = h.getValueAtPercentile(50.0);
+        long p99  = h.getValueAtPercentile(99.0);
+        long p999 = h.getValueAtPercentile(99.9);
+        assertEquals(50_000_000.0, p50, 50_000_000.0 / 64);
+        assertEquals(99_000_000.0, p99, 99_000_000.0 / 64);
+        assertEquals(99_900_000.0, p999, 99_900_000.0 / 64);
+        assertEquals(100_000_000L, h.getValueAtPercentile(100.0));
+    }
+
+    @Test
+    public void bucketsCoverTheWholeRange() {
+        for (long v : new long[]{0L, 63L, 64L, 65L, 1L << 40, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.indexOf(v);
+            assertTrue(LatencyHistogram.highestValueAt(index) >= v);
+            if (index > 0) {
+                assertTrue(LatencyHistogram.highestValueAt(index - 1) < v);
+            }
+        }
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, h.getValueAtPercentile(50.0));
+    }
+
+    @Test
+    public void resetForgetsEverything() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(42L);
+        h.reset();
+        assertEquals(0, h.getCount());
+        assertEquals(0, h.getMin());
+        assertEquals(0, h.getMax());
+        assertEquals(0, h.getValueAtPercentile(99.0));
+    }
+
+    @Test
+    public void concurrentRecordsAreAllCounted() throws InterruptedException {
+        LatencyHistogram h = new LatencyHistogram();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    h.record(i);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40_000, h.getCount());
+        assertEquals(9_999, h.getMax());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void recordRejectsNegativeValues() {
+        new LatencyHistogram().record(-1L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void percentileMustBeInRange() {
+        new LatencyHistogram().getValueAtPercentile(100.5);
+    }
+}
@@ -0,0 +1,109 @@
+package com.netsim.metrics;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import com.netsim.engine.EventScheduler;
+
+public class MetricsRegistryTest {
+
+    @Test
+    public void counterIsCreatedOnceByName() {
+        MetricsRegistry registry = new MetricsRegistry();
+        Counter a = registry.counter("node.h1.delivered");
+        a.increment();
+        a.add(2);
+        assertSame(a, registry.counter("node.h1.delivered"));
+        assertEquals(1, registry.size());
+        assertEquals(3, registry.snapshot(0).get("node.h1.delivered"));
+    }
+
+    @Test
+    public void registerReplacesThePreviousSource() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("node.r1.forwarded").add(5);
+        Counter fresh = new Counter();
+        registry.register("node.r1.forwarded", fresh);
+        fresh.increment();
+        assertSame(fresh, registry.counter("node.r1.forwarded"));
+        assertEquals(1, registry.snapshot(0).get("node.r1.forwarded"));
+    }
+
+    @Test
+    public void gaugesAreReadAtSnapshotTime() {
+        MetricsRegistry registry = new MetricsRegistry();
+        AtomicLong depth = new AtomicLong(4);
+        registry.gauge("node.r1.eth0.queue_depth", depth::get);
+        assertEquals(4, registry.snapshot(0).get("node.r1.eth0.queue_depth"));
+        depth.set(9);
+        assertEquals(9, registry.snapshot(0).get("node.r1.eth0.queue_depth"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void counterRejectsAGaugeName() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.gauge("g", () -> 1);
+        registry.counter("g");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void counterRejectsEmptyName() {
+        new MetricsRegistry().counter("");
+    }
+
+    @Test
+    public void unregisterRemovesByPrefix() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("node.r1.forwarded");
+        registry.counter("node.r1.eth0.tx_frames");
+        registry.counter("node.r10.forwarded");
+        assertEquals(2, registry.unregister("node.r1."));
+        MetricsSnapshot snapshot = registry.snapshot(0);
+        assertEquals(1, snapshot.size());
+        assertTrue(snapshot.contains("node.r10.forwarded"));
+        assertFalse(snapshot.contains("node.r1.forwarded"));
+    }
+
+    @Test
+    public void snapshotIsSortedAndExports() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("b").add(2);
+        registry.counter("a").add(1);
+        MetricsSnapshot snapshot = registry.snapshot(7);
+        assertEquals(7, snapshot.getTime());
+        assertEquals("a", snapshot.getName(0));
+        assertEquals(2, snapshot.getValue(1));
+        assertEquals("7,a,1\n7,b,2\n", snapshot.toCsv());
+        assertEquals("{\"time\":7,\"metrics\":{\"a\":1,\"b\":2}}", snapshot.toJson());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void snapshotRejectsUnknownMetric() {
+        new MetricsRegistry().snapshot(0).get("missing");
+    }
+
+    @Test
+    public void sampleEveryStopsWhenTheSimulationDoes() {
+        MetricsRegistry registry = new MetricsRegistry();
+        Counter events = registry.counter("events");
+        EventScheduler scheduler = new EventScheduler();
+        for (long t = 1; t <= 5; t++) {
+            scheduler.scheduleAt(t * 100, events::increment);
+        }
+        List<MetricsSnapshot> samples = new ArrayList<>();
+        registry.sampleEvery(scheduler, 200, samples::add);
+        scheduler.run();
+
+        assertEquals(3, samples.size());
+        assertEquals(200, samples.get(0).getTime());
+        assertEquals(2, samples.get(0).get("events"));
+        assertEquals(4, samples.get(1).get("events"));
+        assertEquals(600, samples.get(2).getTime());
+        assertEquals(5, samples.get(2).get("events"));
+    }
+}
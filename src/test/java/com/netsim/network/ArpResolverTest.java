@@ -0,0 +1,191 @@
+package com.netsim.network;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Mac;
+import com.netsim.app.App;
+import com.netsim.app.Command;
+import com.netsim.engine.EventScheduler;
+import com.netsim.network.host.Host;
+import com.netsim.network.switching.Switch;
+import com.netsim.networkstack.PacketBufferPool;
+import com.netsim.networkstack.ProtocolPipeline;
+import com.netsim.table.ArpTable;
+import com.netsim.table.RoutingInfo;
+import com.netsim.table.RoutingTable;
+
+public class ArpResolverTest {
+    private EventScheduler scheduler;
+    private Host[]         hosts;
+    private Switch         sw;
+    private List<String>   received;
+
+    @Before
+    public void setUp() {
+        scheduler = new EventScheduler();
+        received  = new ArrayList<>();
+        hosts     = new Host[3];
+        CabledAdapter[] ports = new CabledAdapter[3];
+        for (int i = 0; i < 3; i++) {
+            CabledAdapter station = new CabledAdapter("s" + i, 1500, new Mac("02:00:00:00:00:0" + i));
+            ports[i] = new CabledAdapter("p" + i, 1500, new Mac("02:00:00:00:01:0" + i));
+            ports[i].setRemoteAdapter(station);
+            station.setRemoteAdapter(ports[i]);
+            ports[i].setScheduler(scheduler);
+            station.setScheduler(scheduler);
+
+            RoutingTable routes = new RoutingTable();
+            routes.add(new IPv4("10.0.0.0", 24), new RoutingInfo(station, null));
+            hosts[i] = new Host("h" + i, routes, new ArpTable(),
+                                List.of(new Interface(station, new IPv4("10.0.0." + (i + 1), 24))));
+            hosts[i].setScheduler(scheduler);
+            hosts[i].setApp(new Recorder());
+            station.setOwner(hosts[i]);
+        }
+        sw = new Switch("sw", Arrays.asList(ports));
+    }
+
+    @After
+    public void tearDown() {
+        sw.close();
+        for (Host host : hosts) {
+            host.close();
+        }
+        PacketBufferPool.getInstance().checkLeaks();
+    }
+
+    private void send(int from, String to, String text) {
+        hosts[from].send(new IPv4(to, 24), new ProtocolPipeline(), text.getBytes());
+    }
+
+    @Test
+    public void queuedPacketsGoOutInOrderAfterOneRequest() {
+        send(0, "10.0.0.2", "a");
+        send(0, "10.0.0.2", "b");
+        send(0, "10.0.0.2", "c");
+        ArpResolver resolver = hosts[0].getArpResolver();
+        assertEquals(1L, resolver.getRequestsSent());
+        assertEquals(1, resolver.getPendingResolutions());
+        assertEquals(3, resolver.getQueuedPackets());
+
+        scheduler.run();
+
+        assertEquals(List.of("a", "b", "c"), received);
+        assertEquals(0, resolver.getPendingResolutions());
+        assertEquals(1L, hosts[1].getArpResolver().getRepliesSent());
+        assertEquals(new Mac("02:00:00:00:00:01"), hosts[0].getArpTable().lookup(new IPv4("10.0.0.2", 32)));
+        assertEquals(new Mac("02:00:00:00:00:00"), hosts[1].getArpTable().lookup(new IPv4("10.0.0.1", 32)));
+    }
+
+    @Test
+    public void resolutionWithdrawsItsRetry() {
+        send(0, "10.0.0.2", "a");
+        scheduler.run();
+
+        assertEquals(List.of("a"), received);
+        assertEquals(0, scheduler.pending());
+        assertTrue("the clock stops at the delivery", scheduler.now() < ArpResolver.DEFAULT_RETRY_INTERVAL);
+        assertEquals(1L, hosts[0].getArpResolver().getRequestsSent());
+    }
+
+    @Test
+    public void bothEndsLearnFromOneExchange() {
+        send(0, "10.0.0.2", "ping");
+        scheduler.run();
+        send(1, "10.0.0.1", "pong");
+        send(0, "10.0.0.2", "again");
+        scheduler.run();
+
+        assertEquals(List.of("ping", "pong", "again"), received);
+        assertEquals(1L, hosts[0].getArpResolver().getRequestsSent());
+        assertEquals(0L, hosts[1].getArpResolver().getRequestsSent());
+    }
+
+    @Test
+    public void bystandersIgnoreRequestsForOtherAddresses() {
+        send(0, "10.0.0.2", "a");
+        scheduler.run();
+        assertTrue(hosts[2].getArpTable().isEmpty());
+        assertEquals(0L, hosts[2].getArpResolver().getRepliesSent());
+    }
+
+    @Test
+    public void unansweredRequestIsRetriedThenGivenUp() {
+        int outstanding = PacketBufferPool.getInstance().getOutstanding();
+        ArpResolver resolver = hosts[0].getArpResolver();
+        send(0, "10.0.0.9", "lost");
+        send(0, "10.0.0.9", "lost too");
+        scheduler.run();
+
+        assertEquals((long) ArpResolver.DEFAULT_ATTEMPTS, resolver.getRequestsSent());
+        assertEquals(1L, resolver.getTimeouts());
+        assertEquals(0, resolver.getQueuedPackets());
+        assertEquals(ArpResolver.DEFAULT_ATTEMPTS * ArpResolver.DEFAULT_RETRY_INTERVAL, scheduler.now());
+        assertTrue(received.isEmpty());
+        assertEquals(outstanding, PacketBufferPool.getInstance().getOutstanding());
+    }
+
+    @Test
+    public void fullQueueDropsItsOldestPacket() {
+        ArpResolver resolver = hosts[0].getArpResolver();
+        resolver.setQueueCapacity(2);
+        send(0, "10.0.0.2", "a");
+        send(0, "10.0.0.2", "b");
+        send(0, "10.0.0.2", "c");
+        assertEquals(1L, resolver.getQueueDrops());
+        assertEquals(2, resolver.getQueuedPackets());
+
+        scheduler.run();
+        assertEquals(List.of("b", "c"), received);
+    }
+
+    @Test
+    public void staticEntriesNeedNoRequest() {
+        hosts[0].getArpTable().add(new IPv4("10.0.0.2", 32), new Mac("02:00:00:00:00:01"));
+        send(0, "10.0.0.2", "a");
+        scheduler.run();
+        assertEquals(List.of("a"), received);
+        assertEquals(0L, hosts[0].getArpResolver().getRequestsSent());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setQueueCapacityRejectsZero() {
+        hosts[0].getArpResolver().setQueueCapacity(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setRetryIntervalRejectsZero() {
+        hosts[0].getArpResolver().setRetryInterval(0L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setAttemptsRejectsZero() {
+        hosts[0].getArpResolver().setAttempts(0);
+    }
+
+    private class Recorder extends App {
+        Recorder() {
+            super("recorder", "", cmd -> (Command) null, null);
+        }
+
+        @Override
+        public void start() {}
+
+        @Override
+        public void send(ProtocolPipeline stack, byte[] data) {}
+
+        @Override
+        public void receive(ProtocolPipeline stack, byte[] data) {
+            received.add(new String(data));
+        }
+    }
+}
@@ -2,12 +2,26 @@ package com.netsim.network;
 
 import com.netsim.addresses.IPv4;
 import com.netsim.addresses.Mac;
+import com.netsim.engine.EventScheduler;
+import com.netsim.metrics.MetricsRegistry;
+import com.netsim.metrics.MetricsSnapshot;
+import com.netsim.network.capture.CaptureTap;
+import com.netsim.network.queue.DropTail;
+import com.netsim.networkstack.PacketBuffer;
+import com.netsim.networkstack.PacketBufferPool;
 import com.netsim.networkstack.ProtocolPipeline;
+import com.netsim.protocols.SimpleDLL.SimpleDLLProtocol;
 import org.junit.Before;
 import org.junit.Test;
 
 import static org.junit.Assert.*;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
 public class CabledAdapterTest {
 
     private Mac mac1;
@@ -112,6 +126,361 @@ public class CabledAdapterTest {
         adapter1.receive(stack, new byte[]{0, 0, 0, 0});
     }
 
+    @Test
+    public void sendPostsDeliveryOnScheduler() {
+        EventScheduler scheduler = new EventScheduler();
+        byte[][] received = new byte[1][];
+        adapter1.setRemoteAdapter(adapter2);
+        adapter2.setRemoteAdapter(adapter1);
+        adapter1.setScheduler(scheduler);
+        adapter2.setScheduler(scheduler);
+        adapter2.setOwner(new Node() {
+            public void receive(ProtocolPipeline stack, byte[] pdu) { received[0] = pdu; }
+            public void send(IPv4 ip, ProtocolPipeline stack, byte[] pdu) {}
+            public String getName() { return "sink"; }
+        });
+
+        // minimal IPv4 header (IHL=5, total length=21) + 1 byte payload
+        byte[] packet = new byte[21];
+        packet[0] = 0x45;
+        packet[3] = 21;
+        adapter1.send(new ProtocolPipeline(), packet);
+
+        assertNull("delivery must wait for the scheduler", received[0]);
+        assertEquals(1, scheduler.pending());
+        scheduler.run();
+        assertArrayEquals(packet, received[0]);
+    }
+
+    @Test
+    public void latencyDelaysDelivery() {
+        EventScheduler scheduler = new EventScheduler();
+        long[] arrival = {-1L};
+        adapter1.setRemoteAdapter(adapter2);
+        adapter2.setRemoteAdapter(adapter1);
+        adapter1.setScheduler(scheduler);
+        adapter2.setScheduler(scheduler);
+        adapter1.setLatency(250L);
+        adapter2.setOwner(new Node() {
+            public void receive(ProtocolPipeline stack, byte[] pdu) { arrival[0] = scheduler.now(); }
+            public void send(IPv4 ip, ProtocolPipeline stack, byte[] pdu) {}
+            public String getName() { return "sink"; }
+        });
+
+        byte[] packet = new byte[21];
+        packet[0] = 0x45;
+        packet[3] = 21;
+        adapter1.send(new ProtocolPipeline(), packet);
+        scheduler.run();
+        assertEquals(250L, arrival[0]);
+    }
+
+    @Test
+    public void bandwidthSerializesFramesThroughTheQueue() {
+        EventScheduler scheduler = new EventScheduler();
+        List<Long> arrivals = new ArrayList<>();
+        linkWithSink(scheduler, arrivals);
+        adapter1.setBandwidth(8_000_000L); // one byte per microsecond
+        adapter1.setLatency(500L);
+
+        for (int i = 0; i < 3; i++) {
+            adapter1.send(new ProtocolPipeline(), minimalPacket());
+        }
+        assertEquals(2, adapter1.getQueueDepth());
+        scheduler.run();
+
+        // 21-byte packet + 14-byte DLL header = 35 µs on the wire
+        assertEquals(List.of(35_500L, 70_500L, 105_500L), arrivals);
+        assertEquals(3, adapter1.getSentFrames());
+        assertEquals(105, adapter1.getSentBytes());
+        assertEquals(2, adapter1.getPeakQueueDepth());
+        assertEquals(0, adapter1.getQueueDepth());
+        assertEquals(105_000.0 / 105_500.0, adapter1.getUtilization(), 1e-9);
+    }
+
+    @Test
+    public void fullQueueDropsFrames() {
+        EventScheduler scheduler = new EventScheduler();
+        List<Long> arrivals = new ArrayList<>();
+        linkWithSink(scheduler, arrivals);
+        adapter1.setBandwidth(8_000_000L);
+        adapter1.setQueueDiscipline(new DropTail(1));
+
+        for (int i = 0; i < 4; i++) {
+            adapter1.send(new ProtocolPipeline(), minimalPacket());
+        }
+        scheduler.run();
+
+        assertEquals(2, arrivals.size());
+        assertEquals(2, adapter1.getSentFrames());
+        assertEquals(2, adapter1.getDrops());
+    }
+
+    @Test
+    public void unlimitedBandwidthNeverQueues() {
+        EventScheduler scheduler = new EventScheduler();
+        List<Long> arrivals = new ArrayList<>();
+        linkWithSink(scheduler, arrivals);
+        adapter1.setQueueDiscipline(new DropTail(0));
+
+        for (int i = 0; i < 3; i++) {
+            adapter1.send(new ProtocolPipeline(), minimalPacket());
+        }
+        scheduler.run();
+
+        assertEquals(List.of(0L, 0L, 0L), arrivals);
+        assertEquals(0, adapter1.getDrops());
+        assertEquals(0.0, adapter1.getUtilization(), 0.0);
+    }
+
+    @Test
+    public void batchTravelsAsOneEventAndRecordsTheDelayItApplies() {
+        EventScheduler scheduler = new EventScheduler();
+        List<Long> arrivals = new ArrayList<>();
+        linkWithSink(scheduler, arrivals);
+        adapter1.setBandwidth(8_000_000L);
+        int outstanding = PacketBufferPool.getInstance().getOutstanding();
+
+        List<PacketBuffer> batch = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            batch.add(PacketBufferPool.getInstance().acquire(minimalPacket()));
+        }
+        adapter1.sendBatch(new ProtocolPipeline(), batch, SimpleDLLProtocol.ETHERTYPE_IPV4, null);
+        assertEquals("one delivery event for the batch", 1, scheduler.pending());
+        scheduler.run();
+
+        // each frame is serialized on its own; all arrive with the last one
+        assertEquals(List.of(105_000L, 105_000L, 105_000L), arrivals);
+        assertEquals(3, adapter1.getSentFrames());
+        assertEquals(105, adapter1.getSentBytes());
+        // and each records the delay it actually had
+        assertEquals(3, adapter1.getDelays().getCount());
+        assertEquals(105_000L, adapter1.getDelays().getMin());
+        assertEquals(105_000L, adapter1.getDelays().getMax());
+        assertEquals(outstanding, PacketBufferPool.getInstance().getOutstanding());
+    }
+
+    @Test
+    public void malformedBatchLeavesTheLinkUntouched() {
+        EventScheduler scheduler = new EventScheduler();
+        List<Long> arrivals = new ArrayList<>();
+        linkWithSink(scheduler, arrivals);
+        adapter1.setBandwidth(8_000_000L);
+        int outstanding = PacketBufferPool.getInstance().getOutstanding();
+
+        List<PacketBuffer> batch = new ArrayList<>();
+        batch.add(PacketBufferPool.getInstance().acquire(minimalPacket()));
+        batch.add(PacketBufferPool.getInstance().acquire(0));
+        batch.add(PacketBufferPool.getInstance().acquire(minimalPacket()));
+        try {
+            adapter1.sendBatch(new ProtocolPipeline(), batch, SimpleDLLProtocol.ETHERTYPE_IPV4, null);
+            fail("an empty packet must fail the batch");
+        } catch (IllegalArgumentException expected) {
+            // nothing was queued
+        }
+        assertEquals(0, adapter1.getSentFrames());
+        assertEquals(0, adapter1.getSentBytes());
+        assertEquals(outstanding, PacketBufferPool.getInstance().getOutstanding());
+
+        adapter1.send(new ProtocolPipeline(), minimalPacket());
+        scheduler.run();
+        assertEquals("the link was left idle", List.of(35_000L), arrivals);
+    }
+
+    @Test
+    public void batchKeepsFramesTheQueueAdmits() {
+        EventScheduler scheduler = new EventScheduler();
+        List<Long> arrivals = new ArrayList<>();
+        linkWithSink(scheduler, arrivals);
+        adapter1.setBandwidth(8_000_000L);
+        adapter1.setQueueDiscipline(new DropTail(1));
+        int outstanding = PacketBufferPool.getInstance().getOutstanding();
+
+        List<PacketBuffer> batch = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            batch.add(PacketBufferPool.getInstance().acquire(minimalPacket()));
+        }
+        adapter1.sendBatch(new ProtocolPipeline(), batch, SimpleDLLProtocol.ETHERTYPE_IPV4, null);
+        scheduler.run();
+
+        assertEquals(2, arrivals.size());
+        assertEquals(2, adapter1.getDrops());
+        assertEquals(outstanding, PacketBufferPool.getInstance().getOutstanding());
+    }
+
+    @Test
+    public void receiveBatchGivesEachFrameItsOwnPipeline() {
+        List<ProtocolPipeline> stacks = new ArrayList<>();
+        adapter1.setRemoteAdapter(adapter2);
+        adapter2.setRemoteAdapter(adapter1);
+        EventScheduler scheduler = new EventScheduler();
+        adapter1.setScheduler(scheduler);
+        adapter2.setScheduler(scheduler);
+        adapter2.setOwner(new Node() {
+            public void receive(ProtocolPipeline stack, byte[] pdu) { stacks.add(stack); }
+            public void send(IPv4 ip, ProtocolPipeline stack, byte[] pdu) {}
+            public String getName() { return "sink"; }
+        });
+        ProtocolPipeline stack = new ProtocolPipeline();
+        List<PacketBuffer> batch = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            batch.add(PacketBufferPool.getInstance().acquire(minimalPacket()));
+        }
+        adapter1.sendBatch(stack, batch, SimpleDLLProtocol.ETHERTYPE_IPV4, null);
+        scheduler.run();
+
+        assertEquals(3, stacks.size());
+        assertNotSame(stacks.get(0), stacks.get(1));
+        assertSame("the last frame keeps the sent pipeline", stack, stacks.get(2));
+        assertTrue("the DLL protocol was popped", stack.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void sendBatchRejectsEmptyList() {
+        adapter1.setRemoteAdapter(adapter2);
+        adapter1.sendBatch(new ProtocolPipeline(), new ArrayList<>(), SimpleDLLProtocol.ETHERTYPE_IPV4, null);
+    }
+
+    @Test
+    public void unknownEtherTypeIsDroppedNotFramed() {
+        EventScheduler scheduler = new EventScheduler();
+        List<Long> arrivals = new ArrayList<>();
+        linkWithSink(scheduler, arrivals);
+        int outstanding = PacketBufferPool.getInstance().getOutstanding();
+
+        // the payload looks like IPv4, but the layer handing it down says IPv6
+        adapter1.sendInPlace(new ProtocolPipeline(), PacketBufferPool.getInstance().acquire(minimalPacket()), 0x86DD);
+        List<PacketBuffer> batch = new ArrayList<>();
+        batch.add(PacketBufferPool.getInstance().acquire(minimalPacket()));
+        batch.add(PacketBufferPool.getInstance().acquire(minimalPacket()));
+        adapter1.sendBatch(new ProtocolPipeline(), batch, 0x86DD, null);
+        scheduler.run();
+
+        assertTrue(arrivals.isEmpty());
+        assertEquals(0, adapter1.getSentFrames());
+        assertEquals(3, adapter1.getUnknownEtherTypeDrops());
+        assertEquals(outstanding, PacketBufferPool.getInstance().getOutstanding());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setBandwidthRejectsNegative() {
+        adapter1.setBandwidth(-1L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setQueueDisciplineRejectsNull() {
+        adapter1.setQueueDiscipline(null);
+    }
+
+    private void linkWithSink(EventScheduler scheduler, List<Long> arrivals) {
+        adapter1.setRemoteAdapter(adapter2);
+        adapter2.setRemoteAdapter(adapter1);
+        adapter1.setScheduler(scheduler);
+        adapter2.setScheduler(scheduler);
+        adapter2.setOwner(new Node() {
+            public void receive(ProtocolPipeline stack, byte[] pdu) { arrivals.add(scheduler.now()); }
+            public void send(IPv4 ip, ProtocolPipeline stack, byte[] pdu) {}
+            public String getName() { return "sink"; }
+        });
+    }
+
+    // minimal IPv4 header (IHL=5, total length=21) + 1 byte payload
+    private static ProtocolPipeline pipelineOf(SimpleDLLProtocol dll) {
+        ProtocolPipeline stack = new ProtocolPipeline();
+        stack.push(dll);
+        return stack;
+    }
+
+    private static byte[] minimalPacket() {
+        byte[] packet = new byte[21];
+        packet[0] = 0x45;
+        packet[3] = 21;
+        return packet;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setLatencyRejectsNegative() {
+        adapter1.setLatency(-1L);
+    }
+
+    @Test
+    public void receiveFiltersFramesByDestinationInHeader() {
+        List<byte[]> received = new ArrayList<>();
+        adapter2.setOwner(new Node() {
+            public void receive(ProtocolPipeline stack, byte[] pdu) { received.add(pdu); }
+            public void send(IPv4 ip, ProtocolPipeline stack, byte[] pdu) {}
+            public String getName() { return "sink"; }
+        });
+        byte[] packet = new byte[21];
+        packet[0] = 0x45;
+        packet[3] = 21;
+
+        for (Mac destination : new Mac[]{ mac2, new Mac("aa:bb:cc:77:88:99"), Mac.broadcast() }) {
+            SimpleDLLProtocol dll = new SimpleDLLProtocol(mac1, destination);
+            ProtocolPipeline stack = new ProtocolPipeline();
+            stack.push(dll);
+            adapter2.receive(stack, dll.encapsulate(packet));
+        }
+
+        assertEquals("frames for other stations are dropped", 2, received.size());
+        assertArrayEquals(packet, received.get(0));
+        assertArrayEquals(packet, received.get(1));
+    }
+
+    @Test
+    public void receivedFramesAndDropsAreCounted() {
+        adapter2.setOwner(new Node() {
+            public void receive(ProtocolPipeline stack, byte[] pdu) {}
+            public void send(IPv4 ip, ProtocolPipeline stack, byte[] pdu) {}
+            public String getName() { return "sink"; }
+        });
+        SimpleDLLProtocol forMe    = new SimpleDLLProtocol(mac1, mac2);
+        SimpleDLLProtocol notForMe = new SimpleDLLProtocol(mac1, new Mac("aa:bb:cc:77:88:99"));
+        byte[] frame = forMe.encapsulate(minimalPacket());
+
+        adapter2.receive(pipelineOf(forMe), frame);
+        adapter2.receive(pipelineOf(notForMe), notForMe.encapsulate(minimalPacket()));
+        adapter2.setDown();
+        adapter2.receive(pipelineOf(forMe), frame);
+
+        assertEquals(2, adapter2.getReceivedFrames());
+        assertEquals(2L * frame.length, adapter2.getReceivedBytes());
+        assertEquals(1, adapter2.getNotForMeDrops());
+        assertEquals(1, adapter2.getDownDrops());
+        MetricsSnapshot snapshot = MetricsRegistry.getInstance().snapshot(0);
+        assertEquals(2, snapshot.get("node.sink.eth1.rx_frames"));
+        assertEquals(1, snapshot.get("node.sink.eth1.down_drops"));
+    }
+
+    @Test
+    public void captureTapsRecordBothEndsOfTheCable() throws IOException {
+        EventScheduler scheduler = new EventScheduler();
+        List<Long> arrivals = new ArrayList<>();
+        linkWithSink(scheduler, arrivals);
+        Path dir = Files.createTempDirectory("capture");
+        CaptureTap sent     = new CaptureTap(dir.resolve("eth0.pcap"));
+        CaptureTap received = new CaptureTap(dir.resolve("eth1.pcap"));
+        adapter1.setCaptureTap(sent);
+        adapter2.setCaptureTap(received);
+        adapter1.setBandwidth(8_000_000L);
+        adapter1.setQueueDiscipline(new DropTail(0));
+
+        for (int i = 0; i < 3; i++) {
+            adapter1.send(new ProtocolPipeline(), minimalPacket());
+        }
+        scheduler.run();
+        sent.close();
+        received.close();
+
+        assertEquals("frames the queue drops are not captured", 1, sent.getWrittenFrames());
+        assertEquals(1, received.getWrittenFrames());
+        assertEquals(24 + 16 + 35, Files.size(sent.getFile()));
+        assertSame(sent, adapter1.getCaptureTap());
+        Files.delete(sent.getFile());
+        Files.delete(received.getFile());
+        Files.delete(dir);
+    }
+
     // Further testing send/receive interaction requires full protocol stack simulation,
     // which would be best tested as integration/system tests.
 
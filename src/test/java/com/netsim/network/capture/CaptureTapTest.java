@@ -0,0 +1,159 @@
+package com.netsim.network.capture;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Mac;
+import com.netsim.addresses.Port;
+
+public class CaptureTapTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final Mac SRC = new Mac("02:00:00:00:00:01");
+    private static final Mac DST = new Mac("02:00:00:00:00:02");
+
+    // DLL header (EtherType IPv4) + IPv4 header (IHL=5) + UDP header (ports 4000 -> 53) + 2 bytes
+    private static byte[] udpFrame(String from, String to, int fragmentOffset) {
+        ByteBuffer frame = ByteBuffer.allocate(14 + 20 + 8 + 2);
+        frame.put(DST.byteRepresentation()).put(SRC.byteRepresentation()).putShort((short) 0x0800);
+        frame.put((byte) 0x45).put((byte) 0).putShort((short) 30)
+             .putShort((short) 0).putShort((short) fragmentOffset)
+             .put((byte) 64).put((byte) 17).putShort((short) 0)
+             .putInt(new IPv4(from, 32).toInt()).putInt(new IPv4(to, 32).toInt());
+        frame.putShort((short) 4000).putShort((short) 53).putShort((short) 0).putShort((short) 80);
+        frame.put((byte) 'h').put((byte) 'i');
+        return frame.array();
+    }
+
+    private static ByteBuffer read(Path file) throws IOException {
+        return ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Test
+    public void writesFramesAsPcapWithEtherType() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("link.pcap");
+        byte[] frame = udpFrame("10.0.0.1", "10.0.0.2", 0);
+        try (CaptureTap tap = new CaptureTap(file)) {
+            tap.capture(1_500_000_123L, frame, 0, frame.length);
+            tap.capture(2_000_000_000L, frame, 0, frame.length);
+        }
+
+        ByteBuffer pcap = read(file);
+        assertEquals(PcapWriter.MAGIC_NANOS, pcap.getInt());
+        assertEquals(2, pcap.getShort());
+        assertEquals(4, pcap.getShort());
+        pcap.position(20);
+        assertEquals(PcapWriter.LINKTYPE_ETHERNET, pcap.getInt());
+
+        assertEquals(1, pcap.getInt());
+        assertEquals(500_000_123, pcap.getInt());
+        assertEquals(frame.length, pcap.getInt());
+        assertEquals(frame.length, pcap.getInt());
+        byte[] record = new byte[frame.length];
+        pcap.get(record);
+        assertEquals(0x08, record[12]);
+        assertEquals(0x00, record[13]);
+        assertEquals(0x45, record[14]);
+        assertEquals('i', record[record.length - 1]);
+
+        assertEquals(2, pcap.getInt());
+        assertEquals(0, pcap.getInt());
+        pcap.position(pcap.position() + 8 + record.length);
+        assertFalse("file trimmed to the records", pcap.hasRemaining());
+    }
+
+    @Test
+    public void framesAreCutAtTheSnapLength() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("snap.pcap");
+        byte[] frame = udpFrame("10.0.0.1", "10.0.0.2", 0);
+        try (CaptureTap tap = new CaptureTap(file, CaptureFilter.all(), 256, 20)) {
+            tap.capture(0L, frame, 0, frame.length);
+        }
+
+        ByteBuffer pcap = read(file);
+        pcap.position(PcapWriter.FILE_HEADER + 8);
+        assertEquals(20, pcap.getInt());
+        assertEquals(frame.length, pcap.getInt());
+        assertEquals(PcapWriter.FILE_HEADER + PcapWriter.RECORD_HEADER + 20, pcap.capacity());
+    }
+
+    @Test
+    public void everyFrameIsWrittenOrCountedAsDropped() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("ring.pcap");
+        byte[] frame = udpFrame("10.0.0.1", "10.0.0.2", 0);
+        CaptureTap tap = new CaptureTap(file, CaptureFilter.all(), 256, 64);
+        for (int i = 0; i < 10_000; i++) {
+            tap.capture(i, frame, 0, frame.length);
+        }
+        tap.close();
+
+        assertEquals(10_000, tap.getCapturedFrames() + tap.getDroppedFrames());
+        assertEquals(tap.getCapturedFrames(), tap.getWrittenFrames());
+        long size = PcapWriter.FILE_HEADER
+                  + tap.getWrittenFrames() * (PcapWriter.RECORD_HEADER + frame.length);
+        assertEquals(size, Files.size(file));
+        tap.capture(0L, frame, 0, frame.length);
+        assertEquals("closed taps ignore frames", 10_000, tap.getCapturedFrames() + tap.getDroppedFrames());
+    }
+
+    @Test
+    public void filtersMatchHeadersInPlace() throws IOException {
+        byte[] first = udpFrame("10.0.0.1", "10.0.0.2", 0);
+        byte[] later = udpFrame("10.0.0.1", "10.0.0.2", 185);
+
+        assertTrue(CaptureFilter.mac(SRC).matches(first, 0, first.length));
+        assertFalse(CaptureFilter.mac(new Mac("02:00:00:00:00:09")).matches(first, 0, first.length));
+        assertTrue(CaptureFilter.ip(new IPv4("10.0.0.2", 24)).matches(first, 0, first.length));
+        assertFalse(CaptureFilter.ip(new IPv4("10.0.0.3", 24)).matches(first, 0, first.length));
+        assertTrue(CaptureFilter.port(new Port("53")).matches(first, 0, first.length));
+        assertFalse("only the first fragment has ports",
+                    CaptureFilter.port(new Port("53")).matches(later, 0, later.length));
+        assertTrue(CaptureFilter.ip(new IPv4("10.0.0.1", 32))
+                                .and(CaptureFilter.port(new Port("4000")))
+                                .matches(first, 0, first.length));
+        assertTrue(CaptureFilter.port(new Port("80"))
+                                .or(CaptureFilter.mac(DST))
+                                .matches(first, 0, first.length));
+
+        byte[] arp = new byte[14 + 28];
+        System.arraycopy(first, 0, arp, 0, 12);
+        arp[12] = 0x08;
+        arp[13] = 0x06;
+        arp[14] = 0x45; // an IPv4 version nibble does not make it IPv4
+        assertFalse(CaptureFilter.ip(new IPv4("10.0.0.1", 32)).matches(arp, 0, arp.length));
+
+        Path file = folder.getRoot().toPath().resolve("filtered.pcap");
+        try (CaptureTap tap = new CaptureTap(file, CaptureFilter.port(new Port("53")))) {
+            tap.capture(0L, first, 0, first.length);
+            tap.capture(0L, later, 0, later.length);
+            tap.capture(0L, arp, 0, arp.length);
+            assertEquals(1, tap.getCapturedFrames());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void ringMustBeAPowerOfTwo() {
+        new CaptureTap(folder.getRoot().toPath().resolve("bad.pcap"), CaptureFilter.all(), 1000, 64);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void ringMustHoldTwoFrames() {
+        new CaptureTap(folder.getRoot().toPath().resolve("bad.pcap"), CaptureFilter.all(), 128, 64);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void filterCannotBeNull() {
+        new CaptureTap(folder.getRoot().toPath().resolve("bad.pcap"), null);
+    }
+}
@@ -92,14 +92,15 @@ public class HostBuilderTest {
                   .build(); // routingTable is empty -> RuntimeException
       }
 
-      @Test(expected = RuntimeException.class)
-      public void buildRejectsEmptyArpTable() throws Exception {
-            builder
+      @Test
+      public void buildAcceptsEmptyArpTable() throws Exception {
+            Host host = builder
                   .setName("h1")
                   .addInterface(iface)
-                  // add a valid route so routingTable is non-empty
                   .addRoute(new IPv4("10.0.0.0", 8), "eth0", ip)
-                  .build(); // arpTable is empty -> RuntimeException
+                  .build(); // neighbours are resolved with ARP
+
+            assertTrue("ARP table should start empty", host.getArpTable().isEmpty());
       }
 
       @Test(expected = RuntimeException.class)
@@ -2,20 +2,39 @@ package com.netsim.network.host;
 
 import com.netsim.addresses.IPv4;
 import com.netsim.addresses.Mac;
+import com.netsim.addresses.Port;
 import com.netsim.app.App;
 import com.netsim.app.Command;
 import com.netsim.app.CommandFactory;
+import com.netsim.app.msg.MsgClient;
+import com.netsim.app.msg.MsgCommandFactory;
 import com.netsim.network.Interface;
 import com.netsim.network.CabledAdapter;
+import com.netsim.network.Node;
+import com.netsim.engine.EventScheduler;
+import com.netsim.metrics.FlowStats;
+import com.netsim.metrics.MetricsRegistry;
+import com.netsim.metrics.MetricsSnapshot;
+import com.netsim.networkstack.PacketBuffer;
+import com.netsim.networkstack.PacketBufferPool;
 import com.netsim.networkstack.ProtocolPipeline;
+import com.netsim.protocols.IPv4.IPv4HeaderView;
+import com.netsim.protocols.IPv4.IPv4Protocol;
+import com.netsim.protocols.IPv4.IPv4Reassembler;
+import com.netsim.protocols.UDP.UDPProtocol;
 import com.netsim.table.ArpTable;
 import com.netsim.table.RoutingInfo;
 import com.netsim.table.RoutingTable;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 import static org.junit.Assert.*;
 
@@ -36,6 +55,12 @@ public class HostTest {
             host = new Host("test-host", routingTable, arpTable, Collections.singletonList(iface));
       }
 
+      @After
+      public void tearDown() {
+            host.close();
+            PacketBufferPool.getInstance().checkLeaks();
+      }
+
       @Test
       public void testSetAndRunApp() {
             TestApp app = new TestApp();
@@ -44,6 +69,44 @@ public class HostTest {
             assertTrue("App should be marked as started", app.started);
       }
 
+      @Test
+      public void testLaunchAppRunsAppOnItsOwnThread() throws InterruptedException {
+            TestApp app = new TestApp();
+            host.setApp(app);
+            Thread thread = host.launchApp();
+            thread.join(10_000L);
+            assertTrue("App should be marked as started", app.started);
+            assertNotSame(Thread.currentThread(), thread);
+      }
+
+      @Test
+      public void testPostRunsOnTheNodeScheduler() {
+            EventScheduler scheduler = new EventScheduler();
+            host.setScheduler(scheduler);
+            boolean[] ran = {false};
+            host.post(() -> ran[0] = true);
+            assertFalse(ran[0]);
+            scheduler.run();
+            assertTrue(ran[0]);
+      }
+
+      @Test
+      public void testPostedWorkRunsInOrderFromTheNodeMailbox() {
+            EventScheduler scheduler = new EventScheduler();
+            host.setScheduler(scheduler);
+            List<Integer> ran = new ArrayList<>();
+            host.post(() -> {
+                  ran.add(1);
+                  host.post(() -> ran.add(4));
+            });
+            host.post(() -> ran.add(2));
+            host.post(() -> ran.add(3));
+            assertEquals(3, host.getMailboxSize());
+            scheduler.run();
+            assertEquals(List.of(1, 2, 3, 4), ran);
+            assertEquals(0, host.getMailboxSize());
+      }
+
       @Test(expected = IllegalArgumentException.class)
       public void testRunAppWithoutSettingShouldThrow() {
             host.runApp(); // no app set
@@ -64,6 +127,240 @@ public class HostTest {
             assertFalse(host.isForMe(new IPv4("10.0.0.1", 24)));
       }
 
+      @Test
+      public void testReceiveReassemblesFragmentsSplitAcrossPackets() {
+            EventScheduler scheduler = new EventScheduler();
+            host.setScheduler(scheduler);
+            TestApp app = new TestApp();
+            host.setApp(app);
+
+            byte[] payload = new byte[300];
+            for (int i = 0; i < payload.length; i++) payload[i] = (byte) i;
+            IPv4Protocol proto = new IPv4Protocol(new IPv4("10.0.0.1", 24), ip, 5, 0, 42, 0, 64, 17, 100);
+            byte[] wire  = proto.encapsulate(payload);
+            int    split = IPv4Reassembler.fragmentLength(wire, 0) * 2;
+
+            ProtocolPipeline first = new ProtocolPipeline();
+            first.push(proto);
+            host.receive(first, Arrays.copyOfRange(wire, 0, split));
+            scheduler.run();
+            assertNull(app.receivedData);
+            assertEquals(1, host.getReassembler().getPending());
+
+            ProtocolPipeline second = new ProtocolPipeline();
+            second.push(proto);
+            host.receive(second, Arrays.copyOfRange(wire, split, wire.length));
+            scheduler.run();
+            assertArrayEquals(payload, app.receivedData);
+            assertEquals(0, host.getReassembler().getPending());
+      }
+
+      @Test
+      public void testDatagramsOfOneFlowGetDistinctIdentifications() {
+            EventScheduler scheduler = new EventScheduler();
+            CabledAdapter narrow = new CabledAdapter("eth0", 100, new Mac("aa:bb:cc:dd:ee:02"));
+            CabledAdapter wire   = new CabledAdapter("eth0", 100, new Mac("aa:bb:cc:dd:ee:03"));
+            RoutingTable routes = new RoutingTable();
+            routes.add(new IPv4("192.168.0.0", 24), new RoutingInfo(narrow, null));
+            Host sender = new Host("id-sender", routes, new ArpTable(),
+                                   Collections.singletonList(new Interface(narrow, ip)));
+            List<byte[]> fragments = new ArrayList<>();
+            Node sink = new Node() {
+                  @Override
+                  public void send(IPv4 destination, ProtocolPipeline protocols, byte[] data) {
+                  }
+
+                  @Override
+                  public void receive(ProtocolPipeline protocols, byte[] data) {
+                        fragments.add(data);
+                  }
+
+                  @Override
+                  public String getName() {
+                        return "sink";
+                  }
+            };
+            narrow.setRemoteAdapter(wire);
+            wire.setRemoteAdapter(narrow);
+            narrow.setScheduler(scheduler);
+            wire.setScheduler(scheduler);
+            narrow.setOwner(sender);
+            wire.setOwner(sink);
+            sender.setScheduler(scheduler);
+
+            byte[] first  = new byte[200];
+            byte[] second = new byte[200];
+            Arrays.fill(first, (byte) 1);
+            Arrays.fill(second, (byte) 2);
+            IPv4 destination = new IPv4("192.168.0.2", 24);
+            sender.send(destination, new ProtocolPipeline(), first);
+            sender.send(destination, new ProtocolPipeline(), second);
+            scheduler.run();
+            assertEquals("80 + 80 + 40 bytes each", 6, fragments.size());
+
+            // datagram 1 loses its tail, datagram 2 its head: nothing is complete
+            IPv4Reassembler reassembler = new IPv4Reassembler();
+            assertNull(reassembler.accept(fragments.get(0), 0, 0L));
+            assertNull(reassembler.accept(fragments.get(1), 0, 0L));
+            assertNull(reassembler.accept(fragments.get(4), 0, 0L));
+            assertNull(reassembler.accept(fragments.get(5), 0, 0L));
+            assertEquals(2, reassembler.getPending());
+
+            assertArrayEquals(first, reassembler.accept(fragments.get(2), 0, 0L));
+
+            IPv4HeaderView header = new IPv4HeaderView();
+            assertEquals(0, header.wrap(fragments.get(0), 0, fragments.get(0).length).getIdentification());
+            assertEquals(1, header.wrap(fragments.get(3), 0, fragments.get(3).length).getIdentification());
+      }
+
+      @Test
+      public void testMessageIsEncapsulatedInTheBufferItWasBuiltIn() {
+            EventScheduler scheduler = new EventScheduler();
+            CabledAdapter out  = new CabledAdapter("eth0", 1500, new Mac("aa:bb:cc:dd:ee:02"));
+            CabledAdapter wire = new CabledAdapter("eth0", 1500, new Mac("aa:bb:cc:dd:ee:03"));
+            RoutingTable routes = new RoutingTable();
+            routes.add(new IPv4("192.168.0.0", 24), new RoutingInfo(out, null));
+            Host sender = new Host("msg-sender", routes, new ArpTable(),
+                                   Collections.singletonList(new Interface(out, ip)));
+            int[]        offset   = {-1};
+            List<byte[]> received = new ArrayList<>();
+            Node sink = new Node() {
+                  @Override
+                  public void send(IPv4 destination, ProtocolPipeline protocols, byte[] data) {
+                  }
+
+                  @Override
+                  public void receive(ProtocolPipeline protocols, byte[] data) {
+                  }
+
+                  @Override
+                  public void receiveInPlace(int etherType, ProtocolPipeline protocols, PacketBuffer packet) {
+                        offset[0] = packet.offset();
+                        received.add(packet.toByteArray());
+                        packet.release();
+                  }
+
+                  @Override
+                  public String getName() {
+                        return "sink";
+                  }
+            };
+            out.setRemoteAdapter(wire);
+            wire.setRemoteAdapter(out);
+            out.setScheduler(scheduler);
+            wire.setScheduler(scheduler);
+            out.setOwner(sender);
+            wire.setOwner(sink);
+            sender.setScheduler(scheduler);
+
+            MsgClient client = new MsgClient(sender, new IPv4("192.168.0.2", 24));
+            client.setUsername("alice");
+            new MsgCommandFactory().get("send").execute(client, "bob:hello");
+            scheduler.run();
+
+            assertEquals(1, received.size());
+            byte[] packet = received.get(0);
+            assertEquals("alice: bob:hello",
+                         new String(packet, 20 + 8, packet.length - 28, StandardCharsets.UTF_8));
+            // the DLL header is stripped on arrival: UDP and IPv4 were pushed
+            // into the headroom left in front of the MSG header, not copied
+            assertEquals(PacketBuffer.DEFAULT_HEADROOM - 8 - 20, offset[0]);
+      }
+
+      @Test
+      public void testLatencyIsMeasuredPerLinkNodeAndFlow() {
+            EventScheduler scheduler = new EventScheduler();
+            CabledAdapter peerAdapter = new CabledAdapter("eth0", 1500, new Mac("aa:bb:cc:dd:ee:01"));
+            IPv4 peerIp = new IPv4("192.168.0.2", 24);
+            RoutingTable peerRoutes = new RoutingTable();
+            peerRoutes.add(new IPv4("192.168.0.0", 24), new RoutingInfo(peerAdapter, null));
+            Host peer = new Host("peer", peerRoutes, new ArpTable(),
+                                 Collections.singletonList(new Interface(peerAdapter, peerIp)));
+            adapter.setRemoteAdapter(peerAdapter);
+            peerAdapter.setRemoteAdapter(adapter);
+            adapter.setScheduler(scheduler);
+            peerAdapter.setScheduler(scheduler);
+            adapter.setOwner(host);
+            peerAdapter.setOwner(peer);
+            host.setScheduler(scheduler);
+            peer.setScheduler(scheduler);
+            peer.setApp(new TestApp());
+            adapter.setLatency(1_000L);
+            adapter.setBandwidth(8_000_000L); // one byte per microsecond
+
+            byte[] data = new byte[100];
+            for (int i = 0; i < 3; i++) {
+                  host.send(peerIp, new ProtocolPipeline(), data);
+            }
+            scheduler.run();
+
+            // 100 bytes + 20 IPv4 + 14 DLL = 134 µs on the wire, then 1 µs of cable
+            long first = 134_000L + 1_000L;
+            assertEquals(3, adapter.getDelays().getCount());
+            assertEquals(first, adapter.getDelays().getMin());
+            assertEquals(first + 2 * 134_000L, adapter.getDelays().getMax());
+            assertEquals(3, host.getResidenceTimes().getCount());
+            assertEquals(0, host.getResidenceTimes().getMax());
+            assertEquals(3, peer.getResidenceTimes().getCount());
+
+            FlowStats flow = peer.getFlowStats("test-host");
+            assertNotNull(flow);
+            assertEquals(3, flow.getMessages());
+            assertEquals(300, flow.getBytes());
+            assertEquals(first, flow.getLatency().getMin());
+            long p99 = flow.getLatency().getValueAtPercentile(99.0);
+            assertEquals(first + 2 * 134_000.0, p99, (first + 2 * 134_000.0) / 64);
+            assertEquals(300 * 8e9 / (first + 2 * 134_000L), flow.getThroughput(), 1e-6);
+            assertNull(host.getFlowStats("peer"));
+      }
+
+      @Test
+      public void testDatagramsAreDemultiplexedByUdpPortFromTheBytes() {
+            EventScheduler scheduler = new EventScheduler();
+            host.setScheduler(scheduler);
+            TestApp running = new TestApp();
+            TestApp bound   = new TestApp() {
+                  @Override
+                  public Port getPort() {
+                        return new Port("5000");
+                  }
+            };
+            host.setApp(running);
+            host.setApp(bound);
+            assertSame(bound, host.getBoundApp(5000));
+            host.setApp(running);
+            assertNull("replacing an app releases its port", host.getBoundApp(5000));
+            host.bind(5000, bound);
+
+            byte[] toBound = new UDPProtocol(100, new Port("4000"), new Port("5000")).encapsulate(new byte[]{1, 2});
+            byte[] toOther = new UDPProtocol(100, new Port("4000"), new Port("5001")).encapsulate(new byte[]{3});
+            IPv4Protocol udp = new IPv4Protocol(new IPv4("10.0.0.1", 24), ip, 5, 0, 0, 0, 64,
+                                                IPv4Protocol.PROTOCOL_UDP, 1500);
+
+            // no protocol objects in the pipelines: everything is read from the headers
+            host.receive(new ProtocolPipeline(), udp.encapsulate(toBound));
+            host.receive(new ProtocolPipeline(), udp.encapsulate(toOther));
+            scheduler.run();
+            assertArrayEquals(toBound, bound.receivedData);
+            assertArrayEquals(toOther, running.receivedData);
+      }
+
+      @Test
+      public void testRouteCacheCountersAreRegisteredAsGauges() {
+            host.findRoute(ip);
+            host.findRoute(ip);
+            host.findRoute(new IPv4("10.0.0.1", 32));
+            MetricsSnapshot snapshot = MetricsRegistry.getInstance().snapshot(0L);
+            assertEquals(1L, snapshot.get("node.test-host.route_cache.hits"));
+            assertEquals(2L, snapshot.get("node.test-host.route_cache.misses"));
+      }
+
+      @Test
+      public void testUnknownEtherTypesAreDroppedAndCounted() {
+            host.receiveInPlace(0x86DD, new ProtocolPipeline(), PacketBuffer.forPayload(new byte[]{0x60, 0, 0, 0}));
+            assertEquals(1L, MetricsRegistry.getInstance().counter("node.test-host.unknown_ethertype").sum());
+      }
+
       // Dummy App subclass for testing
       static class TestApp extends App {
             public boolean started = false;
@@ -0,0 +1,27 @@
+package com.netsim.network.queue;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DropTailTest {
+
+    @Test
+    public void admitsUntilFull() {
+        DropTail queue = new DropTail(2);
+        assertTrue(queue.admit(0));
+        assertTrue(queue.admit(1));
+        assertFalse(queue.admit(2));
+        assertEquals(2, queue.getCapacity());
+    }
+
+    @Test
+    public void zeroCapacityAdmitsNothing() {
+        assertFalse(new DropTail(0).admit(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNegativeCapacity() {
+        new DropTail(-1);
+    }
+}
@@ -0,0 +1,62 @@
+package com.netsim.network.queue;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RandomEarlyDetectionTest {
+
+    @Test
+    public void admitsEverythingBelowMinThreshold() {
+        RandomEarlyDetection red = new RandomEarlyDetection(100, 5, 15, 0.1, 1L);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(red.admit(4));
+        }
+        assertEquals(4.0, red.getAverage(), 0.6);
+    }
+
+    @Test
+    public void dropsEverythingAboveMaxThreshold() {
+        RandomEarlyDetection red = new RandomEarlyDetection(100, 5, 15, 0.1, 1.0, 1L);
+        assertFalse(red.admit(20));
+        assertFalse(red.admit(15));
+    }
+
+    @Test
+    public void dropsWhenFullWhateverTheAverage() {
+        RandomEarlyDetection red = new RandomEarlyDetection(10, 5, 15, 0.1, 1L);
+        assertFalse(red.admit(10));
+    }
+
+    @Test
+    public void dropsSomeBetweenThresholds() {
+        RandomEarlyDetection red = new RandomEarlyDetection(100, 5, 15, 0.1, 1.0, 42L);
+        int dropped = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (!red.admit(10)) {
+                dropped++;
+            }
+        }
+        // pb = 0.05; spacing drops by count gives a rate of about 2·pb/(1+pb)
+        assertTrue("dropped " + dropped, dropped > 500 && dropped < 1500);
+    }
+
+    @Test
+    public void sameSeedSameDecisions() {
+        RandomEarlyDetection a = new RandomEarlyDetection(100, 5, 15, 0.1, 1.0, 7L);
+        RandomEarlyDetection b = new RandomEarlyDetection(100, 5, 15, 0.1, 1.0, 7L);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(a.admit(10), b.admit(10));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvertedThresholds() {
+        new RandomEarlyDetection(100, 15, 5, 0.1, 1L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsProbabilityAboveOne() {
+        new RandomEarlyDetection(100, 5, 15, 1.5, 1L);
+    }
+}
@@ -34,11 +34,14 @@ public class RouterBuilderTest {
                .build(); // missing route
     }
 
-    @Test(expected = RuntimeException.class)
-    public void buildFailsWithEmptyArpTable() {
-        builder.addInterface(new Interface(adapter, localIP))
-               .addRoute(subnet, "eth0", nextHop)
-               .build(); // missing ARP
+    @Test
+    public void buildSucceedsWithEmptyArpTable() {
+        Router router = builder.setName("Router1")
+                .addInterface(new Interface(adapter, localIP))
+                .addRoute(subnet, "eth0", nextHop)
+                .build(); // neighbours are resolved with ARP
+
+        assertTrue(router.getArpTable().isEmpty());
     }
 
     @Test(expected = RuntimeException.class)
@@ -6,10 +6,16 @@ import com.netsim.network.Interface;
 import com.netsim.network.NetworkAdapter;
 import com.netsim.network.CabledAdapter;
 import com.netsim.network.NetworkNode;
+import com.netsim.network.Node;
+import com.netsim.engine.EventScheduler;
+import com.netsim.metrics.MetricsRegistry;
+import com.netsim.metrics.MetricsSnapshot;
+import com.netsim.networkstack.PacketBufferPool;
 import com.netsim.networkstack.ProtocolPipeline;
 import com.netsim.protocols.IPv4.IPv4Protocol;
 import com.netsim.table.ArpTable;
 import com.netsim.table.RoutingTable;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -27,6 +33,7 @@ public class RouterTest {
       private IPv4 destIP;
       private IPv4 localIP1;
       private IPv4 localIP2;
+      private EventScheduler scheduler;
 
       @Before
       public void setUp() {
@@ -47,6 +54,12 @@ public class RouterTest {
             router = new Router("router1", rt, at, Arrays.asList(iface1, iface2));
       }
 
+      @After
+      public void tearDown() {
+            router.close();
+            PacketBufferPool.getInstance().checkLeaks();
+      }
+
       @Test(expected = IllegalArgumentException.class)
       public void sendRejectsNullDestination() {
             router.send(null, new ProtocolPipeline(), new byte[]{1, 2, 3});
@@ -96,6 +109,85 @@ public class RouterTest {
             router.receive(stack, encoded); // dovrebbe inoltrare senza errori
       }
 
+      @Test
+      public void receiveForwardsFragmentsInPlace() {
+            byte[] payload = new byte[3000];
+            for (int i = 0; i < payload.length; i++) payload[i] = (byte) i;
+            IPv4Protocol ip = new IPv4Protocol(localIP1, destIP, 5, 0, 7, 0, 3, 0, 1500);
+            byte[] encoded = ip.encapsulate(payload);
+            ProtocolPipeline stack = new ProtocolPipeline();
+            stack.push(ip);
+
+            byte[][] received = connectSink(1500);
+            router.receive(stack, encoded);
+            scheduler.run();
+
+            assertEquals(encoded.length, received[0].length);
+            for (int at = 0; at < received[0].length; at += ((received[0][at + 2] & 0xFF) << 8) | (received[0][at + 3] & 0xFF)) {
+                  assertEquals(2, received[0][at + 9]);
+            }
+            // the TTL lives in the header; the pipeline keeps the sender's protocol
+            IPv4Protocol forwarded = (IPv4Protocol) stack.pop();
+            assertSame(ip, forwarded);
+            assertArrayEquals(payload, forwarded.decapsulate(received[0]));
+      }
+
+      @Test
+      public void receiveRefragmentsForSmallerEgressMtu() {
+            byte[] payload = new byte[1000];
+            for (int i = 0; i < payload.length; i++) payload[i] = (byte) i;
+            IPv4Protocol ip = new IPv4Protocol(localIP1, destIP, 5, 0, 7, 0, 3, 0, 1500);
+            ProtocolPipeline stack = new ProtocolPipeline();
+            stack.push(ip);
+
+            adapter2 = new CabledAdapter("eth1", 300, new Mac("aa:bb:cc:00:00:02"));
+            RoutingTable rt = new RoutingTable();
+            rt.add(new IPv4("192.168.1.0", 24), new com.netsim.table.RoutingInfo(adapter2, null));
+            router = new Router("router1", rt, new ArpTable(),
+                                Arrays.asList(iface1, new Interface(adapter2, localIP2)));
+            byte[][] received = connectSink(300);
+            router.receive(stack, ip.encapsulate(payload));
+            scheduler.run();
+
+            int fragments = 0;
+            for (int at = 0, len; at < received[0].length; at += len) {
+                  len = ((received[0][at + 2] & 0xFF) << 8) | (received[0][at + 3] & 0xFF);
+                  assertTrue(len <= 300);
+                  fragments++;
+            }
+            assertEquals(4, fragments);
+            assertArrayEquals(payload, ((IPv4Protocol) stack.pop()).decapsulate(received[0]));
+      }
+
+      /**
+       * Links adapter2 to a node that records the bytes it receives,
+       * fragments back to back, delivering on a private scheduler.
+       */
+      private byte[][] connectSink(int MTU) {
+            scheduler = new EventScheduler();
+            byte[][] received = new byte[1][];
+            CabledAdapter sinkAdapter = new CabledAdapter("sink", MTU, new Mac("aa:aa:aa:aa:aa:aa"));
+            sinkAdapter.setRemoteAdapter(adapter2);
+            adapter2.setRemoteAdapter(sinkAdapter);
+            sinkAdapter.setScheduler(scheduler);
+            ((CabledAdapter) adapter2).setScheduler(scheduler);
+            adapter2.setOwner(router);
+            sinkAdapter.setOwner(new Node() {
+                  public void receive(ProtocolPipeline stack, byte[] pdu) {
+                        if (received[0] == null) {
+                              received[0] = pdu;
+                              return;
+                        }
+                        byte[] joined = Arrays.copyOf(received[0], received[0].length + pdu.length);
+                        System.arraycopy(pdu, 0, joined, received[0].length, pdu.length);
+                        received[0] = joined;
+                  }
+                  public void send(IPv4 ip, ProtocolPipeline stack, byte[] pdu) {}
+                  public String getName() { return "sink"; }
+            });
+            return received;
+      }
+
       @Test
       public void sendDropsIfNoRouteExists() {
             IPv4 unreachable = new IPv4("172.16.0.5", 32);
@@ -104,6 +196,20 @@ public class RouterTest {
             router.send(unreachable, stack, data); // logga errore, non crasha
       }
 
+      @Test
+      public void dropsAreCountedInTheRegistry() {
+            IPv4Protocol ip = new IPv4Protocol(localIP1, destIP, 5, 0, 0, 0, 0, 0, 1500);
+            ProtocolPipeline stack = new ProtocolPipeline();
+            stack.push(ip);
+            router.receive(stack, ip.encapsulate("Hello".getBytes()));
+            router.send(new IPv4("172.16.0.5", 32), new ProtocolPipeline(), new byte[]{1, 2, 3, 4});
+
+            MetricsSnapshot snapshot = MetricsRegistry.getInstance().snapshot(0);
+            assertEquals(1, snapshot.get("node.router1.ttl_expired"));
+            assertEquals(1, snapshot.get("node.router1.no_route"));
+            assertEquals(0, snapshot.get("node.router1.forwarded"));
+      }
+
       @Test
       public void constructorAndBasicsWork() {
             assertEquals("router1", router.getName());
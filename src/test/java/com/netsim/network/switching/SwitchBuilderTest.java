@@ -0,0 +1,55 @@
+package com.netsim.network.switching;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.netsim.addresses.Mac;
+import com.netsim.network.CabledAdapter;
+
+public class SwitchBuilderTest {
+    private SwitchBuilder builder;
+    private CabledAdapter port;
+
+    @Before
+    public void setUp() {
+        builder = new SwitchBuilder();
+        port    = new CabledAdapter("p0", 1500, new Mac("02:00:00:00:01:00"));
+    }
+
+    @Test
+    public void buildCreatesSwitchOwningPorts() {
+        Switch sw = builder.setName("sw").addPort(port).setAgingTime(42L).build();
+        assertEquals("sw", sw.getName());
+        assertEquals(1, sw.getPorts().size());
+        assertSame(sw, port.getOwner());
+        assertEquals(42L, sw.getMacTable().getAgingTime());
+    }
+
+    @Test
+    public void defaultAgingTimeApplies() {
+        Switch sw = builder.setName("sw").addPort(port).build();
+        assertEquals(Switch.DEFAULT_AGING_TIME, sw.getMacTable().getAgingTime());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void buildWithoutPortsThrows() {
+        builder.setName("sw").build();
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void buildWithoutNameThrows() {
+        builder.addPort(port).build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addPortRejectsDuplicate() {
+        builder.addPort(port).addPort(port);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setAgingTimeRejectsNegative() {
+        builder.setAgingTime(-1L);
+    }
+}
@@ -0,0 +1,188 @@
+package com.netsim.network.switching;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Mac;
+import com.netsim.engine.EventScheduler;
+import com.netsim.network.CabledAdapter;
+import com.netsim.network.Interface;
+import com.netsim.network.Node;
+import com.netsim.network.host.Host;
+import com.netsim.networkstack.PacketBufferPool;
+import com.netsim.networkstack.ProtocolPipeline;
+import com.netsim.protocols.SimpleDLL.SimpleDLLProtocol;
+import com.netsim.table.ArpTable;
+import com.netsim.table.RoutingInfo;
+import com.netsim.table.RoutingTable;
+
+public class SwitchTest {
+    private EventScheduler      scheduler;
+    private Switch              sw;
+    private CabledAdapter[]     ports;
+    private CabledAdapter[]     stations;
+    private List<String>        received;
+
+    @Before
+    public void setUp() {
+        scheduler = new EventScheduler();
+        received  = new ArrayList<>();
+        ports     = new CabledAdapter[3];
+        stations  = new CabledAdapter[3];
+        for (int i = 0; i < 3; i++) {
+            ports[i]    = new CabledAdapter("p" + i, 1500, new Mac("02:00:00:00:01:0" + i));
+            stations[i] = new CabledAdapter("s" + i, 1500, new Mac("02:00:00:00:00:0" + i));
+            ports[i].setRemoteAdapter(stations[i]);
+            stations[i].setRemoteAdapter(ports[i]);
+            ports[i].setScheduler(scheduler);
+            stations[i].setScheduler(scheduler);
+            stations[i].setOwner(sink("s" + i));
+        }
+        sw = new Switch("sw", Arrays.asList(ports));
+    }
+
+    @After
+    public void tearDown() {
+        sw.close();
+        for (CabledAdapter station : stations) {
+            station.getOwner().close();
+        }
+        PacketBufferPool.getInstance().checkLeaks();
+    }
+
+    private Node sink(String name) {
+        return new Node() {
+            public void send(IPv4 destination, ProtocolPipeline protocols, byte[] data) {}
+            public void receive(ProtocolPipeline protocols, byte[] data) { received.add(name); }
+            public String getName() { return name; }
+        };
+    }
+
+    private void sendFrom(int station, Mac destination) {
+        stations[station].sendInPlace(new ProtocolPipeline(),
+                                      PacketBufferPool.getInstance().acquire(minimalPacket()),
+                                      SimpleDLLProtocol.ETHERTYPE_IPV4, destination);
+    }
+
+    // minimal IPv4 header (IHL=5, total length=21) + 1 byte payload
+    private static byte[] minimalPacket() {
+        byte[] packet = new byte[21];
+        packet[0] = 0x45;
+        packet[3] = 21;
+        return packet;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructorRejectsEmptyPorts() {
+        new Switch("sw", new ArrayList<>());
+    }
+
+    @Test
+    public void switchOwnsItsPortsAndBridgesStations() {
+        for (int i = 0; i < 3; i++) {
+            assertSame(sw, ports[i].getOwner());
+            assertTrue(stations[i].isBridged());
+            assertFalse(ports[i].isBridged());
+        }
+    }
+
+    @Test
+    public void unknownUnicastIsFloodedAndSourceLearned() {
+        sendFrom(0, stations[1].getMacAddress());
+        scheduler.run();
+
+        assertEquals(List.of("s1"), received);
+        assertEquals(1, sw.getFlooded());
+        assertEquals(1, ports[1].getSentFrames());
+        assertEquals(1, ports[2].getSentFrames());
+        assertEquals(0, ports[0].getSentFrames());
+        assertSame(ports[0], sw.getMacTable().find(stations[0].getMacAddress().toLong(), scheduler.now()));
+    }
+
+    @Test
+    public void knownUnicastGoesOutOfOnePort() {
+        sendFrom(0, stations[1].getMacAddress());
+        scheduler.run();
+        sendFrom(1, stations[0].getMacAddress());
+        scheduler.run();
+
+        assertEquals(List.of("s1", "s0"), received);
+        assertEquals(1, sw.getForwarded());
+        assertEquals(1, sw.getFlooded());
+        assertEquals(1, ports[2].getSentFrames());
+    }
+
+    @Test
+    public void broadcastIsFloodedToEveryOtherPort() {
+        sendFrom(1, Mac.broadcast());
+        scheduler.run();
+
+        assertEquals(2, received.size());
+        assertTrue(received.containsAll(List.of("s0", "s2")));
+        assertEquals(1, sw.getFlooded());
+    }
+
+    @Test
+    public void frameForIngressPortIsFiltered() {
+        sw.getMacTable().learn(stations[1].getMacAddress().toLong(), ports[0], 0L);
+        sendFrom(0, stations[1].getMacAddress());
+        scheduler.run();
+
+        assertTrue(received.isEmpty());
+        assertEquals(1, sw.getFiltered());
+        assertEquals(0, ports[1].getSentFrames() + ports[2].getSentFrames());
+    }
+
+    @Test
+    public void agedOutDestinationIsFloodedAgain() {
+        sw.getMacTable().setAgingTime(1_000L);
+        sendFrom(1, stations[0].getMacAddress());
+        scheduler.run();
+        scheduler.scheduleAt(5_000L, () -> sendFrom(0, stations[1].getMacAddress()));
+        scheduler.run();
+
+        assertEquals(List.of("s0", "s1"), received);
+        assertEquals(2, sw.getFlooded());
+        assertEquals(0, sw.getForwarded());
+    }
+
+    @Test
+    public void downPortIsSkippedWhenFlooding() {
+        ports[2].setDown();
+        sendFrom(0, Mac.broadcast());
+        scheduler.run();
+
+        assertEquals(List.of("s1"), received);
+        assertEquals(0, ports[2].getSentFrames());
+    }
+
+    @Test
+    public void hostReachesHostThroughSwitch() {
+        IPv4 hostIp = new IPv4("10.0.0.1", 24);
+        IPv4 peerIp = new IPv4("10.0.0.2", 24);
+        RoutingTable routes = new RoutingTable();
+        routes.add(new IPv4("10.0.0.0", 24), new RoutingInfo(stations[0], null));
+        ArpTable arp = new ArpTable();
+        arp.add(peerIp, stations[2].getMacAddress());
+        Host host = new Host("h0", routes, arp, List.of(new Interface(stations[0], hostIp)));
+        stations[0].setOwner(host);
+        sw.getMacTable().learn(stations[2].getMacAddress().toLong(), ports[2], 0L);
+
+        host.send(peerIp, new ProtocolPipeline(), "hello".getBytes());
+        scheduler.run();
+        host.send(peerIp, new ProtocolPipeline(), "again".getBytes());
+        scheduler.run();
+
+        assertEquals(List.of("s2", "s2"), received);
+        assertEquals(2, sw.getForwarded());
+        assertEquals(0, sw.getFlooded());
+    }
+}
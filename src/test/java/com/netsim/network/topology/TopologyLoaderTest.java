@@ -0,0 +1,287 @@
+package com.netsim.network.topology;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Mac;
+import com.netsim.app.App;
+import com.netsim.app.Command;
+import com.netsim.engine.EventScheduler;
+import com.netsim.metrics.MetricsRegistry;
+import com.netsim.metrics.MetricsSnapshot;
+import com.netsim.network.CabledAdapter;
+import com.netsim.network.Interface;
+import com.netsim.network.NetworkNode;
+import com.netsim.network.host.Host;
+import com.netsim.network.router.Router;
+import com.netsim.network.server.Server;
+import com.netsim.networkstack.PacketBufferPool;
+import com.netsim.networkstack.ProtocolPipeline;
+import com.netsim.table.ArpTable;
+import com.netsim.table.RoutingTable;
+
+public class TopologyLoaderTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    // the topology of Demo2: two hosts and a server around one router
+    private static final String DEMO =
+        "# two hosts and a server around one router\n"
+        + "router r1\n"
+        + "  iface eth0 02:00:00:00:00:41 10.0.0.1/30\n"
+        + "  iface eth1 02:00:00:00:00:42 10.0.1.1/30\n"
+        + "  iface eth2 02:00:00:00:00:43 10.0.2.1/30 9000\n"
+        + "  route 10.0.0.0/30 eth0 -\n"
+        + "  route 10.0.1.0/30 eth1\n"
+        + "  route 10.0.2.0/30 eth2\n"
+        + "  arp 10.0.0.2 02:00:00:00:00:11\n"
+        + "  arp 10.0.1.2 02:00:00:00:00:22\n"
+        + "  arp 10.0.2.2 02:00:00:00:00:33\n"
+        + "\n"
+        + "host h1\n"
+        + "  iface eth0 02:00:00:00:00:11 10.0.0.2/30\n"
+        + "  route 0.0.0.0/0 eth0 10.0.0.1   # default route\n"
+        + "  arp 10.0.0.1 02:00:00:00:00:41\n"
+        + "link h1.eth0 r1.eth0 1000\n"
+        + "host h2\r\n"
+        + "  iface eth0 02:00:00:00:00:22 10.0.1.2/30\r\n"
+        + "  route 0.0.0.0/0 eth0 10.0.1.1\r\n"
+        + "  arp 10.0.1.1 02:00:00:00:00:42\r\n"
+        + "server srv\n"
+        + "\tiface eth0 02:00:00:00:00:33 10.0.2.2/30\n"
+        + "\troute 10.0.0.0/24 eth0 10.0.2.1\n"
+        + "\troute 10.0.1.0/24 eth0 10.0.2.1\n"
+        + "\tarp 10.0.2.1 02:00:00:00:00:43\n"
+        + "link h2.eth0 r1.eth1\n"
+        + "link srv.eth0 r1.eth2 500 8000000";
+
+    // topologies to tear down after each test
+    private final List<Topology> loaded = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        for (Topology topology : loaded) {
+            topology.close();
+        }
+        PacketBufferPool.getInstance().checkLeaks();
+    }
+
+    private Topology load(String scenario) throws IOException {
+        Topology topology = TopologyLoader.load(new ByteArrayInputStream(scenario.getBytes(StandardCharsets.UTF_8)));
+        loaded.add(topology);
+        return topology;
+    }
+
+    private void assertRejected(String scenario, String message) throws IOException {
+        try {
+            load(scenario);
+            fail("expected " + message);
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(message));
+        }
+    }
+
+    @Test
+    public void buildsNodesThroughTheirBuilders() throws IOException {
+        Topology topology = load(DEMO);
+
+        assertEquals(4, topology.size());
+        assertEquals(7, topology.getRouteCount());
+        assertEquals(3, topology.getLinkCount());
+        assertTrue(topology.getNode("r1") instanceof Router);
+        assertTrue(topology.getNode("h1") instanceof Host);
+        assertTrue(topology.getNode("srv") instanceof Server);
+        assertNull(topology.getNode("r2"));
+        assertArrayEquals(new Object[] {
+            topology.getNode("r1"), topology.getNode("h1"), topology.getNode("h2"), topology.getNode("srv")
+        }, topology.getNodes().toArray());
+
+        Router router = topology.getRouter("r1");
+        assertEquals(3, router.getInterfaces().size());
+        CabledAdapter eth2 = topology.getAdapter("r1", "eth2");
+        assertEquals(9000, eth2.getMTU());
+        assertEquals(new Mac("02:00:00:00:00:43"), eth2.getMacAddress());
+        assertEquals(new IPv4("10.0.2.1", 30), router.getInterface(eth2).getIP());
+        assertSame(router, eth2.getOwner());
+        assertEquals(TopologyLoader.DEFAULT_MTU, topology.getAdapter("r1", "eth0").getMTU());
+    }
+
+    @Test
+    public void wiresLinksBothWays() throws IOException {
+        Topology topology = load(DEMO);
+        CabledAdapter h1  = topology.getAdapter("h1", "eth0");
+        CabledAdapter r1  = topology.getAdapter("r1", "eth0");
+        CabledAdapter srv = topology.getAdapter("srv", "eth0");
+        CabledAdapter r3  = topology.getAdapter("r1", "eth2");
+
+        assertSame(r1, h1.getLinkedAdapter());
+        assertSame(h1, r1.getLinkedAdapter());
+        assertEquals(1000L, h1.getLatency());
+        assertEquals(1000L, r1.getLatency());
+        assertEquals(0L, h1.getBandwidth());
+        assertSame(srv, r3.getLinkedAdapter());
+        assertEquals(500L, srv.getLatency());
+        assertEquals(8_000_000L, r3.getBandwidth());
+    }
+
+    @Test
+    public void populatesRoutingAndArpTables() throws IOException {
+        Topology topology = load(DEMO);
+        Server<App> server = topology.getServer("srv");
+
+        RoutingTable routes = server.getRoutingTable();
+        assertEquals(2, routes.size());
+        assertEquals(1L, routes.getGeneration());
+        assertEquals(new IPv4("10.0.2.1", 32), routes.lookup(new IPv4("10.0.1.7", 32)).getNextHop());
+        assertSame(topology.getAdapter("srv", "eth0"), routes.lookup(new IPv4("10.0.0.2", 32)).getDevice());
+
+        RoutingTable direct = topology.getRouter("r1").getRoutingTable();
+        assertNull(direct.lookup(new IPv4("10.0.1.2", 32)).getNextHop());
+        assertSame(topology.getAdapter("r1", "eth1"), direct.lookup(new IPv4("10.0.1.2", 32)).getDevice());
+
+        ArpTable arp = topology.getRouter("r1").getArpTable();
+        assertEquals(new Mac("02:00:00:00:00:33").toLong(), arp.find(new IPv4("10.0.2.2", 32).toInt(), 0L));
+    }
+
+    @Test
+    public void loadedTopologyDeliversTraffic() throws IOException {
+        Topology topology = load(DEMO);
+        EventScheduler scheduler = new EventScheduler();
+        for (NetworkNode node : topology.getNodes()) {
+            node.setScheduler(scheduler);
+            for (Interface iface : node.getInterfaces()) {
+                ((CabledAdapter) iface.getAdapter()).setScheduler(scheduler);
+            }
+        }
+        RecordingApp app = new RecordingApp();
+        topology.getServer("srv").setApp(app);
+
+        byte[] data = {1, 2, 3, 4};
+        topology.getHost("h1").send(new IPv4("10.0.2.2", 32), new ProtocolPipeline(), data);
+        scheduler.run();
+        assertArrayEquals(data, app.received);
+    }
+
+    @Test
+    public void loadsFilesWithManyRoutesPerNode() throws IOException {
+        StringBuilder scenario = new StringBuilder()
+            .append("router core\n")
+            .append("iface up 02:00:00:00:01:01 192.168.0.1/24\n")
+            .append("iface down 02:00:00:00:01:02 192.168.1.1/24\n");
+        for (int i = 0; i < 5000; i++) {
+            scenario.append("route 10.").append(i >> 8).append('.').append(i & 0xFF)
+                    .append(".0/24 ").append(i % 2 == 0 ? "up" : "down")
+                    .append(i % 2 == 0 ? " 192.168.0.2\n" : " 192.168.1.2\n");
+        }
+        Path file = folder.getRoot().toPath().resolve("core.topo");
+        Files.write(file, scenario.toString().getBytes(StandardCharsets.US_ASCII));
+
+        Topology topology = TopologyLoader.load(file);
+        loaded.add(topology);
+        RoutingTable routes = topology.getRouter("core").getRoutingTable();
+        assertEquals(5000, routes.size());
+        assertEquals("routes are published as one FIB", 1L, routes.getGeneration());
+        assertSame(topology.getAdapter("core", "down"), routes.lookup(new IPv4("10.19.135.9", 32)).getDevice());
+        assertEquals(new IPv4("192.168.0.2", 32), routes.lookup(new IPv4("10.19.134.9", 32)).getNextHop());
+    }
+
+    @Test
+    public void typedLookupsRejectOtherKinds() throws IOException {
+        Topology topology = load(DEMO);
+        assertNull(topology.getHost("nobody"));
+        try {
+            topology.getHost("r1");
+            fail("r1 is a router");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("not a Host"));
+        }
+    }
+
+    @Test
+    public void reportsTheLineOfAnInvalidStatement() throws IOException {
+        assertRejected("host h1\n  iface eth0 02:00:00:00:00:11 10.0.0.300/30\n", "line 2: invalid address");
+        assertRejected("host h1\n  iface eth0 02:00:00:00:00:11 10.0.0.2\n", "line 2: expected <address>/<prefix>");
+        assertRejected("host h1\n  iface eth0 02:00:00:00:00:11 10.0.0.2/33\n", "line 2: invalid prefix");
+        assertRejected("host h1\n  iface eth0 02:00:00:00:0:11 10.0.0.2/30\n", "line 2: invalid MAC");
+        assertRejected("host h1\n\n  route 0.0.0.0/0 eth9\n", "line 3: node h1 has no adapter eth9");
+        assertRejected("route 0.0.0.0/0 eth0\n", "line 1: route before any host");
+        assertRejected("bridge b1\n", "line 1: unknown keyword bridge");
+        assertRejected("link a.eth0 b.eth0\n", "line 1: unknown adapter a.eth0");
+        assertRejected("host h1 h2\n", "line 1: expected host <name>");
+        assertRejected("host h1\n  iface eth0 02:00:00:00:00:11 10.0.0.2/30 big\n", "line 2: invalid number big");
+    }
+
+    @Test
+    public void reportsTheNodeThatCannotBeBuilt() throws IOException {
+        assertRejected("# no routes\nhost h1\n  iface eth0 02:00:00:00:00:11 10.0.0.2/30\nhost h2\n",
+                       "line 2: node h1: HostBuilder: routing table cannot be empty");
+        assertRejected(DEMO + "\nhost h1\n", "node h1 already defined");
+    }
+
+    @Test
+    public void closeUnregistersNodeAndAdapterMetrics() throws IOException {
+        Topology topology = TopologyLoader.load(new ByteArrayInputStream(DEMO.getBytes(StandardCharsets.UTF_8)));
+        MetricsSnapshot open = MetricsRegistry.getInstance().snapshot(0L);
+        assertTrue(open.contains("node.r1.eth0.tx_frames"));
+        assertTrue(open.contains("node.srv.eth0.rx_bytes"));
+
+        topology.close();
+        MetricsSnapshot closed = MetricsRegistry.getInstance().snapshot(0L);
+        assertFalse(closed.contains("node.r1.eth0.tx_frames"));
+        assertFalse(closed.contains("node.srv.eth0.rx_bytes"));
+        assertEquals(open.size() - closed.size(), countUnder(open, "node.r1.") + countUnder(open, "node.h1.")
+                     + countUnder(open, "node.h2.") + countUnder(open, "node.srv."));
+    }
+
+    @Test
+    public void rejectedScenarioLeavesNoMetricsBehind() throws IOException {
+        assertRejected(DEMO + "\nhost h1\n", "node h1 already defined");
+        MetricsSnapshot snapshot = MetricsRegistry.getInstance().snapshot(0L);
+        assertEquals(0, countUnder(snapshot, "node.r1."));
+        assertEquals(0, countUnder(snapshot, "node.srv."));
+    }
+
+    private static int countUnder(MetricsSnapshot snapshot, String prefix) {
+        int count = 0;
+        for (int i = 0; i < snapshot.size(); i++) {
+            if (snapshot.getName(i).startsWith(prefix)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    static class RecordingApp extends App {
+        byte[] received;
+
+        RecordingApp() {
+            super("recorder", "", cmd -> (Command) null, null);
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void send(ProtocolPipeline stack, byte[] data) {
+        }
+
+        @Override
+        public void receive(ProtocolPipeline stack, byte[] data) {
+            this.received = data;
+        }
+    }
+}
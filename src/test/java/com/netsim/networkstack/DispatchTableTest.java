@@ -0,0 +1,48 @@
+package com.netsim.networkstack;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class DispatchTableTest {
+
+    @Test
+    public void registeredValuesAreFoundAndOthersAreNot() {
+        DispatchTable<String> table = new DispatchTable<>();
+        table.register(0x0800, "ipv4");
+        table.register(0x0806, "arp");
+        table.register(0xFFFF, "last");
+
+        assertEquals("ipv4", table.get(0x0800));
+        assertEquals("arp", table.get(0x0806));
+        assertEquals("last", table.get(0xFFFF));
+        assertNull(table.get(0x0801));
+        assertNull(table.get(0x86DD));
+        assertNull("out of range values have no handler", table.get(-1));
+        assertNull(table.get(0x10000));
+        assertEquals(3, table.size());
+    }
+
+    @Test
+    public void registerReplacesAndUnregisterRemoves() {
+        DispatchTable<String> table = new DispatchTable<>();
+        assertNull(table.register(9696, "first"));
+        assertEquals("first", table.register(9696, "second"));
+        assertEquals(1, table.size());
+
+        assertEquals("second", table.unregister(9696));
+        assertNull(table.unregister(9696));
+        assertNull(table.get(9696));
+        assertEquals(0, table.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void keysMustFitSixteenBits() {
+        new DispatchTable<String>().register(0x10000, "too big");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void handlerCannotBeNull() {
+        new DispatchTable<String>().register(1, null);
+    }
+}
@@ -0,0 +1,127 @@
+package com.netsim.networkstack;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class PacketBufferPoolTest {
+    private PacketBufferPool pool;
+
+    @Before
+    public void setUp() {
+        pool = new PacketBufferPool(true);
+    }
+
+    @Test
+    public void sharedPoolDetectsLeaksUnderTest() {
+        assertTrue(PacketBufferPool.getInstance().isLeakDetection());
+    }
+
+    @Test
+    public void buffersComeFromTheSmallestFittingSizeClass() {
+        PacketBuffer small = pool.acquire(100);
+        PacketBuffer jumbo = pool.acquire(1501);
+        PacketBuffer max   = pool.acquire(65536);
+        PacketBuffer huge  = pool.acquire(70000);
+
+        assertEquals(PacketBuffer.DEFAULT_HEADROOM + 1500, small.array().length);
+        assertEquals(PacketBuffer.DEFAULT_HEADROOM + 9000, jumbo.array().length);
+        assertEquals(PacketBuffer.DEFAULT_HEADROOM + 65536, max.array().length);
+        assertEquals(PacketBuffer.DEFAULT_HEADROOM + 70000, huge.array().length);
+        assertEquals(PacketBuffer.DEFAULT_HEADROOM, small.headroom());
+        assertEquals(0, small.length());
+
+        small.release();
+        jumbo.release();
+        max.release();
+        huge.release();
+        pool.checkLeaks();
+    }
+
+    @Test
+    public void extraHeadroomComesFromTheSameSizeClasses() {
+        PacketBuffer message = pool.acquire(new byte[] {1, 2, 3}, PacketBuffer.DEFAULT_HEADROOM + 40);
+        assertEquals(PacketBuffer.DEFAULT_HEADROOM + 40, message.headroom());
+        assertArrayEquals(new byte[] {1, 2, 3}, message.toByteArray());
+        assertEquals(PacketBuffer.DEFAULT_HEADROOM + 1500, message.array().length);
+        message.release();
+
+        PacketBuffer reused = pool.acquire(10);
+        assertSame(message, reused);
+        assertEquals("the next owner gets the default headroom back",
+                     PacketBuffer.DEFAULT_HEADROOM, reused.headroom());
+        reused.release();
+        pool.checkLeaks();
+    }
+
+    @Test
+    public void releasedBufferIsReused() {
+        PacketBuffer first = pool.acquire(new byte[] {1, 2, 3});
+        assertArrayEquals(new byte[] {1, 2, 3}, first.toByteArray());
+        assertTrue(first.release());
+
+        PacketBuffer second = pool.acquire(10);
+        assertSame(first, second);
+        assertEquals(0, second.length());
+        assertEquals(1, second.refCount());
+        assertEquals(1, pool.getAllocations());
+        second.release();
+    }
+
+    @Test
+    public void sharedBufferReturnsAfterLastRelease() {
+        PacketBuffer frame = pool.acquire(new byte[] {7, 8, 9});
+        PacketBuffer view  = frame.duplicate();
+        assertTrue(frame.isShared());
+        assertSame(frame.array(), view.array());
+
+        view.pull(1);
+        assertArrayEquals(new byte[] {8, 9}, view.toByteArray());
+        assertArrayEquals(new byte[] {7, 8, 9}, frame.toByteArray());
+
+        assertFalse(frame.release());
+        assertEquals(1, pool.getOutstanding());
+        assertTrue(view.release());
+        assertEquals(0, pool.getOutstanding());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void doubleReleaseFails() {
+        PacketBuffer buffer = pool.acquire(1);
+        buffer.release();
+        buffer.release();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void accessAfterReleaseFails() {
+        PacketBuffer buffer = pool.acquire(8);
+        buffer.release();
+        buffer.push(4);
+    }
+
+    @Test
+    public void leakReportPointsAtAcquisition() {
+        PacketBuffer leaked = pool.acquire(32);
+        try {
+            pool.checkLeaks();
+            fail("Leak must be reported");
+        } catch (IllegalStateException e) {
+            assertNotNull(e.getCause());
+            assertEquals("leakReportPointsAtAcquisition", e.getCause().getStackTrace()[1].getMethodName());
+        }
+        pool.checkLeaks(); // a leak is reported once
+        leaked.release();
+        pool.checkLeaks();
+    }
+
+    @Test
+    public void buffersReleasedOnAnotherThreadAreRecycled() throws InterruptedException {
+        PacketBuffer buffer = pool.acquire(64);
+        Thread other = new Thread(buffer::release);
+        other.start();
+        other.join();
+        assertEquals(0, pool.getOutstanding());
+        assertEquals(0, buffer.refCount());
+    }
+}
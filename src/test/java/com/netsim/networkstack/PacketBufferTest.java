@@ -0,0 +1,61 @@
+package com.netsim.networkstack;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class PacketBufferTest {
+
+    @Test
+    public void forPayloadReservesDefaultHeadroom() {
+        PacketBuffer packet = PacketBuffer.forPayload(new byte[] {1, 2, 3});
+        assertEquals(PacketBuffer.DEFAULT_HEADROOM, packet.headroom());
+        assertEquals(3, packet.length());
+        assertEquals(0, packet.tailroom());
+        assertArrayEquals(new byte[] {1, 2, 3}, packet.toByteArray());
+    }
+
+    @Test
+    public void pushAndPullMoveTheStartOnly() {
+        PacketBuffer packet = PacketBuffer.forPayload(new byte[] {9, 9});
+        int start = packet.push(4);
+        assertEquals(PacketBuffer.DEFAULT_HEADROOM - 4, start);
+        packet.putInt(0, 0x01020304);
+        assertArrayEquals(new byte[] {1, 2, 3, 4, 9, 9}, packet.toByteArray());
+        assertEquals(0x01020304, packet.getInt(0));
+        assertEquals(0x0304, packet.getUnsignedShort(2));
+
+        assertEquals(start, packet.pull(4));
+        assertArrayEquals(new byte[] {9, 9}, packet.toByteArray());
+    }
+
+    @Test
+    public void putAndTrimMoveTheEndOnly() {
+        PacketBuffer packet = new PacketBuffer(2, 8);
+        int at = packet.put(3);
+        assertEquals(2, at);
+        packet.putByte(0, 0xAB);
+        packet.putShort(1, 0xCDEF);
+        assertEquals(3, packet.tailroom());
+        packet.trim(1);
+        assertArrayEquals(new byte[] {(byte) 0xAB}, packet.toByteArray());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void pushBeyondHeadroomFails() {
+        new PacketBuffer(2, 8).push(3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void pullBeyondLengthFails() {
+        PacketBuffer.forPayload(new byte[] {1}).pull(2);
+    }
+
+    @Test
+    public void replaceKeepsHeadroomAndGrowsWhenNeeded() {
+        PacketBuffer packet = PacketBuffer.forPayload(new byte[] {1});
+        packet.replace(new byte[] {5, 6, 7, 8});
+        assertEquals(PacketBuffer.DEFAULT_HEADROOM, packet.headroom());
+        assertArrayEquals(new byte[] {5, 6, 7, 8}, packet.toByteArray());
+    }
+}
@@ -2,9 +2,19 @@ package com.netsim.networkstack;
 
 import static org.junit.Assert.*;
 
+import java.nio.charset.StandardCharsets;
+
 import org.junit.Before;
 import org.junit.Test;
 
+import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Mac;
+import com.netsim.addresses.Port;
+import com.netsim.protocols.IPv4.IPv4Protocol;
+import com.netsim.protocols.MSG.MSGProtocol;
+import com.netsim.protocols.SimpleDLL.SimpleDLLProtocol;
+import com.netsim.protocols.UDP.UDPProtocol;
+
 public class ProtocolPipelineTest {
     private ProtocolPipeline pipeline;
 
@@ -140,4 +150,55 @@ public class ProtocolPipelineTest {
         pipeline.pop();
         assertEquals(1, pipeline.size());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void bufferPathFallsBackToByteArraysForPlainProtocols() {
+        pipeline.push(new DummyProtocol((byte) 2));
+        pipeline.push(new DummyProtocol((byte) 1));
+
+        PacketBuffer packet = PacketBuffer.forPayload(new byte[] {42});
+        pipeline.encapsulateInPlace(packet);
+        assertArrayEquals(new byte[] {2, 1, 42}, packet.toByteArray());
+
+        pipeline.decapsulateInPlace(packet);
+        assertArrayEquals(new byte[] {42}, packet.toByteArray());
+    }
+
+    @Test
+    public void fourLayerStackWorksInOneBuffer() {
+        pipeline.push(new SimpleDLLProtocol(new Mac("aa:bb:cc:00:00:01"), new Mac("aa:bb:cc:00:00:02")));
+        pipeline.push(new IPv4Protocol(new IPv4("10.0.0.1", 24), new IPv4("10.0.0.2", 24),
+                                       5, 0, 0, 0, 64, 0, 1500));
+        pipeline.push(new UDPProtocol(1400, new Port("4000"), MSGProtocol.port()));
+        pipeline.push(new MSGProtocol("alice"));
+
+        byte[] payload = "hello over four layers".getBytes(StandardCharsets.UTF_8);
+        PacketBuffer packet = PacketBuffer.forPayload(payload);
+        byte[] backing = packet.array();
+
+        pipeline.encapsulateInPlace(packet);
+        assertArrayEquals(pipeline.encapsulate(payload), packet.toByteArray());
+
+        pipeline.decapsulateInPlace(packet);
+        assertArrayEquals(payload, packet.toByteArray());
+        assertSame("No layer may reallocate the buffer", backing, packet.array());
+    }
+
+    @Test
+    public void copyKeepsStamps() {
+        ProtocolPipeline pipeline = new ProtocolPipeline();
+        assertEquals(ProtocolPipeline.UNSTAMPED, pipeline.getOriginTime());
+        assertEquals(ProtocolPipeline.UNSTAMPED, pipeline.getArrivalTime());
+        pipeline.stampOrigin("h1", 5L);
+        pipeline.stampArrival(9L);
+        ProtocolPipeline copy = pipeline.copy();
+        assertEquals("h1", copy.getOrigin());
+        assertEquals(5L, copy.getOriginTime());
+        assertEquals(9L, copy.getArrivalTime());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void stampOriginRejectsNullNode() {
+        new ProtocolPipeline().stampOrigin(null, 0L);
+    }
+}
@@ -0,0 +1,80 @@
+package com.netsim.protocols.ARP;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Mac;
+
+public class ARPProtocolTest {
+    private final Mac  asker   = new Mac("02:00:00:00:00:01");
+    private final Mac  owner   = new Mac("02:00:00:00:00:02");
+    private final IPv4 askerIp = new IPv4("10.0.0.1", 24);
+    private final IPv4 ownerIp = new IPv4("10.0.0.2", 24);
+
+    @Test
+    public void requestLayoutFollowsRfc826() {
+        byte[] message = ARPProtocol.request(asker, askerIp, ownerIp).encapsulate(null);
+        assertEquals(ARPProtocol.MESSAGE_LEN, message.length);
+        assertArrayEquals(new byte[]{0, 1, 8, 0, 6, 4, 0, 1}, Arrays.copyOf(message, 8));
+        assertEquals(ARPProtocol.REQUEST, ARPProtocol.extractOperation(message));
+        assertEquals(asker.toLong(), ARPProtocol.extractSenderMac(message));
+        assertEquals(askerIp.toInt(), ARPProtocol.extractSenderIp(message));
+        assertEquals(ownerIp.toInt(), ARPProtocol.extractTargetIp(message));
+        for (int i = 18; i < 24; i++) {
+            assertEquals("target MAC of a request is zero", 0, message[i]);
+        }
+    }
+
+    @Test
+    public void replyCarriesBothEnds() {
+        ARPProtocol reply = ARPProtocol.reply(owner, ownerIp, asker, askerIp);
+        byte[] message = reply.encapsulate(new byte[0]);
+        assertEquals(ARPProtocol.REPLY, ARPProtocol.extractOperation(message));
+        assertEquals(owner.toLong(), ARPProtocol.extractSenderMac(message));
+        assertEquals(asker.toLong(), Mac.toLong(message, 18));
+        assertEquals(new IPv4("10.0.0.2", 32), reply.extractSource(message));
+        assertEquals(new IPv4("10.0.0.1", 32), reply.extractDestination(message));
+        assertEquals(0, reply.decapsulate(message).length);
+    }
+
+    @Test
+    public void copyKeepsFields() {
+        ARPProtocol reply = ARPProtocol.reply(owner, ownerIp, asker, askerIp);
+        ARPProtocol copy  = (ARPProtocol) reply.copy();
+        assertNotSame(reply, copy);
+        assertArrayEquals(reply.encapsulate(null), copy.encapsulate(null));
+        assertSame(asker, copy.getTargetMac());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void encapsulateRejectsPayload() {
+        ARPProtocol.request(asker, askerIp, ownerIp).encapsulate(new byte[]{1});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decapsulateRejectsShortMessage() {
+        ARPProtocol.request(asker, askerIp, ownerIp).decapsulate(new byte[10]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void extractRejectsOtherProtocolTypes() {
+        byte[] message = ARPProtocol.request(asker, askerIp, ownerIp).encapsulate(null);
+        message[2] = (byte) 0x86;
+        message[3] = (byte) 0xDD;
+        ARPProtocol.extractTargetIp(message);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructorRejectsUnknownOperation() {
+        new ARPProtocol(3, asker, askerIp, null, ownerIp);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void replyRejectsNullTargetMac() {
+        ARPProtocol.reply(owner, ownerIp, null, askerIp);
+    }
+}
@@ -0,0 +1,71 @@
+package com.netsim.protocols.IPv4;
+
+import com.netsim.addresses.IPv4;
+import com.netsim.networkstack.PacketBuffer;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class IPv4HeaderViewTest {
+
+    private static final IPv4 SRC = new IPv4("192.168.0.1", 24);
+    private static final IPv4 DST = new IPv4("10.0.0.1", 24);
+
+    @Test
+    public void readsTheFieldsEncapsulateWrites() {
+        IPv4Protocol protocol = new IPv4Protocol(SRC, DST, 5, 3, 1234, 0, 64, 17, 1500);
+        byte[] wire = protocol.encapsulate(new byte[30]);
+
+        IPv4HeaderView view = new IPv4HeaderView().wrap(wire, 0, wire.length);
+        assertEquals(4, view.getVersion());
+        assertEquals(5, view.getIHL());
+        assertEquals(20, view.getHeaderLength());
+        assertEquals(3, view.getTypeOfService());
+        assertEquals(50, view.getTotalLength());
+        assertEquals(1234, view.getIdentification());
+        assertEquals(64, view.getTtl());
+        assertEquals(17, view.getProtocol());
+        assertEquals(SRC.toInt(), view.getSource());
+        assertEquals(DST.toInt(), view.getDestination());
+        assertTrue(view.isUnfragmented());
+    }
+
+    @Test
+    public void readsFragmentFieldsAndCanBeRewrapped() {
+        IPv4Protocol protocol = new IPv4Protocol(SRC, DST, 5, 0, 7, 0, 64, 17, 100);
+        byte[] wire = protocol.encapsulate(new byte[150]);
+
+        IPv4HeaderView view = new IPv4HeaderView().wrap(wire, 0, wire.length);
+        assertTrue(view.hasMoreFragments());
+        assertEquals(0, view.getFragmentOffset());
+        int second = view.getTotalLength();
+
+        assertSame(view, view.wrap(wire, second, wire.length - second));
+        assertEquals(second, view.getOffset());
+        assertEquals(80, view.getFragmentOffset());
+        assertFalse(view.isUnfragmented());
+    }
+
+    @Test
+    public void wrapsABufferAtItsOffset() {
+        IPv4Protocol protocol = new IPv4Protocol(SRC, DST, 5, 0, 1, 0, 64, 17, 1500);
+        PacketBuffer packet = PacketBuffer.forPayload(new byte[8]);
+        protocol.encapsulateInPlace(packet);
+
+        IPv4HeaderView view = new IPv4HeaderView().wrap(packet);
+        assertEquals(packet.offset(), view.getOffset());
+        assertEquals(DST.toInt(), view.getDestination());
+        assertEquals(DST.toInt(), IPv4HeaderView.readDestination(packet.array(), packet.offset()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrapRejectsTruncatedHeader() {
+        new IPv4HeaderView().wrap(new byte[19], 0, 19);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrapRejectsHeaderLengthPastTheData() {
+        byte[] wire = new byte[20];
+        wire[0] = 0x46;
+        new IPv4HeaderView().wrap(wire, 0, wire.length);
+    }
+}
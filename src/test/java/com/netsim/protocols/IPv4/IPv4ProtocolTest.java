@@ -1,7 +1,13 @@
 
 package com.netsim.protocols.IPv4;
 
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.List;
+
 import com.netsim.addresses.IPv4;
+import com.netsim.networkstack.PacketBuffer;
+import com.netsim.networkstack.PacketBufferPool;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
@@ -54,4 +60,193 @@ public class IPv4ProtocolTest {
         assertEquals("192.168.0.1", extractedSrc.stringRepresentation());
         assertEquals("10.0.0.1", extractedDst.stringRepresentation());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testBufferPathMatchesByteArrayPath() {
+        IPv4Protocol protocol = new IPv4Protocol(
+            new IPv4("192.168.0.1", 24), new IPv4("10.0.0.1", 24), 6, 3, 1234, 0, 64, 17, 1500);
+        byte[] payload = new byte[50];
+        for (int i = 0; i < 50; i++) payload[i] = (byte) (i + 1);
+        PacketBuffer packet = PacketBuffer.forPayload(payload);
+        byte[] backing = packet.array();
+        Arrays.fill(backing, 0, packet.offset(), (byte) 0x7F);
+
+        protocol.encapsulateInPlace(packet);
+        assertArrayEquals(protocol.encapsulate(payload), packet.toByteArray());
+
+        protocol.decapsulateInPlace(packet);
+        assertArrayEquals(payload, packet.toByteArray());
+        assertSame("Unfragmented packet must be handled in place", backing, packet.array());
+    }
+
+    @Test
+    public void testBufferPathFragmentsLargePayloads() {
+        IPv4Protocol protocol = new IPv4Protocol(
+            new IPv4("192.168.0.1", 24), new IPv4("10.0.0.1", 24), 5, 0, 1234, 0, 64, 17, 100);
+        byte[] payload = new byte[250];
+        for (int i = 0; i < payload.length; i++) payload[i] = (byte) i;
+        PacketBuffer packet = PacketBuffer.forPayload(payload);
+
+        protocol.encapsulateInPlace(packet);
+        assertArrayEquals(protocol.encapsulate(payload), packet.toByteArray());
+
+        protocol.decapsulateInPlace(packet);
+        assertArrayEquals(payload, packet.toByteArray());
+    }
+
+    @Test
+    public void testFragmentInPlaceGivesEachFragmentItsOwnBuffer() {
+        IPv4Protocol protocol = new IPv4Protocol(
+            new IPv4("192.168.0.1", 24), new IPv4("10.0.0.1", 24), 5, 0, 1234, 0, 64, 17, 100);
+        byte[] payload = new byte[250];
+        for (int i = 0; i < payload.length; i++) payload[i] = (byte) i;
+        PacketBuffer packet = PacketBuffer.forPayload(payload);
+        byte[] backing = packet.array();
+        int outstanding = PacketBufferPool.getInstance().getOutstanding();
+
+        List<PacketBuffer> fragments = protocol.fragmentInPlace(packet);
+        assertEquals(4, fragments.size());
+        assertSame(packet, fragments.get(0));
+        assertSame("The first fragment stays where it was built", backing, packet.array());
+        assertArrayEquals(protocol.encapsulate(payload), concatenate(fragments));
+        assertEquals(outstanding + 3, PacketBufferPool.getInstance().getOutstanding());
+        for (int i = 1; i < fragments.size(); i++) {
+            fragments.get(i).release();
+        }
+        assertEquals(outstanding, PacketBufferPool.getInstance().getOutstanding());
+    }
+
+    @Test
+    public void testFragmentInPlaceKeepsFittingPayloadInOneBuffer() {
+        IPv4Protocol protocol = new IPv4Protocol(
+            new IPv4("192.168.0.1", 24), new IPv4("10.0.0.1", 24), 5, 0, 1234, 0, 64, 17, 1500);
+        byte[] payload = new byte[250];
+        PacketBuffer packet = PacketBuffer.forPayload(payload);
+
+        List<PacketBuffer> fragments = protocol.fragmentInPlace(packet);
+        assertEquals(1, fragments.size());
+        assertSame(packet, fragments.get(0));
+        assertArrayEquals(protocol.encapsulate(payload), packet.toByteArray());
+    }
+
+    @Test
+    public void testDecrementTtlRewritesEveryFragment() {
+        IPv4Protocol protocol = new IPv4Protocol(
+            new IPv4("192.168.0.1", 24), new IPv4("10.0.0.1", 24), 5, 0, 1234, 0, 64, 17, 100);
+        byte[] payload = new byte[250];
+        PacketBuffer packet = PacketBuffer.forPayload(protocol.encapsulate(payload));
+        byte[] backing = packet.array();
+
+        assertEquals(64, IPv4Protocol.decrementTtl(packet));
+        assertSame(backing, packet.array());
+        int fragments = 0;
+        for (int at = 0; at < packet.length(); at += packet.getUnsignedShort(at + 2)) {
+            assertEquals(63, packet.getUnsignedShort(at + 8));
+            fragments++;
+        }
+        assertEquals(4, fragments);
+        assertArrayEquals(payload, protocol.decapsulate(packet.toByteArray()));
+    }
+
+    @Test
+    public void testDecrementTtlLeavesExpiredPacketUntouched() {
+        IPv4Protocol protocol = new IPv4Protocol(
+            new IPv4("192.168.0.1", 24), new IPv4("10.0.0.1", 24), 5, 0, 1234, 0, 0, 17, 1500);
+        byte[] wire = protocol.encapsulate(new byte[10]);
+        PacketBuffer packet = PacketBuffer.forPayload(wire);
+
+        assertEquals(0, IPv4Protocol.decrementTtl(packet));
+        assertArrayEquals(wire, packet.toByteArray());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecrementTtlRejectsTruncatedPacket() {
+        IPv4Protocol protocol = new IPv4Protocol(
+            new IPv4("192.168.0.1", 24), new IPv4("10.0.0.1", 24), 5, 0, 1234, 0, 64, 17, 1500);
+        byte[] wire = protocol.encapsulate(new byte[10]);
+        IPv4Protocol.decrementTtl(PacketBuffer.forPayload(Arrays.copyOf(wire, wire.length - 1)));
+    }
+
+    @Test
+    public void testRefragmentLeavesFittingFragmentsAsTheyAre() {
+        IPv4Protocol protocol = new IPv4Protocol(
+            new IPv4("192.168.0.1", 24), new IPv4("10.0.0.1", 24), 5, 0, 1234, 0, 64, 17, 100);
+        byte[] wire = protocol.encapsulate(new byte[250]);
+        PacketBuffer packet = PacketBuffer.forPayload(wire);
+        byte[] backing = packet.array();
+
+        List<PacketBuffer> fragments = IPv4Protocol.refragment(packet, 100);
+        assertEquals(4, fragments.size());
+        assertSame(packet, fragments.get(0));
+        assertSame(backing, packet.array());
+        assertArrayEquals(wire, concatenate(fragments));
+        for (int i = 1; i < fragments.size(); i++) {
+            fragments.get(i).release();
+        }
+    }
+
+    @Test
+    public void testRefragmentReturnsLoneFittingFragment() {
+        IPv4Protocol protocol = new IPv4Protocol(
+            new IPv4("192.168.0.1", 24), new IPv4("10.0.0.1", 24), 5, 0, 1234, 0, 64, 17, 100);
+        byte[] wire = protocol.encapsulate(new byte[50]);
+        PacketBuffer packet = PacketBuffer.forPayload(wire);
+
+        List<PacketBuffer> fragments = IPv4Protocol.refragment(packet, 100);
+        assertEquals(1, fragments.size());
+        assertSame(packet, fragments.get(0));
+        assertArrayEquals(wire, packet.toByteArray());
+    }
+
+    @Test
+    public void testRefragmentSplitsOversizedFragments() {
+        IPv4Protocol protocol = new IPv4Protocol(
+            new IPv4("192.168.0.1", 24), new IPv4("10.0.0.1", 24), 5, 0, 1234, 0, 64, 17, 500);
+        byte[] payload = new byte[700];
+        for (int i = 0; i < payload.length; i++) payload[i] = (byte) i;
+        PacketBuffer packet = PacketBuffer.forPayload(protocol.encapsulate(payload));
+
+        List<PacketBuffer> fragments = IPv4Protocol.refragment(packet, 100);
+        assertEquals(9, fragments.size());
+        assertSame(packet, fragments.get(0));
+        for (PacketBuffer fragment : fragments) {
+            assertEquals(fragment.length(), fragment.getUnsignedShort(2));
+            assertTrue(fragment.length() <= 100);
+            assertEquals(1234, fragment.getUnsignedShort(4));
+        }
+        assertEquals("only the last fragment clears MF", 0, fragments.get(8).getUnsignedShort(6) & 0x4000);
+        assertArrayEquals(payload, protocol.decapsulate(concatenate(fragments)));
+        for (int i = 1; i < fragments.size(); i++) {
+            fragments.get(i).release();
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testRefragmentRejectsTinyMtu() {
+        IPv4Protocol protocol = new IPv4Protocol(
+            new IPv4("192.168.0.1", 24), new IPv4("10.0.0.1", 24), 5, 0, 1234, 0, 64, 17, 1500);
+        IPv4Protocol.refragment(PacketBuffer.forPayload(protocol.encapsulate(new byte[100])), 24);
+    }
+
+    @Test
+    public void extractReadsAddressesFromTheHeader() {
+        IPv4 src = new IPv4("192.168.0.1", 24);
+        IPv4 dst = new IPv4("10.0.0.1", 24);
+        IPv4Protocol protocol = new IPv4Protocol(src, dst, 5, 0, 1234, 0, 64, 17, 1500);
+        byte[] wire = protocol.encapsulate(new byte[10]);
+        assertSame(dst, protocol.extractDestination(wire));
+        assertSame(src, protocol.extractSource(wire));
+        assertSame(dst, protocol.extractDestination(PacketBuffer.forPayload(wire)));
+
+        IPv4Protocol other = new IPv4Protocol(src, new IPv4("10.0.0.9", 24), 5, 0, 1234, 0, 64, 17, 1500);
+        assertEquals(new IPv4("10.0.0.9", 24), protocol.extractDestination(other.encapsulate(new byte[10])));
+    }
+
+    private static byte[] concatenate(List<PacketBuffer> fragments) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (PacketBuffer fragment : fragments) {
+            out.write(fragment.array(), fragment.offset(), fragment.length());
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,200 @@
+package com.netsim.protocols.IPv4;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import com.netsim.addresses.IPv4;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class IPv4ReassemblerTest {
+    private IPv4Reassembler reassembler;
+
+    @Before
+    public void setUp() {
+        reassembler = new IPv4Reassembler();
+    }
+
+    private static byte[] payload(int size, int seed) {
+        byte[] data = new byte[size];
+        new Random(seed).nextBytes(data);
+        return data;
+    }
+
+    // fragments of payload sent from 10.0.0.<host> with the given id, at MTU 100
+    private static List<byte[]> fragments(byte[] payload, int host, int id) {
+        IPv4Protocol ip = new IPv4Protocol(new IPv4("10.0.0." + host, 24), new IPv4("10.0.1.1", 24),
+                                           5, 0, id, 0, 64, 17, 100);
+        byte[] wire = ip.encapsulate(payload);
+        List<byte[]> result = new ArrayList<>();
+        for (int at = 0; at < wire.length; ) {
+            int length = IPv4Reassembler.fragmentLength(wire, at);
+            result.add(Arrays.copyOfRange(wire, at, at + length));
+            at += length;
+        }
+        return result;
+    }
+
+    private byte[] feed(List<byte[]> fragments, long now) {
+        byte[] done = null;
+        for (byte[] fragment : fragments) {
+            byte[] result = reassembler.accept(fragment, 0, now);
+            if (result != null) {
+                assertNull("only one fragment completes the datagram", done);
+                done = result;
+            }
+        }
+        return done;
+    }
+
+    @Test
+    public void unfragmentedPacketIsReturnedAtOnce() {
+        byte[] data = payload(40, 1);
+        List<byte[]> single = fragments(data, 1, 7);
+        assertEquals(1, single.size());
+        assertArrayEquals(data, reassembler.accept(single.get(0), 0, 0L));
+        assertEquals(0, reassembler.getPending());
+    }
+
+    @Test
+    public void inOrderFragmentsReassemble() {
+        byte[] data = payload(1000, 2);
+        List<byte[]> parts = fragments(data, 1, 7);
+        assertTrue(parts.size() > 10);
+        assertArrayEquals(data, feed(parts, 0L));
+        assertEquals(0, reassembler.getPending());
+        assertEquals(0L, reassembler.getMemoryUsage());
+        assertEquals(1L, reassembler.getReassembled());
+    }
+
+    @Test
+    public void shuffledAndDuplicatedFragmentsReassemble() {
+        byte[] data = payload(1003, 3);
+        assertArrayEquals(data, feed(shuffledWithDuplicates(fragments(data, 1, 7)), 0L));
+        assertEquals(0, reassembler.getPending());
+    }
+
+    // every fragment once and three of them twice, shuffled, with the
+    // fragment completing the datagram last
+    private static List<byte[]> shuffledWithDuplicates(List<byte[]> parts) {
+        List<byte[]> result = new ArrayList<>(parts);
+        Collections.shuffle(result, new Random(5));
+        List<byte[]> duplicates = new ArrayList<>(result.subList(0, 3));
+        byte[] last = result.remove(result.size() - 1);
+        result.addAll(duplicates);
+        Collections.shuffle(result, new Random(6));
+        result.add(last);
+        return result;
+    }
+
+    @Test
+    public void interleavedFlowsReassembleIndependently() {
+        int flows = 20;
+        byte[][]           data  = new byte[flows][];
+        List<List<byte[]>> parts = new ArrayList<>();
+        for (int i = 0; i < flows; i++) {
+            data[i] = payload(300 + 37 * i, i);
+            // same id on every flow: only the source tells them apart
+            List<byte[]> flow = new ArrayList<>(fragments(data[i], i + 1, 99));
+            Collections.reverse(flow);
+            parts.add(flow);
+        }
+        int done = 0;
+        for (int round = 0; done < flows; round++) {
+            for (int i = 0; i < flows; i++) {
+                List<byte[]> flow = parts.get(i);
+                if (round < flow.size()) {
+                    byte[] result = reassembler.accept(flow.get(round), 0, 0L);
+                    if (result != null) {
+                        assertEquals(flow.size() - 1, round);
+                        assertArrayEquals(data[i], result);
+                        done++;
+                    }
+                }
+            }
+        }
+        assertEquals(0, reassembler.getPending());
+    }
+
+    @Test
+    public void incompleteDatagramTimesOut() {
+        reassembler.setTimeout(1_000L);
+        List<byte[]> parts = fragments(payload(500, 7), 1, 7);
+        reassembler.accept(parts.get(0), 0, 0L);
+        assertEquals(1, reassembler.getPending());
+        assertTrue(reassembler.getMemoryUsage() > 0);
+
+        assertEquals(0, reassembler.expire(999L));
+        assertEquals(1, reassembler.expire(1_000L));
+        assertEquals(0, reassembler.getPending());
+        assertEquals(0L, reassembler.getMemoryUsage());
+        assertEquals(1L, reassembler.getTimeouts());
+
+        // the rest alone cannot complete it
+        for (byte[] part : parts.subList(1, parts.size())) {
+            assertNull(reassembler.accept(part, 0, 2_000L));
+        }
+    }
+
+    @Test
+    public void memoryBudgetEvictsOldestDatagrams() {
+        reassembler.setMemoryBudget(700L);
+        List<byte[]> first  = fragments(payload(500, 8), 1, 1);
+        List<byte[]> second = fragments(payload(500, 9), 2, 2);
+        List<byte[]> third  = fragments(payload(500, 10), 3, 3);
+        reassembler.accept(first.get(0), 0, 0L);
+        reassembler.accept(second.get(0), 0, 1L);
+        reassembler.accept(third.get(0), 0, 2L);
+        assertEquals(3, reassembler.getPending());
+
+        // the third datagram's buffer grows past the budget: the older ones go
+        byte[] done = null;
+        for (byte[] part : third.subList(1, third.size())) {
+            byte[] result = reassembler.accept(part, 0, 3L);
+            assertTrue(reassembler.getMemoryUsage() <= 700L);
+            done = result != null ? result : done;
+        }
+        assertNotNull(done);
+        assertEquals(2L, reassembler.getEvictions());
+        assertEquals(0, reassembler.getPending());
+        assertNull(reassembler.accept(first.get(1), 0, 4L));
+    }
+
+    @Test
+    public void lastFragmentShorterThanDataSeenDropsDatagram() {
+        List<byte[]> parts = fragments(payload(500, 11), 1, 7);
+        byte[] last = parts.get(parts.size() - 1).clone();
+        // claim the datagram ends at the last fragment's offset, before data already received
+        last[6] = 0;
+        last[7] = 1;
+        reassembler.accept(parts.get(2), 0, 0L);
+        assertNull(reassembler.accept(last, 0, 0L));
+        assertEquals(0, reassembler.getPending());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unalignedMiddleFragmentIsRejected() {
+        byte[] fragment = fragments(payload(500, 12), 1, 7).get(0).clone();
+        fragment[3] = (byte) (fragment[3] - 1);
+        reassembler.accept(fragment, 0, 0L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void truncatedFragmentIsRejected() {
+        reassembler.accept(new byte[10], 0, 0L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setTimeoutRejectsZero() {
+        reassembler.setTimeout(0L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setMemoryBudgetRejectsZero() {
+        reassembler.setMemoryBudget(0L);
+    }
+}
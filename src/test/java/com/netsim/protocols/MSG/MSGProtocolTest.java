@@ -1,5 +1,7 @@
 package com.netsim.protocols.MSG;
 
+import com.netsim.networkstack.PacketBuffer;
+
 import org.junit.Test;
 
 import java.nio.charset.StandardCharsets;
@@ -85,4 +87,25 @@ public class MSGProtocolTest {
         assertNotSame("Copy should not be same object", original, copy);
         assertEquals("Copy should be equal in content", original, copy);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testBufferPathMatchesByteArrayPath() {
+        MSGProtocol protocol = new MSGProtocol("Alice");
+        byte[] payload = "Hello, world!".getBytes(StandardCharsets.UTF_8);
+        PacketBuffer packet = PacketBuffer.forPayload(payload);
+        byte[] backing = packet.array();
+
+        protocol.encapsulateInPlace(packet);
+        assertArrayEquals(protocol.encapsulate(payload), packet.toByteArray());
+
+        protocol.decapsulateInPlace(packet);
+        assertArrayEquals(payload, packet.toByteArray());
+        assertSame("Header must be written in place", backing, packet.array());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBufferDecapsulateRejectsWrongPrefix() {
+        PacketBuffer packet = PacketBuffer.forPayload("Bob: hi".getBytes(StandardCharsets.UTF_8));
+        new MSGProtocol("Alice").decapsulateInPlace(packet);
+    }
+}
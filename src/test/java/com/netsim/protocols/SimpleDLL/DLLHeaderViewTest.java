@@ -0,0 +1,42 @@
+package com.netsim.protocols.SimpleDLL;
+
+import com.netsim.addresses.Mac;
+import com.netsim.networkstack.PacketBuffer;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DLLHeaderViewTest {
+
+    private final Mac src = new Mac("aa:bb:cc:00:00:01");
+    private final Mac dst = new Mac("aa:bb:cc:00:00:02");
+
+    @Test
+    public void readsAddressesAsPackedLongs() {
+        byte[] frame = new SimpleDLLProtocol(src, dst, SimpleDLLProtocol.ETHERTYPE_ARP).encapsulate(new byte[]{1, 2, 3});
+
+        DLLHeaderView view = new DLLHeaderView().wrap(frame, 0, frame.length);
+        assertEquals(dst.toLong(), view.getDestination());
+        assertEquals(src.toLong(), view.getSource());
+        assertEquals(SimpleDLLProtocol.ETHERTYPE_ARP, view.getEtherType());
+        assertTrue(view.isFor(dst));
+        assertFalse(view.isFor(src));
+        assertFalse(view.isBroadcast());
+    }
+
+    @Test
+    public void broadcastIsForEveryStation() {
+        PacketBuffer frame = PacketBuffer.forPayload(new byte[]{1, 2, 3});
+        new SimpleDLLProtocol(src, Mac.broadcast(), SimpleDLLProtocol.ETHERTYPE_ARP).encapsulateInPlace(frame);
+
+        DLLHeaderView view = new DLLHeaderView().wrap(frame);
+        assertTrue(view.isBroadcast());
+        assertTrue(view.isFor(src));
+        assertEquals(src.toLong(), DLLHeaderView.readSource(frame.array(), frame.offset()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrapRejectsTruncatedHeader() {
+        new DLLHeaderView().wrap(new byte[13], 0, 13);
+    }
+}
@@ -41,8 +41,10 @@ public class SimpleDLLFrameTest {
     public void getHeaderProducesDstThenSrcBytes() {
         SimpleDLLFrame frame = new SimpleDLLFrame(srcMac, dstMac, payloadBytes);
         byte[] header = frame.getHeader();
-        // Header must be exactly 12 bytes: 6 bytes of dstMac, then 6 bytes of srcMac
-        assertEquals(12, header.length);
+        // Header must be exactly 14 bytes: 6 bytes of dstMac, 6 bytes of srcMac, then the EtherType
+        assertEquals(14, header.length);
+        assertEquals(0x08, header[12]);
+        assertEquals(0x00, header[13]);
 
         byte[] expectedDst = dstMac.byteRepresentation();
         byte[] expectedSrc = srcMac.byteRepresentation();
@@ -63,8 +65,8 @@ public class SimpleDLLFrameTest {
         SimpleDLLFrame frame = new SimpleDLLFrame(srcMac, dstMac, payloadBytes);
         byte[] wire = frame.toByte();
 
-        // The wire‐format should be [12‐byte header][payloadBytes]
-        assertEquals(12 + payloadBytes.length, wire.length);
+        // The wire‐format should be [14‐byte header][payloadBytes]
+        assertEquals(14 + payloadBytes.length, wire.length);
 
         // Verify header portion
         byte[] expectedDst = dstMac.byteRepresentation();
@@ -80,7 +82,14 @@ public class SimpleDLLFrameTest {
         // Verify payload portion
         for (int i = 0; i < payloadBytes.length; i++) {
             assertEquals("Payload byte mismatch at index " + i,
-                         payloadBytes[i], wire[12 + i]);
+                         payloadBytes[i], wire[14 + i]);
         }
     }
+
+    @Test
+    public void etherTypeIsWrittenAfterTheMacs() {
+        SimpleDLLFrame frame = new SimpleDLLFrame(srcMac, dstMac, SimpleDLLProtocol.ETHERTYPE_ARP, payloadBytes);
+        assertEquals(SimpleDLLProtocol.ETHERTYPE_ARP, frame.getEtherType());
+        assertEquals(SimpleDLLProtocol.ETHERTYPE_ARP, DLLHeaderView.readEtherType(frame.toByte(), 0));
+    }
 }
\ No newline at end of file
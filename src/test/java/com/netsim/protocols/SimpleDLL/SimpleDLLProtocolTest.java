@@ -1,6 +1,7 @@
 package com.netsim.protocols.SimpleDLL;
 
 import com.netsim.addresses.Mac;
+import com.netsim.networkstack.PacketBuffer;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -68,7 +69,7 @@ public class SimpleDLLProtocolTest {
 
     @Test(expected = IllegalArgumentException.class)
     public void testDecapsulateRejectsTooShort() {
-        protocol.decapsulate(new byte[10]);
+        protocol.decapsulate(new byte[13]);
     }
 
     @Test
@@ -93,4 +94,54 @@ public class SimpleDLLProtocolTest {
         assertEquals(protocol.getSource(), copy.getSource());
         assertEquals(protocol.getDestination(), copy.getDestination());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testBufferPathMatchesByteArrayPath() {
+        byte[] ip = sampleIPv4Packet();
+        PacketBuffer packet = PacketBuffer.forPayload(ip);
+        byte[] backing = packet.array();
+
+        protocol.encapsulateInPlace(packet);
+        assertArrayEquals(protocol.encapsulate(ip), packet.toByteArray());
+
+        protocol.decapsulateInPlace(packet);
+        assertArrayEquals(ip, packet.toByteArray());
+        assertSame("Single frame must be handled in place", backing, packet.array());
+    }
+
+    @Test
+    public void testNonIPPayloadTravelsInOneFrame() {
+        SimpleDLLProtocol protocol = new SimpleDLLProtocol(srcMac, dstMac, SimpleDLLProtocol.ETHERTYPE_ARP);
+        byte[] arp = new byte[28];
+        arp[0] = 0x45; // looks like IPv4, but the EtherType says otherwise
+        arp[1] = 1;
+        arp[2] = 0x08;
+        byte[] framed = protocol.encapsulate(arp);
+        assertEquals(14 + arp.length, framed.length);
+        assertEquals(SimpleDLLProtocol.ETHERTYPE_ARP, DLLHeaderView.readEtherType(framed, 0));
+        assertArrayEquals(arp, protocol.decapsulate(framed));
+
+        PacketBuffer packet = PacketBuffer.forPayload(arp);
+        protocol.encapsulateInPlace(packet);
+        assertArrayEquals(framed, packet.toByteArray());
+        protocol.decapsulateInPlace(packet);
+        assertArrayEquals(arp, packet.toByteArray());
+    }
+
+    @Test
+    public void testUnframeReadsTheEtherTypeFromTheBytes() {
+        byte[] ip = sampleIPv4Packet();
+        PacketBuffer packet = PacketBuffer.forPayload(ip);
+        protocol.encapsulateInPlace(packet);
+
+        assertEquals(SimpleDLLProtocol.ETHERTYPE_IPV4, SimpleDLLProtocol.unframe(packet));
+        assertArrayEquals(ip, packet.toByteArray());
+    }
+
+    @Test
+    public void testCopyKeepsEtherType() {
+        SimpleDLLProtocol arp = new SimpleDLLProtocol(srcMac, dstMac, SimpleDLLProtocol.ETHERTYPE_ARP);
+        assertEquals(SimpleDLLProtocol.ETHERTYPE_IPV4, protocol.getEtherType());
+        assertEquals(SimpleDLLProtocol.ETHERTYPE_ARP, ((SimpleDLLProtocol) arp.copy()).getEtherType());
+    }
+}
@@ -0,0 +1,41 @@
+package com.netsim.protocols.UDP;
+
+import com.netsim.addresses.Port;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class UDPHeaderViewTest {
+
+    @Test
+    public void readsEverySegmentInPlace() {
+        UDPProtocol udp = new UDPProtocol(10, new Port("1234"), new Port("5678"));
+        byte[] wire = udp.encapsulate(new byte[15]);
+
+        UDPHeaderView view = new UDPHeaderView().wrap(wire, 0, wire.length);
+        assertEquals(1234, view.getSourcePort());
+        assertEquals(5678, view.getDestinationPort());
+        assertEquals(0, view.getSequenceNumber());
+        assertEquals(18 * Byte.SIZE, view.getLengthBits());
+        assertEquals(18, view.getLength());
+        assertEquals(10, view.getPayloadLength());
+        assertEquals(8, view.getPayloadOffset());
+
+        view.wrap(wire, 18, wire.length - 18);
+        assertEquals(1, view.getSequenceNumber());
+        assertEquals(5, view.getPayloadLength());
+        assertEquals(26, view.getPayloadOffset());
+    }
+
+    @Test
+    public void staticReadersMatchTheView() {
+        byte[] wire = new UDPProtocol(10, new Port("80"), new Port("443")).encapsulate(new byte[4]);
+        assertEquals(80, UDPHeaderView.readSourcePort(wire, 0));
+        assertEquals(443, UDPHeaderView.readDestinationPort(wire, 0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrapRejectsTruncatedHeader() {
+        new UDPHeaderView().wrap(new byte[10], 4, 6);
+    }
+}
@@ -1,6 +1,7 @@
 package com.netsim.protocols.UDP;
 
 import com.netsim.addresses.Port;
+import com.netsim.networkstack.PacketBuffer;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -101,4 +102,51 @@ public class UDPProtocolTest {
         assertEquals("Destination should match", udp.getDestination(), copy.getDestination());
         assertEquals("MSS should match", udp.getMSS(), copy.getMSS());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void bufferPathMatchesByteArrayPathForOneSegment() {
+        byte[] payload = samplePayload(10);
+        PacketBuffer packet = PacketBuffer.forPayload(payload);
+        byte[] backing = packet.array();
+
+        udp.encapsulateInPlace(packet);
+        assertArrayEquals(udp.encapsulate(payload), packet.toByteArray());
+
+        udp.decapsulateInPlace(packet);
+        assertArrayEquals(payload, packet.toByteArray());
+        assertSame("Single segment must be handled in place", backing, packet.array());
+    }
+
+    @Test
+    public void bufferPathSegmentsLargePayloads() {
+        byte[] payload = samplePayload(35);
+        PacketBuffer packet = PacketBuffer.forPayload(payload);
+
+        udp.encapsulateInPlace(packet);
+        assertArrayEquals(udp.encapsulate(payload), packet.toByteArray());
+
+        udp.decapsulateInPlace(packet);
+        assertArrayEquals(payload, packet.toByteArray());
+    }
+
+    @Test
+    public void extractReturnsConfiguredPortsWithoutBuildingNewOnes() {
+        byte[] encoded = udp.encapsulate(samplePayload(8));
+        assertSame(srcPort, udp.extractSource(encoded));
+        assertSame(dstPort, udp.extractDestination(encoded));
+
+        UDPProtocol other = new UDPProtocol(10, new Port("4000"), new Port("4001"));
+        assertEquals(new Port("4000"), udp.extractSource(other.encapsulate(samplePayload(8))));
+    }
+
+    @Test
+    public void decapsulateOrdersSegmentsBySequenceNumber() {
+        byte[] payload = samplePayload(25);
+        byte[] encoded = udp.encapsulate(payload);
+        // segments of 18, 18 and 13 bytes: move the last one first
+        byte[] reordered = new byte[encoded.length];
+        System.arraycopy(encoded, 36, reordered, 0, 13);
+        System.arraycopy(encoded, 0, reordered, 13, 36);
+        assertArrayEquals(payload, udp.decapsulate(reordered));
+    }
+}
@@ -0,0 +1,54 @@
+package com.netsim.table;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class AgingLongMapTest {
+    @Test
+    public void keysAreMaskedToTheirWidth() {
+        AgingLongMap map = new AgingLongMap(32);
+        map.put(0xFFFF_FFFFL, 7L, 0L);
+        assertEquals(7L, map.valueAt(map.indexOf(-1L)));
+        map.put(0L, 9L, 0L);
+        assertEquals("0 is a valid key", 9L, map.valueAt(map.indexOf(0L)));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    public void entriesSurviveGrowthAndRemovals() {
+        AgingLongMap map = new AgingLongMap(48);
+        for (long key = 0; key < 1000; key++) {
+            map.put(key * 0x1_0001L, key, 0L);
+        }
+        for (long key = 0; key < 1000; key += 2) {
+            map.removeAt(map.indexOf(key * 0x1_0001L));
+        }
+        assertEquals(500, map.size());
+        for (long key = 0; key < 1000; key++) {
+            int slot = map.indexOf(key * 0x1_0001L);
+            if (key % 2 == 0) {
+                assertEquals(-1, slot);
+            } else {
+                assertEquals(key, map.valueAt(slot));
+            }
+        }
+    }
+
+    @Test
+    public void agedEntriesAreRemovedButStaticOnesStay() {
+        AgingLongMap map = new AgingLongMap(32);
+        map.setAgingTime(100L);
+        for (long key = 1; key <= 40; key++) {
+            map.put(key, key, key <= 20 ? 0L : 50L);
+        }
+        map.put(99L, 1L, AgingLongMap.STATIC);
+
+        assertEquals(-1, map.find(1L, 100L));
+        assertTrue(map.find(21L, 100L) >= 0);
+        assertEquals(19, map.expire(100L));
+        assertEquals(21, map.size());
+        assertEquals(20, map.expire(1_000L));
+        assertTrue(map.find(99L, Long.MAX_VALUE - 1) >= 0);
+    }
+}
@@ -132,4 +132,91 @@ public class ArpTableTest {
         Mac remaining = arpTable.lookup(ip2);
         assertEquals("ip2 entry should still exist", mac2, remaining);
     }
+
+    // —— Tests for learned entries and aging —— //
+
+    @Test
+    public void learnedEntryAgesOut() {
+        arpTable.setAgingTime(100L);
+        arpTable.learn(ip1.toInt(), mac1.toLong(), 0L);
+        assertEquals(mac1.toLong(), arpTable.find(ip1.toInt(), 99L));
+        assertEquals(ArpTable.MISSING, arpTable.find(ip1.toInt(), 100L));
+        assertTrue(arpTable.isEmpty());
+    }
+
+    @Test
+    public void learnRefreshesAnEntry() {
+        arpTable.setAgingTime(100L);
+        arpTable.learn(ip1.toInt(), mac1.toLong(), 0L);
+        arpTable.learn(ip1.toInt(), mac2.toLong(), 80L);
+        assertEquals(mac2.toLong(), arpTable.find(ip1.toInt(), 150L));
+        assertEquals(1, arpTable.size());
+    }
+
+    @Test
+    public void staticEntriesNeverAge() {
+        arpTable.setAgingTime(100L);
+        arpTable.add(ip1, mac1);
+        arpTable.setGateway(mac2);
+        assertEquals(0, arpTable.expire(Long.MAX_VALUE - 1));
+        assertEquals(mac1.toLong(), arpTable.find(ip1.toInt(), 1_000_000L));
+        assertEquals(mac2, arpTable.gateway());
+    }
+
+    @Test
+    public void expireRemovesOnlyStaleEntries() {
+        arpTable.setAgingTime(100L);
+        for (int i = 0; i < 1000; i++) {
+            arpTable.learn(0x0A00_0000 + i, i, i % 2 == 0 ? 0L : 50L);
+        }
+        assertEquals(500, arpTable.expire(120L));
+        assertEquals(500, arpTable.size());
+        for (int i = 0; i < 1000; i++) {
+            long expected = i % 2 == 0 ? ArpTable.MISSING : i;
+            assertEquals(expected, arpTable.find(0x0A00_0000 + i, 120L));
+        }
+    }
+
+    @Test
+    public void holdsTensOfThousandsOfNeighbours() {
+        for (int i = 0; i < 50_000; i++) {
+            arpTable.learn(0x0A00_0000 + i * 7, 0xAABB_0000_0000L | i, 0L);
+        }
+        assertEquals(50_000, arpTable.size());
+        for (int i = 0; i < 50_000; i += 2) {
+            arpTable.remove(IPv4.fromInt(0x0A00_0000 + i * 7, 32));
+        }
+        for (int i = 0; i < 50_000; i++) {
+            long expected = i % 2 == 0 ? ArpTable.MISSING : 0xAABB_0000_0000L | i;
+            assertEquals(expected, arpTable.find(0x0A00_0000 + i * 7, 0L));
+        }
+    }
+
+    @Test
+    public void lookupIgnoresTheMask() {
+        arpTable.add(ip1, mac1);
+        assertEquals(mac1, arpTable.lookup(new IPv4("192.168.0.10", 24)));
+    }
+
+    @Test
+    public void lookupOrDefaultDoesNotThrow() {
+        arpTable.add(ip1, mac1);
+        assertEquals(mac1, arpTable.lookupOrDefault(ip1, mac2));
+        assertEquals(mac2, arpTable.lookupOrDefault(ip2, mac2));
+        assertNull(arpTable.lookupOrDefault(ip2, null));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setAgingTimeRejectsNegative() {
+        arpTable.setAgingTime(-1L);
+    }
+
+    @Test
+    public void clearEmptiesTheTable() {
+        arpTable.add(ip1, mac1);
+        arpTable.learn(ip2.toInt(), mac2.toLong(), 0L);
+        arpTable.clear();
+        assertEquals(0, arpTable.size());
+        assertEquals(ArpTable.MISSING, arpTable.find(ip1.toInt(), 0L));
+    }
 }
@@ -90,4 +90,73 @@ public class MacTableTest {
         // mac2 should still be present
         assertSame("mac2 should still map to adapter2", adapter2, macTable.lookup(mac2));
     }
-}
\ No newline at end of file
+
+    // —— Tests for learn(...) / find(...) —— //
+
+    @Test
+    public void learnedEntryIsFoundByPackedAddress() {
+        macTable.learn(mac1.toLong(), adapter1, 0L);
+        assertSame(adapter1, macTable.find(mac1.toLong(), 0L));
+        assertSame(adapter1, macTable.lookup(mac1));
+        assertNull(macTable.find(mac2.toLong(), 0L));
+    }
+
+    @Test
+    public void learnMovesAddressToNewPort() {
+        macTable.learn(mac1.toLong(), adapter1, 0L);
+        macTable.learn(mac1.toLong(), adapter2, 10L);
+        assertSame(adapter2, macTable.find(mac1.toLong(), 10L));
+        assertEquals(1, macTable.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void learnRejectsNullPort() {
+        macTable.learn(mac1.toLong(), null, 0L);
+    }
+
+    @Test
+    public void learnedEntriesAgeOut() {
+        macTable.setAgingTime(100L);
+        macTable.learn(mac1.toLong(), adapter1, 0L);
+        macTable.learn(mac2.toLong(), adapter2, 50L);
+        assertSame(adapter1, macTable.find(mac1.toLong(), 99L));
+        assertNull(macTable.find(mac1.toLong(), 100L));
+        assertEquals(1, macTable.size());
+        assertSame(adapter2, macTable.find(mac2.toLong(), 100L));
+    }
+
+    @Test
+    public void staticEntriesNeverAge() {
+        macTable.setAgingTime(100L);
+        macTable.add(mac1, adapter1);
+        macTable.learn(mac2.toLong(), adapter2, 0L);
+        assertEquals(1, macTable.expire(1_000L));
+        assertSame(adapter1, macTable.find(mac1.toLong(), 1_000L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setAgingTimeRejectsNegative() {
+        macTable.setAgingTime(-1L);
+    }
+
+    @Test
+    public void manyEntriesSurviveGrowthAndRemoval() {
+        macTable.setAgingTime(1_000L);
+        int entries = 5_000;
+        for (int i = 0; i < entries; i++) {
+            macTable.learn(0x020000000000L + i, (i & 1) == 0 ? adapter1 : adapter2, i % 2 == 0 ? 0L : 500L);
+        }
+        assertEquals(entries, macTable.size());
+        // every even address was seen at 0 and expires at 1000
+        assertEquals(entries / 2, macTable.expire(1_000L));
+        assertEquals(entries / 2, macTable.size());
+        for (int i = 0; i < entries; i++) {
+            NetworkAdapter port = macTable.find(0x020000000000L + i, 1_000L);
+            if ((i & 1) == 0) {
+                assertNull(port);
+            } else {
+                assertSame(adapter2, port);
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.netsim.table;
+
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.netsim.addresses.Mac;
+import com.netsim.network.CabledAdapter;
+
+public class PrefixTrieTest {
+    private PrefixTrie  trie;
+    private RoutingInfo a;
+    private RoutingInfo b;
+    private RoutingInfo c;
+
+    private static int ip(int o1, int o2, int o3, int o4) {
+        return (o1 << 24) | (o2 << 16) | (o3 << 8) | o4;
+    }
+
+    @Before
+    public void setUp() {
+        trie = new PrefixTrie();
+        a = new RoutingInfo(new CabledAdapter("eth0", 1500, new Mac("aa:bb:cc:00:00:01")), null);
+        b = new RoutingInfo(new CabledAdapter("eth1", 1500, new Mac("aa:bb:cc:00:00:02")), null);
+        c = new RoutingInfo(new CabledAdapter("eth2", 1500, new Mac("aa:bb:cc:00:00:03")), null);
+    }
+
+    @Test
+    public void emptyTrieMatchesNothing() {
+        assertNull(trie.lookup(ip(10, 0, 0, 1)));
+        assertEquals(0, trie.size());
+    }
+
+    @Test
+    public void longestPrefixWinsAcrossLevels() {
+        trie.insert(ip(10, 0, 0, 0), 8, a);
+        trie.insert(ip(10, 1, 0, 0), 20, b);
+        trie.insert(ip(10, 1, 2, 3), 32, c);
+
+        assertSame(a, trie.lookup(ip(10, 200, 0, 1)));
+        assertSame(b, trie.lookup(ip(10, 1, 15, 9)));
+        assertSame(c, trie.lookup(ip(10, 1, 2, 3)));
+        assertSame(b, trie.lookup(ip(10, 1, 2, 4)));
+        assertNull(trie.lookup(ip(11, 0, 0, 0)));
+    }
+
+    @Test
+    public void shorterPrefixInsertedLaterDoesNotHideLongerOne() {
+        trie.insert(ip(192, 168, 1, 0), 24, b);
+        trie.insert(ip(192, 168, 0, 0), 22, a);
+        assertSame(b, trie.lookup(ip(192, 168, 1, 77)));
+        assertSame(a, trie.lookup(ip(192, 168, 2, 77)));
+    }
+
+    @Test
+    public void hostBitsAreIgnored() {
+        trie.insert(ip(172, 16, 5, 9), 16, a);
+        assertSame(a, trie.get(ip(172, 16, 0, 0), 16));
+        assertSame(a, trie.lookup(ip(172, 16, 200, 1)));
+    }
+
+    @Test
+    public void defaultRouteMatchesEverything() {
+        trie.insert(0, 0, a);
+        trie.insert(ip(10, 0, 0, 0), 8, b);
+        assertSame(a, trie.lookup(ip(1, 2, 3, 4)));
+        assertSame(b, trie.lookup(ip(10, 2, 3, 4)));
+        assertSame(a, trie.remove(0, 0));
+        assertNull(trie.lookup(ip(1, 2, 3, 4)));
+    }
+
+    @Test
+    public void removeRestoresCoveringPrefix() {
+        trie.insert(ip(10, 0, 0, 0), 9, a);
+        trie.insert(ip(10, 0, 0, 0), 12, b);
+        trie.insert(ip(10, 0, 0, 0), 14, c);
+
+        assertSame(c, trie.remove(ip(10, 0, 0, 0), 14));
+        assertSame(b, trie.lookup(ip(10, 1, 0, 0)));
+        assertSame(b, trie.remove(ip(10, 0, 0, 0), 12));
+        assertSame(a, trie.lookup(ip(10, 1, 0, 0)));
+        assertNull(trie.remove(ip(10, 0, 0, 0), 12));
+        assertEquals(1, trie.size());
+    }
+
+    @Test
+    public void insertReplacesExistingPrefix() {
+        trie.insert(ip(10, 0, 0, 0), 8, a);
+        trie.insert(ip(10, 0, 0, 0), 8, b);
+        assertSame(b, trie.lookup(ip(10, 9, 9, 9)));
+        assertEquals(1, trie.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void insertRejectsInvalidPrefix() {
+        trie.insert(0, 33, a);
+    }
+
+    @Test
+    public void clearRemovesEverything() {
+        trie.insert(ip(10, 0, 0, 0), 8, a);
+        trie.insert(0, 0, b);
+        trie.clear();
+        assertNull(trie.lookup(ip(10, 0, 0, 1)));
+        assertEquals(0, trie.size());
+    }
+
+    @Test
+    public void matchesLinearScanOnRandomTable() {
+        Random rnd = new Random(42);
+        RoutingInfo[] infos = {a, b, c};
+        int     count    = 3000;
+        int[]   networks = new int[count];
+        int[]   prefixes = new int[count];
+        RoutingInfo[] routes = new RoutingInfo[count];
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            do {
+                prefixes[i] = 1 + rnd.nextInt(32);
+                networks[i] = rnd.nextInt() & (-1 << (32 - prefixes[i]));
+            } while (!seen.add(((long) networks[i] << 6) | prefixes[i]));
+            routes[i] = infos[rnd.nextInt(infos.length)];
+            trie.insert(networks[i], prefixes[i], routes[i]);
+        }
+        // drop a third of them to exercise removal
+        for (int i = 0; i < count; i += 3) {
+            trie.remove(networks[i], prefixes[i]);
+        }
+
+        for (int probe = 0; probe < 20000; probe++) {
+            // half of the probes land inside a known prefix
+            int addr = probe % 2 == 0
+                ? networks[rnd.nextInt(count)] | (rnd.nextInt() >>> 8)
+                : rnd.nextInt();
+            RoutingInfo expected = null;
+            int bestLen = -1;
+            for (int i = 0; i < count; i++) {
+                if (i % 3 == 0) {
+                    continue;
+                }
+                int mask = -1 << (32 - prefixes[i]);
+                if ((addr & mask) == networks[i] && prefixes[i] > bestLen) {
+                    expected = routes[i];
+                    bestLen  = prefixes[i];
+                }
+            }
+            assertSame("address " + Integer.toHexString(addr), expected, trie.lookup(addr));
+        }
+    }
+}
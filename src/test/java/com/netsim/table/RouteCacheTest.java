@@ -0,0 +1,102 @@
+package com.netsim.table;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.netsim.addresses.IPv4;
+import com.netsim.addresses.Mac;
+import com.netsim.network.CabledAdapter;
+
+public class RouteCacheTest {
+    private RoutingTable table;
+    private RouteCache   cache;
+    private RoutingInfo  lan;
+    private RoutingInfo  wan;
+
+    @Before
+    public void setUp() {
+        table = new RoutingTable();
+        cache = new RouteCache();
+        lan   = new RoutingInfo(new CabledAdapter("eth0", 1500, new Mac("aa:bb:cc:00:00:01")), null);
+        wan   = new RoutingInfo(new CabledAdapter("eth1", 1500, new Mac("aa:bb:cc:00:00:02")), null);
+        table.add(new IPv4("10.0.0.0", 8), lan);
+    }
+
+    private static int addr(String dotted) {
+        return new IPv4(dotted, 32).toInt();
+    }
+
+    @Test
+    public void repeatedLookupsHitTheCache() {
+        assertSame(lan, cache.lookup(table, addr("10.1.2.3")));
+        assertSame(lan, cache.lookup(table, addr("10.1.2.3")));
+        assertSame(lan, cache.lookup(table, addr("10.1.2.3")));
+        assertEquals(1L, cache.getMisses());
+        assertEquals(2L, cache.getHits());
+        assertEquals(2.0 / 3.0, cache.getHitRatio(), 1e-9);
+    }
+
+    @Test
+    public void unroutableDestinationsAreCachedAsNull() {
+        assertNull(cache.lookup(table, addr("192.168.1.1")));
+        assertNull(cache.lookup(table, addr("192.168.1.1")));
+        assertEquals(1L, cache.getMisses());
+        assertEquals(1L, cache.getHits());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void routeChangeInvalidatesCachedEntries() {
+        assertNull(cache.lookup(table, addr("192.168.1.1")));
+        assertSame(lan, cache.lookup(table, addr("10.1.2.3")));
+
+        table.add(new IPv4("192.168.1.0", 24), wan);
+        table.add(new IPv4("10.1.0.0", 16), wan);
+        assertSame(wan, cache.lookup(table, addr("192.168.1.1")));
+        assertSame(wan, cache.lookup(table, addr("10.1.2.3")));
+        assertEquals(1L, cache.getInvalidations());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void anotherTableInvalidatesCachedEntries() {
+        RoutingTable other = new RoutingTable();
+        other.add(new IPv4("10.0.0.0", 8), wan);
+        assertSame(lan, cache.lookup(table, addr("10.1.2.3")));
+        assertSame(wan, cache.lookup(other, addr("10.1.2.3")));
+    }
+
+    @Test
+    public void cacheStaysWithinCapacityAndAnswersCorrectly() {
+        RouteCache small = new RouteCache(8);
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 100; i++) {
+                assertSame(lan, small.lookup(table, addr("10.0." + i + ".1")));
+                assertNull(small.lookup(table, addr("11.0." + i + ".1")));
+            }
+        }
+        assertTrue(small.size() <= small.capacity());
+        assertEquals(600L, small.getHits() + small.getMisses());
+    }
+
+    @Test
+    public void invalidateEmptiesTheCache() {
+        cache.lookup(table, addr("10.1.2.3"));
+        cache.invalidate();
+        assertEquals(0, cache.size());
+        cache.lookup(table, addr("10.1.2.3"));
+        assertEquals(2L, cache.getMisses());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructorRejectsCapacityNotPowerOfTwo() {
+        new RouteCache(100);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void lookupRejectsNullTable() {
+        cache.lookup(null, 0);
+    }
+}
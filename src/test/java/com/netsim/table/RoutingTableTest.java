@@ -2,6 +2,9 @@ package com.netsim.table;
 
 import static org.junit.Assert.*;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -50,6 +53,22 @@ public class RoutingTableTest {
         assertSame("lookup should return the exact RoutingInfo instance", info1, retrieved);
     }
 
+    @Test
+    public void lookupPrefersLongestPrefix() {
+        routingTable.add(new IPv4("10.0.0.0", 8), info1);
+        routingTable.add(dest2, info2);
+        assertSame(info2, routingTable.lookup(new IPv4("10.0.0.7", 32)));
+        assertSame(info1, routingTable.lookup(new IPv4("10.1.2.3", 32)));
+    }
+
+    @Test
+    public void lookupFallsBackToDefaultRoute() {
+        routingTable.setDefault(info1);
+        routingTable.add(dest2, info2);
+        assertSame(info1, routingTable.lookup(new IPv4("8.8.8.8", 32)));
+        assertSame(info2, routingTable.lookup(new IPv4("10.0.0.1", 32)));
+    }
+
     // —— Tests for add(...) —— //
 
     @Test(expected = IllegalArgumentException.class)
@@ -106,6 +125,14 @@ public class RoutingTableTest {
         assertSame(info2, routingTable.lookup(dest2));
     }
 
+    @Test
+    public void removeMoreSpecificRouteExposesShorterOne() {
+        routingTable.add(new IPv4("10.0.0.0", 8), info1);
+        routingTable.add(dest2, info2);
+        routingTable.remove(dest2);
+        assertSame(info1, routingTable.lookup(new IPv4("10.0.0.7", 32)));
+    }
+
     // —— Tests for size() and clear() —— //
 
     @Test
@@ -138,4 +165,81 @@ public class RoutingTableTest {
             fail("Expected NullPointerException after clear");
         } catch (NullPointerException ignored) {}
     }
-}
\ No newline at end of file
+
+    // —— Tests for update(...) and concurrent readers —— //
+
+    @Test
+    public void updatePublishesAllChangesAtOnce() {
+        routingTable.add(dest1, info1);
+        long before = routingTable.getGeneration();
+        routingTable.update(t -> {
+            t.remove(dest1);
+            t.add(dest2, info2);
+            t.setDefault(info1);
+            // still answering from the previous FIB
+            assertSame(info1, t.lookup(new IPv4("192.168.1.9", 32)));
+            assertEquals(1, t.size());
+        });
+        assertEquals(before + 1, routingTable.getGeneration());
+        assertEquals(2, routingTable.size());
+        assertSame(info2, routingTable.lookup(new IPv4("10.0.0.9", 32)));
+        assertSame(info1, routingTable.lookup(new IPv4("192.168.1.9", 32)));
+    }
+
+    @Test
+    public void updatePublishesChangesMadeBeforeAnException() {
+        try {
+            routingTable.update(t -> {
+                t.add(dest1, info1);
+                t.add(dest1, info2);
+            });
+            fail("duplicate route should throw");
+        } catch (RuntimeException expected) {
+            // the first add is kept
+        }
+        assertSame(info1, routingTable.lookup(dest1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void updateRejectsNullChanges() {
+        routingTable.update(null);
+    }
+
+    @Test
+    public void lookupsNeverSeeHalfAppliedUpdates() throws InterruptedException {
+        final int routes = 5_000;
+        IPv4 probe = new IPv4("10.1.2.3", 32);
+        routingTable.add(new IPv4("10.0.0.0", 8), info1);
+
+        AtomicBoolean               stop    = new AtomicBoolean();
+        AtomicReference<Throwable>  failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            try {
+                while (!stop.get()) {
+                    RoutingInfo found = routingTable.lookup(probe);
+                    if (found != info1 && found != info2) {
+                        throw new AssertionError("unexpected route " + found);
+                    }
+                }
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        reader.start();
+        for (int round = 0; round < 20; round++) {
+            RoutingInfo via = round % 2 == 0 ? info2 : info1;
+            routingTable.update(t -> {
+                t.clear();
+                for (int i = 0; i < routes; i++) {
+                    t.add(new IPv4("20." + (i >> 8) + "." + (i & 0xFF) + ".0", 24), via);
+                }
+                t.add(new IPv4("10.0.0.0", 8), via);
+            });
+        }
+        stop.set(true);
+        reader.join(10_000L);
+
+        assertNull(failure.get());
+        assertEquals(routes + 1, routingTable.size());
+    }
+}
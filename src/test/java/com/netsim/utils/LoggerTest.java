@@ -1,31 +1,97 @@
 package com.netsim.utils;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.After;
 import org.junit.Test;
 
 public class LoggerTest {
+    private Path tempLog;
+
     @Test
     public void testLog() throws IOException {
         Logger logger = Logger.getInstance();
         String testMsg = "DIRECT_LOG_TEST";
 
         logger.log(testMsg);
+        logger.flush();
         Path logPath = Paths.get(logger.getFilename());
         List<String> lines = Files.readAllLines(logPath);
 
         assertEquals("Message written must match", lines.get(lines.size()-1), testMsg);
     }
 
+    @Test
+    public void testLevelsBelowThresholdAreSkipped() throws IOException {
+        tempLog = Files.createTempFile("netsim-logger", ".log");
+        Logger logger = new Logger(tempLog, false, Logger.Level.INFO);
+        AtomicBoolean built = new AtomicBoolean(false);
+
+        logger.debug(() -> {
+            built.set(true);
+            return "hidden";
+        });
+        logger.debug("hidden");
+        logger.info(() -> "shown");
+        logger.error("failed");
+        logger.flush();
+
+        assertFalse("Disabled level must not build its message", built.get());
+        assertFalse(logger.isDebugEnabled());
+        assertTrue(logger.isInfoEnabled());
+        List<String> lines = Files.readAllLines(tempLog);
+        assertEquals(List.of("LOGGER  INFO:\tshown", "LOGGER ERROR:\tfailed"), lines);
+    }
+
+    @Test
+    public void testConcurrentWritersKeepPerThreadOrder() throws Exception {
+        tempLog = Files.createTempFile("netsim-logger", ".log");
+        Logger logger = new Logger(tempLog, false, Logger.Level.DEBUG);
+        int threads = 4;
+        int perThread = 5_000;
+
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            workers.add(new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    logger.log(id + ":" + i);
+                }
+            }));
+        }
+        for (Thread w : workers) {
+            w.start();
+        }
+        for (Thread w : workers) {
+            w.join();
+        }
+        logger.flush();
+
+        List<String> lines = Files.readAllLines(tempLog);
+        assertEquals(threads * perThread, lines.size());
+        int[] next = new int[threads];
+        for (String line : lines) {
+            String[] parts = line.split(":");
+            int id = Integer.parseInt(parts[0]);
+            assertEquals("Messages of one thread must stay in order", next[id]++, Integer.parseInt(parts[1]));
+        }
+    }
+
     @After
-    public void resetSingleton() {
+    public void resetSingleton() throws IOException {
         Logger.reset();
+        if (tempLog != null) {
+            Files.deleteIfExists(tempLog);
+        }
     }
 }